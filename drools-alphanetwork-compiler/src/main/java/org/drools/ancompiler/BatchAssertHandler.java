@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.ancompiler;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.drools.base.rule.IndexableConstraint;
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.common.PropagationContext;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.reteoo.AlphaNode;
+import org.drools.core.reteoo.BetaNode;
+import org.drools.core.reteoo.LeftInputAdapterNode;
+import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.core.reteoo.Sink;
+import org.drools.core.reteoo.WindowNode;
+import org.drools.core.util.index.AlphaRangeIndex;
+
+/**
+ * This handler creates the batch entry point of a generated subclass of {@link CompiledNetwork}, that is the
+ * propagateAssertObjects method receiving all the facts of the same type inserted together.
+ * <p/>
+ * Instead of walking the network once per fact, the generated code walks it once per batch, computing for each
+ * {@link AlphaNode} a {@link MatchBitmap} of the facts it accepts:
+ * <li>the hashed field is extracted once for the whole batch into an int column, holding either the value itself,
+ * when the field is a primitive int, or the id of the hashed alpha matching it, and every hashed alpha is then
+ * evaluated with a branch free loop over that column</li>
+ * <li>the range index is queried once per fact, setting the bit of each matching alpha</li>
+ * <li>non hashed alphas evaluate their constraint on the facts accepted by their parent</li>
+ * The sinks receive the facts they accept with a single {@link org.drools.core.reteoo.ObjectSink#assertObjects} call.
+ */
+public class BatchAssertHandler extends AbstractCompilerHandler {
+
+    private static final String MATCHES_VAR_NAME = "matches";
+    private static final String COLUMN_VAR_NAME = "column";
+    private static final String BITMAP = MatchBitmap.class.getCanonicalName();
+
+    private final StringBuilder builder = new StringBuilder();
+
+    /**
+     * The name of the bitmap of the node currently being visited, on top of the ones of its ancestors
+     */
+    private final Deque<String> matches = new ArrayDeque<>();
+
+    private String currentColumn;
+    private boolean currentColumnHoldsValues;
+    private int columnCounter;
+
+    @Override
+    public void startObjectTypeNode(ObjectTypeNode objectTypeNode) {
+        builder.append("public final void propagateAssertObjects(")
+                .append(InternalFactHandle.class.getCanonicalName()).append("[] handles, ")
+                .append(PropagationContext.class.getCanonicalName()).append("[] contexts, ")
+                .append(ReteEvaluator.class.getCanonicalName()).append(" wm) {").append(NEWLINE);
+        builder.append("if(logger.isDebugEnabled()) {").append(NEWLINE)
+                .append("    logger.debug(\"propagateAssertObjects of {} facts on compiled alpha network {}\", handles.length, wm);").append(NEWLINE)
+                .append("}").append(NEWLINE);
+        builder.append("if (handles.length == 0) {").append(NEWLINE)
+                .append("    return;").append(NEWLINE)
+                .append("}").append(NEWLINE);
+        builder.append("long[] ").append(MATCHES_VAR_NAME).append(" = ").append(BITMAP).append(".all(handles.length);").append(NEWLINE);
+        matches.push(MATCHES_VAR_NAME);
+    }
+
+    @Override
+    public void endObjectTypeNode(ObjectTypeNode objectTypeNode) {
+        matches.pop();
+        builder.append("}").append(NEWLINE);
+    }
+
+    @Override
+    public void startNonHashedAlphaNode(AlphaNode alphaNode) {
+        String alphaMatches = getMatchesVariableName(alphaNode);
+        builder.append("long[] ").append(alphaMatches).append(" = ").append(BITMAP).append(".filter(")
+                .append(matches.peek()).append(", ").append(getVariableName(alphaNode)).append(", handles, wm);").append(NEWLINE);
+        startMatchedBlock(alphaMatches);
+    }
+
+    @Override
+    public void endNonHashedAlphaNode(AlphaNode alphaNode) {
+        endMatchedBlock();
+    }
+
+    @Override
+    public void startBetaNode(BetaNode betaNode) {
+        propagate(betaNode);
+    }
+
+    @Override
+    public void startWindowNode(WindowNode windowNode) {
+        propagate(windowNode);
+    }
+
+    @Override
+    public void startLeftInputAdapterNode(LeftInputAdapterNode leftInputAdapterNode) {
+        propagate(leftInputAdapterNode);
+    }
+
+    private void propagate(Sink sink) {
+        if (sinkCanBeInlined(sink)) {
+            builder.append("for (int i = ").append(BITMAP).append(".nextSetBit(").append(matches.peek()).append(", 0); i >= 0; i = ")
+                    .append(BITMAP).append(".nextSetBit(").append(matches.peek()).append(", i + 1)) {").append(NEWLINE)
+                    .append("    ").append(getVariableName(sink)).append(".collectObject();").append(NEWLINE)
+                    .append("}").append(NEWLINE);
+        } else {
+            builder.append(BITMAP).append(".propagate(").append(matches.peek()).append(", ").append(getVariableName(sink))
+                    .append(", handles, contexts, wm);").append(NEWLINE);
+        }
+    }
+
+    @Override
+    public void startHashedAlphaNodes(IndexableConstraint indexableConstraint) {
+        currentColumn = COLUMN_VAR_NAME + columnCounter++;
+        currentColumnHoldsValues = indexableConstraint.getFieldExtractor().getExtractToClass() == int.class;
+
+        builder.append("int[] ").append(currentColumn).append(" = new int[handles.length];").append(NEWLINE);
+        if (!currentColumnHoldsValues) {
+            builder.append("java.util.Arrays.fill(").append(currentColumn).append(", -1);").append(NEWLINE);
+        }
+        builder.append("for (int i = ").append(BITMAP).append(".nextSetBit(").append(matches.peek()).append(", 0); i >= 0; i = ")
+                .append(BITMAP).append(".nextSetBit(").append(matches.peek()).append(", i + 1)) {").append(NEWLINE);
+        if (currentColumnHoldsValues) {
+            builder.append("    ").append(currentColumn).append("[i] = readAccessor.getIntValue(wm, handles[i].getObject());").append(NEWLINE);
+        } else {
+            builder.append("    Integer nodeId = (Integer) ").append(getVariableName()).append(".get(readAccessor.getValue(handles[i].getObject()));").append(NEWLINE)
+                    .append("    if (nodeId != null) {").append(NEWLINE)
+                    .append("        ").append(currentColumn).append("[i] = nodeId.intValue();").append(NEWLINE)
+                    .append("    }").append(NEWLINE);
+        }
+        builder.append("}").append(NEWLINE);
+    }
+
+    @Override
+    public void startHashedAlphaNode(AlphaNode hashedAlpha, Object hashedValue) {
+        int key = currentColumnHoldsValues ? ((Number) hashedValue).intValue() : hashedAlpha.getId();
+        startHashedMatches(hashedAlpha, key);
+    }
+
+    @Override
+    public void endHashedAlphaNode(AlphaNode hashedAlpha, Object hashedValue) {
+        endMatchedBlock();
+    }
+
+    @Override
+    public void nullCaseAlphaNodeStart(AlphaNode hashedAlpha) {
+        if (currentColumnHoldsValues) {
+            throw new CouldNotCreateAlphaNetworkCompilerException("A primitive int field cannot be hashed on a null value");
+        }
+        startHashedMatches(hashedAlpha, hashedAlpha.getId());
+    }
+
+    @Override
+    public void nullCaseAlphaNodeEnd(AlphaNode hashedAlpha) {
+        endMatchedBlock();
+    }
+
+    private void startHashedMatches(AlphaNode hashedAlpha, int key) {
+        String alphaMatches = getMatchesVariableName(hashedAlpha);
+        builder.append("long[] ").append(alphaMatches).append(" = ").append(BITMAP).append(".equalTo(")
+                .append(matches.peek()).append(", ").append(currentColumn).append(", ").append(key).append(");").append(NEWLINE);
+        startMatchedBlock(alphaMatches);
+    }
+
+    @Override
+    public void startRangeIndex(AlphaRangeIndex alphaRangeIndex) {
+        String rangeIndexVariableName = getRangeIndexVariableName(alphaRangeIndex, getMinIdFromRangeIndex(alphaRangeIndex));
+
+        for (AlphaNode alphaNode : alphaRangeIndex.getAllValues()) {
+            builder.append("long[] ").append(getMatchesVariableName(alphaNode)).append(" = new long[")
+                    .append(matches.peek()).append(".length];").append(NEWLINE);
+        }
+        builder.append("for (int i = ").append(BITMAP).append(".nextSetBit(").append(matches.peek()).append(", 0); i >= 0; i = ")
+                .append(BITMAP).append(".nextSetBit(").append(matches.peek()).append(", i + 1)) {").append(NEWLINE)
+                .append("    for (").append(AlphaNode.class.getCanonicalName()).append(" node : ").append(rangeIndexVariableName)
+                .append(".getMatchingAlphaNodes(handles[i].getObject())) {").append(NEWLINE)
+                .append("        switch (node.getId()) {").append(NEWLINE);
+        for (AlphaNode alphaNode : alphaRangeIndex.getAllValues()) {
+            builder.append("            case ").append(alphaNode.getId()).append(": ")
+                    .append(BITMAP).append(".set(").append(getMatchesVariableName(alphaNode)).append(", i); break;").append(NEWLINE);
+        }
+        builder.append("        }").append(NEWLINE)
+                .append("    }").append(NEWLINE)
+                .append("}").append(NEWLINE);
+    }
+
+    @Override
+    public void startRangeIndexedAlphaNode(AlphaNode alphaNode) {
+        startMatchedBlock(getMatchesVariableName(alphaNode));
+    }
+
+    @Override
+    public void endRangeIndexedAlphaNode(AlphaNode alphaNode) {
+        endMatchedBlock();
+    }
+
+    private void startMatchedBlock(String alphaMatches) {
+        builder.append("if (!").append(BITMAP).append(".isEmpty(").append(alphaMatches).append(")) {").append(NEWLINE);
+        matches.push(alphaMatches);
+    }
+
+    private void endMatchedBlock() {
+        matches.pop();
+        builder.append("}").append(NEWLINE);
+    }
+
+    private static String getMatchesVariableName(AlphaNode alphaNode) {
+        return MATCHES_VAR_NAME + alphaNode.getId();
+    }
+
+    public String emitCode() {
+        return builder.toString();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.ancompiler;
+
+import org.drools.base.rule.constraint.AlphaNodeFieldConstraint;
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.common.PropagationContext;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.reteoo.ObjectSink;
+
+/**
+ * Runtime support for the batch entry point generated by the {@link BatchAssertHandler}.
+ * <p/>
+ * The matches of a node over a batch of facts are kept in a bitmap, one bit per position in the batch, so that
+ * the hashed alpha nodes can be evaluated with tight loops over a column of values extracted once for the whole batch.
+ */
+public final class MatchBitmap {
+
+    private MatchBitmap() { }
+
+    /**
+     * Returns a bitmap where all the positions of a batch of the given size are set
+     */
+    public static long[] all(int size) {
+        long[] bitmap = new long[(size + 63) >>> 6];
+        for (int w = 0; w < bitmap.length; w++) {
+            bitmap[w] = -1L;
+        }
+        int remainder = size & 63;
+        if (remainder != 0) {
+            bitmap[bitmap.length - 1] = (1L << remainder) - 1;
+        }
+        return bitmap;
+    }
+
+    public static boolean isEmpty(long[] bitmap) {
+        for (long word : bitmap) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int count(long[] bitmap) {
+        int count = 0;
+        for (long word : bitmap) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the first set position starting from the given one (inclusive), or -1 if there is none
+     */
+    public static int nextSetBit(long[] bitmap, int from) {
+        int w = from >>> 6;
+        if (w >= bitmap.length) {
+            return -1;
+        }
+        long word = bitmap[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == bitmap.length) {
+                return -1;
+            }
+            word = bitmap[w];
+        }
+    }
+
+    public static void set(long[] bitmap, int position) {
+        bitmap[position >>> 6] |= 1L << position;
+    }
+
+    /**
+     * Evaluates a non hashed constraint on the facts matched by the parent node
+     */
+    public static long[] filter(long[] parent, AlphaNodeFieldConstraint constraint, InternalFactHandle[] handles, ReteEvaluator reteEvaluator) {
+        long[] result = new long[parent.length];
+        for (int i = nextSetBit(parent, 0); i >= 0; i = nextSetBit(parent, i + 1)) {
+            if (constraint.isAllowed(handles[i], reteEvaluator)) {
+                set(result, i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the positions of the column equal to the given value among the ones matched by the parent node.
+     * The loop is branch free, so that it can be vectorized.
+     */
+    public static long[] equalTo(long[] parent, int[] column, int value) {
+        long[] result = new long[parent.length];
+        for (int w = 0; w < parent.length; w++) {
+            int base = w << 6;
+            int end = Math.min(base + 64, column.length);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                word |= (column[i] == value ? 1L : 0L) << (i - base);
+            }
+            result[w] = word & parent[w];
+        }
+        return result;
+    }
+
+    /**
+     * Propagates the matched facts to the sink with a single call
+     */
+    public static void propagate(long[] matches, ObjectSink sink, InternalFactHandle[] handles, PropagationContext[] contexts, ReteEvaluator reteEvaluator) {
+        int count = count(matches);
+        if (count == 0) {
+            return;
+        }
+        if (count == handles.length) {
+            sink.assertObjects(handles, contexts, reteEvaluator);
+            return;
+        }
+        InternalFactHandle[] matchedHandles = new InternalFactHandle[count];
+        PropagationContext[] matchedContexts = new PropagationContext[count];
+        int j = 0;
+        for (int i = nextSetBit(matches, 0); i >= 0; i = nextSetBit(matches, i + 1)) {
+            matchedHandles[j] = handles[i];
+            matchedContexts[j++] = contexts[i];
+        }
+        sink.assertObjects(matchedHandles, matchedContexts, reteEvaluator);
+    }
+}
@@ -158,6 +158,13 @@ public class ObjectTypeNodeCompiler {
         parser.accept(assertHandler);
         builder.append(assertHandler.emitCode());
 
+        // create the batch assert method, inlined networks only collect results one fact at a time
+        if (!shouldInline) {
+            BatchAssertHandler batchAssertHandler = new BatchAssertHandler();
+            parser.accept(batchAssertHandler);
+            builder.append(batchAssertHandler.emitCode());
+        }
+
         ModifyHandler modifyHandler = new ModifyHandler(className, !hashedAlphaDeclarations.isEmpty());
         if (ancConfiguration.isEnableModifyObject()) {
             parser.accept(modifyHandler);
@@ -231,4 +231,75 @@ public class RangeIndexANCTest extends BaseModelTest {
         assertThat(results).containsOnly("test1", "test2", "test3");
         results.clear();
     }
+
+    @ParameterizedTest(name = "{0}")
+	@MethodSource("parameters")
+    public void testInsertAllMixedRangeHashAndOther(RUN_TYPE testRunType) {
+        final String drl = "package org.drools.compiler.test\n" +
+                           "import " + Person.class.getCanonicalName() + "\n" +
+                           "global java.util.List results;\n" +
+                           "rule test1\n when\n" +
+                           "   $p : Person( age >= 18 )\n" +
+                           "then\n" +
+                           "   results.add(drools.getRule().getName() + $p.getName());" +
+                           "end\n" +
+                           "rule test2\n when\n" +
+                           "   $p : Person( age < 25 )\n" +
+                           "then\n" +
+                           "   results.add(drools.getRule().getName() + $p.getName());" +
+                           "end\n" +
+                           "rule test3\n when\n" +
+                           "   $p : Person( age > 8 )\n" +
+                           "then\n" +
+                           "   results.add(drools.getRule().getName() + $p.getName());" +
+                           "end\n" +
+                           "rule test4\n when\n" +
+                           "   $p : Person( age == 60 )\n" +
+                           "then\n" +
+                           "   results.add(drools.getRule().getName() + $p.getName());" +
+                           "end\n" +
+                           "rule test5\n when\n" +
+                           "   $p : Person( age == 12 )\n" +
+                           "then\n" +
+                           "   results.add(drools.getRule().getName() + $p.getName());" +
+                           "end\n" +
+                           "rule test6\n when\n" +
+                           "   $p : Person( age == 4 )\n" +
+                           "then\n" +
+                           "   results.add(drools.getRule().getName() + $p.getName());" +
+                           "end\n" +
+                           "rule test7\n when\n" +
+                           "   $p : Person( age != 18 )\n" +
+                           "then\n" +
+                           "   results.add(drools.getRule().getName() + $p.getName());" +
+                           "end\n" +
+                           "rule test8\n when\n" +
+                           "   $p1 : Person( age > 8 )\n" +
+                           "   $p2 : Person( this != $p1, age == $p1.age )\n" +
+                           "then\n" +
+                           "   results.add(drools.getRule().getName() + $p1.getName() + $p2.getName());" +
+                           "end\n";
+
+        final KieBase kbase = createKieBaseWithRangeIndexThresholdValue(testRunType, drl, 3);
+
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            persons.add(new Person("P" + i, (i * 4) % 64));
+        }
+
+        final KieSession singleSession = kbase.newKieSession();
+        List<String> singleResults = new ArrayList<>();
+        singleSession.setGlobal("results", singleResults);
+        persons.forEach(singleSession::insert);
+        int singleFired = singleSession.fireAllRules();
+
+        final KieSession batchSession = kbase.newKieSession();
+        List<String> batchResults = new ArrayList<>();
+        batchSession.setGlobal("results", batchResults);
+        batchSession.insertAll(persons);
+        int batchFired = batchSession.fireAllRules();
+
+        assertThat(batchFired).isEqualTo(singleFired);
+        assertThat(batchResults).containsExactlyInAnyOrderElementsOf(singleResults);
+    }
 }
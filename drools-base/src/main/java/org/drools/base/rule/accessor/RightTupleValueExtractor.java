@@ -30,6 +30,10 @@ public class RightTupleValueExtractor implements TupleValueExtractor {
         this.extractor = extractor;
     }
 
+    public ReadAccessor getExtractor() {
+        return extractor;
+    }
+
     @Override
     public ValueType getValueType() {
         return extractor.getValueType();
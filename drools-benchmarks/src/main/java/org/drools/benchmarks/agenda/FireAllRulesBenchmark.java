@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.benchmarks.agenda;
+
+import java.util.concurrent.TimeUnit;
+
+import org.drools.benchmarks.common.BenchmarkUtil;
+import org.drools.benchmarks.common.BenchmarkUtil.KieBaseType;
+import org.drools.benchmarks.common.DrlGenerator;
+import org.drools.benchmarks.domain.Customer;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the agenda evaluation of fireAllRules: the facts are inserted outside of the measured time, so that the
+ * benchmark covers the lazy evaluation of the rule networks, the agenda groups stack and the firing of the matches.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FireAllRulesBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class RuleBase {
+
+        @Param({"64"})
+        private int numberOfRules;
+
+        @Param({"1", "16"})
+        private int numberOfAgendaGroups;
+
+        @Param({"DRL", "EXEC_MODEL"})
+        private KieBaseType type;
+
+        private KieBase kieBase;
+
+        @Setup(Level.Trial)
+        public void buildKieBase() {
+            kieBase = BenchmarkUtil.buildKieBase(type, DrlGenerator.agendaGroupRules(numberOfRules, numberOfAgendaGroups));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        @Param({"1000"})
+        private int numberOfFacts;
+
+        private KieSession ksession;
+
+        @Setup(Level.Invocation)
+        public void createSession(RuleBase ruleBase) {
+            ksession = ruleBase.kieBase.newKieSession();
+            for (Customer customer : BenchmarkUtil.createCustomers(numberOfFacts)) {
+                ksession.insert(customer);
+            }
+            // the focus stack is a LIFO, so G0 is the first group to fire
+            for (int i = ruleBase.numberOfAgendaGroups - 1; i >= 0; i--) {
+                ksession.getAgenda().getAgendaGroup("G" + i).setFocus();
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void dispose() {
+            ksession.dispose();
+        }
+    }
+
+    @Benchmark
+    public int fireAllRules(Session session) {
+        return session.ksession.fireAllRules();
+    }
+}
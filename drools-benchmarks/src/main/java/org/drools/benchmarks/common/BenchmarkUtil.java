@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.benchmarks.common;
+
+import org.drools.benchmarks.domain.Customer;
+import org.drools.benchmarks.domain.Order;
+import org.drools.compiler.kie.builder.impl.DrlProject;
+import org.drools.model.codegen.ExecutableModelProject;
+import org.kie.api.KieBase;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.conf.KieBaseOption;
+import org.kie.api.io.ResourceType;
+import org.kie.internal.utils.KieHelper;
+
+public final class BenchmarkUtil {
+
+    public enum KieBaseType {
+
+        DRL(DrlProject.class), EXEC_MODEL(ExecutableModelProject.class);
+
+        private final Class<? extends KieBuilder.ProjectType> projectType;
+
+        KieBaseType(Class<? extends KieBuilder.ProjectType> projectType) {
+            this.projectType = projectType;
+        }
+
+        public Class<? extends KieBuilder.ProjectType> getProjectType() {
+            return projectType;
+        }
+    }
+
+    private BenchmarkUtil() { }
+
+    public static KieBase buildKieBase(KieBaseType type, String drl, KieBaseOption... options) {
+        return new KieHelper().addContent(drl, ResourceType.DRL).build(type.getProjectType(), options);
+    }
+
+    public static Customer[] createCustomers(int numberOfCustomers) {
+        Customer[] customers = new Customer[numberOfCustomers];
+        for (int i = 0; i < numberOfCustomers; i++) {
+            customers[i] = new Customer(i, "C" + (i % 512), i % 300);
+        }
+        return customers;
+    }
+
+    public static Order[] createOrders(int numberOfCustomers, int ordersPerCustomer) {
+        Order[] orders = new Order[numberOfCustomers * ordersPerCustomer];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new Order(i, i % numberOfCustomers, i % 1000);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.benchmarks.common;
+
+import org.drools.benchmarks.domain.Customer;
+import org.drools.benchmarks.domain.Order;
+
+/**
+ * Generates the rules used by the benchmarks, so that the size of the networks can be parametrized.
+ */
+public final class DrlGenerator {
+
+    private DrlGenerator() { }
+
+    /**
+     * Alpha only rules, one equality constraint on the category of the customer each, so that
+     * the object type node propagates through the hashed sinks of the CompositeObjectSinkAdapter,
+     * plus the same number of range constraints on the age that are evaluated one by one.
+     */
+    public static String alphaRules(int numberOfRules) {
+        StringBuilder sb = header();
+        for (int i = 0; i < numberOfRules; i++) {
+            sb.append("rule Category").append(i).append(" when\n")
+              .append("  Customer( category == \"C").append(i).append("\" )\n")
+              .append("then end\n")
+              .append("rule Age").append(i).append(" when\n")
+              .append("  Customer( age > ").append(i).append(" )\n")
+              .append("then end\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Rules joining customers and orders through an indexed equality constraint, followed by
+     * a not and an exists so that all the kinds of beta nodes are exercised.
+     */
+    public static String joinRules(int numberOfRules) {
+        StringBuilder sb = header();
+        for (int i = 0; i < numberOfRules; i++) {
+            sb.append("rule Join").append(i).append(" when\n")
+              .append("  $c : Customer( age > ").append(i).append(" )\n")
+              .append("  $o : Order( customerId == $c.id, amount > ").append(i * 10).append(" )\n")
+              .append("  not Order( customerId == $c.id, amount < 0 )\n")
+              .append("  exists Customer( category == $c.category, id != $c.id )\n")
+              .append("then end\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Rules joining a customer with a chain of its orders, each one with a greater id than the previous one,
+     * and finally with an order that can't exist, so that all the partial matches die at the last join
+     * without being propagated further.
+     */
+    public static String chainRules(int numberOfRules, int chainLength) {
+        StringBuilder sb = header();
+        for (int i = 0; i < numberOfRules; i++) {
+            sb.append("rule Chain").append(i).append(" when\n")
+              .append("  $c : Customer( age > ").append(i).append(" )\n")
+              .append("  $o1 : Order( customerId == $c.id )\n");
+            for (int j = 2; j <= chainLength; j++) {
+                sb.append("  $o").append(j).append(" : Order( customerId == $c.id, id > $o").append(j - 1).append(".id )\n");
+            }
+            sb.append("  Order( customerId == $c.id, amount > $o").append(chainLength).append(".amount + 1000 )\n")
+              .append("then end\n");
+        }
+        return sb.toString();
+    }
+
+    public static String accumulateRules(int numberOfRules) {
+        StringBuilder sb = header();
+        for (int i = 0; i < numberOfRules; i++) {
+            sb.append("rule Accumulate").append(i).append(" when\n")
+              .append("  $c : Customer( age > ").append(i).append(" )\n")
+              .append("  accumulate( Order( customerId == $c.id, $amount : amount ); $total : sum( $amount ), $count : count() )\n")
+              .append("then end\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * GroupBy is only supported by the executable model.
+     */
+    public static String groupByRules(int numberOfRules) {
+        StringBuilder sb = header();
+        for (int i = 0; i < numberOfRules; i++) {
+            sb.append("rule GroupBy").append(i).append(" when\n")
+              .append("  groupby( $o : Order( amount > ").append(i).append(" ); $key : $o.getCustomerId() % 100; ")
+              .append("$total : sum( $o.getAmount() ) )\n")
+              .append("then end\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Rules spread on the given number of agenda groups, each one activated once per customer.
+     */
+    public static String agendaGroupRules(int numberOfRules, int numberOfAgendaGroups) {
+        StringBuilder sb = header();
+        for (int i = 0; i < numberOfRules; i++) {
+            sb.append("rule Group").append(i).append(" agenda-group \"G").append(i % numberOfAgendaGroups).append("\" when\n")
+              .append("  Customer( age > ").append(i).append(" )\n")
+              .append("then end\n");
+        }
+        return sb.toString();
+    }
+
+    private static StringBuilder header() {
+        return new StringBuilder()
+                .append("package org.drools.benchmarks;\n")
+                .append("import ").append(Customer.class.getCanonicalName()).append(";\n")
+                .append("import ").append(Order.class.getCanonicalName()).append(";\n");
+    }
+}
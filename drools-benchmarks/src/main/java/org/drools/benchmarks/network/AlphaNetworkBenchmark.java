@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.benchmarks.network;
+
+import java.util.concurrent.TimeUnit;
+
+import org.drools.benchmarks.common.BenchmarkUtil;
+import org.drools.benchmarks.common.BenchmarkUtil.KieBaseType;
+import org.drools.benchmarks.common.DrlGenerator;
+import org.drools.benchmarks.domain.Customer;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the time to insert, update and delete a batch of facts through the alpha network, that is
+ * from the EntryPointNode to the ObjectTypeNode and then through the CompositeObjectSinkAdapter
+ * to the alpha nodes. No rule is fired.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AlphaNetworkBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class RuleBase {
+
+        @Param({"16", "256"})
+        private int numberOfRules;
+
+        @Param({"DRL", "EXEC_MODEL"})
+        private KieBaseType type;
+
+        private KieBase kieBase;
+
+        @Setup(Level.Trial)
+        public void buildKieBase() {
+            kieBase = BenchmarkUtil.buildKieBase(type, DrlGenerator.alphaRules(numberOfRules));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EmptySession {
+
+        @Param({"10000"})
+        private int numberOfFacts;
+
+        private KieSession ksession;
+        private Customer[] customers;
+
+        @Setup(Level.Invocation)
+        public void createSession(RuleBase ruleBase) {
+            ksession = ruleBase.kieBase.newKieSession();
+            customers = BenchmarkUtil.createCustomers(numberOfFacts);
+        }
+
+        @TearDown(Level.Invocation)
+        public void dispose() {
+            ksession.dispose();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PopulatedSession {
+
+        @Param({"10000"})
+        private int numberOfFacts;
+
+        private KieSession ksession;
+        private Customer[] customers;
+        private FactHandle[] handles;
+
+        @Setup(Level.Invocation)
+        public void createSession(RuleBase ruleBase) {
+            ksession = ruleBase.kieBase.newKieSession();
+            customers = BenchmarkUtil.createCustomers(numberOfFacts);
+            handles = new FactHandle[numberOfFacts];
+            for (int i = 0; i < numberOfFacts; i++) {
+                handles[i] = ksession.insert(customers[i]);
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void dispose() {
+            ksession.dispose();
+        }
+    }
+
+    @Benchmark
+    public void insert(EmptySession session, Blackhole eater) {
+        for (Customer customer : session.customers) {
+            eater.consume(session.ksession.insert(customer));
+        }
+    }
+
+    @Benchmark
+    public void update(PopulatedSession session) {
+        for (int i = 0; i < session.handles.length; i++) {
+            Customer customer = session.customers[i];
+            customer.setAge(customer.getAge() + 1);
+            session.ksession.update(session.handles[i], customer, "age");
+        }
+    }
+
+    @Benchmark
+    public void delete(PopulatedSession session) {
+        for (FactHandle handle : session.handles) {
+            session.ksession.delete(handle);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.benchmarks.network;
+
+import java.util.concurrent.TimeUnit;
+
+import org.drools.benchmarks.common.BenchmarkUtil;
+import org.drools.benchmarks.common.BenchmarkUtil.KieBaseType;
+import org.drools.benchmarks.common.DrlGenerator;
+import org.drools.benchmarks.domain.Customer;
+import org.drools.benchmarks.domain.Order;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluation of beta networks: joins, not and exists nodes (PhreakJoinNode, PhreakNotNode, PhreakExistsNode)
+ * and accumulates (PhreakAccumulateNode). Each invocation inserts the customers and then the orders in a new session
+ * and fires all the rules, then updates a part of the orders and fires again.
+ * See GroupByBenchmark for the group by, that is available only with the executable model.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BetaNetworkBenchmark {
+
+    public enum Network {
+        JOIN, ACCUMULATE
+    }
+
+    @State(Scope.Benchmark)
+    public static class RuleBase {
+
+        @Param({"JOIN", "ACCUMULATE"})
+        private Network network;
+
+        @Param({"8", "64"})
+        private int numberOfRules;
+
+        @Param({"DRL", "EXEC_MODEL"})
+        private KieBaseType type;
+
+        private KieBase kieBase;
+
+        @Setup(Level.Trial)
+        public void buildKieBase() {
+            String drl = network == Network.JOIN ? DrlGenerator.joinRules(numberOfRules) : DrlGenerator.accumulateRules(numberOfRules);
+            kieBase = BenchmarkUtil.buildKieBase(type, drl);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        @Param({"1000"})
+        private int numberOfCustomers;
+
+        @Param({"10"})
+        private int ordersPerCustomer;
+
+        private KieSession ksession;
+        private Customer[] customers;
+        private Order[] orders;
+
+        @Setup(Level.Invocation)
+        public void createSession(RuleBase ruleBase) {
+            ksession = ruleBase.kieBase.newKieSession();
+            customers = BenchmarkUtil.createCustomers(numberOfCustomers);
+            orders = BenchmarkUtil.createOrders(numberOfCustomers, ordersPerCustomer);
+        }
+
+        @TearDown(Level.Invocation)
+        public void dispose() {
+            ksession.dispose();
+        }
+    }
+
+    @Benchmark
+    public int insertFireUpdateFire(Session session) {
+        return insertFireUpdateFire(session.ksession, session.customers, session.orders);
+    }
+
+    static int insertFireUpdateFire(KieSession ksession, Customer[] customers, Order[] orders) {
+        for (Customer customer : customers) {
+            ksession.insert(customer);
+        }
+        FactHandle[] orderHandles = new FactHandle[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            orderHandles[i] = ksession.insert(orders[i]);
+        }
+        int fired = ksession.fireAllRules();
+
+        for (int i = 0; i < orders.length; i += 10) {
+            Order order = orders[i];
+            order.setAmount(order.getAmount() + 100);
+            ksession.update(orderHandles[i], order, "amount");
+        }
+        return fired + ksession.fireAllRules();
+    }
+}
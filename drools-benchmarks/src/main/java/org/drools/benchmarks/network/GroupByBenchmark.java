@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.benchmarks.network;
+
+import java.util.concurrent.TimeUnit;
+
+import org.drools.benchmarks.common.BenchmarkUtil;
+import org.drools.benchmarks.common.BenchmarkUtil.KieBaseType;
+import org.drools.benchmarks.common.DrlGenerator;
+import org.drools.benchmarks.domain.Customer;
+import org.drools.benchmarks.domain.Order;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluation of the PhreakGroupByNode with the same workload of BetaNetworkBenchmark.
+ * The group by is only available with the executable model, so this benchmark isn't parametrized by KieBase type.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GroupByBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class RuleBase {
+
+        @Param({"8", "64"})
+        private int numberOfRules;
+
+        private KieBase kieBase;
+
+        @Setup(Level.Trial)
+        public void buildKieBase() {
+            kieBase = BenchmarkUtil.buildKieBase(KieBaseType.EXEC_MODEL, DrlGenerator.groupByRules(numberOfRules));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        @Param({"1000"})
+        private int numberOfCustomers;
+
+        @Param({"10"})
+        private int ordersPerCustomer;
+
+        private KieSession ksession;
+        private Customer[] customers;
+        private Order[] orders;
+
+        @Setup(Level.Invocation)
+        public void createSession(RuleBase ruleBase) {
+            ksession = ruleBase.kieBase.newKieSession();
+            customers = BenchmarkUtil.createCustomers(numberOfCustomers);
+            orders = BenchmarkUtil.createOrders(numberOfCustomers, ordersPerCustomer);
+        }
+
+        @TearDown(Level.Invocation)
+        public void dispose() {
+            ksession.dispose();
+        }
+    }
+
+    @Benchmark
+    public int insertFireUpdateFire(Session session) {
+        return BetaNetworkBenchmark.insertFireUpdateFire(session.ksession, session.customers, session.orders);
+    }
+}
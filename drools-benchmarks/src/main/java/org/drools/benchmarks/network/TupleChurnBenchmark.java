@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.benchmarks.network;
+
+import java.util.concurrent.TimeUnit;
+
+import org.drools.benchmarks.common.BenchmarkUtil;
+import org.drools.benchmarks.common.BenchmarkUtil.KieBaseType;
+import org.drools.benchmarks.common.DrlGenerator;
+import org.drools.benchmarks.domain.Customer;
+import org.drools.benchmarks.domain.Order;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.internal.conf.TuplePoolSizeOption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the sustained insert and delete churn through deep chains of joins (PhreakJoinNode doLeftInserts,
+ * doRightInserts and doLeftDeletes), with and without the recycling of the deleted join tuples.
+ * The customers stay in the session, while each invocation inserts the orders, fires, deletes them and fires again.
+ * Run it with -prof gc to compare the allocation rates.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TupleChurnBenchmark {
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        @Param({"4"})
+        private int numberOfRules;
+
+        @Param({"5"})
+        private int chainLength;
+
+        @Param({"-1", "4096"})
+        private int tuplePoolSize;
+
+        @Param({"DRL", "EXEC_MODEL"})
+        private KieBaseType type;
+
+        @Param({"500"})
+        private int numberOfCustomers;
+
+        @Param({"6"})
+        private int ordersPerCustomer;
+
+        private KieSession ksession;
+        private Order[] orders;
+        private FactHandle[] orderHandles;
+
+        @Setup(Level.Trial)
+        public void createSession() {
+            KieBase kieBase = BenchmarkUtil.buildKieBase(type, DrlGenerator.chainRules(numberOfRules, chainLength),
+                                                         TuplePoolSizeOption.get(tuplePoolSize));
+            ksession = kieBase.newKieSession();
+            for (Customer customer : BenchmarkUtil.createCustomers(numberOfCustomers)) {
+                ksession.insert(customer);
+            }
+            ksession.fireAllRules();
+            orders = BenchmarkUtil.createOrders(numberOfCustomers, ordersPerCustomer);
+            orderHandles = new FactHandle[orders.length];
+        }
+
+        @TearDown(Level.Trial)
+        public void dispose() {
+            ksession.dispose();
+        }
+    }
+
+    @Benchmark
+    public int insertFireDeleteFire(Session session) {
+        KieSession ksession = session.ksession;
+        for (int i = 0; i < session.orders.length; i++) {
+            session.orderHandles[i] = ksession.insert(session.orders[i]);
+        }
+        int fired = ksession.fireAllRules();
+        for (FactHandle orderHandle : session.orderHandles) {
+            ksession.delete(orderHandle);
+        }
+        return fired + ksession.fireAllRules();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.benchmarks.session;
+
+import java.util.concurrent.TimeUnit;
+
+import org.drools.benchmarks.common.BenchmarkUtil;
+import org.drools.benchmarks.common.BenchmarkUtil.KieBaseType;
+import org.drools.benchmarks.common.DrlGenerator;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionsPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the creation and disposal of a new session with the acquisition of a session from a KieSessionsPool,
+ * that is reset and pushed back into the pool when disposed.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SessionCreationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class RuleBase {
+
+        @Param({"64"})
+        private int numberOfRules;
+
+        @Param({"DRL", "EXEC_MODEL"})
+        private KieBaseType type;
+
+        private KieBase kieBase;
+        private KieSessionsPool pool;
+
+        @Setup(Level.Trial)
+        public void buildKieBase() {
+            kieBase = BenchmarkUtil.buildKieBase(type, DrlGenerator.joinRules(numberOfRules));
+            pool = kieBase.newKieSessionsPool(Runtime.getRuntime().availableProcessors());
+        }
+
+        @TearDown(Level.Trial)
+        public void shutdown() {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public KieSession newKieSession(RuleBase ruleBase) {
+        KieSession ksession = ruleBase.kieBase.newKieSession();
+        ksession.dispose();
+        return ksession;
+    }
+
+    @Benchmark
+    public KieSession pooledKieSession(RuleBase ruleBase) {
+        KieSession ksession = ruleBase.pool.newKieSession();
+        ksession.dispose();
+        return ksession;
+    }
+}
@@ -18,12 +18,16 @@
  */
 package org.drools.compiler.builder.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
+import org.drools.compiler.builder.impl.resources.DrlResourceHandler;
 import org.drools.compiler.builder.impl.resources.ResourceHandler;
 import org.drools.compiler.lang.descr.CompositePackageDescr;
 import org.drools.drl.ast.descr.PackageDescr;
@@ -32,14 +36,17 @@ import org.kie.api.builder.ReleaseId;
 import org.kie.api.io.Resource;
 import org.kie.api.io.ResourceType;
 import org.kie.internal.builder.KnowledgeBuilderResult;
+import org.kie.internal.builder.conf.ParallelPackagesBuildOption;
 
 public class PackageDescrBuilder {
     private final BuildResultCollector buildResultCollector;
+    private final KnowledgeBuilderConfigurationImpl configuration;
     private ResourceHandlerManager handlerManager;
     private RuntimeException buildException;
 
     public PackageDescrBuilder(KnowledgeBuilderConfigurationImpl configuration, ReleaseId releaseId, Supplier<DefaultExpander> dslExpander) {
         this.buildResultCollector = new BuildResultCollectorImpl();
+        this.configuration = configuration;
         this.handlerManager = new ResourceHandlerManager(configuration,releaseId,dslExpander);
     }
 
@@ -68,6 +75,10 @@ public class PackageDescrBuilder {
             Map<ResourceType, List<CompositeKnowledgeBuilderImpl.ResourceDescr>> resourcesByType) {
         List<CompositeKnowledgeBuilderImpl.ResourceDescr> resourceDescrs = resourcesByType.remove(resourceType);
         if (resourceDescrs != null) {
+            if (resourceDescrs.size() > 1 && mapper instanceof DrlResourceHandler && isParallelParsing()) {
+                parseInParallel(packages, (DrlResourceHandler) mapper, resourceDescrs);
+                return;
+            }
             for (CompositeKnowledgeBuilderImpl.ResourceDescr resourceDescr : resourceDescrs) {
                 try {
                     PackageDescr packageDescr = mapper.process(resourceDescr.resource, resourceDescr.configuration);
@@ -86,6 +97,53 @@ public class PackageDescrBuilder {
         }
     }
 
+    private boolean isParallelParsing() {
+        return configuration.getOption(ParallelPackagesBuildOption.KEY).isPackagesBuildParallel();
+    }
+
+    private void parseInParallel(Map<String, CompositePackageDescr> packages, DrlResourceHandler handler, List<CompositeKnowledgeBuilderImpl.ResourceDescr> resourceDescrs) {
+        ParsedResource[] parsed = new ParsedResource[resourceDescrs.size()];
+        try {
+            KnowledgeBuilderImpl.ForkJoinPoolHolder.COMPILER_POOL.submit(() ->
+                    IntStream.range(0, parsed.length).parallel()
+                            .forEach(i -> parsed[i] = parse(handler, resourceDescrs.get(i)))
+            ).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Resources parsing failed or interrupted", e);
+        }
+
+        // merge in resource order, so the composite descrs are the same of a sequential parsing
+        for (int i = 0; i < parsed.length; i++) {
+            if (parsed[i].exception != null) {
+                if (buildException == null) {
+                    buildException = parsed[i].exception;
+                }
+                continue;
+            }
+            parsed[i].results.forEach(buildResultCollector::addBuilderResult);
+            CompositeKnowledgeBuilderImpl.ResourceDescr resourceDescr = resourceDescrs.get(i);
+            registerPackageDescr(resourceDescr, packages, resourceDescr.resource, parsed[i].packageDescr);
+        }
+    }
+
+    private ParsedResource parse(DrlResourceHandler handler, CompositeKnowledgeBuilderImpl.ResourceDescr resourceDescr) {
+        ParsedResource parsed = new ParsedResource();
+        try {
+            // the handler keeps its own results in a field, so the ones of each resource are collected apart
+            parsed.packageDescr = handler.process(resourceDescr.resource, resourceDescr.configuration, parsed.results);
+        } catch (RuntimeException e) {
+            parsed.exception = e;
+        } catch (Exception e) {
+            parsed.exception = new RuntimeException( e );
+        }
+        return parsed;
+    }
+
+    private static class ParsedResource {
+        private PackageDescr packageDescr;
+        private final Collection<KnowledgeBuilderResult> results = new ArrayList<>();
+        private RuntimeException exception;
+    }
 
     private void registerPackageDescr(
             CompositeKnowledgeBuilderImpl.ResourceDescr resourceDescr, Map<String, CompositePackageDescr> packages, Resource resource, PackageDescr packageDescr) {
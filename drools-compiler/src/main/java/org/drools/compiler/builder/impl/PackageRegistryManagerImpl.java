@@ -41,6 +41,7 @@ import org.kie.internal.builder.KnowledgeBuilderConfiguration;
 import org.kie.internal.builder.KnowledgeBuilderResult;
 import org.kie.internal.builder.conf.DefaultDialectOption;
 import org.kie.internal.builder.conf.DefaultPackageNameOption;
+import org.kie.internal.builder.conf.ParallelPackagesBuildOption;
 
 import static org.drools.util.StringUtils.isEmpty;
 
@@ -195,11 +196,28 @@ public class PackageRegistryManagerImpl implements PackageRegistryManager, Packa
 
     @Override
     public void compileAll() {
+        if (this.pkgRegistryMap.size() > 1 && this.configuration.getOption(ParallelPackagesBuildOption.KEY).isPackagesBuildParallel()) {
+            compileAllInParallel();
+            return;
+        }
         for (PackageRegistry pkgRegistry : this.pkgRegistryMap.values()) {
             pkgRegistry.compileAll();
         }
     }
 
+    private void compileAllInParallel() {
+        // every package has its own dialects, each one with its own compiler and class store,
+        // and the results are still collected by getResults() walking the registries in order
+        List<PackageRegistry> pkgRegistries = new ArrayList<>(this.pkgRegistryMap.values());
+        try {
+            KnowledgeBuilderImpl.ForkJoinPoolHolder.COMPILER_POOL.submit(() ->
+                    pkgRegistries.parallelStream().forEach(PackageRegistry::compileAll)
+            ).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Packages compilation failed or interrupted", e);
+        }
+    }
+
     @Override
     public void reloadAll() {
         for (PackageRegistry pkgRegistry : this.pkgRegistryMap.values()) {
@@ -268,6 +268,7 @@ public class ImmutableRuleCompilationPhase extends AbstractPackageCompilationPha
         boolean parallelRulesBuild = parallelRulesBuild(rules);
         if (parallelRulesBuild) {
             Map<String, RuleBuildContext> ruleCxts = new ConcurrentHashMap<>();
+            Map<String, List<? extends KnowledgeBuilderResult>> ruleResults = new ConcurrentHashMap<>();
             try {
                 KnowledgeBuilderImpl.ForkJoinPoolHolder.COMPILER_POOL.submit(() ->
                         rules.stream().parallel()
@@ -278,20 +279,23 @@ public class ImmutableRuleCompilationPhase extends AbstractPackageCompilationPha
                                     ruleCxts.put(ruleDescr.getName(), context);
                                     List<? extends KnowledgeBuilderResult> results = addRule(context);
                                     if (!results.isEmpty()) {
-                                        synchronized (this.results) {
-                                            this.results.addAll(results);
-                                        }
+                                        ruleResults.put(ruleDescr.getName(), results);
                                     }
                                 })
                 ).get();
             } catch (InterruptedException | ExecutionException e) {
                 throw new RuntimeException("Rules compilation failed or interrupted", e);
             }
+            // rules and results are added following the rules order, regardless of the order in which they have been built
             for (RuleDescr ruleDescr : rules) {
                 RuleBuildContext context = ruleCxts.get(ruleDescr.getName());
                 if (context != null) {
                     pkgRegistry.getPackage().addRule(context.getRule());
                 }
+                List<? extends KnowledgeBuilderResult> results = ruleResults.get(ruleDescr.getName());
+                if (results != null) {
+                    this.results.addAll(results);
+                }
             }
         } else {
             for (RuleDescr ruleDescr : rules) {
@@ -19,6 +19,7 @@
 package org.drools.compiler.builder.impl.resources;
 
 import java.io.IOException;
+import java.util.Collection;
 
 import org.drools.compiler.builder.impl.KnowledgeBuilderConfigurationImpl;
 import org.drools.drl.ast.descr.PackageDescr;
@@ -29,6 +30,7 @@ import org.drools.io.DescrResource;
 import org.kie.api.io.Resource;
 import org.kie.api.io.ResourceConfiguration;
 import org.kie.api.io.ResourceType;
+import org.kie.internal.builder.KnowledgeBuilderResult;
 import org.kie.internal.builder.conf.LanguageLevelOption;
 
 public class DrlResourceHandler extends ResourceHandler {
@@ -46,6 +48,14 @@ public class DrlResourceHandler extends ResourceHandler {
     }
 
     public PackageDescr process(Resource resource, ResourceConfiguration resourceConfig) throws DroolsParserException, IOException {
+        return process(resource, resourceConfig, this.results);
+    }
+
+    /**
+     * Parses the resource adding the parser errors to the given results instead of the ones of this handler,
+     * so that the same handler can parse different resources concurrently.
+     */
+    public PackageDescr process(Resource resource, ResourceConfiguration resourceConfig, Collection<KnowledgeBuilderResult> results) throws DroolsParserException, IOException {
         PackageDescr pkg;
         boolean hasErrors = false;
         if (resource instanceof DescrResource) {
@@ -53,9 +63,9 @@ public class DrlResourceHandler extends ResourceHandler {
         } else {
             final DrlParser parser = new DrlParser(this.configuration.getOption(LanguageLevelOption.KEY));
             pkg = parser.parse(resource);
-            this.results.addAll(parser.getErrors());
+            results.addAll(parser.getErrors());
             if (pkg == null) {
-                this.results.add(new ParserError(resource, "Parser returned a null Package", 0, 0));
+                results.add(new ParserError(resource, "Parser returned a null Package", 0, 0));
             }
             hasErrors = parser.hasErrors();
         }
@@ -21,6 +21,8 @@ package org.drools.core;
 import org.drools.core.time.TimerService;
 import org.drools.core.time.impl.JDKTimerService;
 import org.drools.core.time.impl.PseudoClockScheduler;
+import org.drools.core.time.impl.TimingWheelPseudoClockScheduler;
+import org.drools.core.time.impl.TimingWheelTimerService;
 
 /**
  * This enum represents all engine supported clocks
@@ -31,6 +33,10 @@ public enum ClockType {
         public JDKTimerService createInstance() {
             return new JDKTimerService();
         }
+
+        public TimingWheelTimerService createTimingWheelInstance() {
+            return new TimingWheelTimerService();
+        }
     },
 
     /**
@@ -41,9 +47,18 @@ public enum ClockType {
         public PseudoClockScheduler createInstance() {
             return new PseudoClockScheduler();
         }
+
+        public TimingWheelPseudoClockScheduler createTimingWheelInstance() {
+            return new TimingWheelPseudoClockScheduler();
+        }
     };
 
     public abstract TimerService createInstance();
+
+    /**
+     * Creates a TimerService for this clock scheduling its jobs on a timing wheel
+     */
+    public abstract TimerService createTimingWheelInstance();
     
     private String string;
     ClockType( String string ) {
@@ -45,6 +45,7 @@ import org.kie.api.conf.SingleValueKieBaseOption;
 import org.kie.api.runtime.rule.ConsequenceExceptionHandler;
 import org.kie.internal.conf.AlphaRangeIndexThresholdOption;
 import org.kie.internal.conf.AlphaThresholdOption;
+import org.kie.internal.conf.BetaIndexSkewThresholdOption;
 import org.kie.internal.conf.CompositeConfiguration;
 import org.kie.internal.conf.CompositeKeyDepthOption;
 import org.kie.internal.conf.ConsequenceExceptionHandlerOption;
@@ -53,8 +54,10 @@ import org.kie.internal.conf.IndexLeftBetaMemoryOption;
 import org.kie.internal.conf.IndexPrecedenceOption;
 import org.kie.internal.conf.IndexRightBetaMemoryOption;
 import org.kie.internal.conf.MaxThreadsOption;
+import org.kie.internal.conf.ParallelLeftInsertThresholdOption;
 import org.kie.internal.conf.ParallelExecutionOption;
 import org.kie.internal.conf.SequentialAgendaOption;
+import org.kie.internal.conf.TuplePoolSizeOption;
 import org.kie.internal.conf.ShareAlphaNodesOption;
 import org.kie.internal.conf.ShareBetaNodesOption;
 import org.slf4j.Logger;
@@ -101,6 +104,9 @@ import org.slf4j.LoggerFactory;
  * drools.declarativeAgendaEnabled =  &lt;true|false&gt;
  * drools.permgenThreshold = &lt;1...n&gt;
  * drools.jittingThreshold = &lt;1...n&gt;
+ * drools.parallelLeftInsertThreshold = &lt;-1|1...n&gt;
+ * drools.betaIndexSkewThreshold = &lt;-1|1...n&gt;
+ * drools.tuplePoolSize = &lt;-1|1...n&gt;
  * </pre>
  */
 public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, SingleValueKieBaseOption, MultiValueKieBaseOption>
@@ -152,6 +158,17 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
     private ParallelExecutionOption parallelExecution;
     private int     maxThreads;
 
+    // minimum size of a batch of left inserts in a join, not or exists node
+    // to have its tuples matched against the right memory in parallel
+    private int     parallelLeftInsertThreshold;
+
+    // max average number of tuples for each key of an equality indexed beta memory
+    // before re-keying it with the equality constraints left out of its index
+    private int     betaIndexSkewThreshold;
+
+    // max number of deleted join tuples kept by each segment memory to be reused
+    private int     tuplePoolSize;
+
     private ConflictResolver conflictResolver;
 
     private Map<String, ActivationListenerFactory> activationListeners;
@@ -209,6 +226,12 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
 
         setMaxThreads( Integer.parseInt( getPropertyValue( MaxThreadsOption.PROPERTY_NAME, "3" ) ) );
 
+        setParallelLeftInsertThreshold( Integer.parseInt( getPropertyValue( ParallelLeftInsertThresholdOption.PROPERTY_NAME, "" + ParallelLeftInsertThresholdOption.DEFAULT_VALUE ) ) );
+
+        setBetaIndexSkewThreshold( Integer.parseInt( getPropertyValue( BetaIndexSkewThresholdOption.PROPERTY_NAME, "" + BetaIndexSkewThresholdOption.DEFAULT_VALUE ) ) );
+
+        setTuplePoolSize( Integer.parseInt( getPropertyValue( TuplePoolSizeOption.PROPERTY_NAME, "" + TuplePoolSizeOption.DEFAULT_VALUE ) ) );
+
         setEventProcessingMode( EventProcessingOption.determineEventProcessingMode( getPropertyValue( EventProcessingOption.PROPERTY_NAME, "cloud" ) ) );
 
         setPrototypesOption( PrototypesOption.determinePrototypesOption( getPropertyValue( PrototypesOption.PROPERTY_NAME, "disabled" ) ) );
@@ -271,6 +294,11 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
         eventProcessingMode = (EventProcessingOption) in.readObject();
         declarativeAgenda = in.readBoolean();
         sessionPoolSize = in.readInt();
+        // not part of the externalized form, so that configurations written by previous releases can still be read:
+        // only the value configured through the properties is restored
+        parallelLeftInsertThreshold = Integer.parseInt( getPropertyValue( ParallelLeftInsertThresholdOption.PROPERTY_NAME, "" + ParallelLeftInsertThresholdOption.DEFAULT_VALUE ) );
+        betaIndexSkewThreshold = Integer.parseInt( getPropertyValue( BetaIndexSkewThresholdOption.PROPERTY_NAME, "" + BetaIndexSkewThresholdOption.DEFAULT_VALUE ) );
+        tuplePoolSize = Integer.parseInt( getPropertyValue( TuplePoolSizeOption.PROPERTY_NAME, "" + TuplePoolSizeOption.DEFAULT_VALUE ) );
     }
 
     @SuppressWarnings("unchecked")
@@ -340,6 +368,15 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
             case MaxThreadsOption.PROPERTY_NAME: {
                 return (T) MaxThreadsOption.get(getMaxThreads());
             }
+            case ParallelLeftInsertThresholdOption.PROPERTY_NAME: {
+                return (T) ParallelLeftInsertThresholdOption.get(getParallelLeftInsertThreshold());
+            }
+            case BetaIndexSkewThresholdOption.PROPERTY_NAME: {
+                return (T) BetaIndexSkewThresholdOption.get(getBetaIndexSkewThreshold());
+            }
+            case TuplePoolSizeOption.PROPERTY_NAME: {
+                return (T) TuplePoolSizeOption.get(getTuplePoolSize());
+            }
             case ParallelExecutionOption.PROPERTY_NAME: {
                 return (T) parallelExecution;
             }
@@ -429,6 +466,18 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
                 setMaxThreads( ( (MaxThreadsOption) option ).getMaxThreads());
                 break;
             }
+            case ParallelLeftInsertThresholdOption.PROPERTY_NAME: {
+                setParallelLeftInsertThreshold( ( (ParallelLeftInsertThresholdOption) option ).getThreshold());
+                break;
+            }
+            case BetaIndexSkewThresholdOption.PROPERTY_NAME: {
+                setBetaIndexSkewThreshold( ( (BetaIndexSkewThresholdOption) option ).getThreshold());
+                break;
+            }
+            case TuplePoolSizeOption.PROPERTY_NAME: {
+                setTuplePoolSize( ( (TuplePoolSizeOption) option ).getPoolSize());
+                break;
+            }
             case ParallelExecutionOption.PROPERTY_NAME: {
                 setParallelExecution( (ParallelExecutionOption) option );
                 break;
@@ -520,6 +569,18 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
                 setMaxThreads(StringUtils.isEmpty(value) ? 3 : Integer.parseInt(value));
                 break;
             }
+            case ParallelLeftInsertThresholdOption.PROPERTY_NAME: {
+                setParallelLeftInsertThreshold(StringUtils.isEmpty(value) ? ParallelLeftInsertThresholdOption.DEFAULT_VALUE : Integer.parseInt(value));
+                break;
+            }
+            case BetaIndexSkewThresholdOption.PROPERTY_NAME: {
+                setBetaIndexSkewThreshold(StringUtils.isEmpty(value) ? BetaIndexSkewThresholdOption.DEFAULT_VALUE : Integer.parseInt(value));
+                break;
+            }
+            case TuplePoolSizeOption.PROPERTY_NAME: {
+                setTuplePoolSize(StringUtils.isEmpty(value) ? TuplePoolSizeOption.DEFAULT_VALUE : Integer.parseInt(value));
+                break;
+            }
             case EventProcessingOption.PROPERTY_NAME: {
                 setEventProcessingMode(EventProcessingOption.determineEventProcessingMode(StringUtils.isEmpty(value) ? "cloud" : value));
                 break;
@@ -595,6 +656,15 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
             case MaxThreadsOption.PROPERTY_NAME: {
                 return Integer.toString(getMaxThreads());
             }
+            case ParallelLeftInsertThresholdOption.PROPERTY_NAME: {
+                return Integer.toString(getParallelLeftInsertThreshold());
+            }
+            case BetaIndexSkewThresholdOption.PROPERTY_NAME: {
+                return Integer.toString(getBetaIndexSkewThreshold());
+            }
+            case TuplePoolSizeOption.PROPERTY_NAME: {
+                return Integer.toString(getTuplePoolSize());
+            }
             case EventProcessingOption.PROPERTY_NAME: {
                 return getEventProcessingMode().getMode();
             }
@@ -835,6 +905,59 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
         return this.maxThreads;
     }
 
+    /**
+     * Configures the minimum size of a batch of left tuple inserts in a join, not or exists
+     * node above which the matching of those tuples against the right memory is split in chunks
+     * evaluated in parallel. Tuples creation and propagation remain single threaded and in order.
+     *
+     * @param parallelLeftInsertThreshold the minimum batch size. If 0 or a negative number
+     *                                    is set, the parallel matching is disabled. Default is -1.
+     */
+    public void setParallelLeftInsertThreshold(final int parallelLeftInsertThreshold) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.parallelLeftInsertThreshold = parallelLeftInsertThreshold;
+    }
+
+    public int getParallelLeftInsertThreshold() {
+        return this.parallelLeftInsertThreshold;
+    }
+
+    /**
+     * Configures the maximum average number of tuples for each key that an equality indexed memory of a join,
+     * not or exists node can reach before being re-keyed. When it is exceeded, the left and right memories
+     * of that node are rebuilt with a composite index also including the equality constraints of the node
+     * that were left out of the original index because of the composite key depth. With the default, and maximum,
+     * composite key depth of 3 there is no wider key, so this only has an effect with a lower one.
+     *
+     * @param betaIndexSkewThreshold the max average number of tuples for each key. If 0 or a negative number
+     *                               is set, the adaptive indexing is disabled. Default is -1.
+     */
+    public void setBetaIndexSkewThreshold(final int betaIndexSkewThreshold) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.betaIndexSkewThreshold = betaIndexSkewThreshold;
+    }
+
+    public int getBetaIndexSkewThreshold() {
+        return this.betaIndexSkewThreshold;
+    }
+
+    /**
+     * Configures how many deleted tuples each segment memory can keep to be reused in place of new allocations,
+     * when creating the tuples propagated from a join node to another join node of the same segment.
+     * Only tuples that never had children are recycled, so they are referenced neither by later nodes nor by the agenda.
+     *
+     * @param tuplePoolSize the max number of pooled tuples for each segment. If 0 or a negative number
+     *                      is set, the tuples are never recycled. Default is -1.
+     */
+    public void setTuplePoolSize(final int tuplePoolSize) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.tuplePoolSize = tuplePoolSize;
+    }
+
+    public int getTuplePoolSize() {
+        return this.tuplePoolSize;
+    }
+
     public boolean isDeclarativeAgenda() {
         return this.declarativeAgenda;
     }
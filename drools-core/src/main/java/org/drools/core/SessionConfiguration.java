@@ -26,6 +26,8 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
+import org.drools.core.concurrent.VirtualThreads;
+import org.drools.core.time.ThreadedTimerService;
 import org.drools.core.time.TimerService;
 import org.drools.core.time.impl.TimerJobFactoryManager;
 import org.drools.util.StringUtils;
@@ -43,6 +45,8 @@ import org.kie.api.runtime.conf.PersistedSessionOption;
 import org.kie.api.runtime.conf.SingleValueKieSessionOption;
 import org.kie.api.runtime.conf.TimerJobFactoryOption;
 import org.kie.internal.conf.CompositeConfiguration;
+import org.kie.internal.runtime.conf.TimingWheelOption;
+import org.kie.internal.runtime.conf.VirtualThreadsOption;
 
 public class SessionConfiguration extends BaseConfiguration<KieSessionOption, SingleValueKieSessionOption, MultiValueKieSessionOption> implements KieSessionConfiguration, Externalizable {
 
@@ -56,6 +60,10 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
 
     private TimerJobFactoryType            timerJobFactoryType;
 
+    private boolean                        timingWheel;
+
+    private boolean                        virtualThreads;
+
     private PersistedSessionOption persistedSessionOption;
 
     private ExecutableRunner runner;
@@ -83,6 +91,10 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
                 throw e;
             }
         }
+        // not part of the externalized form, so that configurations written by previous releases can still be read:
+        // only the value configured through the properties is restored, as for the other runtime-only options
+        timingWheel = Boolean.parseBoolean(getPropertyValue(TimingWheelOption.PROPERTY_NAME, "false"));
+        virtualThreads = Boolean.parseBoolean(getPropertyValue(VirtualThreadsOption.PROPERTY_NAME, "false"));
     }
 
 
@@ -98,6 +110,10 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
 
 
         setTimerJobFactoryType(TimerJobFactoryType.resolveTimerJobFactoryType( getPropertyValue( TimerJobFactoryOption.PROPERTY_NAME, TimerJobFactoryType.THREAD_SAFE_TRACKABLE.getId() ) ));
+
+        setTimingWheel(Boolean.parseBoolean(getPropertyValue(TimingWheelOption.PROPERTY_NAME, "false")));
+
+        setVirtualThreads(Boolean.parseBoolean(getPropertyValue(VirtualThreadsOption.PROPERTY_NAME, "false")));
     }
 
 
@@ -115,6 +131,14 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
                 setKeepReference(((KeepReferenceOption)option).isKeepReference());
                 break;
             }
+            case TimingWheelOption.PROPERTY_NAME: {
+                setTimingWheel(((TimingWheelOption) option).isTimingWheel());
+                break;
+            }
+            case VirtualThreadsOption.PROPERTY_NAME: {
+                setVirtualThreads(((VirtualThreadsOption) option).isVirtualThreads());
+                break;
+            }
             case PersistedSessionOption.PROPERTY_NAME: {
                 setPersistedSessionOption( (PersistedSessionOption) option );
                 break;
@@ -136,6 +160,12 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
             case KeepReferenceOption.PROPERTY_NAME: {
                 return (T) (isKeepReference() ? KeepReferenceOption.YES : KeepReferenceOption.NO);
             }
+            case TimingWheelOption.PROPERTY_NAME: {
+                return (T) (isTimingWheel() ? TimingWheelOption.YES : TimingWheelOption.NO);
+            }
+            case VirtualThreadsOption.PROPERTY_NAME: {
+                return (T) (isVirtualThreads() ? VirtualThreadsOption.YES : VirtualThreadsOption.NO);
+            }
             case PersistedSessionOption.PROPERTY_NAME: {
                 return (T) getPersistedSessionOption();
             }
@@ -164,6 +194,14 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
             case TimerJobFactoryOption.PROPERTY_NAME: {
                 setTimerJobFactoryType(TimerJobFactoryType.resolveTimerJobFactoryType(StringUtils.isEmpty(value) ? "default" : value));
                 break;
+            }
+            case TimingWheelOption.PROPERTY_NAME: {
+                setTimingWheel(!StringUtils.isEmpty(value) && Boolean.parseBoolean(value));
+                break;
+            }
+            case VirtualThreadsOption.PROPERTY_NAME: {
+                setVirtualThreads(!StringUtils.isEmpty(value) && Boolean.parseBoolean(value));
+                break;
             } default : {
                 return false;
             }
@@ -180,6 +218,12 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
             case TimerJobFactoryOption.PROPERTY_NAME: {
                 return getTimerJobFactoryType().toExternalForm();
             }
+            case TimingWheelOption.PROPERTY_NAME: {
+                return Boolean.toString(isTimingWheel());
+            }
+            case VirtualThreadsOption.PROPERTY_NAME: {
+                return Boolean.toString(isVirtualThreads());
+            }
         }
         return null;
     }
@@ -235,6 +279,24 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
         this.timerJobFactoryType = timerJobFactoryType;
     }
 
+    public boolean isTimingWheel() {
+        return timingWheel;
+    }
+
+    public void setTimingWheel(boolean timingWheel) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.timingWheel = timingWheel;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.virtualThreads = virtualThreads;
+    }
+
     public final TimerJobFactoryManager getTimerJobFactoryManager() {
         return getTimerJobFactoryType().createInstance();
     }
@@ -276,8 +338,11 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
     }
 
     public TimerService createTimerService() {
-        TimerService service = getClockType().createInstance();
+        TimerService service = isTimingWheel() ? getClockType().createTimingWheelInstance() : getClockType().createInstance();
         service.setTimerJobFactoryManager(getTimerJobFactoryManager());
+        if (isVirtualThreads() && service instanceof ThreadedTimerService) {
+            ((ThreadedTimerService) service).setThreadFactory(VirtualThreads.threadFactory());
+        }
         return service;
     }
 
@@ -294,13 +359,17 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
 
 
         return getClockType() == that.getClockType() &&
-                getTimerJobFactoryType() == that.getTimerJobFactoryType();
+                getTimerJobFactoryType() == that.getTimerJobFactoryType() &&
+                isTimingWheel() == that.isTimingWheel() &&
+                isVirtualThreads() == that.isVirtualThreads();
     }
 
     @Override
     public final int hashCode() {
         int result = getClockType().hashCode();
         result = 31 * result + getTimerJobFactoryType().hashCode();
+        result = 31 * result + (isTimingWheel() ? 1 : 0);
+        result = 31 * result + (isVirtualThreads() ? 1 : 0);
         return result;
     }
 }
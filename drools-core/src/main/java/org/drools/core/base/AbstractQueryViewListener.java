@@ -43,6 +43,10 @@ public abstract class AbstractQueryViewListener implements InternalViewChangedEv
     public abstract FactHandle getHandle(FactHandle originalHandle);
 
     public void rowAdded(RuleImpl rule, TupleImpl tuple, ReteEvaluator reteEvaluator) {
+        this.results.add( createRow(tuple) );
+    }
+
+    protected QueryRowWithSubruleIndex createRow(TupleImpl tuple) {
         FactHandle[] handles = new FactHandle[SuperCacheFixer.getLeftTupleNode(tuple).getObjectCount()];
         TupleImpl entry = tuple.skipEmptyHandles();
 
@@ -55,7 +59,7 @@ public abstract class AbstractQueryViewListener implements InternalViewChangedEv
         }
 
         QueryTerminalNode node = (QueryTerminalNode) tuple.getSink();
-        this.results.add( new QueryRowWithSubruleIndex(handles, node.getSubruleIndex()) );
+        return new QueryRowWithSubruleIndex(handles, node.getSubruleIndex());
     }
 
     public void rowRemoved(RuleImpl rule, TupleImpl tuple, ReteEvaluator reteEvaluator ) {
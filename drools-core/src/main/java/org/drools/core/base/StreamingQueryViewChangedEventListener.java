@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.base;
+
+import java.util.function.Consumer;
+
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.reteoo.TupleImpl;
+
+/**
+ * A query listener handing each row to the given consumer as soon as the query terminal node produces it,
+ * instead of collecting all of them. The fact handles of the rows are copies, like for the standard listener,
+ * so that the rows can be safely consumed by other threads once the query evaluation has released the session.
+ */
+public class StreamingQueryViewChangedEventListener extends StandardQueryViewChangedEventListener {
+
+    private final Consumer<QueryRowWithSubruleIndex> rowConsumer;
+
+    public StreamingQueryViewChangedEventListener(Consumer<QueryRowWithSubruleIndex> rowConsumer) {
+        this.rowConsumer = rowConsumer;
+    }
+
+    @Override
+    public void rowAdded(RuleImpl rule, TupleImpl tuple, ReteEvaluator reteEvaluator) {
+        rowConsumer.accept( createRow(tuple) );
+    }
+}
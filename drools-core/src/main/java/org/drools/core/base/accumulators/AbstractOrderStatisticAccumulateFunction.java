@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.base.accumulators;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import org.drools.core.util.OrderStatisticTree;
+
+/**
+ * Base class for the accumulators calculating an order statistic, like the minimum, the maximum or a percentile,
+ * of the accumulated values. The values are kept sorted in an OrderStatisticTree, so differently from the
+ * MinAccumulateFunction and MaxAccumulateFunction these accumulators are always reversible in O(log n),
+ * at the price of retaining all the accumulated values.
+ */
+public abstract class AbstractOrderStatisticAccumulateFunction extends AbstractAccumulateFunction<AbstractOrderStatisticAccumulateFunction.OrderStatisticData> {
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+
+    }
+
+    public static class OrderStatisticData implements Externalizable {
+        public OrderStatisticTree<Comparable> values = new OrderStatisticTree<>();
+
+        public OrderStatisticData() {}
+
+        @SuppressWarnings("unchecked")
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+            values = (OrderStatisticTree<Comparable>) in.readObject();
+        }
+
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeObject(values);
+        }
+    }
+
+    public OrderStatisticData createContext() {
+        return new OrderStatisticData();
+    }
+
+    public void init(OrderStatisticData data) {
+        data.values.clear();
+    }
+
+    public void accumulate(OrderStatisticData data,
+                           Object value) {
+        if (value != null) {
+            data.values.add((Comparable) value);
+        }
+    }
+
+    public void reverse(OrderStatisticData data,
+                        Object value) {
+        if (value != null) {
+            data.values.remove((Comparable) value);
+        }
+    }
+
+    public Object getResult(OrderStatisticData data) {
+        return data.values.isEmpty() ? null : getResult(data.values);
+    }
+
+    /**
+     * @param values the accumulated values, never empty
+     */
+    protected abstract Object getResult(OrderStatisticTree<Comparable> values);
+
+    public boolean supportsReverse() {
+        return true;
+    }
+
+    public Class<?> getResultType() {
+        return Comparable.class;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.base.accumulators;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.drools.core.util.OrderStatisticTree;
+
+/**
+ * <p>An implementation of an accumulator capable of calculating the median of the accumulated values,
+ * reversible in O(log n). When the number of values is even the result is the mean of the two middle values.
+ * As for the average, the median of numbers is always a Double, or a BigDecimal when the values are BigDecimals
+ * or BigIntegers, whatever the number of values. Values that are not numbers can't be averaged, so in that case
+ * the result is the middle value, or the lower of the two middle values when their number is even.</p>
+ *
+ * <p>Example:</p>
+ * <pre>
+ * rule "Median price"
+ * when
+ *     accumulate( StockTick( symbol == "RHT", $p : price ) over window:time( 5m ),
+ *                 $median : median( $p ) )
+ * then
+ *     // do something
+ * end
+ * </pre>
+ */
+public class MedianAccumulateFunction extends PercentileAccumulateFunction {
+
+    public MedianAccumulateFunction() {
+        super(0.5);
+    }
+
+    @Override
+    protected Object getResult(OrderStatisticTree<Comparable> values) {
+        int middle = values.size() / 2;
+        boolean odd = values.size() % 2 != 0;
+        Comparable upper = values.get(middle);
+        Comparable lower = odd ? upper : values.get(middle - 1);
+        if (!(lower instanceof Number) || !(upper instanceof Number)) {
+            return lower;
+        }
+        // the accumulated values are compared with each other, so they are all of the same type of the middle ones
+        if (isBig(lower) || isBig(upper)) {
+            return odd ? toBigDecimal((Number) lower) :
+                    toBigDecimal((Number) lower).add(toBigDecimal((Number) upper)).divide(BigDecimal.valueOf(2));
+        }
+        return odd ? ((Number) lower).doubleValue() :
+                (((Number) lower).doubleValue() + ((Number) upper).doubleValue()) / 2;
+    }
+
+    private static boolean isBig(Object value) {
+        return value instanceof BigDecimal || value instanceof BigInteger;
+    }
+
+    private static BigDecimal toBigDecimal(Number value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(value.longValue());
+        }
+        return BigDecimal.valueOf(value.doubleValue());
+    }
+}
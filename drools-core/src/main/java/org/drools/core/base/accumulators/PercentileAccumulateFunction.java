@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.base.accumulators;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import org.drools.core.util.OrderStatisticTree;
+
+/**
+ * <p>An implementation of an accumulator capable of calculating a percentile of the accumulated values
+ * with the nearest-rank method: the result is the smallest accumulated value such that at least the given
+ * fraction of the values is less than or equal to it. The result is always one of the accumulated values,
+ * so it can be calculated for any Comparable and when the number of values is even the 0.5 percentile is
+ * the lower of the two middle values, while MedianAccumulateFunction returns their mean.</p>
+ *
+ * <p>Since an accumulate function is invoked with a single argument, the percentile to be calculated is
+ * fixed when the function is created, e.g. in the executable model with
+ * <code>accFunction(() -> new PercentileAccumulateFunction(0.95), var_$price)</code>.
+ * The 90th, 95th and 99th percentiles are registered by default as percentile90, percentile95 and
+ * percentile99, so that they can also be used in DRL.</p>
+ */
+public class PercentileAccumulateFunction extends AbstractOrderStatisticAccumulateFunction {
+
+    private double percentile;
+
+    public PercentileAccumulateFunction() {
+        this(0.5);
+    }
+
+    /**
+     * @param percentile the percentile to be calculated, between 0 and 1
+     */
+    public PercentileAccumulateFunction(double percentile) {
+        if (!(percentile >= 0 && percentile <= 1)) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 1, but was " + percentile);
+        }
+        this.percentile = percentile;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        percentile = in.readDouble();
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeDouble(percentile);
+    }
+
+    @Override
+    protected Object getResult(OrderStatisticTree<Comparable> values) {
+        int rank = (int) Math.ceil(percentile * values.size());
+        return values.get(Math.max(rank, 1) - 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return super.equals(o) && percentile == ((PercentileAccumulateFunction) o).percentile;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Double.hashCode(percentile);
+    }
+}
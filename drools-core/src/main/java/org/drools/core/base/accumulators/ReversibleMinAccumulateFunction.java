@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.base.accumulators;
+
+import org.drools.core.util.OrderStatisticTree;
+
+/**
+ * An implementation of an accumulator capable of calculating minimum values, that differently from
+ * the MinAccumulateFunction can be reversed also when the current minimum is removed,
+ * without requiring the reaccumulation of all the values.
+ */
+public class ReversibleMinAccumulateFunction extends AbstractOrderStatisticAccumulateFunction {
+
+    @Override
+    protected Object getResult(OrderStatisticTree<Comparable> values) {
+        return values.first();
+    }
+}
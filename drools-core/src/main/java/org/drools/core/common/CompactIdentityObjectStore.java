@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.common;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.kie.api.runtime.ClassObjectFilter;
+import org.kie.api.runtime.ObjectFilter;
+
+/**
+ * An identity based ObjectStore designed for working memories holding a very large number of facts.
+ *
+ * The fact handles are kept in a single open addressing table, hashed by the identity of the object they hold.
+ * Differently from the IdentityHashMap used by the IdentityObjectStore, which stores both the object and its handle,
+ * the table only stores the handle and reads the object from it, saving one reference, about 4 bytes with compressed
+ * references, for each slot of the table. This only reduces the overhead of the store itself: the fact handles
+ * and the objects they hold are unchanged, so the overall memory taken by each fact shrinks by a small fraction.
+ *
+ * Negated handles are stored in the same table and, as for the ClassAwareObjectStore, are only returned by
+ * iterateNegObjects and iterateNegFactHandles. This store is not thread safe.
+ *
+ * Removing an entry can shift back the following ones, so, as for the IdentityHashMap, the iterators are fail-fast
+ * and throw a ConcurrentModificationException if the store is modified while iterating it.
+ */
+public class CompactIdentityObjectStore implements Externalizable, ObjectStore {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private InternalFactHandle[] table;
+    private int size;
+    private int mask;
+    private int threshold;
+    // the number of structural modifications, used to make the iterators fail-fast
+    private int modCount;
+
+    public CompactIdentityObjectStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CompactIdentityObjectStore(int initialCapacity) {
+        init(initialCapacity);
+    }
+
+    private void init(int expectedSize) {
+        createTable(tableCapacityFor(expectedSize));
+        this.size = 0;
+        this.modCount++;
+    }
+
+    private static int tableCapacityFor(int expectedSize) {
+        // the smallest power of two keeping the load factor at 0.75 at most
+        int minCapacity = Math.max(expectedSize, DEFAULT_CAPACITY) * 4 / 3 + 1;
+        return Integer.highestOneBit(minCapacity - 1) << 1;
+    }
+
+    private void createTable(int capacity) {
+        this.table = new InternalFactHandle[capacity];
+        this.mask = capacity - 1;
+        this.threshold = capacity / 4 * 3;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(size);
+        for (InternalFactHandle handle : table) {
+            if (handle != null) {
+                out.writeObject(handle);
+            }
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        int storedSize = in.readInt();
+        init(storedSize);
+        for (int i = 0; i < storedSize; i++) {
+            InternalFactHandle handle = (InternalFactHandle) in.readObject();
+            addHandle(handle, handle.getObject());
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(table, null);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Object getObjectForHandle(InternalFactHandle handle) {
+        InternalFactHandle reconnectedHandle = reconnect(handle);
+        return reconnectedHandle != null ? reconnectedHandle.getObject() : null;
+    }
+
+    @Override
+    public InternalFactHandle reconnect(InternalFactHandle handle) {
+        if (handle == null) {
+            return null;
+        }
+        long id = handle.getId();
+        int identityHashCode = handle.getIdentityHashCode();
+        // the identity hash code of a handle is normally the one of its object, so the handle is found probing from there
+        for (int bucket = hash(identityHashCode) & mask; table[bucket] != null; bucket = (bucket + 1) & mask) {
+            if (table[bucket].getId() == id) {
+                return table[bucket].getIdentityHashCode() == identityHashCode ? table[bucket] : null;
+            }
+        }
+        // otherwise, e.g. when the hash code has been restored by a deserialization, fall back on a full scan
+        for (InternalFactHandle stored : table) {
+            if (stored != null && stored.getId() == id) {
+                return stored.getIdentityHashCode() == identityHashCode ? stored : null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public InternalFactHandle getHandleForObject(Object object) {
+        if (object == null) {
+            return null;
+        }
+        int bucket = find(object);
+        return bucket < 0 ? null : table[bucket];
+    }
+
+    @Override
+    public void updateHandle(InternalFactHandle handle, Object object) {
+        removeHandle(handle);
+        handle.setObject(object);
+        addHandle(handle, object);
+    }
+
+    @Override
+    public void addHandle(InternalFactHandle handle, Object object) {
+        int bucket = hash(System.identityHashCode(object)) & mask;
+        for (; table[bucket] != null; bucket = (bucket + 1) & mask) {
+            if (table[bucket].getObject() == object) {
+                // as for an identity map, a new handle for an already stored object replaces the existing one
+                table[bucket] = handle;
+                return;
+            }
+        }
+        table[bucket] = handle;
+        modCount++;
+        if (++size > threshold) {
+            grow();
+        }
+    }
+
+    @Override
+    public void removeHandle(InternalFactHandle handle) {
+        int bucket = find(handle.getObject());
+        if (bucket >= 0) {
+            removeBucket(bucket);
+            size--;
+            modCount++;
+        }
+    }
+
+    @Override
+    public Iterator<Object> iterateObjects() {
+        return new ObjectIterator(null, false);
+    }
+
+    @Override
+    public Iterator<Object> iterateObjects(ObjectFilter filter) {
+        return new ObjectIterator(filter, false);
+    }
+
+    @Override
+    public Iterator<InternalFactHandle> iterateFactHandles() {
+        return new FactHandleIterator(null, false);
+    }
+
+    @Override
+    public Iterator<InternalFactHandle> iterateFactHandles(ObjectFilter filter) {
+        return new FactHandleIterator(filter, false);
+    }
+
+    @Override
+    public Iterator<Object> iterateNegObjects(ObjectFilter filter) {
+        return new ObjectIterator(filter, true);
+    }
+
+    @Override
+    public Iterator<InternalFactHandle> iterateNegFactHandles(ObjectFilter filter) {
+        return new FactHandleIterator(filter, true);
+    }
+
+    @Override
+    public FactHandleClassStore getStoreForClass(Class<?> clazz) {
+        ObjectFilter filter = new ClassObjectFilter(clazz);
+        return () -> new FactHandleIterator(filter, false);
+    }
+
+    @Override
+    public boolean clearClassStore(Class<?> clazz) {
+        ObjectFilter filter = new ClassObjectFilter(clazz);
+        List<InternalFactHandle> toBeRemoved = new ArrayList<>();
+        for (InternalFactHandle handle : table) {
+            if (handle != null && filter.accept(handle.getObject())) {
+                toBeRemoved.add(handle);
+            }
+        }
+        // removing a handle can shift back the following ones, so they are collected before removing any of them
+        toBeRemoved.forEach(this::removeHandle);
+        return !toBeRemoved.isEmpty();
+    }
+
+    // /////////////////////
+    // /// Table
+    // /////////////////////
+
+    private static int hash(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private int find(Object object) {
+        for (int bucket = hash(System.identityHashCode(object)) & mask; table[bucket] != null; bucket = (bucket + 1) & mask) {
+            if (table[bucket].getObject() == object) {
+                return bucket;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the bucket and shifts back the following entries of the same cluster, so no tombstone is needed.
+     */
+    private void removeBucket(int bucket) {
+        int free = bucket;
+        for (int next = (bucket + 1) & mask; table[next] != null; next = (next + 1) & mask) {
+            int home = hash(System.identityHashCode(table[next].getObject())) & mask;
+            if (isOutOfPlace(home, free, next)) {
+                table[free] = table[next];
+                free = next;
+            }
+        }
+        table[free] = null;
+    }
+
+    /**
+     * Returns true if an entry found at position next, whose home bucket is home, can be moved to the free position,
+     * i.e. if home is not cyclically included in the interval (free, next].
+     */
+    private static boolean isOutOfPlace(int home, int free, int next) {
+        return free <= next ? home <= free || home > next : home <= free && home > next;
+    }
+
+    private void grow() {
+        InternalFactHandle[] oldTable = table;
+        createTable(oldTable.length * 2);
+        for (InternalFactHandle handle : oldTable) {
+            if (handle != null) {
+                int bucket = hash(System.identityHashCode(handle.getObject())) & mask;
+                while (table[bucket] != null) {
+                    bucket = (bucket + 1) & mask;
+                }
+                table[bucket] = handle;
+            }
+        }
+    }
+
+    // /////////////////////
+    // /// Iterators
+    // /////////////////////
+
+    private abstract class AbstractTableIterator<T> implements Iterator<T> {
+        private final InternalFactHandle[] iteratedTable = table;
+        private final int expectedModCount = modCount;
+        private final ObjectFilter filter;
+        private final boolean negated;
+        private int next = -1;
+
+        private AbstractTableIterator(ObjectFilter filter, boolean negated) {
+            this.filter = filter;
+            this.negated = negated;
+            fetchNext();
+        }
+
+        private void fetchNext() {
+            next++;
+            while (next < iteratedTable.length && !accept(iteratedTable[next])) {
+                next++;
+            }
+        }
+
+        private boolean accept(InternalFactHandle handle) {
+            return handle != null && handle.isNegated() == negated && (filter == null || filter.accept(handle.getObject()));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < iteratedTable.length;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            InternalFactHandle handle = iteratedTable[next];
+            fetchNext();
+            return extract(handle);
+        }
+
+        protected abstract T extract(InternalFactHandle handle);
+    }
+
+    private class ObjectIterator extends AbstractTableIterator<Object> {
+        private ObjectIterator(ObjectFilter filter, boolean negated) {
+            super(filter, negated);
+        }
+
+        @Override
+        protected Object extract(InternalFactHandle handle) {
+            return handle.getObject();
+        }
+    }
+
+    private class FactHandleIterator extends AbstractTableIterator<InternalFactHandle> {
+        private FactHandleIterator(ObjectFilter filter, boolean negated) {
+            super(filter, negated);
+        }
+
+        @Override
+        protected InternalFactHandle extract(InternalFactHandle handle) {
+            return handle;
+        }
+    }
+}
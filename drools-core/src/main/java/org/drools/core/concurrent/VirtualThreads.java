@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the threads used by the sessions configured to run on virtual threads.
+ *
+ * The engine is still compiled for a JDK without virtual threads, so they are created reflectively when the
+ * running JDK supports them. On an older JDK the same factory and executor fall back to daemon platform threads.
+ */
+public final class VirtualThreads {
+
+    private static final Logger log = LoggerFactory.getLogger( VirtualThreads.class );
+
+    public static final String THREAD_NAME_PREFIX = "drools-session-";
+
+    private VirtualThreads() { }
+
+    private static class FactoryHolder {
+        private static final ThreadFactory threadFactory = createThreadFactory();
+        private static final boolean virtual = !(threadFactory instanceof PlatformThreadFactory);
+        private static final ExecutorService executor = createExecutor( threadFactory );
+    }
+
+    /**
+     * Returns true if the running JDK supports virtual threads.
+     */
+    public static boolean isSupported() {
+        return FactoryHolder.virtual;
+    }
+
+    /**
+     * Returns a factory of virtual threads, or of daemon platform threads if they are not supported.
+     */
+    public static ThreadFactory threadFactory() {
+        return FactoryHolder.threadFactory;
+    }
+
+    /**
+     * Returns a shared executor running each task on a new thread of the factory.
+     */
+    public static ExecutorService executor() {
+        return FactoryHolder.executor;
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod( "ofVirtual" ).invoke( null );
+            Class<?> builderClass = Class.forName( "java.lang.Thread$Builder" );
+            builder = builderClass.getMethod( "name", String.class, long.class ).invoke( builder, THREAD_NAME_PREFIX, 1L );
+            return (ThreadFactory) builderClass.getMethod( "factory" ).invoke( builder );
+        } catch (ReflectiveOperationException e) {
+            log.warn( "Virtual threads are not supported by this JDK, platform threads will be used instead" );
+            return new PlatformThreadFactory();
+        }
+    }
+
+    private static ExecutorService createExecutor(ThreadFactory threadFactory) {
+        try {
+            Method newThreadPerTaskExecutor = Executors.class.getMethod( "newThreadPerTaskExecutor", ThreadFactory.class );
+            return (ExecutorService) newThreadPerTaskExecutor.invoke( null, threadFactory );
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool( threadFactory );
+        }
+    }
+
+    private static class PlatformThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread( r, THREAD_NAME_PREFIX + threadCount.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        }
+    }
+}
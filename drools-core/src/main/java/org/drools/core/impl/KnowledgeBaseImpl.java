@@ -57,6 +57,7 @@ import org.drools.core.base.ClassFieldAccessorCache;
 import org.drools.core.common.InternalWorkingMemory;
 import org.drools.core.common.ReteEvaluator;
 import org.drools.core.management.DroolsManagementAgent;
+import org.drools.core.phreak.BetaIndexAdapter;
 import org.drools.core.phreak.BuildtimeSegmentUtilities;
 import org.drools.core.phreak.EagerPhreakBuilder.Add;
 import org.drools.core.phreak.PhreakBuilder;
@@ -165,6 +166,7 @@ public class KnowledgeBaseImpl implements InternalRuleBase {
         this.config = config;
         this.ruleBaseConfig = config.as(RuleBaseConfiguration.KEY);
         this.kieBaseConfig = config.as(KieBaseConfigurationImpl.KEY);
+        BetaIndexAdapter.checkConfiguration(this.ruleBaseConfig);
 
         createRulebaseId(id);
 
@@ -22,6 +22,8 @@ import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.drools.core.common.DefaultEventHandle;
 import org.drools.core.common.DefaultFactHandle;
@@ -127,6 +129,54 @@ public class WorkingMemoryReteExpireAction
         this.factHandle = (DefaultEventHandle) in.readObject();
     }
 
+    /**
+     * The expirations of many events, propagated together as a single entry of the propagation list.
+     */
+    public static class Batch extends PropagationEntry.AbstractPropagationEntry {
+        private final List<? extends PropagationEntry> actions;
+
+        public Batch(List<? extends PropagationEntry> actions) {
+            this.actions = actions;
+        }
+
+        public List<? extends PropagationEntry> getActions() {
+            return actions;
+        }
+
+        @Override
+        public void execute(ReteEvaluator reteEvaluator) {
+            for (PropagationEntry action : actions) {
+                action.execute(reteEvaluator);
+            }
+        }
+
+        @Override
+        public void internalExecute(ReteEvaluator reteEvaluator) {
+            for (PropagationEntry action : actions) {
+                action.internalExecute(reteEvaluator);
+            }
+        }
+
+        @Override
+        public boolean isPartitionSplittable() {
+            return true;
+        }
+
+        @Override
+        public PropagationEntry getSplitForPartition(int partitionNr) {
+            List<PropagationEntry> splits = new ArrayList<>(actions.size());
+            for (PropagationEntry action : actions) {
+                splits.add(action.getSplitForPartition(partitionNr));
+            }
+            return new Batch(splits);
+        }
+
+        @Override
+        public String toString() {
+            return "Expiration of " + actions.size() + " events";
+        }
+    }
+
     public static class PartitionAwareWorkingMemoryReteExpireAction extends PropagationEntry.AbstractPartitionedPropagationEntry {
         private final DefaultEventHandle factHandle;
         private final ObjectTypeNode node;
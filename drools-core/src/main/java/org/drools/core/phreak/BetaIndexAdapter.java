@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.phreak;
+
+import org.drools.base.rule.constraint.BetaConstraint;
+import org.drools.base.util.index.ConstraintTypeOperator;
+import org.drools.core.RuleBaseConfiguration;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.reteoo.BetaMemory;
+import org.drools.core.reteoo.BetaNode;
+import org.drools.core.reteoo.TupleMemory;
+import org.drools.core.util.index.IndexFactory;
+import org.drools.core.util.index.IndexSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Re-keys the memories of a join, not or exists node when their equality index turns out to be poorly selective.
+ *
+ * The constraints used as index of a beta node, and then skipped during its evaluation, are chosen once when the
+ * node is created and are shared by all the sessions, so they can't be changed at runtime. However the composite key
+ * of an equality index is limited by the composite key depth, and the equality constraints left out of it are still
+ * evaluated by the node. When the average number of tuples for each key of a memory exceeds the configured skew threshold,
+ * both the left and the right memories of that node, in that session only, are rebuilt with a composite key also
+ * including those constraints. This only narrows the buckets, so the results of the node evaluation are unaffected.
+ *
+ * With the default composite key depth, which is already the maximum one, the index key already includes as many
+ * equality constraints as it can, so the memories are never re-keyed: the adaptation requires a lower key depth
+ * and a warning is logged when the kie base is created with a skew threshold that can't take effect.
+ */
+public class BetaIndexAdapter {
+
+    private static final int MAX_KEY_DEPTH = 3;
+
+    private static final Logger logger = LoggerFactory.getLogger(BetaIndexAdapter.class);
+
+    private BetaIndexAdapter() { }
+
+    /**
+     * Returns true if the memories can be re-keyed with the given configuration, warning when the skew threshold
+     * is enabled but the composite key depth leaves no room for a wider key.
+     */
+    public static boolean checkConfiguration(RuleBaseConfiguration config) {
+        if (config.getBetaIndexSkewThreshold() <= 0) {
+            return false;
+        }
+        if (config.getCompositeKeyDepth() >= MAX_KEY_DEPTH) {
+            logger.warn("The beta index skew threshold " + config.getBetaIndexSkewThreshold() + " has no effect with a composite key depth of " +
+                        config.getCompositeKeyDepth() + ": the skewed memories can only be re-keyed with a composite key depth lower than " + MAX_KEY_DEPTH);
+            return false;
+        }
+        return true;
+    }
+
+    public static void adaptIndex(BetaNode betaNode, BetaMemory<?> bm, ReteEvaluator reteEvaluator) {
+        if (bm.isIndexAdapted()) {
+            return;
+        }
+        RuleBaseConfiguration config = reteEvaluator.getKnowledgeBase().getRuleBaseConfiguration();
+        int threshold = config.getBetaIndexSkewThreshold();
+        if (threshold <= 0 || config.getCompositeKeyDepth() >= MAX_KEY_DEPTH) {
+            // there is no wider key than the one of the maximum composite key depth
+            return;
+        }
+        if (!(isSkewed(bm.getRightTupleMemory(), threshold) || isSkewed(bm.getLeftTupleMemory(), threshold))) {
+            return;
+        }
+
+        // a memory is re-keyed at most once, also when there is no better index for it
+        bm.setIndexAdapted(true);
+        if (betaNode.isRightInputIsRiaNode() || betaNode.isIndexedUnificationJoin()) {
+            return;
+        }
+
+        BetaConstraint[] constraints = betaNode.getRawConstraints().getConstraints();
+        IndexSpec currentSpec = new IndexSpec(betaNode.getType(), constraints, config);
+        if (currentSpec.getConstraintType() != ConstraintTypeOperator.EQUAL) {
+            return;
+        }
+        IndexSpec widerSpec = new IndexSpec(betaNode.getType(), constraints, config, MAX_KEY_DEPTH);
+        if (widerSpec.getIndexes().length > currentSpec.getIndexes().length) {
+            bm.reindex(IndexFactory.createLeftMemory(config, widerSpec), IndexFactory.createRightMemory(config, widerSpec));
+        }
+    }
+
+    private static boolean isSkewed(TupleMemory memory, int threshold) {
+        if (memory == null) {
+            return false;
+        }
+        int keys = memory.getKeysCount();
+        return keys > 0 && memory.size() / keys > threshold;
+    }
+}
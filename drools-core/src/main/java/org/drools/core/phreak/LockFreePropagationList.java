@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.phreak;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.drools.core.common.ReteEvaluator;
+
+/**
+ * A thread safe PropagationList that never blocks the threads adding entries to it.
+ *
+ * The producers only keep a reference to the last added entry, the tail, and atomically swap it with the new entry,
+ * so while enqueued each entry points to the one added before it. The single consumer detaches the whole chain with
+ * an atomic swap in takeAll() and reverses it, returning the entries in insertion order as the other implementations do.
+ * The consumer waiting for new propagations in fireUntilHalt is parked instead of waiting on a monitor, and it's
+ * unparked by the first entry added to an empty list.
+ */
+public class LockFreePropagationList implements PropagationList {
+
+    protected final ReteEvaluator reteEvaluator;
+
+    private final AtomicReference<PropagationEntry> tail = new AtomicReference<>();
+
+    private volatile Thread waitingThread;
+
+    private volatile boolean notified = false;
+
+    private volatile boolean disposed = false;
+
+    private volatile boolean hasEntriesDeferringExpiration = false;
+
+    private volatile boolean firingUntilHalt = false;
+
+    public LockFreePropagationList(ReteEvaluator reteEvaluator) {
+        this.reteEvaluator = reteEvaluator;
+    }
+
+    @Override
+    public void addEntry(final PropagationEntry entry) {
+        if (entry.requiresImmediateFlushing()) {
+            if (entry.isCalledFromRHS()) {
+                entry.execute(reteEvaluator);
+            } else {
+                reteEvaluator.getActivationsManager().executeTask( new ExecutableEntry() {
+                    @Override
+                    public void execute() {
+                        if (entry instanceof PhreakTimerNode.TimerAction) {
+                            ( (PhreakTimerNode.TimerAction) entry ).execute( reteEvaluator, true );
+                        } else {
+                            entry.execute( reteEvaluator );
+                        }
+                    }
+
+                    @Override
+                    public void enqueue() {
+                        internalAddEntry( entry );
+                    }
+                } );
+            }
+        } else {
+            internalAddEntry( entry );
+        }
+    }
+
+    void internalAddEntry( PropagationEntry entry ) {
+        PropagationEntry previous;
+        do {
+            previous = tail.get();
+            entry.setNext( previous );
+        } while ( !tail.compareAndSet( previous, entry ) );
+
+        // set only after the entry has been enqueued, so a concurrent takeAll can leave this flag raised, but never lower it for an entry still in the list
+        if ( entry.defersExpiration() ) {
+            hasEntriesDeferringExpiration = true;
+        }
+
+        if ( previous == null && firingUntilHalt ) {
+            notifyWaitOnRest();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+    }
+
+    @Override
+    public void flush() {
+        flush( takeAll() );
+    }
+
+    @Override
+    public void flush(PropagationEntry currentHead) {
+        for (PropagationEntry entry = currentHead; !disposed && entry != null; entry = entry.getNext()) {
+            entry.execute(reteEvaluator);
+        }
+    }
+
+    @Override
+    public boolean hasEntriesDeferringExpiration() {
+        return hasEntriesDeferringExpiration;
+    }
+
+    @Override
+    public PropagationEntry takeAll() {
+        // lowered before detaching the chain: a producer raises it only after having enqueued its entry, so an entry
+        // enqueued after this point either is detached below or leaves the flag raised
+        hasEntriesDeferringExpiration = false;
+        PropagationEntry last = tail.getAndSet( null );
+        if ( last == null ) {
+            return null;
+        }
+
+        // the detached chain is linked from the newest to the oldest entry, so reverse it
+        PropagationEntry head = null;
+        for ( PropagationEntry entry = last; entry != null; ) {
+            PropagationEntry previous = entry.getNext();
+            entry.setNext( head );
+            head = entry;
+            entry = previous;
+        }
+        return head;
+    }
+
+    @Override
+    public void reset() {
+        tail.set( null );
+        disposed = false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return tail.get() == null;
+    }
+
+    @Override
+    public void waitOnRest() {
+        waitingThread = Thread.currentThread();
+        // the list and the notified flag are checked after having published the waiting thread,
+        // so an entry added or a notification sent after those checks will find this thread to be unparked
+        while ( !notified && isEmpty() ) {
+            LockSupport.park( this );
+            // leave the interrupt status set for the caller
+            if ( Thread.currentThread().isInterrupted() ) {
+                break;
+            }
+        }
+        waitingThread = null;
+        notified = false;
+    }
+
+    @Override
+    public void notifyWaitOnRest() {
+        notified = true;
+        Thread waiting = waitingThread;
+        if ( waiting != null ) {
+            LockSupport.unpark( waiting );
+        }
+    }
+
+    @Override
+    public Iterator<PropagationEntry> iterator() {
+        List<PropagationEntry> entries = new ArrayList<>();
+        for ( PropagationEntry entry = tail.get(); entry != null; entry = entry.getNext() ) {
+            entries.add( entry );
+        }
+        Collections.reverse( entries );
+        return entries.iterator();
+    }
+
+    @Override
+    public void onEngineInactive() { }
+
+    @Override
+    public void setFiringUntilHalt( boolean firingUntilHalt ) {
+        this.firingUntilHalt = firingUntilHalt;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.phreak;
+
+import java.util.concurrent.RecursiveAction;
+
+import org.drools.core.common.BetaConstraints;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.common.TupleSets;
+import org.drools.core.reteoo.BetaNode;
+import org.drools.core.reteoo.LeftTuple;
+import org.drools.core.reteoo.RightTuple;
+import org.drools.core.reteoo.TupleImpl;
+import org.drools.core.reteoo.TupleMemory;
+import org.drools.core.util.FastIterator;
+
+import static org.drools.base.common.PartitionsManager.doOnForkJoinPool;
+
+/**
+ * Matches a large batch of staged left inserts against the right memory of a beta node using fork/join tasks.
+ *
+ * Only the constraints evaluation, that is the read-only part of the left inserts, is done in parallel: each task
+ * works on a contiguous chunk of the staged left tuples with its own constraints context and records the matching
+ * right tuples. The caller then creates and propagates the child tuples on its own thread, walking the left tuples
+ * in staging order, so the content and the order of the resulting staged tuples are the same of a sequential evaluation.
+ */
+public class ParallelLeftInsertsEvaluator {
+
+    private static final TupleImpl[] NO_MATCHES = new TupleImpl[0];
+
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private ParallelLeftInsertsEvaluator() { }
+
+    /**
+     * Returns true if the staged left inserts of the given node are enough to be matched in parallel and
+     * the right memory of the node can be safely read by multiple threads.
+     */
+    public static boolean isParallelEvaluation(BetaNode betaNode, TupleMemory rtm, ReteEvaluator reteEvaluator, TupleSets srcLeftTuples) {
+        int threshold = reteEvaluator.getKnowledgeBase().getRuleBaseConfiguration().getParallelLeftInsertThreshold();
+        return threshold > 0 &&
+               srcLeftTuples.getInsertSize() >= threshold &&
+               rtm.size() > 0 &&
+               rtm.isConcurrentReadSafe() &&
+               !betaNode.isIndexedUnificationJoin() &&
+               !betaNode.isRightInputIsRiaNode();
+    }
+
+    /**
+     * Collects the staged left inserts in staging order.
+     */
+    public static TupleImpl[] stagedInserts(TupleSets srcLeftTuples) {
+        TupleImpl[] leftTuples = new TupleImpl[srcLeftTuples.getInsertSize()];
+        int i = 0;
+        for (TupleImpl leftTuple = srcLeftTuples.getInsertFirst(); leftTuple != null; leftTuple = leftTuple.getStagedNext()) {
+            leftTuples[i++] = leftTuple;
+        }
+        return leftTuples;
+    }
+
+    /**
+     * For each left tuple returns the right tuples matching it, in right memory iteration order.
+     * When firstMatchOnly is true at most one right tuple, the blocker, is returned for each left tuple.
+     */
+    public static TupleImpl[][] findMatches(BetaNode betaNode, TupleMemory rtm, ReteEvaluator reteEvaluator,
+                                            TupleImpl[] leftTuples, boolean firstMatchOnly) {
+        TupleImpl[][] matches = new TupleImpl[leftTuples.length][];
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, leftTuples.length / (Runtime.getRuntime().availableProcessors() * 4));
+        MatchTask task = new MatchTask(betaNode, rtm, reteEvaluator, leftTuples, matches, firstMatchOnly, 0, leftTuples.length, chunkSize);
+        doOnForkJoinPool(task::invoke);
+        return matches;
+    }
+
+    /**
+     * Sets the blocker found by findMatches on the left tuple, exactly as RuleNetworkEvaluator.findLeftTupleBlocker does.
+     */
+    public static void setLeftTupleBlocker(TupleImpl leftTuple, TupleImpl[] matches, boolean useLeftMemory) {
+        if (matches.length > 0) {
+            RightTuple blocker = (RightTuple) matches[0];
+            leftTuple.setBlocker(blocker);
+            if (useLeftMemory) {
+                blocker.addBlocked((LeftTuple) leftTuple);
+            }
+        }
+    }
+
+    private static class MatchTask extends RecursiveAction {
+
+        private final BetaNode betaNode;
+        private final TupleMemory rtm;
+        private final ReteEvaluator reteEvaluator;
+        private final TupleImpl[] leftTuples;
+        private final TupleImpl[][] matches;
+        private final boolean firstMatchOnly;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private MatchTask(BetaNode betaNode, TupleMemory rtm, ReteEvaluator reteEvaluator, TupleImpl[] leftTuples,
+                          TupleImpl[][] matches, boolean firstMatchOnly, int from, int to, int chunkSize) {
+            this.betaNode = betaNode;
+            this.rtm = rtm;
+            this.reteEvaluator = reteEvaluator;
+            this.leftTuples = leftTuples;
+            this.matches = matches;
+            this.firstMatchOnly = firstMatchOnly;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                match();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MatchTask(betaNode, rtm, reteEvaluator, leftTuples, matches, firstMatchOnly, from, middle, chunkSize),
+                      new MatchTask(betaNode, rtm, reteEvaluator, leftTuples, matches, firstMatchOnly, middle, to, chunkSize));
+        }
+
+        private void match() {
+            BetaConstraints constraints = betaNode.getRawConstraints();
+            // the context held by the node memory is mutable, so each chunk must use its own one
+            Object contextEntry = constraints.createContext();
+            TupleImpl[] buffer = new TupleImpl[8];
+
+            for (int i = from; i < to; i++) {
+                TupleImpl leftTuple = leftTuples[i];
+                constraints.updateFromTuple(contextEntry, reteEvaluator, leftTuple);
+
+                int size = 0;
+                FastIterator<TupleImpl> it = betaNode.getRightIterator(rtm);
+                for (TupleImpl rightTuple = betaNode.getFirstRightTuple(leftTuple, rtm, it); rightTuple != null; rightTuple = it.next(rightTuple)) {
+                    // joins evaluate the handle of the right tuple, while not and exists use the one for evaluation, like their sequential counterparts
+                    if (constraints.isAllowedCachedLeft(contextEntry, firstMatchOnly ? rightTuple.getFactHandleForEvaluation() : rightTuple.getFactHandle())) {
+                        if (size == buffer.length) {
+                            TupleImpl[] newBuffer = new TupleImpl[size * 2];
+                            System.arraycopy(buffer, 0, newBuffer, 0, size);
+                            buffer = newBuffer;
+                        }
+                        buffer[size++] = rightTuple;
+                        if (firstMatchOnly) {
+                            break;
+                        }
+                    }
+                }
+
+                if (size == 0) {
+                    matches[i] = NO_MATCHES;
+                } else {
+                    TupleImpl[] found = new TupleImpl[size];
+                    System.arraycopy(buffer, 0, found, 0, size);
+                    matches[i] = found;
+                }
+            }
+            constraints.resetTuple(contextEntry);
+        }
+    }
+}
@@ -39,7 +39,6 @@ import org.drools.core.reteoo.RightTuple;
 import org.drools.core.reteoo.TupleFactory;
 import org.drools.core.reteoo.TupleImpl;
 import org.drools.core.reteoo.TupleMemory;
-import org.drools.core.util.AbstractHashTable;
 import org.drools.core.util.FastIterator;
 import org.kie.api.runtime.rule.FactHandle;
 
@@ -226,9 +225,7 @@ public class PhreakAccumulateNode {
         Object contextEntry = bm.getContext();
         BetaConstraints constraints = accNode.getRawConstraints();
 
-        if (srcRightTuples.getInsertSize() > 32 && rtm instanceof AbstractHashTable ) {
-            ((AbstractHashTable) rtm).ensureCapacity(srcRightTuples.getInsertSize());
-        }
+        RuleNetworkEvaluator.ensureRightMemoryCapacity(rtm, srcRightTuples);
 
         boolean tupleMemoryEnabled = accNode.isLeftTupleMemoryEnabled();
 
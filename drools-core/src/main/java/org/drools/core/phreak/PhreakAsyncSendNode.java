@@ -29,6 +29,7 @@ import org.drools.core.common.InternalFactHandle;
 import org.drools.core.common.PropagationContext;
 import org.drools.core.common.ReteEvaluator;
 import org.drools.core.common.TupleSets;
+import org.drools.core.concurrent.VirtualThreads;
 import org.drools.core.reteoo.AsyncMessage;
 import org.drools.core.reteoo.AsyncMessagesCoordinator;
 import org.drools.core.reteoo.AsyncSendNode;
@@ -40,8 +41,10 @@ import org.kie.internal.concurrent.ExecutorProviderFactory;
 
 public class PhreakAsyncSendNode {
 
-    private Executor executor() {
-        return ExecutorProviderFactory.getExecutorProvider().getExecutor();
+    private Executor executor(ReteEvaluator reteEvaluator) {
+        return reteEvaluator.getSessionConfiguration().isVirtualThreads() ?
+               VirtualThreads.executor() :
+               ExecutorProviderFactory.getExecutorProvider().getExecutor();
     }
 
     public void doNode(AsyncSendNode node,
@@ -84,7 +87,7 @@ public class PhreakAsyncSendNode {
 
             TupleImpl finalLeftTuple = leftTuple;
 
-            executor().execute( () -> {
+            executor(reteEvaluator).execute( () -> {
                 // TODO context is not thread safe, it needs to be cloned
                 fetchAndSendResults( node, memory, reteEvaluator, context, betaConstraints, alphaConstraints, dataProvider,
                         resultClass, finalLeftTuple, propagationContext );
@@ -112,6 +112,12 @@ public class PhreakExistsNode {
                               TupleSets trgLeftTuples) {
         TupleMemory ltm = bm.getLeftTupleMemory();
         TupleMemory rtm = bm.getRightTupleMemory();
+
+        if (ParallelLeftInsertsEvaluator.isParallelEvaluation(existsNode, rtm, reteEvaluator, srcLeftTuples)) {
+            doParallelLeftInserts(existsNode, sink, ltm, rtm, reteEvaluator, srcLeftTuples, trgLeftTuples);
+            return;
+        }
+
         Object contextEntry = bm.getContext();
         BetaConstraints constraints = existsNode.getRawConstraints();
 
@@ -140,6 +146,34 @@ public class PhreakExistsNode {
         constraints.resetTuple( contextEntry );
     }
 
+    private void doParallelLeftInserts(ExistsNode existsNode,
+                                       LeftTupleSink sink,
+                                       TupleMemory ltm,
+                                       TupleMemory rtm,
+                                       ReteEvaluator reteEvaluator,
+                                       TupleSets srcLeftTuples,
+                                       TupleSets trgLeftTuples) {
+        TupleImpl[] leftTuples = ParallelLeftInsertsEvaluator.stagedInserts(srcLeftTuples);
+        TupleImpl[][] matches = ParallelLeftInsertsEvaluator.findMatches(existsNode, rtm, reteEvaluator, leftTuples, true);
+
+        for (int i = 0; i < leftTuples.length; i++) {
+            TupleImpl leftTuple = leftTuples[i];
+
+            boolean useLeftMemory = RuleNetworkEvaluator.useLeftMemory(existsNode, leftTuple);
+
+            ParallelLeftInsertsEvaluator.setLeftTupleBlocker(leftTuple, matches[i], useLeftMemory);
+
+            if (leftTuple.getBlocker() != null) {
+                // tuple is not blocked to propagate
+                insertChildLeftTuple( sink, trgLeftTuples, leftTuple, leftTuple.getBlocker().getPropagationContext(),useLeftMemory );
+            } else if (useLeftMemory) {
+                // LeftTuple is not blocked, so add to memory so other RightTuples can match
+                ltm.add(leftTuple);
+            }
+            leftTuple.clearStaged();
+        }
+    }
+
     public void doRightInserts(ExistsNode existsNode,
                                LeftTupleSink sink,
                                BetaMemory bm,
@@ -18,20 +18,27 @@
  */
 package org.drools.core.phreak;
 
+import org.drools.base.reteoo.NodeTypeEnums;
+import org.drools.core.RuleBaseConfiguration;
 import org.drools.core.common.BetaConstraints;
 import org.drools.core.common.ReteEvaluator;
 import org.drools.core.common.TupleSets;
 import org.drools.core.reteoo.BetaMemory;
 import org.drools.core.reteoo.JoinNode;
 import org.drools.core.reteoo.LeftTuple;
+import org.drools.core.reteoo.LeftTuplePool;
 import org.drools.core.reteoo.LeftTupleSink;
+import org.drools.core.reteoo.SegmentMemory;
 import org.drools.core.reteoo.TupleFactory;
 import org.drools.core.reteoo.TupleImpl;
 import org.drools.core.reteoo.TupleMemory;
-import org.drools.core.util.AbstractHashTable;
 import org.drools.core.util.FastIterator;
 
 public class PhreakJoinNode {
+
+    // below this size removing the deleted tuples one by one is cheaper than reallocating the emptied memory
+    private static final int BULK_DELETE_MIN_SIZE = 64;
+
     public void doNode(JoinNode joinNode,
                        LeftTupleSink sink,
                        BetaMemory bm,
@@ -86,6 +93,14 @@ public class PhreakJoinNode {
                               TupleSets trgLeftTuples) {
         TupleMemory ltm = bm.getLeftTupleMemory();
         TupleMemory rtm = bm.getRightTupleMemory();
+
+        LeftTuplePool tuplePool = getTuplePool(joinNode, sink, bm, reteEvaluator);
+
+        if (ParallelLeftInsertsEvaluator.isParallelEvaluation(joinNode, rtm, reteEvaluator, srcLeftTuples)) {
+            doParallelLeftInserts(joinNode, sink, ltm, rtm, reteEvaluator, srcLeftTuples, trgLeftTuples, tuplePool);
+            return;
+        }
+
         Object contextEntry = bm.getContext();
         BetaConstraints constraints = joinNode.getRawConstraints();
 
@@ -112,7 +127,8 @@ public class PhreakJoinNode {
                                          null,
                                          null,
                                          sink,
-                                         useLeftMemory);
+                                         useLeftMemory,
+                                         tuplePool);
                 }
 
             }
@@ -122,6 +138,40 @@ public class PhreakJoinNode {
         constraints.resetTuple( contextEntry );
     }
 
+    private void doParallelLeftInserts(JoinNode joinNode,
+                                       LeftTupleSink sink,
+                                       TupleMemory ltm,
+                                       TupleMemory rtm,
+                                       ReteEvaluator reteEvaluator,
+                                       TupleSets srcLeftTuples,
+                                       TupleSets trgLeftTuples,
+                                       LeftTuplePool tuplePool) {
+        TupleImpl[] leftTuples = ParallelLeftInsertsEvaluator.stagedInserts(srcLeftTuples);
+        TupleImpl[][] matches = ParallelLeftInsertsEvaluator.findMatches(joinNode, rtm, reteEvaluator, leftTuples, false);
+
+        for (int i = 0; i < leftTuples.length; i++) {
+            TupleImpl leftTuple = leftTuples[i];
+
+            boolean useLeftMemory = RuleNetworkEvaluator.useLeftMemory( joinNode, leftTuple );
+
+            if (useLeftMemory) {
+                ltm.add(leftTuple);
+            }
+
+            for (TupleImpl rightTuple : matches[i]) {
+                insertChildLeftTuple(trgLeftTuples,
+                                     leftTuple,
+                                     rightTuple,
+                                     null,
+                                     null,
+                                     sink,
+                                     useLeftMemory,
+                                     tuplePool);
+            }
+            leftTuple.clearStaged();
+        }
+    }
+
     public void doRightInserts(JoinNode joinNode,
                                LeftTupleSink sink,
                                BetaMemory<?> bm,
@@ -132,10 +182,9 @@ public class PhreakJoinNode {
         TupleMemory rtm = bm.getRightTupleMemory();
         Object contextEntry = bm.getContext();
         BetaConstraints constraints = joinNode.getRawConstraints();
+        LeftTuplePool tuplePool = getTuplePool(joinNode, sink, bm, reteEvaluator);
 
-        if (srcRightTuples.getInsertSize() > 32 && rtm instanceof AbstractHashTable ) {
-            ((AbstractHashTable) rtm).ensureCapacity(srcRightTuples.getInsertSize());
-        }
+        RuleNetworkEvaluator.ensureRightMemoryCapacity(rtm, srcRightTuples);
 
         for (TupleImpl rightTuple = srcRightTuples.getInsertFirst(); rightTuple != null; ) {
             TupleImpl next = rightTuple.getStagedNext();
@@ -162,7 +211,8 @@ public class PhreakJoinNode {
                                               null,
                                               null,
                                               sink,
-                                              true );
+                                              true,
+                                              tuplePool );
                     }
                 }
             }
@@ -396,12 +446,15 @@ public class PhreakJoinNode {
                               TupleSets trgLeftTuples,
                               TupleSets stagedLeftTuples) {
         TupleMemory ltm = bm.getLeftTupleMemory();
+        // the deleted tuples have been created by the previous node with this one as sink, and possibly recycled for it
+        LeftTuplePool tuplePool = bm.getSegmentMemory() != null ? bm.getSegmentMemory().getTuplePool() : null;
+        boolean clearMemory = isDeletingWholeMemory(ltm, srcLeftTuples);
 
         for (TupleImpl leftTuple = srcLeftTuples.getDeleteFirst(); leftTuple != null; ) {
             TupleImpl next = leftTuple.getStagedNext();
             if (leftTuple.getMemory() != null) {
                 // it may have been staged and never actually added
-                ltm.remove(leftTuple);
+                removeFromMemory(ltm, leftTuple, clearMemory);
             }
 
             if (leftTuple.getFirstChild() != null) {
@@ -414,8 +467,15 @@ public class PhreakJoinNode {
                 }
             }
             leftTuple.clearStaged();
+            if (tuplePool != null) {
+                tuplePool.release(leftTuple);
+            }
             leftTuple = next;
         }
+
+        if (clearMemory) {
+            ltm.clear();
+        }
     }
 
     public void doRightDeletes(BetaMemory bm,
@@ -423,12 +483,13 @@ public class PhreakJoinNode {
                                TupleSets trgLeftTuples,
                                TupleSets stagedLeftTuples) {
         TupleMemory rtm = bm.getRightTupleMemory();
+        boolean clearMemory = isDeletingWholeMemory(rtm, srcRightTuples);
 
         for (TupleImpl rightTuple = srcRightTuples.getDeleteFirst(); rightTuple != null; ) {
             TupleImpl next = rightTuple.getStagedNext();
             if (rightTuple.getMemory() != null) {
                 // it may have been staged and never actually added
-                rtm.remove(rightTuple);
+                removeFromMemory(rtm, rightTuple, clearMemory);
             }
 
             if (rightTuple.getFirstChild() != null) {
@@ -443,6 +504,38 @@ public class PhreakJoinNode {
             rightTuple.clearStaged();
             rightTuple = next;
         }
+
+        if (clearMemory) {
+            rtm.clear();
+        }
+    }
+
+    /**
+     * Returns true if all the tuples of the given memory are staged for deletion, as it happens when all the facts
+     * of a type are deleted at once. In this case the memory is emptied with a single clear, instead of looking up
+     * the bucket of each tuple to remove it.
+     */
+    private static boolean isDeletingWholeMemory(TupleMemory memory, TupleSets srcTuples) {
+        int size = memory.size();
+        if (size < BULK_DELETE_MIN_SIZE) {
+            return false;
+        }
+        int deletedFromMemory = 0;
+        for (TupleImpl tuple = srcTuples.getDeleteFirst(); tuple != null; tuple = tuple.getStagedNext()) {
+            if (tuple.getMemory() != null) {
+                deletedFromMemory++;
+            }
+        }
+        return deletedFromMemory == size;
+    }
+
+    private static void removeFromMemory(TupleMemory memory, TupleImpl tuple, boolean clearMemory) {
+        if (clearMemory) {
+            // only unlinks the tuple, the whole memory is cleared once all the deletes have been processed
+            tuple.clear();
+        } else {
+            memory.remove(tuple);
+        }
     }
 
     public static void updateChildLeftTuple(TupleImpl childLeftTuple,
@@ -474,8 +567,26 @@ public class PhreakJoinNode {
                                               TupleImpl currentRightChild,
                                               LeftTupleSink sink,
                                               boolean leftTupleMemoryEnabled ) {
+        insertChildLeftTuple(trgLeftTuples, leftTuple, rightTuple, currentLeftChild, currentRightChild, sink, leftTupleMemoryEnabled, null);
+    }
+
+    private static void insertChildLeftTuple( TupleSets trgLeftTuples,
+                                              TupleImpl leftTuple,
+                                              TupleImpl rightTuple,
+                                              TupleImpl currentLeftChild,
+                                              TupleImpl currentRightChild,
+                                              LeftTupleSink sink,
+                                              boolean leftTupleMemoryEnabled,
+                                              LeftTuplePool tuplePool ) {
         if (!leftTuple.isExpired() && !rightTuple.isExpired()) {
-            trgLeftTuples.addInsert(TupleFactory.createLeftTuple(leftTuple,
+            trgLeftTuples.addInsert(tuplePool != null ?
+                                    tuplePool.acquire(leftTuple,
+                                                      rightTuple,
+                                                      currentLeftChild,
+                                                      currentRightChild,
+                                                      sink,
+                                                      leftTupleMemoryEnabled) :
+                                    TupleFactory.createLeftTuple(leftTuple,
                                                                  rightTuple,
                                                                  currentLeftChild,
                                                                  currentRightChild,
@@ -483,4 +594,18 @@ public class PhreakJoinNode {
                                                                  leftTupleMemoryEnabled));
         }
     }
+
+    /**
+     * Returns the pool of the segment of this node when the tuples it creates can be recycled, that is when
+     * the pooling is enabled and they are propagated to another join node of the same segment, null otherwise.
+     */
+    private static LeftTuplePool getTuplePool(JoinNode joinNode, LeftTupleSink sink, BetaMemory<?> bm, ReteEvaluator reteEvaluator) {
+        RuleBaseConfiguration config = reteEvaluator.getKnowledgeBase().getRuleBaseConfiguration();
+        SegmentMemory smem = bm.getSegmentMemory();
+        if (config.getTuplePoolSize() <= 0 || config.isParallelEvaluation() || smem == null ||
+            sink.getType() != NodeTypeEnums.JoinNode || smem.getTipNode() == joinNode) {
+            return null;
+        }
+        return smem.getOrCreateTuplePool(config.getTuplePoolSize());
+    }
 }
@@ -116,6 +116,12 @@ public class PhreakNotNode {
                               TupleSets trgLeftTuples) {
         TupleMemory ltm = bm.getLeftTupleMemory();
         TupleMemory rtm = bm.getRightTupleMemory();
+
+        if (ParallelLeftInsertsEvaluator.isParallelEvaluation(notNode, rtm, reteEvaluator, srcLeftTuples)) {
+            doParallelLeftInserts(notNode, sink, ltm, rtm, reteEvaluator, srcLeftTuples, trgLeftTuples);
+            return;
+        }
+
         Object contextEntry = bm.getContext();
         BetaConstraints constraints = notNode.getRawConstraints();
 
@@ -140,6 +146,30 @@ public class PhreakNotNode {
         constraints.resetTuple( contextEntry );
     }
 
+    private void doParallelLeftInserts(NotNode notNode,
+                                       LeftTupleSink sink,
+                                       TupleMemory ltm,
+                                       TupleMemory rtm,
+                                       ReteEvaluator reteEvaluator,
+                                       TupleSets srcLeftTuples,
+                                       TupleSets trgLeftTuples) {
+        TupleImpl[] leftTuples = ParallelLeftInsertsEvaluator.stagedInserts(srcLeftTuples);
+        TupleImpl[][] matches = ParallelLeftInsertsEvaluator.findMatches(notNode, rtm, reteEvaluator, leftTuples, true);
+
+        for (int i = 0; i < leftTuples.length; i++) {
+            TupleImpl leftTuple = leftTuples[i];
+
+            boolean useLeftMemory = RuleNetworkEvaluator.useLeftMemory(notNode, leftTuple);
+
+            ParallelLeftInsertsEvaluator.setLeftTupleBlocker(leftTuple, matches[i], useLeftMemory);
+
+            if (leftTuple.getBlocker() == null) {
+                insertChildLeftTuple( sink, trgLeftTuples, ltm, leftTuple, leftTuple.getPropagationContext(), useLeftMemory );
+            }
+            leftTuple.clearStaged();
+        }
+    }
+
     public void doRightInserts(NotNode notNode,
                                BetaMemory bm,
                                ReteEvaluator reteEvaluator,
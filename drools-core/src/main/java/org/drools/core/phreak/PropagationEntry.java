@@ -240,6 +240,10 @@ public interface PropagationEntry {
             for ( ObjectTypeNode otn : objectTypeConf.getObjectTypeNodes() ) {
                 otn.propagateAssert( handle, context, reteEvaluator );
             }
+            removeIfOrphan( handle, reteEvaluator );
+        }
+
+        private static void removeIfOrphan(InternalFactHandle handle, ReteEvaluator reteEvaluator) {
             if ( isOrphanHandle(handle, reteEvaluator) ) {
                 handle.setDisconnected(true);
                 handle.getEntryPoint(reteEvaluator).getObjectStore().removeHandle( handle );
@@ -319,6 +323,81 @@ public interface PropagationEntry {
         }
     }
 
+    /**
+     * Insertion of a batch of facts of the same type, propagated through each ObjectTypeNode in a single pass.
+     */
+    class InsertBatch extends AbstractPropagationEntry implements Externalizable {
+
+        private InternalFactHandle[] handles;
+        private PropagationContext[] contexts;
+        private ObjectTypeConf objectTypeConf;
+
+        public InsertBatch() { }
+
+        public InsertBatch( InternalFactHandle[] handles, PropagationContext[] contexts, ReteEvaluator reteEvaluator, ObjectTypeConf objectTypeConf ) {
+            this.handles = handles;
+            this.contexts = contexts;
+            this.objectTypeConf = objectTypeConf;
+
+            scheduleExpirations( handles, contexts, reteEvaluator, objectTypeConf );
+        }
+
+        public static void execute( InternalFactHandle[] handles, PropagationContext[] contexts, ReteEvaluator reteEvaluator, ObjectTypeConf objectTypeConf ) {
+            scheduleExpirations( handles, contexts, reteEvaluator, objectTypeConf );
+            propagate( handles, contexts, reteEvaluator, objectTypeConf );
+        }
+
+        private static void scheduleExpirations( InternalFactHandle[] handles, PropagationContext[] contexts, ReteEvaluator reteEvaluator, ObjectTypeConf objectTypeConf ) {
+            if ( !handles[0].isEvent() ) {
+                return;
+            }
+            long insertionTime = reteEvaluator.getTimerService().getCurrentTime();
+            for ( int i = 0; i < handles.length; i++ ) {
+                Insert.scheduleExpiration( reteEvaluator, handles[i], contexts[i], objectTypeConf, insertionTime );
+            }
+        }
+
+        private static void propagate( InternalFactHandle[] handles, PropagationContext[] contexts, ReteEvaluator reteEvaluator, ObjectTypeConf objectTypeConf ) {
+            if (objectTypeConf == null) {
+                // it can be null after deserialization
+                objectTypeConf = handles[0].getEntryPoint(reteEvaluator).getObjectTypeConfigurationRegistry().getOrCreateObjectTypeConf(handles[0].getEntryPointId(), handles[0].getObject());
+            }
+            for ( ObjectTypeNode otn : objectTypeConf.getObjectTypeNodes() ) {
+                otn.propagateAssert( handles, contexts, reteEvaluator );
+            }
+            for ( InternalFactHandle handle : handles ) {
+                Insert.removeIfOrphan( handle, reteEvaluator );
+            }
+        }
+
+        public void internalExecute(ReteEvaluator reteEvaluator ) {
+            propagate( handles, contexts, reteEvaluator, objectTypeConf );
+        }
+
+        public InternalFactHandle[] getHandles() {
+            return handles;
+        }
+
+        @Override
+        public String toString() {
+            return "Insert of " + handles.length + " facts";
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeObject(next);
+            out.writeObject(handles);
+            out.writeObject(contexts);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+            this.next = (PropagationEntry) in.readObject();
+            this.handles = (InternalFactHandle[]) in.readObject();
+            this.contexts = (PropagationContext[]) in.readObject();
+        }
+    }
+
     class Update extends AbstractPropagationEntry implements Externalizable {
         private InternalFactHandle handle;
         private PropagationContext context;
@@ -459,6 +538,43 @@ public interface PropagationEntry {
         }
     }
 
+    /**
+     * Deletion of a batch of facts of the same type. All their tuples are staged for deletion before the network
+     * is evaluated again, so each node processes the deletes of the whole batch in a single pass.
+     */
+    class DeleteBatch extends AbstractPropagationEntry {
+        private final EntryPointNode epn;
+        private final InternalFactHandle[] handles;
+        private final PropagationContext[] contexts;
+        private final ObjectTypeConf objectTypeConf;
+
+        public DeleteBatch(EntryPointNode epn, InternalFactHandle[] handles, PropagationContext[] contexts, ObjectTypeConf objectTypeConf) {
+            this.epn = epn;
+            this.handles = handles;
+            this.contexts = contexts;
+            this.objectTypeConf = objectTypeConf;
+        }
+
+        public void internalExecute(ReteEvaluator reteEvaluator) {
+            execute(reteEvaluator, epn, handles, contexts, objectTypeConf);
+        }
+
+        public static void execute(ReteEvaluator reteEvaluator, EntryPointNode epn, InternalFactHandle[] handles, PropagationContext[] contexts, ObjectTypeConf objectTypeConf) {
+            for ( int i = 0; i < handles.length; i++ ) {
+                epn.propagateRetract(handles[i], contexts[i], objectTypeConf, reteEvaluator);
+            }
+        }
+
+        public InternalFactHandle[] getHandles() {
+            return handles;
+        }
+
+        @Override
+        public String toString() {
+            return "Delete of " + handles.length + " facts";
+        }
+    }
+
     class PartitionedDelete extends AbstractPartitionedPropagationEntry {
         private final InternalFactHandle handle;
         private final PropagationContext context;
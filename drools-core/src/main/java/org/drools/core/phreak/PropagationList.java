@@ -19,6 +19,8 @@
 package org.drools.core.phreak;
 
 import java.util.Iterator;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 public interface PropagationList {
     void addEntry(PropagationEntry propagationEntry);
@@ -38,6 +40,20 @@ public interface PropagationList {
 
     void waitOnRest();
 
+    /**
+     * Takes the entries with the given function or, if there are none and the given condition holds, waits on rest
+     * and takes them again. Implementations shared by multiple threads make the check and the wait atomic with
+     * respect to the threads adding entries, so that the waiting thread can't miss any of them.
+     */
+    default PropagationEntry takeOrWaitOnRest(Supplier<PropagationEntry> take, BooleanSupplier canWait) {
+        PropagationEntry head = take.get();
+        if (head == null && canWait.getAsBoolean()) {
+            waitOnRest();
+            head = take.get();
+        }
+        return head;
+    }
+
     void notifyWaitOnRest();
 
     void onEngineInactive();
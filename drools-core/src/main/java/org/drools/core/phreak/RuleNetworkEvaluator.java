@@ -601,6 +601,11 @@ public class RuleNetworkEvaluator {
                 break;
             }
         }
+
+        if (node.getType() != NodeTypeEnums.AccumulateNode) {
+            // the memories of the node have just been populated, so their skew can be checked for the next evaluations
+            BetaIndexAdapter.adaptIndex((BetaNode) node, bm, reteEvaluator);
+        }
     }
 
     private void doRiaNode(ActivationsManager activationsManager,
@@ -861,6 +866,16 @@ public class RuleNetworkEvaluator {
         }
     }
 
+    /**
+     * Grows the right memory up front when a large batch of right tuples is about to be inserted, so that
+     * a hash indexed memory is resized once instead of several times while the batch is added.
+     */
+    public static void ensureRightMemoryCapacity(TupleMemory rtm, TupleSets srcRightTuples) {
+        if (srcRightTuples.getInsertSize() > 32) {
+            rtm.ensureCapacity(srcRightTuples.getInsertSize());
+        }
+    }
+
     public static void doUpdatesReorderRightMemory(BetaMemory bm, TupleSets srcRightTuples) {
         TupleMemory rtm = bm.getRightTupleMemory();
 
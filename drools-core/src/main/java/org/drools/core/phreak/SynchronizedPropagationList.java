@@ -19,11 +19,19 @@
 package org.drools.core.phreak;
 
 import java.util.Iterator;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 import org.drools.core.common.ReteEvaluator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A thread safe PropagationList guarding its entries with a lock. A j.u.c. lock is used instead of the object monitor
+ * so that a virtual thread waiting on rest in a fireUntilHalt doesn't pin its carrier thread.
+ */
 public class SynchronizedPropagationList implements PropagationList {
 
     protected static final Logger log = LoggerFactory.getLogger( SynchronizedPropagationList.class );
@@ -39,6 +47,10 @@ public class SynchronizedPropagationList implements PropagationList {
 
     protected volatile boolean firingUntilHalt = false;
 
+    protected final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition rest = lock.newCondition();
+
     public SynchronizedPropagationList(ReteEvaluator reteEvaluator) {
         this.reteEvaluator = reteEvaluator;
     }
@@ -72,17 +84,22 @@ public class SynchronizedPropagationList implements PropagationList {
         }
     }
 
-    synchronized void internalAddEntry( PropagationEntry entry ) {
-        if ( head == null ) {
-            head = entry;
-            if (firingUntilHalt) {
-                notifyWaitOnRest();
+    void internalAddEntry( PropagationEntry entry ) {
+        lock.lock();
+        try {
+            if ( head == null ) {
+                head = entry;
+                if ( firingUntilHalt ) {
+                    rest.signalAll();
+                }
+            } else {
+                tail.setNext( entry );
             }
-        } else {
-            tail.setNext( entry );
+            tail = entry;
+            hasEntriesDeferringExpiration |= entry.defersExpiration();
+        } finally {
+            lock.unlock();
         }
-        tail = entry;
-        hasEntriesDeferringExpiration |= entry.defersExpiration();
     }
 
     @Override
@@ -111,43 +128,81 @@ public class SynchronizedPropagationList implements PropagationList {
     }
 
     @Override
-    public synchronized PropagationEntry takeAll() {
-        PropagationEntry currentHead = head;
-        head = null;
-        tail = null;
-        hasEntriesDeferringExpiration = false;
-        return currentHead;
+    public PropagationEntry takeAll() {
+        lock.lock();
+        try {
+            PropagationEntry currentHead = head;
+            head = null;
+            tail = null;
+            hasEntriesDeferringExpiration = false;
+            return currentHead;
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized void reset() {
-        head = null;
-        tail = null;
-        disposed = false;
+    public void reset() {
+        lock.lock();
+        try {
+            head = null;
+            tail = null;
+            disposed = false;
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized boolean isEmpty() {
-        return head == null;
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return head == null;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized void waitOnRest() {
+    public void waitOnRest() {
+        lock.lock();
         try {
-            wait();
+            rest.await();
         } catch (InterruptedException e) {
             // do nothing
+        } finally {
+            lock.unlock();
         }
     }
 
+    @Override
+    public PropagationEntry takeOrWaitOnRest(Supplier<PropagationEntry> take, BooleanSupplier canWait) {
+        // holding the lock, which is released only while waiting, no entry can be added between the check and the wait
+        lock.lock();
+        try {
+            return PropagationList.super.takeOrWaitOnRest( take, canWait );
+        } finally {
+            lock.unlock();
+        }
+    }
 
     @Override
-    public synchronized void notifyWaitOnRest() {
-        notifyAll();
+    public void notifyWaitOnRest() {
+        lock.lock();
+        try {
+            rest.signalAll();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized Iterator<PropagationEntry> iterator() {
-        return new PropagationEntryIterator(head);
+    public Iterator<PropagationEntry> iterator() {
+        lock.lock();
+        try {
+            return new PropagationEntryIterator(head);
+        } finally {
+            lock.unlock();
+        }
     }
 
     public static class PropagationEntryIterator implements Iterator<PropagationEntry> {
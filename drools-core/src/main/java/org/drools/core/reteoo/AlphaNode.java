@@ -18,6 +18,7 @@
  */
 package org.drools.core.reteoo;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -126,6 +127,35 @@ public class AlphaNode extends ObjectSource
         }
     }
 
+    @Override
+    public void assertObjects(final InternalFactHandle[] factHandles,
+                              final PropagationContext[] contexts,
+                              final ReteEvaluator reteEvaluator) {
+        // evaluates the constraint over the whole batch and propagates only the allowed facts,
+        // reusing the original arrays when none of them has been filtered out
+        InternalFactHandle[] allowedHandles = factHandles;
+        PropagationContext[] allowedContexts = contexts;
+        int allowed = 0;
+        for (int i = 0; i < factHandles.length; i++) {
+            if (this.constraint.isAllowed(factHandles[i], reteEvaluator)) {
+                if (allowedHandles != factHandles) {
+                    allowedHandles[allowed] = factHandles[i];
+                    allowedContexts[allowed] = contexts[i];
+                }
+                allowed++;
+            } else if (allowedHandles == factHandles) {
+                allowedHandles = Arrays.copyOf(factHandles, factHandles.length - 1);
+                allowedContexts = Arrays.copyOf(contexts, contexts.length - 1);
+            }
+        }
+
+        if (allowed == factHandles.length) {
+            this.sink.propagateAssertObjects(factHandles, contexts, reteEvaluator);
+        } else if (allowed > 0) {
+            this.sink.propagateAssertObjects(Arrays.copyOf(allowedHandles, allowed), Arrays.copyOf(allowedContexts, allowed), reteEvaluator);
+        }
+    }
+
     public void modifyObject(final InternalFactHandle factHandle,
                              final ModifyPreviousTuples modifyPreviousTuples,
                              final PropagationContext context,
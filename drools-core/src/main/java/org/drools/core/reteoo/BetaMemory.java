@@ -24,6 +24,10 @@ import org.drools.core.common.TupleSets;
 import org.drools.core.common.TupleSetsImpl;
 import org.drools.core.reteoo.RightInputAdapterNode.RiaPathMemory;
 import org.drools.core.util.AbstractLinkedListNode;
+import org.drools.core.util.FastIterator;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class BetaMemory<C> extends AbstractLinkedListNode<Memory> implements SegmentNodeMemory {
 
@@ -37,6 +41,8 @@ public class BetaMemory<C> extends AbstractLinkedListNode<Memory> implements Seg
     private long                       nodePosMaskBit;
     private int                        counter;
     private RiaPathMemory              riaRuleMemory;
+    // true when the index of this memory has already been adapted, or can't be, to its actual content
+    private boolean                    indexAdapted;
 
     public BetaMemory() {
     }
@@ -68,6 +74,40 @@ public class BetaMemory<C> extends AbstractLinkedListNode<Memory> implements Seg
         return this.leftTupleMemory;
     }
 
+    public boolean isIndexAdapted() {
+        return indexAdapted;
+    }
+
+    public void setIndexAdapted(boolean indexAdapted) {
+        this.indexAdapted = indexAdapted;
+    }
+
+    /**
+     * Replaces the left and right tuple memories with the given ones, moving into them all the tuples
+     * currently held by this memory.
+     */
+    public void reindex(TupleMemory newLeftTupleMemory, TupleMemory newRightTupleMemory) {
+        this.leftTupleMemory = moveTuples(this.leftTupleMemory, newLeftTupleMemory);
+        this.rightTupleMemory = moveTuples(this.rightTupleMemory, newRightTupleMemory);
+    }
+
+    private static TupleMemory moveTuples(TupleMemory from, TupleMemory to) {
+        if (from == null || from.size() == 0) {
+            return to;
+        }
+        List<TupleImpl> tuples = new ArrayList<>(from.size());
+        FastIterator<TupleImpl> it = from.fullFastIterator();
+        for (TupleImpl tuple = BetaNode.getFirstTuple(from, it); tuple != null; tuple = it.next(tuple)) {
+            tuples.add(tuple);
+        }
+        for (TupleImpl tuple : tuples) {
+            // unlink the tuple from the bucket of the old memory before adding it to the new one
+            tuple.clear();
+            to.add(tuple);
+        }
+        return to;
+    }
+
     public RiaPathMemory getRiaRuleMemory() {
         return riaRuleMemory;
     }
@@ -540,6 +540,73 @@ public class CompositeObjectSinkAdapter implements ObjectSinkPropagator {
     public void propagateAssertObject(final InternalFactHandle factHandle,
                                       final PropagationContext context,
                                       final ReteEvaluator reteEvaluator) {
+        propagateIndexedAssertObject( factHandle, context, reteEvaluator );
+
+        // propagate unhashed
+        if ( this.hashableSinks != null ) {
+            for ( ObjectSinkNode sink : this.hashableSinks ) {
+                doPropagateAssertObject( factHandle,
+                                         context,
+                                         reteEvaluator,
+                                         sink );
+            }
+        }
+
+        // propagate un-rangeindexed
+        if ( this.rangeIndexableSinks != null ) {
+            for ( ObjectSinkNode sink : this.rangeIndexableSinks ) {
+                doPropagateAssertObject( factHandle,
+                                         context,
+                                         reteEvaluator,
+                                         sink );
+            }
+        }
+
+        if ( this.otherSinks != null ) {
+            // propagate others
+            for ( ObjectSinkNode sink : this.otherSinks ) {
+                doPropagateAssertObject( factHandle,
+                                         context,
+                                         reteEvaluator,
+                                         sink );
+            }
+        }
+    }
+
+    @Override
+    public void propagateAssertObjects(final InternalFactHandle[] factHandles,
+                                       final PropagationContext[] contexts,
+                                       final ReteEvaluator reteEvaluator) {
+        // the hashed and range indexed sinks are looked up fact by fact
+        if ( this.hashedFieldIndexes != null || this.rangeIndexMap != null ) {
+            for ( int i = 0; i < factHandles.length; i++ ) {
+                propagateIndexedAssertObject( factHandles[i], contexts[i], reteEvaluator );
+            }
+        }
+
+        // while each of the other sinks receives the whole batch
+        if ( this.hashableSinks != null ) {
+            for ( ObjectSinkNode sink : this.hashableSinks ) {
+                sink.assertObjects( factHandles, contexts, reteEvaluator );
+            }
+        }
+
+        if ( this.rangeIndexableSinks != null ) {
+            for ( ObjectSinkNode sink : this.rangeIndexableSinks ) {
+                sink.assertObjects( factHandles, contexts, reteEvaluator );
+            }
+        }
+
+        if ( this.otherSinks != null ) {
+            for ( ObjectSinkNode sink : this.otherSinks ) {
+                sink.assertObjects( factHandles, contexts, reteEvaluator );
+            }
+        }
+    }
+
+    private void propagateIndexedAssertObject(final InternalFactHandle factHandle,
+                                              final PropagationContext context,
+                                              final ReteEvaluator reteEvaluator) {
         final Object object = factHandle.getObject();
 
         // Iterates the FieldIndex collection, which tells you if particularly field is hashed or not
@@ -573,36 +640,6 @@ public class CompositeObjectSinkAdapter implements ObjectSinkPropagator {
                 }
             }
         }
-
-        // propagate unhashed
-        if ( this.hashableSinks != null ) {
-            for ( ObjectSinkNode sink : this.hashableSinks ) {
-                doPropagateAssertObject( factHandle,
-                                         context,
-                                         reteEvaluator,
-                                         sink );
-            }
-        }
-
-        // propagate un-rangeindexed
-        if ( this.rangeIndexableSinks != null ) {
-            for ( ObjectSinkNode sink : this.rangeIndexableSinks ) {
-                doPropagateAssertObject( factHandle,
-                                         context,
-                                         reteEvaluator,
-                                         sink );
-            }
-        }
-
-        if ( this.otherSinks != null ) {
-            // propagate others
-            for ( ObjectSinkNode sink : this.otherSinks ) {
-                doPropagateAssertObject( factHandle,
-                                         context,
-                                         reteEvaluator,
-                                         sink );
-            }
-        }
     }
 
     public void propagateModifyObject(final InternalFactHandle factHandle,
@@ -204,6 +204,29 @@ public class EntryPointNode extends ObjectSource implements ObjectSink {
         }
     }
 
+    /**
+     * Asserts a batch of fact handles of the same type, each one with its own propagation context at the same index.
+     */
+    public void assertObjects(final InternalFactHandle[] handles,
+                              final PropagationContext[] contexts,
+                              final ObjectTypeConf objectTypeConf,
+                              final ReteEvaluator reteEvaluator) {
+        if ( log.isTraceEnabled() ) {
+            log.trace("Insert batch of {} facts", handles.length);
+        }
+
+        if ( parallelExecution ) {
+            // the partitioned sink adapters enqueue each insertion on the propagation queue of its own agenda
+            for ( int i = 0; i < handles.length; i++ ) {
+                PropagationEntry.Insert.execute( handles[i], contexts[i], reteEvaluator, objectTypeConf );
+            }
+        } else if ( !reteEvaluator.isThreadSafe() ) {
+            PropagationEntry.InsertBatch.execute( handles, contexts, reteEvaluator, objectTypeConf );
+        } else {
+            reteEvaluator.addPropagation( new PropagationEntry.InsertBatch( handles, contexts, reteEvaluator, objectTypeConf ) );
+        }
+    }
+
 
     public void modifyObject(final InternalFactHandle handle,
                              final PropagationContext pctx,
@@ -301,6 +324,25 @@ public class EntryPointNode extends ObjectSource implements ObjectSink {
         reteEvaluator.addPropagation(new PropagationEntry.Delete(this, handle, context, objectTypeConf));
     }
 
+    /**
+     * Retracts a batch of fact handles of the same type, each one with its own propagation context at the same index.
+     */
+    public void retractObjects(InternalFactHandle[] handles, PropagationContext[] contexts,
+                               ObjectTypeConf objectTypeConf, ReteEvaluator reteEvaluator) {
+        if ( log.isTraceEnabled() ) {
+            log.trace( "Delete batch of {} facts", handles.length );
+        }
+
+        if ( parallelExecution ) {
+            // each delete is split among the partitions of the handle
+            for ( int i = 0; i < handles.length; i++ ) {
+                reteEvaluator.addPropagation(new PropagationEntry.Delete(this, handles[i], contexts[i], objectTypeConf));
+            }
+        } else {
+            reteEvaluator.addPropagation(new PropagationEntry.DeleteBatch(this, handles, contexts, objectTypeConf));
+        }
+    }
+
     public void immediateDeleteObject(InternalFactHandle handle, PropagationContext context,
                                       ObjectTypeConf objectTypeConf, ReteEvaluator reteEvaluator) {
         if ( log.isTraceEnabled() ) {
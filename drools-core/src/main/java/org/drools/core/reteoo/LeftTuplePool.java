@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.reteoo;
+
+import org.drools.base.reteoo.NodeTypeEnums;
+
+/**
+ * A bounded stack of deleted join tuples that a segment memory reuses in place of allocating new ones.
+ *
+ * A deleted tuple is accepted only when nothing else can still reference it: it must be a plain LeftTuple
+ * created by a join node, so neither a terminal tuple exposed to the agenda nor a tuple carrying node specific
+ * state nor a root tuple linked to its fact handle, it must not have peers in other segments and it must never
+ * have had children, because a deleted child waiting to be evaluated by a later node still points to its parent.
+ */
+public class LeftTuplePool {
+
+    private final LeftTuple[] tuples;
+    private int size;
+
+    public LeftTuplePool(int capacity) {
+        this.tuples = new LeftTuple[capacity];
+    }
+
+    public TupleImpl acquire(TupleImpl leftTuple,
+                             TupleImpl rightTuple,
+                             TupleImpl currentLeftChild,
+                             TupleImpl currentRightChild,
+                             Sink sink,
+                             boolean leftTupleMemoryEnabled) {
+        if (size == 0) {
+            return new LeftTuple(leftTuple, rightTuple, currentLeftChild, currentRightChild, sink, leftTupleMemoryEnabled);
+        }
+        LeftTuple tuple = tuples[--size];
+        tuples[size] = null;
+        tuple.initJoinedTuple(leftTuple, rightTuple, currentLeftChild, currentRightChild, sink, leftTupleMemoryEnabled);
+        return tuple;
+    }
+
+    /**
+     * Recycles the given deleted tuple if it can't be referenced anymore and the pool is not full.
+     */
+    public boolean release(TupleImpl tuple) {
+        if (size == tuples.length || !isRecyclable(tuple)) {
+            return false;
+        }
+        tuple.recycle();
+        tuples[size++] = (LeftTuple) tuple;
+        return true;
+    }
+
+    private static boolean isRecyclable(TupleImpl tuple) {
+        return tuple.getClass() == LeftTuple.class &&
+               !tuple.hadChildren() &&
+               tuple.getPeer() == null &&
+               tuple.getRightParent() != null &&
+               tuple.getLeftParent() != null &&
+               tuple.getLeftParent().getSink().getType() == NodeTypeEnums.JoinNode;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -36,6 +36,18 @@ public interface ObjectSink
                       PropagationContext propagationContext,
                       ReteEvaluator reteEvaluator);
 
+    /**
+     * Asserts a batch of fact handles, each one with its own propagation context at the same index.
+     * The arrays must not be modified by the implementations, since they can be shared among sinks.
+     */
+    default void assertObjects(InternalFactHandle[] factHandles,
+                               PropagationContext[] contexts,
+                               ReteEvaluator reteEvaluator) {
+        for (int i = 0; i < factHandles.length; i++) {
+            assertObject(factHandles[i], contexts[i], reteEvaluator);
+        }
+    }
+
     void modifyObject(InternalFactHandle factHandle,
                       ModifyPreviousTuples modifyPreviousTuples,
                       PropagationContext context,
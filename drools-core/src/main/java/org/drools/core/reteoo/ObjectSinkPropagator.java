@@ -39,6 +39,18 @@ public interface ObjectSinkPropagator
                                PropagationContext context,
                                ReteEvaluator reteEvaluator);
 
+    /**
+     * Propagates a batch of fact handles, each one with its own propagation context at the same index.
+     * The default implementation propagates them one by one.
+     */
+    default void propagateAssertObjects(InternalFactHandle[] factHandles,
+                                        PropagationContext[] contexts,
+                                        ReteEvaluator reteEvaluator) {
+        for (int i = 0; i < factHandles.length; i++) {
+            propagateAssertObject(factHandles[i], contexts[i], reteEvaluator);
+        }
+    }
+
     BaseNode getMatchingNode(BaseNode candidate);
 
     ObjectSink[] getSinks();
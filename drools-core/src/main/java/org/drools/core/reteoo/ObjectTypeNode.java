@@ -49,6 +49,7 @@ import org.drools.core.reteoo.builder.BuildContext;
 import org.drools.core.time.Job;
 import org.drools.core.time.JobContext;
 import org.drools.core.time.impl.DefaultJobHandle;
+import org.drools.core.time.impl.TimingWheelScheduler;
 import org.drools.util.bitmask.BitMask;
 import org.drools.util.bitmask.EmptyBitMask;
 
@@ -217,6 +218,18 @@ public class ObjectTypeNode extends ObjectSource implements ObjectSink {
         this.sink.propagateAssertObject(factHandle, context, reteEvaluator);
     }
 
+    /**
+     * Propagate a batch of <code>FactHandle</code>s, all of a type accepted by this node, through the <code>Rete</code> network.
+     *
+     * @param factHandles   The fact handles.
+     * @param contexts      The propagation context of each fact handle.
+     * @param reteEvaluator The working memory session.
+     */
+    public void propagateAssert(InternalFactHandle[] factHandles, PropagationContext[] contexts, ReteEvaluator reteEvaluator) {
+        checkDirty();
+        this.sink.propagateAssertObjects(factHandles, contexts, reteEvaluator);
+    }
+
     /**
      * Retract the <code>FactHandleimpl</code> from the <code>Rete</code> network. Also remove the
      * <code>FactHandleImpl</code> from the node memory.
@@ -445,7 +458,11 @@ public class ObjectTypeNode extends ObjectSource implements ObjectSink {
         public void execute(JobContext ctx) {
             ExpireJobContext context = (ExpireJobContext) ctx;
 
-            context.reteEvaluator.addPropagation(context.expireAction);
+            // when fired by a timing wheel the expirations of a same tick are propagated together
+            if (!(context.reteEvaluator.getTimerService() instanceof TimingWheelScheduler timingWheel) ||
+                !timingWheel.deferExpiration(context.reteEvaluator, context.expireAction)) {
+                context.reteEvaluator.addPropagation(context.expireAction);
+            }
             context.getExpireAction().getFactHandle().removeJob( (DefaultJobHandle) context.getJobHandle());
         }
     }
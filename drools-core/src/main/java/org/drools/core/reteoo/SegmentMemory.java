@@ -63,6 +63,9 @@ public class SegmentMemory extends LinkedList<SegmentMemory>
     private SegmentMemory previous;
     private SegmentMemory next;
 
+    // deleted join tuples reused by the nodes of this segment, only created when the tuples pooling is enabled
+    private LeftTuplePool tuplePool;
+
     private transient List<PathMemory>  dataDrivenPathMemories;
 
     private transient List<SegmentMemory> peersWithDataDrivenPathMemories;
@@ -91,6 +94,17 @@ public class SegmentMemory extends LinkedList<SegmentMemory>
         return proto.getTipNode();
     }
 
+    public LeftTuplePool getTuplePool() {
+        return tuplePool;
+    }
+
+    public LeftTuplePool getOrCreateTuplePool(int capacity) {
+        if (tuplePool == null) {
+            tuplePool = new LeftTuplePool(capacity);
+        }
+        return tuplePool;
+    }
+
     public void setTipNode(LeftTupleNode tipNode) {
         this.proto.setTipNode(tipNode);
     }
@@ -73,6 +73,13 @@ public class SingleObjectSinkAdapter implements ObjectSinkPropagator {
         this.sink.assertObject( factHandle, context, reteEvaluator );
     }
 
+    @Override
+    public void propagateAssertObjects(InternalFactHandle[] factHandles,
+                                       PropagationContext[] contexts,
+                                       ReteEvaluator reteEvaluator) {
+        this.sink.assertObjects( factHandles, contexts, reteEvaluator );
+    }
+
     public void propagateModifyObject(InternalFactHandle factHandle,
                                             ModifyPreviousTuples modifyPreviousTuples,
                                             PropagationContext context,
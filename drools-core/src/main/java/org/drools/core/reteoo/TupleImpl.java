@@ -68,6 +68,8 @@ public abstract class TupleImpl implements Tuple<TupleImpl> {
     protected TupleImpl               lastChild;
     private TupleImpl               peer;
     private short                   stagedTypeForQueries;
+    // true once this tuple has been the left parent of another one, that may still reference it
+    private boolean                 hadChildren;
 
     public TupleImpl() {
         // constructor needed for serialisation
@@ -151,6 +153,19 @@ public abstract class TupleImpl implements Tuple<TupleImpl> {
                      TupleImpl currentRightChild,
                      Sink sink,
                      boolean leftTupleMemoryEnabled) {
+        initJoinedTuple(leftTuple, rightTuple, currentLeftChild, currentRightChild, sink, leftTupleMemoryEnabled);
+    }
+
+    /**
+     * Initializes this tuple as the one joining the given left and right tuples, linking it as their child.
+     * This is used both when a new tuple is created and when a recycled one is reused.
+     */
+    protected final void initJoinedTuple(TupleImpl leftTuple,
+                                         TupleImpl rightTuple,
+                                         TupleImpl currentLeftChild,
+                                         TupleImpl currentRightChild,
+                                         Sink sink,
+                                         boolean leftTupleMemoryEnabled) {
         setSink(sink);
         this.handle = rightTuple.getFactHandle();
         this.index = leftTuple.getIndex() + 1;
@@ -232,6 +247,46 @@ public abstract class TupleImpl implements Tuple<TupleImpl> {
     @Override
     public void setFirstChild(TupleImpl firstChild) {
         this.firstChild = firstChild;
+        if ( firstChild != null ) {
+            this.hadChildren = true;
+        }
+    }
+
+    /**
+     * Returns true if this tuple ever had a child. Even once deleted, such a child may still reference this tuple.
+     */
+    public boolean hadChildren() {
+        return hadChildren;
+    }
+
+    /**
+     * Clears all the state of this deleted tuple, so that it can be reused through initJoinedTuple.
+     */
+    public void recycle() {
+        this.index = 0;
+        this.parent = null;
+        this.rightParent = null;
+        this.rightParentPrevious = null;
+        this.rightParentNext = null;
+        this.stagedType = TupleImpl.NONE;
+        this.contextObject = null;
+        this.handle = null;
+        this.propagationContext = null;
+        this.stagedNext = null;
+        this.stagedPrevious = null;
+        this.previous = null;
+        this.next = null;
+        this.leftParent = null;
+        this.handlePrevious = null;
+        this.handleNext = null;
+        this.sink = null;
+        this.expired = false;
+        this.memory = null;
+        this.firstChild = null;
+        this.lastChild = null;
+        this.peer = null;
+        this.stagedTypeForQueries = 0;
+        this.hadChildren = false;
     }
 
     @Override
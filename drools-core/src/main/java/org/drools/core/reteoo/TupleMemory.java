@@ -53,6 +53,19 @@ public interface TupleMemory {
 
     int size();
 
+    /**
+     * Returns the number of distinct keys of this memory when it is hash indexed, -1 otherwise.
+     */
+    default int getKeysCount() {
+        return -1;
+    }
+
+    /**
+     * Prepares this memory for the insertion of the given number of tuples, a no-op for the memories that are not hash indexed.
+     */
+    default void ensureCapacity(int itemsToBeAdded) {
+    }
+
 //    Iterator<TupleImpl> iterator();
 
     FastIterator<TupleImpl> fastIterator();
@@ -73,4 +86,12 @@ public interface TupleMemory {
     IndexType getIndexType();
 
     void clear();
+
+    /**
+     * Returns true if getFirst and the iterators returned by fastIterator can be used by multiple threads at the same time,
+     * as long as this memory is not modified in the meanwhile.
+     */
+    default boolean isConcurrentReadSafe() {
+        return false;
+    }
 }
@@ -22,7 +22,10 @@ import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.PriorityQueue;
 
 import org.drools.base.time.JobHandle;
@@ -227,16 +230,34 @@ public class SlidingTimeWindow
         return "SlidingTimeWindow( size=" + size + " )";
     }
 
+    /**
+     * The events of a sliding time window ordered by start timestamp.
+     * Events normally arrive in timestamp order, so they are appended to a ring buffer of handles, with their
+     * timestamps kept in a parallel primitive array, and expired from its head in constant time. Only the events
+     * arriving out of order are kept in a priority queue, merged with the ring buffer when peeking the oldest event.
+     */
     public static class SlidingTimeWindowContext
             implements
             BehaviorContext,
             Externalizable {
 
-        private PriorityQueue<DefaultEventHandle> queue;
+        private static final int INITIAL_CAPACITY = 16;
+
+        // the slots of the events removed before reaching the head of the ring are set to null,
+        // keeping their timestamps so that the timestamps array is still sorted
+        private DefaultEventHandle[] ring;
+        private long[]               timestamps;
+        private int                  head;
+        private int                  length;
+        private int                  size;
+
+        private PriorityQueue<DefaultEventHandle> outOfOrder;
+
         private JobHandle                      jobHandle;
 
         public SlidingTimeWindowContext() {
-            this.queue = new PriorityQueue<>(16); // arbitrary size... can we improve it?
+            this.ring = new DefaultEventHandle[INITIAL_CAPACITY];
+            this.timestamps = new long[INITIAL_CAPACITY];
         }
 
         @Override
@@ -253,41 +274,165 @@ public class SlidingTimeWindow
         @SuppressWarnings("unchecked")
         public void readExternal(ObjectInput in) throws IOException,
                                                         ClassNotFoundException {
-            this.queue = (PriorityQueue<DefaultEventHandle>) in.readObject();
+            PriorityQueue<DefaultEventHandle> queue = (PriorityQueue<DefaultEventHandle>) in.readObject();
+            this.ring = new DefaultEventHandle[INITIAL_CAPACITY];
+            this.timestamps = new long[INITIAL_CAPACITY];
+            while ( !queue.isEmpty() ) {
+                add( queue.poll() );
+            }
         }
 
         @Override
         public void writeExternal(ObjectOutput out) throws IOException {
-            out.writeObject( this.queue );
+            // written as a priority queue to keep the serialized form of the former implementation
+            Collection<DefaultEventHandle> handles = getFactHandles();
+            PriorityQueue<DefaultEventHandle> queue = new PriorityQueue<>( Math.max( 1, handles.size() ) );
+            queue.addAll( handles );
+            out.writeObject( queue );
+        }
+
+        private int slot(int i) {
+            return (head + i) & (ring.length - 1);
         }
 
         public void add(DefaultEventHandle handle) {
-            queue.add( handle );
+            long timestamp = handle.getStartTimestamp();
+            if ( length > 0 && timestamp < timestamps[slot( length - 1 )] ) {
+                if ( outOfOrder == null ) {
+                    outOfOrder = new PriorityQueue<>( INITIAL_CAPACITY );
+                }
+                outOfOrder.add( handle );
+                return;
+            }
+            if ( length == ring.length ) {
+                grow();
+            }
+            int tail = slot( length );
+            ring[tail] = handle;
+            timestamps[tail] = timestamp;
+            length++;
+            size++;
+        }
+
+        private void grow() {
+            // the removed slots are compacted away while copying
+            int capacity = size < ring.length / 2 ? ring.length : ring.length << 1;
+            DefaultEventHandle[] newRing = new DefaultEventHandle[capacity];
+            long[] newTimestamps = new long[capacity];
+            int j = 0;
+            for ( int i = 0; i < length; i++ ) {
+                int s = slot( i );
+                if ( ring[s] != null ) {
+                    newRing[j] = ring[s];
+                    newTimestamps[j++] = timestamps[s];
+                }
+            }
+            ring = newRing;
+            timestamps = newTimestamps;
+            head = 0;
+            length = j;
         }
 
         public void remove(DefaultEventHandle handle) {
-            queue.remove( handle );
+            if ( removeFromRing( handle ) ) {
+                return;
+            }
+            if ( outOfOrder != null ) {
+                outOfOrder.remove( handle );
+            }
+        }
+
+        private boolean removeFromRing(DefaultEventHandle handle) {
+            long timestamp = handle.getStartTimestamp();
+            // binary search of the first slot with the timestamp of the handle
+            int low = 0;
+            int high = length;
+            while ( low < high ) {
+                int mid = (low + high) >>> 1;
+                if ( timestamps[slot( mid )] < timestamp ) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            for ( int i = low; i < length && timestamps[slot( i )] == timestamp; i++ ) {
+                int s = slot( i );
+                if ( handle.equals( ring[s] ) ) {
+                    ring[s] = null;
+                    size--;
+                    if ( i == 0 ) {
+                        skipRemovedHead();
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void skipRemovedHead() {
+            while ( length > 0 && ring[head] == null ) {
+                head = slot( 1 );
+                length--;
+            }
+            if ( length == 0 ) {
+                head = 0;
+            }
         }
 
         public boolean isEmpty() {
-            return queue.isEmpty();
+            return size == 0 && ( outOfOrder == null || outOfOrder.isEmpty() );
+        }
+
+        public int size() {
+            return size + ( outOfOrder == null ? 0 : outOfOrder.size() );
+        }
+
+        private boolean isOldestInRing() {
+            if ( outOfOrder == null || outOfOrder.isEmpty() ) {
+                return size > 0;
+            }
+            return size > 0 && timestamps[head] <= outOfOrder.peek().getStartTimestamp();
         }
 
         public DefaultEventHandle peek() {
-            return queue.peek( );
+            if ( isOldestInRing() ) {
+                return ring[head];
+            }
+            return outOfOrder == null ? null : outOfOrder.peek();
         }
 
         public DefaultEventHandle poll() {
-            return queue.poll( );
+            if ( isOldestInRing() ) {
+                DefaultEventHandle handle = ring[head];
+                ring[head] = null;
+                size--;
+                skipRemovedHead();
+                return handle;
+            }
+            return outOfOrder == null ? null : outOfOrder.poll();
         }
 
         public DefaultEventHandle remove() {
-            return queue.remove( );
+            DefaultEventHandle handle = poll();
+            if ( handle == null ) {
+                throw new NoSuchElementException();
+            }
+            return handle;
         }
 
         @Override
         public Collection<DefaultEventHandle> getFactHandles() {
-            return queue;
+            List<DefaultEventHandle> handles = new ArrayList<>( size() );
+            for ( int i = 0; i < length; i++ ) {
+                DefaultEventHandle handle = ring[slot( i )];
+                if ( handle != null ) {
+                    handles.add( handle );
+                }
+            }
+            if ( outOfOrder != null ) {
+                handles.addAll( outOfOrder );
+            }
+            return handles;
         }
     }
 
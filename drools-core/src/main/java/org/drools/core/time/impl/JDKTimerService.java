@@ -23,6 +23,7 @@ import java.util.Date;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -31,7 +32,7 @@ import org.drools.base.time.Trigger;
 import org.drools.core.time.InternalSchedulerService;
 import org.drools.core.time.Job;
 import org.drools.core.time.JobContext;
-import org.drools.core.time.TimerService;
+import org.drools.core.time.ThreadedTimerService;
 import org.kie.api.time.SessionClock;
 
 /**
@@ -39,7 +40,7 @@ import org.kie.api.time.SessionClock;
  * JDK built-in ScheduledThreadPoolExecutor as the
  * scheduler and the system clock as the clock.
  */
-public class JDKTimerService implements TimerService, SessionClock, InternalSchedulerService {
+public class JDKTimerService implements ThreadedTimerService, SessionClock, InternalSchedulerService {
 
     private final int size;
 
@@ -59,6 +60,11 @@ public class JDKTimerService implements TimerService, SessionClock, InternalSche
         this.idCounter = new AtomicLong(0L);
     }
 
+    @Override
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        this.scheduler.setThreadFactory(threadFactory);
+    }
+
     public void setTimerJobFactoryManager(TimerJobFactoryManager timerJobFactoryManager) {
         this.jobFactoryManager = timerJobFactoryManager;
     }
@@ -77,7 +83,8 @@ public class JDKTimerService implements TimerService, SessionClock, InternalSche
     public void reset() {
         if (idCounter.get() != 0L) {
             this.scheduler.shutdownNow();
-            this.scheduler = new ScheduledThreadPoolExecutor( size );
+            ThreadFactory threadFactory = this.scheduler.getThreadFactory();
+            this.scheduler = new ScheduledThreadPoolExecutor( size, threadFactory );
             this.idCounter.set( 0L );
         }
     }
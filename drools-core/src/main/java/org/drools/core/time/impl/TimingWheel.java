@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.time.impl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.PriorityQueue;
+
+/**
+ * A hierarchical timing wheel. Each level is an array of buckets, where every bucket is a doubly linked list of the
+ * entries expiring in the time range covered by that bucket. The first level has a resolution of one tick, while each
+ * following level, created only when needed, covers a time range as large as a whole revolution of the previous one.
+ * Adding and removing an entry costs O(1), regardless of the number of the scheduled entries.
+ *
+ * In order to advance the time without visiting the empty buckets, the non empty ones are kept in a priority queue
+ * sorted by expiration: its size is bounded by the number of buckets, not by the number of entries, so advancing
+ * the time costs O(log b) for each non empty bucket that expires. When a bucket of a level higher than the first one
+ * expires, its entries are redistributed on the lower levels, or returned if they are due.
+ *
+ * This class is not thread safe.
+ */
+public class TimingWheel {
+
+    static final int WHEEL_SIZE = 64;
+
+    private final long tickDuration;
+
+    private final Level root;
+
+    private final PriorityQueue<Bucket> queue = new PriorityQueue<>();
+
+    private int size;
+
+    public TimingWheel(long tickDuration, long startTime) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("The tick duration must be positive, but was " + tickDuration);
+        }
+        this.tickDuration = tickDuration;
+        this.root = new Level(tickDuration, startTime);
+    }
+
+    public long getTickDuration() {
+        return tickDuration;
+    }
+
+    /**
+     * @return the start time of the current tick
+     */
+    public long getCurrentTime() {
+        return root.currentTime;
+    }
+
+    /**
+     * @return the number of entries in this wheel
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the given entry to the bucket covering its fire time.
+     * @return false if the entry is already due, i.e. its fire time is before the end of the current tick,
+     *         in which case it is not added and the caller is expected to run it
+     */
+    public boolean add(Entry entry) {
+        if (!add(root, entry)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the given entry from its bucket, if any.
+     */
+    public void remove(Entry entry) {
+        if (entry.bucket != null) {
+            entry.bucket.unlink(entry);
+            size--;
+        }
+    }
+
+    /**
+     * @return the expiration of the first non empty bucket or Long.MAX_VALUE if this wheel is empty.
+     *         Note that it is the start time of the range covered by the bucket, so possibly earlier than the
+     *         fire time of its entries when it belongs to a level higher than the first one.
+     */
+    public long nextExpiration() {
+        Bucket bucket = peekBucket();
+        return bucket != null ? bucket.expiration : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return the earliest fire time of the entries in this wheel or Long.MAX_VALUE if this wheel is empty.
+     *         Differently from the other operations this one is not constant time, since it has to visit the
+     *         entries of the buckets that could contain the earliest one.
+     */
+    public long nextFireTime() {
+        Bucket[] buckets = queue.toArray(new Bucket[0]);
+        Arrays.sort(buckets);
+        long next = Long.MAX_VALUE;
+        for (Bucket bucket : buckets) {
+            if (bucket.expiration >= next) {
+                break;
+            }
+            for (Entry entry = bucket.head.next; entry != bucket.head; entry = entry.next) {
+                next = Math.min(next, entry.fireTime);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Advances this wheel up to the first tick, not later than the given time, having some due entries and
+     * moves them to the given collection. When no entry is due until that time, the wheel is advanced to it.
+     * @return the start time of the tick of the returned entries or -1 if no entry is due until the given time
+     */
+    public long pollDue(long time, Collection<Entry> due) {
+        int dueSize = due.size();
+        Bucket bucket;
+        while ((bucket = peekBucket()) != null && bucket.expiration <= time) {
+            long tickTime = bucket.expiration;
+            advance(root, tickTime);
+            // all the buckets of the different levels expiring in the same tick are flushed together
+            do {
+                queue.poll();
+                flush(bucket, due);
+            } while ((bucket = peekBucket()) != null && bucket.expiration == tickTime);
+            if (due.size() > dueSize) {
+                return tickTime;
+            }
+        }
+        advance(root, time);
+        return -1;
+    }
+
+    public void clear(long startTime) {
+        for (Bucket bucket : queue) {
+            bucket.clear();
+        }
+        queue.clear();
+        root.reset(startTime);
+        size = 0;
+    }
+
+    private Bucket peekBucket() {
+        Bucket bucket = queue.peek();
+        // buckets whose entries have all been removed are still queued, so they are discarded here
+        while (bucket != null && bucket.isEmpty()) {
+            queue.poll();
+            bucket.expiration = -1;
+            bucket = queue.peek();
+        }
+        return bucket;
+    }
+
+    private void flush(Bucket bucket, Collection<Entry> due) {
+        bucket.expiration = -1;
+        for (Entry entry = bucket.pollFirst(); entry != null; entry = bucket.pollFirst()) {
+            size--;
+            if (add(entry)) {
+                continue;
+            }
+            due.add(entry);
+        }
+    }
+
+    private boolean add(Level level, Entry entry) {
+        long delay = entry.fireTime - level.currentTime;
+        if (delay < level.tick) {
+            return false;
+        }
+        if (delay < level.interval) {
+            long virtualId = Math.floorDiv(entry.fireTime, level.tick);
+            Bucket bucket = level.buckets[(int) Math.floorMod(virtualId, (long) WHEEL_SIZE)];
+            bucket.link(entry);
+            long expiration = virtualId * level.tick;
+            if (bucket.expiration != expiration) {
+                // the bucket was not queued, because it's a new one or it has been flushed
+                bucket.expiration = expiration;
+                queue.add(bucket);
+            }
+            return true;
+        }
+        return add(level.overflow(), entry);
+    }
+
+    private static void advance(Level level, long time) {
+        for (; level != null; level = level.overflow) {
+            if (time - level.currentTime < level.tick) {
+                return;
+            }
+            level.currentTime = time - Math.floorMod(time, level.tick);
+        }
+    }
+
+    /**
+     * An entry of the wheel, holding the job to be fired.
+     */
+    public static class Entry {
+
+        private final TimerJobInstance timerJobInstance;
+        private final long fireTime;
+
+        private Bucket bucket;
+        private Entry previous;
+        private Entry next;
+
+        public Entry(TimerJobInstance timerJobInstance, long fireTime) {
+            this.timerJobInstance = timerJobInstance;
+            this.fireTime = fireTime;
+        }
+
+        public TimerJobInstance getTimerJobInstance() {
+            return timerJobInstance;
+        }
+
+        public long getFireTime() {
+            return fireTime;
+        }
+    }
+
+    private static class Level {
+
+        private final long tick;
+        private final long interval;
+        private final Bucket[] buckets;
+        private long currentTime;
+        private Level overflow;
+
+        private Level(long tick, long startTime) {
+            this.tick = tick;
+            this.interval = tick > Long.MAX_VALUE / WHEEL_SIZE ? Long.MAX_VALUE : tick * WHEEL_SIZE;
+            this.buckets = new Bucket[WHEEL_SIZE];
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                buckets[i] = new Bucket();
+            }
+            reset(startTime);
+        }
+
+        private void reset(long startTime) {
+            this.currentTime = startTime - Math.floorMod(startTime, tick);
+            if (overflow != null) {
+                overflow.reset(currentTime);
+            }
+        }
+
+        private Level overflow() {
+            if (overflow == null) {
+                overflow = new Level(interval, currentTime);
+            }
+            return overflow;
+        }
+    }
+
+    private static class Bucket implements Comparable<Bucket> {
+
+        private final Entry head = new Entry(null, 0);
+        private long expiration = -1;
+
+        private Bucket() {
+            head.previous = head;
+            head.next = head;
+        }
+
+        private boolean isEmpty() {
+            return head.next == head;
+        }
+
+        private void link(Entry entry) {
+            entry.bucket = this;
+            entry.previous = head.previous;
+            entry.next = head;
+            head.previous.next = entry;
+            head.previous = entry;
+        }
+
+        private void unlink(Entry entry) {
+            entry.previous.next = entry.next;
+            entry.next.previous = entry.previous;
+            entry.previous = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+
+        private Entry pollFirst() {
+            if (isEmpty()) {
+                return null;
+            }
+            Entry first = head.next;
+            unlink(first);
+            return first;
+        }
+
+        private void clear() {
+            while (pollFirst() != null) {
+                // unlinks all the entries
+            }
+            expiration = -1;
+        }
+
+        @Override
+        public int compareTo(Bucket other) {
+            return Long.compare(expiration, other.expiration);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.time.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.drools.core.time.SessionPseudoClock;
+
+/**
+ * A pseudo clock scheduler, like the PseudoClockScheduler, keeping its jobs on a TimingWheel with a tick of 1 ms.
+ * When the time is advanced the jobs are fired in order of their fire time and the clock is set back to
+ * the fire time of each job before running it.
+ */
+public class TimingWheelPseudoClockScheduler extends TimingWheelScheduler implements SessionPseudoClock {
+
+    protected final AtomicLong timer = new AtomicLong(0);
+
+    public TimingWheelPseudoClockScheduler() {
+        super( 1, 0 );
+    }
+
+    @Override
+    public long getCurrentTime() {
+        return this.timer.get();
+    }
+
+    @Override
+    public synchronized long advanceTime(long amount, TimeUnit unit) {
+        long endTime = this.timer.get() + unit.toMillis( amount );
+        List<TimingWheel.Entry> due = new ArrayList<>();
+        while ( pollDue( endTime, due ) ) {
+            fire( due );
+            due.clear();
+        }
+        this.timer.set( endTime );
+        return endTime;
+    }
+
+    @Override
+    protected void beforeFire(TimingWheel.Entry entry) {
+        // set the clock back to the trigger's fire time
+        this.timer.set( entry.getFireTime() );
+    }
+
+    public synchronized void setStartupTime(long i) {
+        this.timer.set( i );
+        if ( wheel.size() == 0 ) {
+            wheel.clear( i );
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        timer.set( 0 );
+        super.reset();
+    }
+
+    @Override
+    public void shutdown() {
+        // nothing to do
+    }
+}
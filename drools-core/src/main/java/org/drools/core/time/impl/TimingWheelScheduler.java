@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.time.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.drools.base.time.JobHandle;
+import org.drools.base.time.Trigger;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.impl.WorkingMemoryReteExpireAction;
+import org.drools.core.time.InternalSchedulerService;
+import org.drools.core.time.Job;
+import org.drools.core.time.JobContext;
+import org.drools.core.time.TimerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class for the timer services scheduling their jobs on a TimingWheel, so that scheduling and cancelling a job
+ * costs O(1) instead of the O(log n) of a priority queue.
+ *
+ * The jobs due in the same tick are fired together and the events expirations they cause are not enqueued one by one,
+ * but collected and added to the session as a single WorkingMemoryReteExpireAction.Batch propagation.
+ */
+public abstract class TimingWheelScheduler implements TimerService, InternalSchedulerService {
+
+    private static final Logger logger = LoggerFactory.getLogger( TimingWheelScheduler.class );
+
+    protected final TimingWheel wheel;
+
+    protected TimerJobFactoryManager jobFactoryManager = DefaultTimerJobFactoryManager.INSTANCE;
+
+    protected final AtomicLong idCounter = new AtomicLong(0);
+
+    // the entries that were already due when scheduled, they are fired at the next tick
+    protected List<TimingWheel.Entry> pendingDue = new ArrayList<>();
+
+    private Thread firingThread;
+    private ReteEvaluator expiringReteEvaluator;
+    private List<WorkingMemoryReteExpireAction> expireActions;
+
+    protected TimingWheelScheduler(long tickDuration, long startTime) {
+        this.wheel = new TimingWheel(tickDuration, startTime);
+    }
+
+    @Override
+    public void setTimerJobFactoryManager(TimerJobFactoryManager timerJobFactoryManager) {
+        this.jobFactoryManager = timerJobFactoryManager;
+    }
+
+    @Override
+    public TimerJobFactoryManager getTimerJobFactoryManager() {
+        return this.jobFactoryManager;
+    }
+
+    @Override
+    public JobHandle scheduleJob(Job job, JobContext ctx, Trigger trigger) {
+        Date date = trigger.hasNextFireTime();
+        if ( date == null ) {
+            return null;
+        }
+
+        TimingWheelJobHandle jobHandle = new TimingWheelJobHandle( idCounter.getAndIncrement() );
+        TimerJobInstance jobInstance = jobFactoryManager.createTimerJobInstance( job, ctx, trigger, jobHandle, this );
+        jobHandle.setTimerJobInstance( jobInstance );
+        internalSchedule( jobInstance );
+        return jobHandle;
+    }
+
+    @Override
+    public void internalSchedule(TimerJobInstance timerJobInstance) {
+        jobFactoryManager.addTimerJobInstance( timerJobInstance );
+        TimingWheel.Entry entry = new TimingWheel.Entry( timerJobInstance, timerJobInstance.getTrigger().hasNextFireTime().getTime() );
+        synchronized (this) {
+            if ( timerJobInstance.getJobHandle() instanceof TimingWheelJobHandle jobHandle ) {
+                jobHandle.entry = entry;
+            }
+            if ( !wheel.add( entry ) ) {
+                pendingDue.add( entry );
+            }
+            onSchedule( entry );
+        }
+    }
+
+    /**
+     * Invoked, holding the lock on this scheduler, after the given entry has been scheduled.
+     */
+    protected void onSchedule(TimingWheel.Entry entry) { }
+
+    @Override
+    public void removeJob(JobHandle jobHandle) {
+        jobHandle.cancel();
+        jobFactoryManager.removeTimerJobInstance( jobHandle );
+        if ( jobHandle instanceof TimingWheelJobHandle timingWheelJobHandle ) {
+            synchronized (this) {
+                // a job that is already due isn't in the wheel anymore, so it is just skipped when fired
+                if ( timingWheelJobHandle.entry != null ) {
+                    wheel.remove( timingWheelJobHandle.entry );
+                    timingWheelJobHandle.entry = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        idCounter.set( 0 );
+        pendingDue.clear();
+        wheel.clear( getCurrentTime() );
+    }
+
+    @Override
+    public synchronized long getTimeToNextJob() {
+        long nextFireTime = wheel.nextFireTime();
+        for (TimingWheel.Entry entry : pendingDue) {
+            if ( !entry.getTimerJobInstance().getJobHandle().isCancel() ) {
+                nextFireTime = Math.min( nextFireTime, entry.getFireTime() );
+            }
+        }
+        return nextFireTime == Long.MAX_VALUE ? -1 : nextFireTime - getCurrentTime();
+    }
+
+    @Override
+    public Collection<TimerJobInstance> getTimerJobInstances(long id) {
+        return jobFactoryManager.getTimerJobInstances();
+    }
+
+    /**
+     * Moves to the given collection the entries due not later than the given time that must be fired first,
+     * i.e. the ones pending since they have been scheduled or otherwise the ones of the first tick of the wheel
+     * having some due entries.
+     * @return false if no entry is due until the given time
+     */
+    protected boolean pollDue(long time, List<TimingWheel.Entry> due) {
+        if ( !pendingDue.isEmpty() ) {
+            due.addAll( pendingDue );
+            pendingDue.clear();
+            return true;
+        }
+        return wheel.pollDue( time, due ) >= 0;
+    }
+
+    /**
+     * Fires the given entries, batching the expirations that they cause.
+     */
+    protected void fire(List<TimingWheel.Entry> due) {
+        firingThread = Thread.currentThread();
+        try {
+            for (TimingWheel.Entry entry : due) {
+                TimerJobInstance timerJobInstance = entry.getTimerJobInstance();
+                if ( timerJobInstance.getJobHandle().isCancel() ) {
+                    continue;
+                }
+                if ( timerJobInstance.getJobHandle() instanceof TimingWheelJobHandle jobHandle ) {
+                    jobHandle.entry = null;
+                }
+                beforeFire( entry );
+                try {
+                    ((Callable<?>) timerJobInstance).call();
+                } catch (Exception e) {
+                    logger.error( "Exception running callbacks: ", e );
+                }
+            }
+        } finally {
+            firingThread = null;
+            flushExpirations();
+        }
+    }
+
+    /**
+     * Invoked before firing the job of the given entry.
+     */
+    protected void beforeFire(TimingWheel.Entry entry) { }
+
+    /**
+     * Called by an expiration job fired by this scheduler: instead of being immediately enqueued in the session,
+     * the expiration is added to a batch that is propagated once all the jobs of the current tick have been fired.
+     * @return false if the expiration cannot be deferred because this scheduler isn't firing the jobs of a tick
+     *         on the current thread, so the caller has to propagate it by itself
+     */
+    public boolean deferExpiration(ReteEvaluator reteEvaluator, WorkingMemoryReteExpireAction expireAction) {
+        if ( firingThread != Thread.currentThread() ) {
+            return false;
+        }
+        if ( expiringReteEvaluator != reteEvaluator ) {
+            flushExpirations();
+            expiringReteEvaluator = reteEvaluator;
+        }
+        if ( expireActions == null ) {
+            expireActions = new ArrayList<>();
+        }
+        expireActions.add( expireAction );
+        return true;
+    }
+
+    private void flushExpirations() {
+        if ( expireActions != null && !expireActions.isEmpty() ) {
+            List<WorkingMemoryReteExpireAction> batch = expireActions;
+            expireActions = null;
+            expiringReteEvaluator.addPropagation( batch.size() == 1 ? batch.get( 0 ) : new WorkingMemoryReteExpireAction.Batch( batch ) );
+        }
+        expiringReteEvaluator = null;
+    }
+
+    public static class TimingWheelJobHandle extends DefaultJobHandle {
+
+        private static final long serialVersionUID = 510l;
+
+        private transient TimingWheel.Entry entry;
+
+        public TimingWheelJobHandle(long id) {
+            super( id );
+        }
+    }
+}
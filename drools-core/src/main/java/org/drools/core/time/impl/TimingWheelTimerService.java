@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.time.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.core.time.ThreadedTimerService;
+import org.kie.api.time.SessionClock;
+
+/**
+ * A realtime timer service keeping its jobs on a TimingWheel and using the system clock as the clock.
+ * Differently from the JDKTimerService, where each job is a task of a ScheduledThreadPoolExecutor,
+ * the executor here only holds a single task waking up a timer thread at the next tick having some jobs to be fired.
+ */
+public class TimingWheelTimerService extends TimingWheelScheduler implements ThreadedTimerService, SessionClock {
+
+    private ScheduledThreadPoolExecutor scheduler;
+
+    private ScheduledFuture<?> nextTick;
+    private long nextTickTime = Long.MAX_VALUE;
+
+    public TimingWheelTimerService() {
+        this(1);
+    }
+
+    public TimingWheelTimerService(long tickDuration) {
+        super( tickDuration, System.currentTimeMillis() );
+        this.scheduler = new ScheduledThreadPoolExecutor( 1 );
+    }
+
+    @Override
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        this.scheduler.setThreadFactory( threadFactory );
+    }
+
+    @Override
+    public long getCurrentTime() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    protected void onSchedule(TimingWheel.Entry entry) {
+        // the wheel is ahead of the actual time of at most one tick, so a pending entry can be fired right away
+        scheduleTick( pendingDue.isEmpty() ? wheel.nextExpiration() : getCurrentTime() );
+    }
+
+    private void scheduleTick(long tickTime) {
+        if ( tickTime >= nextTickTime || scheduler.isShutdown() ) {
+            return;
+        }
+        if ( nextTick != null ) {
+            nextTick.cancel( false );
+        }
+        nextTickTime = tickTime;
+        nextTick = scheduler.schedule( this::tick, Math.max( 0, tickTime - getCurrentTime() ), TimeUnit.MILLISECONDS );
+    }
+
+    private void tick() {
+        List<TimingWheel.Entry> due = new ArrayList<>();
+        synchronized (this) {
+            nextTick = null;
+            nextTickTime = Long.MAX_VALUE;
+            long now = getCurrentTime();
+            while ( pollDue( now, due ) ) {
+                // collects all the jobs due until now
+            }
+        }
+
+        // the jobs are fired without holding the lock on this service, because they can schedule other jobs
+        // and access the session, that in turn can be scheduling jobs on another thread
+        fire( due );
+
+        synchronized (this) {
+            scheduleTick( pendingDue.isEmpty() ? wheel.nextExpiration() : getCurrentTime() );
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        if ( nextTick != null ) {
+            nextTick.cancel( false );
+            nextTick = null;
+        }
+        nextTickTime = Long.MAX_VALUE;
+        super.reset();
+    }
+
+    @Override
+    public void shutdown() {
+        // forcing a shutdownNow instead of a regular shutdown()
+        // to avoid delays on shutdown. This is an irreversible
+        // operation anyway, called on session dispose.
+        this.scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.util;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * A sorted multiset, implemented as an AVL tree where each node holds a distinct element together with the number
+ * of its occurrences and the total number of occurrences in its subtree. This allows to add and remove an element,
+ * to find the smallest and the largest one and to select the element at a given rank, all in O(log n).
+ */
+public class OrderStatisticTree<T> implements Serializable {
+
+    private static final long serialVersionUID = 510L;
+
+    private final Comparator<? super T> comparator;
+
+    private Node<T> root;
+
+    @SuppressWarnings("unchecked")
+    public OrderStatisticTree() {
+        this((Comparator<? super T>) Comparator.naturalOrder());
+    }
+
+    public OrderStatisticTree(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * @return the number of elements in this tree, counting the duplicates
+     */
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    public void add(T element) {
+        root = add(root, element);
+    }
+
+    /**
+     * Removes one occurrence of the given element.
+     * @return true if the element was in this tree
+     */
+    public boolean remove(T element) {
+        int size = size();
+        root = remove(root, element);
+        return size() != size;
+    }
+
+    public int count(T element) {
+        Node<T> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(element, node.element);
+            if (cmp == 0) {
+                return node.count;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return 0;
+    }
+
+    public T first() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node<T> node = root;
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node.element;
+    }
+
+    public T last() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node<T> node = root;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.element;
+    }
+
+    /**
+     * @return the element at the given 0-based position in the sorted sequence of the elements, duplicates included
+     */
+    public T get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index < leftSize + node.count) {
+                return node.element;
+            } else {
+                index -= leftSize + node.count;
+                node = node.right;
+            }
+        }
+    }
+
+    private Node<T> add(Node<T> node, T element) {
+        if (node == null) {
+            return new Node<>(element);
+        }
+        int cmp = comparator.compare(element, node.element);
+        if (cmp == 0) {
+            node.count++;
+            node.size++;
+            return node;
+        }
+        if (cmp < 0) {
+            node.left = add(node.left, element);
+        } else {
+            node.right = add(node.right, element);
+        }
+        return balance(node);
+    }
+
+    private Node<T> remove(Node<T> node, T element) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = comparator.compare(element, node.element);
+        if (cmp < 0) {
+            node.left = remove(node.left, element);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, element);
+        } else if (node.count > 1) {
+            node.count--;
+            node.size--;
+            return node;
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        } else {
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node<T> removeMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static <T> Node<T> balance(Node<T> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node<?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.size = node.count + size(node.left) + size(node.right);
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static class Node<T> implements Serializable {
+
+        private static final long serialVersionUID = 510L;
+
+        private final T element;
+        private int count = 1;
+        private int size = 1;
+        private int height = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(T element) {
+            this.element = element;
+        }
+    }
+}
@@ -42,7 +42,7 @@ public interface IndexFactory {
                               nodeType );
     }
 
-    private static TupleMemory createRightMemory(RuleBaseConfiguration config, IndexSpec indexSpec) {
+    static TupleMemory createRightMemory(RuleBaseConfiguration config, IndexSpec indexSpec) {
         if ( !config.isIndexRightBetaMemory() || !indexSpec.getConstraintType().isIndexable() || indexSpec.getIndexes().length == 0 ) {
             return new TupleList();
         }
@@ -58,7 +58,7 @@ public interface IndexFactory {
         return new TupleList();
     }
 
-    private static TupleMemory createLeftMemory(RuleBaseConfiguration config, IndexSpec indexSpec) {
+    static TupleMemory createLeftMemory(RuleBaseConfiguration config, IndexSpec indexSpec) {
         if (config.isSequential()) {
             return null;
         }
@@ -41,6 +41,10 @@ public class IndexSpec {
         init(nodeType, constraints, config);
     }
 
+    public IndexSpec(int nodeType, BetaConstraint[] constraints, RuleBaseConfiguration config, int keyDepth) {
+        init(nodeType, constraints, config, keyDepth);
+    }
+
     public IndexSpec(IndexedValueReader[] indexes, ConstraintTypeOperator constraintType) {
         this.indexes = indexes;
         this.constraintType = constraintType;
@@ -96,7 +100,10 @@ public class IndexSpec {
     }
 
     public void init(int nodeType, BetaConstraint[] constraints, RuleBaseConfiguration config) {
-        int keyDepth = config.getCompositeKeyDepth();
+        init(nodeType, constraints, config, config.getCompositeKeyDepth());
+    }
+
+    public void init(int nodeType, BetaConstraint[] constraints, RuleBaseConfiguration config, int keyDepth) {
         IndexPrecedenceOption indexPrecedenceOption = config.getIndexPrecedenceOption();
         int firstIndexableConstraint = indexPrecedenceOption == IndexPrecedenceOption.EQUALITY_PRIORITY ?
                 determineTypeWithEqualityPriority(nodeType, constraints, config) :
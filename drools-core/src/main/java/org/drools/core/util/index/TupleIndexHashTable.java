@@ -405,6 +405,12 @@ public class TupleIndexHashTable extends AbstractHashTable implements TupleMemor
         return this.factSize;
     }
 
+    @Override
+    public int getKeysCount() {
+        // one bucket for each key, empty buckets are removed
+        return this.size;
+    }
+
     public String toString() {
         StringBuilder builder = new StringBuilder();
         Iterator<TupleImpl> it = iterator();
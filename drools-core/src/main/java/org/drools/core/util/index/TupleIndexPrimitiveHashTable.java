@@ -0,0 +1,559 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.util.index;
+
+import java.util.function.Function;
+
+import org.drools.base.base.ValueType;
+import org.drools.base.rule.Declaration;
+import org.drools.base.rule.accessor.ReadAccessor;
+import org.drools.base.rule.accessor.RightTupleValueExtractor;
+import org.drools.base.rule.accessor.TupleValueExtractor;
+import org.drools.base.util.IndexedValueReader;
+import org.drools.core.reteoo.TupleImpl;
+import org.drools.core.reteoo.TupleMemory;
+import org.drools.core.util.AbstractHashTable.Index;
+import org.drools.core.util.FastIterator;
+import org.drools.core.util.LinkedList;
+
+/**
+ * Equality index for a single join key whose right hand side field is a primitive number or char.
+ * The key is encoded into a long and stored in an open addressing table (linear probing), so lookups
+ * neither allocate a HashEntry nor dispatch to Object.equals. Each slot holds the TupleList of all the
+ * tuples sharing that key. When a side of the index reads a field through a ReadAccessor, as the declarations
+ * and the right extractors of the DRL constraints do, its key is read with the primitive getter of the accessor,
+ * without boxing it; the other extractors, like the lambdas of the executable model, go through the boxed value.
+ *
+ * Removed slots are left as tombstones, rather than back shifting the following entries, so that
+ * removing tuples while a full iteration is in progress never moves a bucket behind the iterator.
+ */
+public class TupleIndexPrimitiveHashTable implements TupleMemory {
+
+    private static final int   DEFAULT_CAPACITY = 128;
+    private static final float LOAD_FACTOR      = 0.5f;
+
+    private static final PrimitiveKeyTupleList DELETED = new PrimitiveKeyTupleList(0L);
+
+    private final IndexedValueReader    fieldIndex;
+
+    private final Index                 index;
+
+    private final boolean               left;
+
+    // null when the key of that side can only be read boxed through the IndexedValueReader
+    private final KeyReader             leftKeyReader;
+
+    private final KeyReader             rightKeyReader;
+
+    private long[]                      keys;
+
+    private PrimitiveKeyTupleList[]     buckets;
+
+    private PrimitiveKeyTupleList       nullBucket;
+
+    private int                         size;
+
+    private int                         used;
+
+    private int                         threshold;
+
+    private int                         factSize;
+
+    private transient FullFastIterator  fullFastIterator;
+
+    public TupleIndexPrimitiveHashTable(Index index, boolean left) {
+        this( DEFAULT_CAPACITY, index, left );
+    }
+
+    public TupleIndexPrimitiveHashTable(int capacity, Index index, boolean left) {
+        this.index = index;
+        this.fieldIndex = index.getFieldIndex( 0 );
+        this.left = left;
+        this.leftKeyReader = fieldIndex.requiresCoercion() ? null : createLeftKeyReader( fieldIndex.getLeftExtractor() );
+        this.rightKeyReader = createRightKeyReader( fieldIndex.getRightExtractor() );
+        init( tableSizeFor( capacity ) );
+    }
+
+    private static KeyReader createLeftKeyReader(TupleValueExtractor extractor) {
+        if ( !(extractor instanceof Declaration) || ((Declaration) extractor).isGlobal() ) {
+            return null;
+        }
+        Declaration declaration = (Declaration) extractor;
+        return createKeyReader( declaration.getExtractor(), declaration.getValueType(), tuple -> tuple.getObject( declaration ) );
+    }
+
+    private static KeyReader createRightKeyReader(TupleValueExtractor extractor) {
+        if ( !(extractor instanceof RightTupleValueExtractor) ) {
+            return null;
+        }
+        return createKeyReader( ((RightTupleValueExtractor) extractor).getExtractor(), extractor.getValueType(), tuple -> tuple.getFactHandle().getObject() );
+    }
+
+    /**
+     * Encodes the value read with the primitive getter of the accessor exactly as toKey encodes its boxed value.
+     */
+    private static KeyReader createKeyReader(ReadAccessor accessor, ValueType valueType, Function<TupleImpl, Object> objectOf) {
+        if ( accessor == null ) {
+            return null;
+        }
+        if ( valueType == ValueType.PLONG_TYPE ) {
+            return tuple -> accessor.getLongValue( null, objectOf.apply( tuple ) );
+        }
+        if ( valueType == ValueType.PINTEGER_TYPE ) {
+            return tuple -> accessor.getIntValue( null, objectOf.apply( tuple ) );
+        }
+        if ( valueType == ValueType.PSHORT_TYPE ) {
+            return tuple -> accessor.getShortValue( null, objectOf.apply( tuple ) );
+        }
+        if ( valueType == ValueType.PBYTE_TYPE ) {
+            return tuple -> accessor.getByteValue( null, objectOf.apply( tuple ) );
+        }
+        if ( valueType == ValueType.PCHAR_TYPE ) {
+            return tuple -> accessor.getCharValue( null, objectOf.apply( tuple ) );
+        }
+        if ( valueType == ValueType.PDOUBLE_TYPE ) {
+            return tuple -> Double.doubleToLongBits( accessor.getDoubleValue( null, objectOf.apply( tuple ) ) );
+        }
+        if ( valueType == ValueType.PFLOAT_TYPE ) {
+            return tuple -> Float.floatToIntBits( accessor.getFloatValue( null, objectOf.apply( tuple ) ) );
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the given index can be served by this table: it must be made of a single field whose
+     * right (fact) side is a primitive numeric or char value, so that its values can never be null and are
+     * always boxed into the same wrapper type on both sides.
+     */
+    public static boolean isPrimitiveIndexable(IndexedValueReader[] indexes) {
+        if ( indexes.length != 1 ) {
+            return false;
+        }
+        ValueType valueType = indexes[0].getRightExtractor().getValueType();
+        return valueType == ValueType.PINTEGER_TYPE ||
+               valueType == ValueType.PLONG_TYPE ||
+               valueType == ValueType.PSHORT_TYPE ||
+               valueType == ValueType.PBYTE_TYPE ||
+               valueType == ValueType.PCHAR_TYPE ||
+               valueType == ValueType.PDOUBLE_TYPE ||
+               valueType == ValueType.PFLOAT_TYPE;
+    }
+
+    /**
+     * Encodes a boxed primitive as a long preserving the semantic of equals() of its wrapper type:
+     * floating points are compared by their bits representation, exactly as Double.equals and Float.equals do.
+     */
+    static long toKey(Object value) {
+        if ( value instanceof Double ) {
+            return Double.doubleToLongBits( (Double) value );
+        }
+        if ( value instanceof Float ) {
+            return Float.floatToIntBits( (Float) value );
+        }
+        if ( value instanceof Character ) {
+            return (Character) value;
+        }
+        return ((Number) value).longValue();
+    }
+
+    private static int hash(long key) {
+        // murmur3 64 bit finalizer, spreads sequential ids over the whole table
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb3fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = 16;
+        while ( n < capacity ) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    private void init(int capacity) {
+        this.keys = new long[capacity];
+        this.buckets = new PrimitiveKeyTupleList[capacity];
+        this.threshold = (int) (capacity * LOAD_FACTOR);
+        this.used = this.size;
+    }
+
+    @Override
+    public TupleImpl getFirst(TupleImpl tuple) {
+        TupleList bucket = get( tuple, !left );
+        return bucket != null ? bucket.getFirst() : null;
+    }
+
+    @Override
+    public void removeAdd(TupleImpl tuple) {
+        KeyReader keyReader = left ? leftKeyReader : rightKeyReader;
+        if ( keyReader != null ) {
+            long key = keyReader.keyOf( tuple );
+            PrimitiveKeyTupleList memory = (PrimitiveKeyTupleList) tuple.getMemory();
+            memory.remove( tuple );
+            if ( memory != nullBucket && memory.key == key ) {
+                // it's the same bucket, so re-use and return
+                memory.add( tuple );
+                return;
+            }
+            if ( memory.getFirst() == null ) {
+                removeBucket( memory );
+            }
+            getOrCreate( key ).add( tuple );
+            return;
+        }
+
+        Object value;
+        try {
+            value = fieldIndex.indexedValueOf( tuple, left );
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+
+        PrimitiveKeyTupleList memory = (PrimitiveKeyTupleList) tuple.getMemory();
+        memory.remove( tuple );
+
+        if ( memory == nullBucket ? value == null : value != null && memory.key == toKey( value ) ) {
+            // it's the same bucket, so re-use and return
+            memory.add( tuple );
+            return;
+        }
+
+        this.factSize--;
+        if ( memory.getFirst() == null ) {
+            removeBucket( memory );
+        }
+
+        PrimitiveKeyTupleList entry = getOrCreate( value );
+        entry.add( tuple );
+        this.factSize++;
+    }
+
+    @Override
+    public void add(TupleImpl tuple) {
+        KeyReader keyReader = left ? leftKeyReader : rightKeyReader;
+        if ( keyReader != null ) {
+            getOrCreate( keyReader.keyOf( tuple ) ).add( tuple );
+            this.factSize++;
+            return;
+        }
+
+        Object value;
+        try {
+            value = fieldIndex.indexedValueOf( tuple, left );
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+
+        getOrCreate( value ).add( tuple );
+        this.factSize++;
+    }
+
+    @Override
+    public void remove(TupleImpl tuple) {
+        PrimitiveKeyTupleList memory = (PrimitiveKeyTupleList) tuple.getMemory();
+        memory.remove( tuple );
+        this.factSize--;
+        if ( memory.getFirst() == null ) {
+            removeBucket( memory );
+        }
+        tuple.clear();
+    }
+
+    @Override
+    public void ensureCapacity(int itemsToBeAdded) {
+        int newCapacity = this.used + itemsToBeAdded;
+        if ( newCapacity > this.threshold ) {
+            int newSize = this.buckets.length * 2;
+            while ( newSize * LOAD_FACTOR < newCapacity ) {
+                newSize *= 2;
+            }
+            resize( newSize );
+        }
+    }
+
+    private TupleList get(TupleImpl tuple, boolean isLeftTuple) {
+        KeyReader keyReader = isLeftTuple ? leftKeyReader : rightKeyReader;
+        if ( keyReader != null ) {
+            return get( keyReader.keyOf( tuple ) );
+        }
+
+        Object value;
+        try {
+            value = fieldIndex.indexedValueOf( tuple, isLeftTuple );
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+
+        return value == null ? nullBucket : get( toKey( value ) );
+    }
+
+    private TupleList get(long key) {
+        int mask = this.buckets.length - 1;
+        for ( int slot = hash( key ) & mask; ; slot = (slot + 1) & mask ) {
+            PrimitiveKeyTupleList bucket = this.buckets[slot];
+            if ( bucket == null ) {
+                return null;
+            }
+            if ( bucket != DELETED && this.keys[slot] == key ) {
+                return bucket;
+            }
+        }
+    }
+
+    private PrimitiveKeyTupleList getOrCreate(Object value) {
+        if ( value == null ) {
+            if ( nullBucket == null ) {
+                nullBucket = new PrimitiveKeyTupleList( 0L );
+            }
+            return nullBucket;
+        }
+        return getOrCreate( toKey( value ) );
+    }
+
+    private PrimitiveKeyTupleList getOrCreate(long key) {
+        int mask = this.buckets.length - 1;
+        int firstDeleted = -1;
+        int slot = hash( key ) & mask;
+        for ( ; ; slot = (slot + 1) & mask ) {
+            PrimitiveKeyTupleList bucket = this.buckets[slot];
+            if ( bucket == null ) {
+                break;
+            }
+            if ( bucket == DELETED ) {
+                if ( firstDeleted < 0 ) {
+                    firstDeleted = slot;
+                }
+            } else if ( this.keys[slot] == key ) {
+                return bucket;
+            }
+        }
+
+        // entry does not exist, so create it reusing the first tombstone found, if any
+        PrimitiveKeyTupleList entry = new PrimitiveKeyTupleList( key );
+        if ( firstDeleted >= 0 ) {
+            slot = firstDeleted;
+        } else {
+            this.used++;
+        }
+        this.keys[slot] = key;
+        this.buckets[slot] = entry;
+        this.size++;
+
+        if ( this.used > this.threshold ) {
+            // grow only if the table is really full, otherwise just purge the tombstones
+            resize( this.size > this.threshold / 2 ? this.buckets.length * 2 : this.buckets.length );
+        }
+        return entry;
+    }
+
+    private void removeBucket(PrimitiveKeyTupleList memory) {
+        if ( memory == nullBucket ) {
+            nullBucket = null;
+            return;
+        }
+
+        this.buckets[slotOf( memory )] = DELETED;
+        this.size--;
+    }
+
+    private int slotOf(PrimitiveKeyTupleList memory) {
+        int mask = this.buckets.length - 1;
+        for ( int slot = hash( memory.key ) & mask; ; slot = (slot + 1) & mask ) {
+            PrimitiveKeyTupleList bucket = this.buckets[slot];
+            if ( bucket == memory ) {
+                return slot;
+            }
+            if ( bucket == null ) {
+                throw new IllegalStateException( "Bucket for key " + memory.key + " is not in this table" );
+            }
+        }
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = this.keys;
+        PrimitiveKeyTupleList[] oldBuckets = this.buckets;
+
+        init( newCapacity );
+
+        int mask = newCapacity - 1;
+        for ( int i = 0; i < oldBuckets.length; i++ ) {
+            PrimitiveKeyTupleList bucket = oldBuckets[i];
+            if ( bucket == null || bucket == DELETED ) {
+                continue;
+            }
+            int slot = hash( oldKeys[i] ) & mask;
+            while ( this.buckets[slot] != null ) {
+                slot = (slot + 1) & mask;
+            }
+            this.keys[slot] = oldKeys[i];
+            this.buckets[slot] = bucket;
+        }
+    }
+
+    @Override
+    public boolean isIndexed() {
+        return true;
+    }
+
+    @Override
+    public boolean isConcurrentReadSafe() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return this.factSize;
+    }
+
+    @Override
+    public int getKeysCount() {
+        return nullBucket == null ? this.size : this.size + 1;
+    }
+
+    @Override
+    public FastIterator<TupleImpl> fastIterator() {
+        return LinkedList.fastIterator;
+    }
+
+    @Override
+    public FastIterator<TupleImpl> fullFastIterator() {
+        if ( fullFastIterator == null ) {
+            fullFastIterator = new FullFastIterator( this );
+        }
+        fullFastIterator.reset();
+        return fullFastIterator;
+    }
+
+    @Override
+    public FastIterator<TupleImpl> fullFastIterator(TupleImpl tuple) {
+        if ( fullFastIterator == null ) {
+            fullFastIterator = new FullFastIterator( this );
+        }
+        fullFastIterator.resume( (PrimitiveKeyTupleList) tuple.getMemory() );
+        return fullFastIterator;
+    }
+
+    @Override
+    public Index getIndex() {
+        return this.index;
+    }
+
+    @Override
+    public IndexType getIndexType() {
+        return IndexType.EQUAL;
+    }
+
+    @Override
+    public void clear() {
+        this.size = 0;
+        init( Math.min( this.buckets.length, 16 ) );
+        this.nullBucket = null;
+        this.factSize = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        FastIterator<TupleImpl> it = fullFastIterator();
+        for ( TupleImpl tuple = it.next( null ); tuple != null; tuple = it.next( tuple ) ) {
+            builder.append( tuple ).append( "\n" );
+        }
+        return builder.toString();
+    }
+
+    @FunctionalInterface
+    private interface KeyReader {
+        long keyOf(TupleImpl tuple);
+    }
+
+    public static class PrimitiveKeyTupleList extends TupleList {
+
+        private final long key;
+
+        public PrimitiveKeyTupleList(long key) {
+            this.key = key;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash( key );
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return this == object;
+        }
+    }
+
+    public static class FullFastIterator implements FastIterator<TupleImpl> {
+        private final TupleIndexPrimitiveHashTable hashTable;
+        private PrimitiveKeyTupleList[]            table;
+        private int                                row;
+
+        public FullFastIterator(TupleIndexPrimitiveHashTable hashTable) {
+            this.hashTable = hashTable;
+        }
+
+        public void reset() {
+            this.table = hashTable.buckets;
+            this.row = 0;
+        }
+
+        public void resume(PrimitiveKeyTupleList target) {
+            this.table = hashTable.buckets;
+            if ( target == hashTable.nullBucket ) {
+                // the null bucket is always the last one
+                this.row = this.table.length + 1;
+                return;
+            }
+            this.row = hashTable.slotOf( target ) + 1; // row always points to the row after the current list
+        }
+
+        public TupleImpl next(TupleImpl tuple) {
+            if ( tuple != null ) {
+                TupleImpl next = tuple.getNext();
+                if ( next != null ) {
+                    return next;
+                }
+            }
+
+            int length = this.table.length;
+            while ( this.row <= length ) {
+                TupleList list = this.row < length ? this.table[this.row] : hashTable.nullBucket;
+                this.row++;
+                if ( list != null && list != DELETED && list.getFirst() != null ) {
+                    return list.getFirst();
+                }
+            }
+            return null;
+        }
+
+        public boolean isFullIterator() {
+            return true;
+        }
+    }
+}
@@ -201,9 +201,15 @@ public class TupleIndexRBTree extends AbstractTupleIndexTree implements External
 
     public void clear() {
         tree = new TupleRBTree<>();
+        factSize = 0;
     }
 
     public IndexType getIndexType() {
         return IndexType.COMPARISON;
     }
+
+    @Override
+    public boolean isConcurrentReadSafe() {
+        return true;
+    }
 }
@@ -105,6 +105,11 @@ public class TupleList extends LinkedList<TupleImpl> implements TupleMemory, Sin
         return false;
     }
 
+    @Override
+    public boolean isConcurrentReadSafe() {
+        return true;
+    }
+
     public TupleList getNext() {
         return this.next;
     }
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Properties;
+
+import org.drools.core.impl.RuleBaseFactory;
+import org.junit.jupiter.api.Test;
+import org.kie.internal.conf.CompositeConfiguration;
+import org.kie.internal.runtime.conf.TimingWheelOption;
+import org.kie.internal.runtime.conf.VirtualThreadsOption;
+import org.kie.internal.utils.ChainedProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SessionConfigurationTest {
+
+    private static final String COMP_CONFIG = "compConfig";
+
+    private SessionConfiguration newSessionConfiguration(Properties props) {
+        ClassLoader classLoader = getClass().getClassLoader();
+        return RuleBaseFactory.newKnowledgeSessionConfiguration(ChainedProperties.getChainedProperties(classLoader).addProperties(props), classLoader)
+                .as(SessionConfiguration.KEY);
+    }
+
+    @Test
+    public void testExternalizedFormOfPreviousRelease() throws Exception {
+        SessionConfiguration config = newSessionConfiguration(new Properties());
+        config.setOption(TimingWheelOption.YES);
+        config.setOption(VirtualThreadsOption.YES);
+
+        // the runtime-only options are not externalized, so the form is still the one of the previous release
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(externalize(config)))) {
+            assertThat(in.readObject()).isEqualTo(COMP_CONFIG);
+            assertThat(in.readBoolean()).isFalse();
+            assertThat(in.readBoolean()).isEqualTo(config.isKeepReference());
+            assertThat(in.readObject()).isEqualTo(config.getClockType());
+            assertThat(in.readObject()).isEqualTo(config.getTimerJobFactoryType());
+            assertThat(in.read()).isEqualTo(-1);
+        }
+
+        SessionConfiguration read = restore(externalize(config), config);
+        assertThat(read.getClockType()).isEqualTo(config.getClockType());
+        assertThat(read.getTimerJobFactoryType()).isEqualTo(config.getTimerJobFactoryType());
+        assertThat(read.isTimingWheel()).isFalse();
+        assertThat(read.isVirtualThreads()).isFalse();
+    }
+
+    @Test
+    public void testTimingWheelConfiguredByPropertyIsRestored() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(TimingWheelOption.PROPERTY_NAME, "true");
+        SessionConfiguration config = newSessionConfiguration(props);
+        assertThat(config.isTimingWheel()).isTrue();
+
+        assertThat(restore(externalize(config), config).isTimingWheel()).isTrue();
+    }
+
+    @Test
+    public void testVirtualThreadsConfiguredByPropertyIsRestored() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(VirtualThreadsOption.PROPERTY_NAME, "true");
+        SessionConfiguration config = newSessionConfiguration(props);
+        assertThat(config.isVirtualThreads()).isTrue();
+
+        assertThat(restore(externalize(config), config).isVirtualThreads()).isTrue();
+    }
+
+    /**
+     * The composite configuration can't be deserialized on its own, so it is replaced by a placeholder in the
+     * externalized form and the placeholder is resolved back to the original one when restoring.
+     */
+    private static byte[] externalize(SessionConfiguration config) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes) {
+            {
+                enableReplaceObject(true);
+            }
+
+            @Override
+            protected Object replaceObject(Object obj) {
+                return obj instanceof CompositeConfiguration ? COMP_CONFIG : obj;
+            }
+        }) {
+            config.writeExternal(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private SessionConfiguration restore(byte[] bytes, SessionConfiguration written) throws IOException, ClassNotFoundException {
+        SessionConfiguration read = newSessionConfiguration(new Properties());
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+            {
+                enableResolveObject(true);
+            }
+
+            @Override
+            protected Object resolveObject(Object obj) {
+                return COMP_CONFIG.equals(obj) ? written.compConfig : obj;
+            }
+        }) {
+            read.readExternal(in);
+        }
+        return read;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.base.accumulators;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.drools.core.base.accumulators.AbstractOrderStatisticAccumulateFunction.OrderStatisticData;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OrderStatisticAccumulateFunctionTest {
+
+    @Test
+    public void reverseCurrentMinAndMax() {
+        ReversibleMinAccumulateFunction min = new ReversibleMinAccumulateFunction();
+        ReversibleMaxAccumulateFunction max = new ReversibleMaxAccumulateFunction();
+        OrderStatisticData minData = min.createContext();
+        OrderStatisticData maxData = max.createContext();
+        min.init(minData);
+        max.init(maxData);
+
+        for (int value : new int[] { 4, 1, 9, 1, 7 }) {
+            min.accumulate(minData, value);
+            max.accumulate(maxData, value);
+        }
+        assertThat(min.getResult(minData)).isEqualTo(1);
+        assertThat(max.getResult(maxData)).isEqualTo(9);
+
+        // removing the current minimum and maximum doesn't require a reaccumulation
+        assertThat(min.tryReverse(minData, 1)).isTrue();
+        assertThat(max.tryReverse(maxData, 9)).isTrue();
+        assertThat(min.getResult(minData)).isEqualTo(1);
+        assertThat(max.getResult(maxData)).isEqualTo(7);
+
+        assertThat(min.tryReverse(minData, 1)).isTrue();
+        assertThat(min.getResult(minData)).isEqualTo(4);
+
+        for (int value : new int[] { 4, 7, 9 }) {
+            min.reverse(minData, value);
+        }
+        assertThat(min.getResult(minData)).isNull();
+    }
+
+    @Test
+    public void percentiles() {
+        MedianAccumulateFunction median = new MedianAccumulateFunction();
+        PercentileAccumulateFunction p90 = new PercentileAccumulateFunction(0.9);
+        OrderStatisticData medianData = median.createContext();
+        OrderStatisticData p90Data = p90.createContext();
+
+        for (int i = 10; i >= 1; i--) {
+            median.accumulate(medianData, (double) i);
+            p90.accumulate(p90Data, (double) i);
+        }
+        // with an even count the median is the mean of the two middle values, while the percentiles are always accumulated values
+        assertThat(median.getResult(medianData)).isEqualTo(5.5);
+        assertThat(new PercentileAccumulateFunction(0.5).getResult(p90Data)).isEqualTo(5.0);
+        assertThat(p90.getResult(p90Data)).isEqualTo(9.0);
+
+        median.reverse(medianData, 1.0);
+        assertThat(median.getResult(medianData)).isEqualTo(6.0);
+        median.reverse(medianData, 10.0);
+        assertThat(median.getResult(medianData)).isEqualTo(5.5);
+
+        assertThat(new Percentile90AccumulateFunction().getPercentile()).isEqualTo(p90.getPercentile());
+
+        assertThat(new PercentileAccumulateFunction(0.9)).isEqualTo(p90).isNotEqualTo(new PercentileAccumulateFunction(0.95));
+        assertThat(new PercentileAccumulateFunction(0.5)).isNotEqualTo(median);
+        assertThatThrownBy(() -> new PercentileAccumulateFunction(1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void medianOfAnEvenCount() {
+        MedianAccumulateFunction median = new MedianAccumulateFunction();
+
+        OrderStatisticData intData = median.createContext();
+        for (int value : new int[] { 7, 2, 9, 4 }) {
+            median.accumulate(intData, value);
+        }
+        assertThat(median.getResult(intData)).isEqualTo(5.5);
+        median.reverse(intData, 9);
+        assertThat(median.getResult(intData)).isEqualTo(4.0);
+
+        OrderStatisticData bigData = median.createContext();
+        for (String value : new String[] { "1.5", "0.25", "2", "10" }) {
+            median.accumulate(bigData, new BigDecimal(value));
+        }
+        assertThat(median.getResult(bigData)).isEqualTo(new BigDecimal("1.75"));
+        median.reverse(bigData, new BigDecimal("10"));
+        assertThat(median.getResult(bigData)).isEqualTo(new BigDecimal("1.5"));
+
+        // values that are not numbers can't be averaged
+        OrderStatisticData stringData = median.createContext();
+        for (String value : new String[] { "d", "a", "c", "b" }) {
+            median.accumulate(stringData, value);
+        }
+        assertThat(median.getResult(stringData)).isEqualTo("b");
+        median.reverse(stringData, "a");
+        assertThat(median.getResult(stringData)).isEqualTo("c");
+    }
+
+    @Test
+    public void medianOfNumbersIsAlwaysDoubleOrBigDecimal() {
+        MedianAccumulateFunction median = new MedianAccumulateFunction();
+
+        OrderStatisticData longData = median.createContext();
+        for (long value : new long[] { 3L, 9_007_199_254_740_993L, 1L }) {
+            median.accumulate(longData, value);
+        }
+        // odd count
+        assertThat(median.getResult(longData)).isEqualTo(3.0);
+        median.accumulate(longData, 5L);
+        // even count
+        assertThat(median.getResult(longData)).isEqualTo(4.0);
+
+        OrderStatisticData bigIntegerData = median.createContext();
+        for (long value : new long[] { 9_007_199_254_740_993L, 1L, 9_007_199_254_740_995L }) {
+            median.accumulate(bigIntegerData, BigInteger.valueOf(value));
+        }
+        // odd count, without losing the precision of the values
+        assertThat(median.getResult(bigIntegerData)).isEqualTo(new BigDecimal("9007199254740993"));
+        median.reverse(bigIntegerData, BigInteger.ONE);
+        // even count
+        assertThat(median.getResult(bigIntegerData)).isEqualTo(new BigDecimal("9007199254740994"));
+    }
+}
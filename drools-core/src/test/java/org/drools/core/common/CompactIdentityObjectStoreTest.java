@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompactIdentityObjectStoreTest {
+
+    @Test
+    public void addFindAndRemoveByIdentity() {
+        CompactIdentityObjectStore underTest = new CompactIdentityObjectStore();
+
+        String first = new String("value");
+        String second = new String("value");
+        InternalFactHandle firstHandle = new DefaultFactHandle(1, first);
+        InternalFactHandle secondHandle = new DefaultFactHandle(2, second);
+        underTest.addHandle(firstHandle, first);
+        underTest.addHandle(secondHandle, second);
+
+        assertThat(underTest.size()).isEqualTo(2);
+        assertThat(underTest.getHandleForObject(first)).isSameAs(firstHandle);
+        assertThat(underTest.getHandleForObject(second)).isSameAs(secondHandle);
+        assertThat(underTest.getHandleForObject("value")).isNull();
+
+        underTest.removeHandle(firstHandle);
+        assertThat(underTest.size()).isEqualTo(1);
+        assertThat(underTest.getHandleForObject(first)).isNull();
+        assertThat(underTest.getHandleForObject(second)).isSameAs(secondHandle);
+        assertThat(underTest.reconnect(new DefaultFactHandle(2, second))).isSameAs(secondHandle);
+        assertThat(underTest.reconnect(new DefaultFactHandle(1, first))).isNull();
+    }
+
+    @Test
+    public void growAndRemoveKeepTableConsistent() {
+        CompactIdentityObjectStore underTest = new CompactIdentityObjectStore();
+
+        List<InternalFactHandle> handles = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Object object = new Object();
+            InternalFactHandle handle = new DefaultFactHandle(i, object);
+            handles.add(handle);
+            underTest.addHandle(handle, object);
+        }
+        for (int i = 0; i < 10_000; i += 3) {
+            underTest.removeHandle(handles.get(i));
+        }
+
+        assertThat(underTest.size()).isEqualTo(6_666);
+        for (int i = 0; i < 10_000; i++) {
+            InternalFactHandle handle = handles.get(i);
+            if (i % 3 == 0) {
+                assertThat(underTest.getHandleForObject(handle.getObject())).isNull();
+                assertThat(underTest.getObjectForHandle(handle)).isNull();
+            } else {
+                assertThat(underTest.getHandleForObject(handle.getObject())).isSameAs(handle);
+                assertThat(underTest.getObjectForHandle(handle)).isSameAs(handle.getObject());
+            }
+        }
+        assertThat(collect(underTest.iterateFactHandles())).hasSize(6_666);
+    }
+
+    @Test
+    public void updateHandleReindexesObject() {
+        CompactIdentityObjectStore underTest = new CompactIdentityObjectStore();
+
+        Object oldObject = new Object();
+        Object newObject = new Object();
+        InternalFactHandle handle = new DefaultFactHandle(1, oldObject);
+        underTest.addHandle(handle, oldObject);
+        underTest.updateHandle(handle, newObject);
+
+        assertThat(underTest.size()).isEqualTo(1);
+        assertThat(underTest.getHandleForObject(oldObject)).isNull();
+        assertThat(underTest.getHandleForObject(newObject)).isSameAs(handle);
+        assertThat(handle.getObject()).isSameAs(newObject);
+    }
+
+    @Test
+    public void iterateAndClearByClass() {
+        CompactIdentityObjectStore underTest = new CompactIdentityObjectStore();
+        for (int i = 0; i < 100; i++) {
+            Object object = i % 2 == 0 ? Integer.valueOf(i) : "s" + i;
+            underTest.addHandle(new DefaultFactHandle(i, object), object);
+        }
+
+        assertThat(collect(underTest.iterateObjects(String.class::isInstance))).hasSize(50);
+        assertThat(collect(underTest.iterateFactHandles(Integer.class))).hasSize(50);
+
+        assertThat(underTest.clearClassStore(String.class)).isTrue();
+        assertThat(underTest.size()).isEqualTo(50);
+        assertThat(collect(underTest.iterateObjects(String.class::isInstance))).isEmpty();
+        assertThat(underTest.clearClassStore(String.class)).isFalse();
+    }
+
+    @Test
+    public void deleteWhileIteratingFailsFast() {
+        CompactIdentityObjectStore underTest = new CompactIdentityObjectStore();
+        for (int i = 0; i < 100; i++) {
+            Object object = new Object();
+            underTest.addHandle(new DefaultFactHandle(i, object), object);
+        }
+
+        // removing a handle shifts back the following ones, so iterating on would silently skip some of them
+        Iterator<InternalFactHandle> iterator = underTest.iterateFactHandles();
+        underTest.removeHandle(iterator.next());
+        assertThatThrownBy(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+
+        Iterator<Object> objects = underTest.iterateObjects();
+        objects.next();
+        Object added = new Object();
+        underTest.addHandle(new DefaultFactHandle(100, added), added);
+        assertThatThrownBy(objects::next).isInstanceOf(ConcurrentModificationException.class);
+
+        // deleting from a snapshot of the handles, as the callers do, removes all of them
+        List<InternalFactHandle> handles = new ArrayList<>();
+        underTest.iterateFactHandles().forEachRemaining(handles::add);
+        handles.forEach(underTest::removeHandle);
+        assertThat(handles).hasSize(100);
+        assertThat(underTest.isEmpty()).isTrue();
+        assertThat(underTest.iterateFactHandles().hasNext()).isFalse();
+    }
+
+    @Test
+    public void iterateNegatedHandlesSeparately() {
+        CompactIdentityObjectStore underTest = new CompactIdentityObjectStore();
+        for (int i = 0; i < 10; i++) {
+            Object object = i % 2 == 0 ? Integer.valueOf(i) : "s" + i;
+            InternalFactHandle handle = new DefaultFactHandle(i, object);
+            handle.setNegated(i < 4);
+            underTest.addHandle(handle, object);
+        }
+
+        assertThat(collect(underTest.iterateObjects())).containsExactlyInAnyOrder(4, "s5", 6, "s7", 8, "s9");
+        assertThat(collect(underTest.iterateNegObjects(null))).containsExactlyInAnyOrder(0, "s1", 2, "s3");
+        assertThat(collect(underTest.iterateNegObjects(String.class::isInstance))).containsExactlyInAnyOrder("s1", "s3");
+        assertThat(collect(underTest.iterateNegFactHandles(Integer.class::isInstance))).hasSize(2);
+    }
+
+    @Test
+    public void reconnectHandleWithRestoredHashCode() {
+        CompactIdentityObjectStore underTest = new CompactIdentityObjectStore();
+        for (int i = 0; i < 100; i++) {
+            Object object = new Object();
+            underTest.addHandle(new DefaultFactHandle(i, object), object);
+        }
+        Object object = new Object();
+        InternalFactHandle restored = handleWithHashCode(100, 42, object);
+        underTest.addHandle(restored, object);
+
+        assertThat(underTest.reconnect(handleWithHashCode(100, 42, new Object()))).isSameAs(restored);
+        assertThat(underTest.reconnect(handleWithHashCode(100, 43, new Object()))).isNull();
+        assertThat(underTest.reconnect(handleWithHashCode(101, 42, new Object()))).isNull();
+    }
+
+    private static InternalFactHandle handleWithHashCode(long id, int identityHashCode, Object object) {
+        DefaultFactHandle handle = new DefaultFactHandle(id, object);
+        handle.setIdentityHashCode(identityHashCode);
+        return handle;
+    }
+
+    @Test
+    public void serializeAndDeserialize() throws Exception {
+        CompactIdentityObjectStore underTest = new CompactIdentityObjectStore();
+        for (int i = 0; i < 100; i++) {
+            String object = "s" + i;
+            underTest.addHandle(new DefaultFactHandle(i, object), object);
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(baos)) {
+            out.writeObject(underTest);
+        }
+        CompactIdentityObjectStore deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            deserialized = (CompactIdentityObjectStore) in.readObject();
+        }
+
+        assertThat(deserialized.size()).isEqualTo(100);
+        for (InternalFactHandle handle : collect(deserialized.iterateFactHandles())) {
+            assertThat(deserialized.getHandleForObject(handle.getObject())).isSameAs(handle);
+        }
+    }
+
+    private static <T> Collection<T> collect(Iterator<T> objects) {
+        List<T> result = new ArrayList<T>();
+        while (objects.hasNext()) {
+            result.add(objects.next());
+        }
+        return result;
+    }
+}
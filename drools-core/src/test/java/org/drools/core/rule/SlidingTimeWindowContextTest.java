@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.rule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.drools.core.common.DefaultEventHandle;
+import org.drools.core.rule.SlidingTimeWindow.SlidingTimeWindowContext;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlidingTimeWindowContextTest {
+
+    private static DefaultEventHandle event(long id, long timestamp) {
+        return new DefaultEventHandle(id, "event" + id, id, timestamp, 0, null);
+    }
+
+    @Test
+    public void pollsInOrderEventsFromTheRing() {
+        SlidingTimeWindowContext context = new SlidingTimeWindowContext();
+        for (int i = 0; i < 100; i++) {
+            context.add(event(i, i * 10L));
+        }
+        assertThat(context.size()).isEqualTo(100);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(context.peek().getId()).isEqualTo(i);
+            assertThat(context.poll().getId()).isEqualTo(i);
+        }
+        assertThat(context.isEmpty()).isTrue();
+        assertThat(context.peek()).isNull();
+    }
+
+    @Test
+    public void mergesOutOfOrderEvents() {
+        SlidingTimeWindowContext context = new SlidingTimeWindowContext();
+        context.add(event(1, 10));
+        context.add(event(2, 30));
+        context.add(event(3, 20));
+        context.add(event(4, 5));
+        context.add(event(5, 40));
+
+        List<Long> timestamps = new ArrayList<>();
+        while (!context.isEmpty()) {
+            timestamps.add(context.remove().getStartTimestamp());
+        }
+        assertThat(timestamps).containsExactly(5L, 10L, 20L, 30L, 40L);
+    }
+
+    @Test
+    public void removesEventsInTheMiddle() {
+        SlidingTimeWindowContext context = new SlidingTimeWindowContext();
+        List<DefaultEventHandle> events = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            DefaultEventHandle event = event(i, i / 2);
+            events.add(event);
+            context.add(event);
+        }
+
+        context.remove(events.get(0));
+        context.remove(events.get(21));
+        context.remove(events.get(49));
+        assertThat(context.size()).isEqualTo(47);
+        assertThat(context.getFactHandles()).doesNotContain(events.get(0), events.get(21), events.get(49));
+        assertThat(context.peek()).isSameAs(events.get(1));
+
+        // adding after the removal of the tail still keeps the timestamp order
+        context.add(event(100, 24));
+        List<Long> timestamps = new ArrayList<>();
+        while (!context.isEmpty()) {
+            timestamps.add(context.poll().getStartTimestamp());
+        }
+        assertThat(timestamps).hasSize(48).isSorted();
+    }
+
+    @Test
+    public void behavesLikeAPriorityQueue() {
+        Random random = new Random(0);
+        SlidingTimeWindowContext context = new SlidingTimeWindowContext();
+        PriorityQueue<DefaultEventHandle> expected = new PriorityQueue<>();
+        List<DefaultEventHandle> live = new ArrayList<>();
+        long time = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int op = random.nextInt(10);
+            if (op < 6) {
+                // mostly in order, sometimes late
+                time += random.nextInt(3);
+                DefaultEventHandle event = event(i, random.nextInt(10) == 0 ? time - random.nextInt(50) : time);
+                context.add(event);
+                expected.add(event);
+                live.add(event);
+            } else if (op < 8 && !live.isEmpty()) {
+                DefaultEventHandle event = live.remove(random.nextInt(live.size()));
+                context.remove(event);
+                expected.remove(event);
+            } else if (!expected.isEmpty()) {
+                DefaultEventHandle event = context.poll();
+                assertThat(event.getStartTimestamp()).isEqualTo(expected.peek().getStartTimestamp());
+                assertThat(expected.remove(event)).isTrue();
+                live.remove(event);
+            }
+            assertThat(context.size()).isEqualTo(expected.size());
+        }
+    }
+}
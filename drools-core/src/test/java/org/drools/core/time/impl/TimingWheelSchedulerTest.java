@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.time.impl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.base.time.JobHandle;
+import org.drools.core.ClockType;
+import org.drools.core.SessionConfiguration;
+import org.drools.core.common.DefaultEventHandle;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.impl.RuleBaseFactory;
+import org.drools.core.impl.WorkingMemoryReteExpireAction;
+import org.drools.core.phreak.PropagationEntry;
+import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.core.time.JobContext;
+import org.drools.core.time.TimerService;
+import org.drools.core.time.impl.JDKTimerServiceTest.DelayedTrigger;
+import org.drools.core.time.impl.JDKTimerServiceTest.HelloWorldJob;
+import org.drools.core.time.impl.JDKTimerServiceTest.HelloWorldJobContext;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TimingWheelSchedulerTest {
+
+    @Test
+    public void createdWithTimingWheelOption() {
+        SessionConfiguration config = RuleBaseFactory.newKnowledgeSessionConfiguration().as(SessionConfiguration.KEY);
+        config.setTimingWheel(true);
+        config.setClockType(ClockType.PSEUDO_CLOCK);
+        assertThat(config.createTimerService()).isInstanceOf(TimingWheelPseudoClockScheduler.class);
+
+        config.setClockType(ClockType.REALTIME_CLOCK);
+        TimerService timerService = config.createTimerService();
+        assertThat(timerService).isInstanceOf(TimingWheelTimerService.class);
+        timerService.shutdown();
+    }
+
+    @Test
+    public void jobsAreFiredInOrderAtTheirFireTime() {
+        TimingWheelPseudoClockScheduler scheduler = new TimingWheelPseudoClockScheduler();
+        List<Long> fired = new ArrayList<>();
+        JobContext ctx = mock(JobContext.class);
+
+        long[] fireTimes = new long[] { 70_000, 10, 5_000, 10, 300 };
+        for (long fireTime : fireTimes) {
+            scheduler.scheduleJob(c -> fired.add(scheduler.getCurrentTime()), ctx, PointInTimeTrigger.createPointInTimeTrigger(fireTime, null));
+        }
+        JobHandle cancelled = scheduler.scheduleJob(c -> fired.add(-1L), ctx, PointInTimeTrigger.createPointInTimeTrigger(300, null));
+        scheduler.removeJob(cancelled);
+        assertThat(scheduler.getTimeToNextJob()).isEqualTo(10L);
+
+        scheduler.advanceTime(5_000, TimeUnit.MILLISECONDS);
+        assertThat(fired).containsExactly(10L, 10L, 300L, 5_000L);
+        assertThat(scheduler.getCurrentTime()).isEqualTo(5_000L);
+        assertThat(scheduler.getTimeToNextJob()).isEqualTo(65_000L);
+
+        // a job scheduled in the past is fired at the next advance of the clock
+        scheduler.scheduleJob(c -> fired.add(scheduler.getCurrentTime()), ctx, PointInTimeTrigger.createPointInTimeTrigger(4_000, null));
+        scheduler.advanceTime(0, TimeUnit.MILLISECONDS);
+        assertThat(fired).containsExactly(10L, 10L, 300L, 5_000L, 4_000L);
+
+        scheduler.advanceTime(2, TimeUnit.MINUTES);
+        assertThat(fired).containsExactly(10L, 10L, 300L, 5_000L, 4_000L, 70_000L);
+        assertThat(scheduler.getTimeToNextJob()).isEqualTo(-1L);
+    }
+
+    @Test
+    public void expirationsOfTheSameTickArePropagatedAsSingleBatch() {
+        TimingWheelPseudoClockScheduler scheduler = new TimingWheelPseudoClockScheduler();
+        ReteEvaluator reteEvaluator = mock(ReteEvaluator.class);
+        when(reteEvaluator.getTimerService()).thenReturn(scheduler);
+        List<PropagationEntry> propagations = new ArrayList<>();
+        doAnswer(invocation -> propagations.add(invocation.getArgument(0))).when(reteEvaluator).addPropagation(any());
+
+        ObjectTypeNode.ExpireJob job = new ObjectTypeNode.ExpireJob();
+        for (int i = 0; i < 10; i++) {
+            long fireTime = i < 8 ? 1_000 : 2_000;
+            ObjectTypeNode.ExpireJobContext ctx = new ObjectTypeNode.ExpireJobContext(new WorkingMemoryReteExpireAction(new DefaultEventHandle(i, null)), reteEvaluator);
+            ctx.setJobHandle(scheduler.scheduleJob(job, ctx, PointInTimeTrigger.createPointInTimeTrigger(fireTime, null)));
+        }
+
+        scheduler.advanceTime(1_500, TimeUnit.MILLISECONDS);
+        assertThat(propagations).hasSize(1);
+        assertThat(propagations.get(0)).isInstanceOf(WorkingMemoryReteExpireAction.Batch.class);
+        assertThat(((WorkingMemoryReteExpireAction.Batch) propagations.get(0)).getActions()).hasSize(8);
+
+        scheduler.advanceTime(1_500, TimeUnit.MILLISECONDS);
+        assertThat(propagations).hasSize(2);
+        assertThat(((WorkingMemoryReteExpireAction.Batch) propagations.get(1)).getActions()).hasSize(2);
+    }
+
+    @Test
+    public void realtimeRepeatedExecutionJobWithRemove() throws Exception {
+        TimerService timeService = new TimingWheelTimerService();
+        DelayedTrigger trigger = new DelayedTrigger( new long[] { 100, 100, 100, 100, 100, 100, 100, 100 } );
+        HelloWorldJobContext ctx = new HelloWorldJobContext( "hello world", timeService );
+        timeService.scheduleJob( new HelloWorldJob(), ctx, trigger );
+        Thread.sleep( 1000 );
+        timeService.shutdown();
+        // as in JDKTimerServiceTest the job removes itself after its 5th execution
+        assertThat(ctx.getList()).hasSize(5);
+    }
+
+    @Test
+    public void realtimeFiresDueJobs() throws Exception {
+        TimerService timeService = new TimingWheelTimerService();
+        HelloWorldJobContext ctx = new HelloWorldJobContext( "hello world", timeService );
+        long now = System.currentTimeMillis();
+        timeService.scheduleJob( new HelloWorldJob(), ctx, PointInTimeTrigger.createPointInTimeTrigger( now + 200, null ) );
+        timeService.scheduleJob( new HelloWorldJob(), ctx, PointInTimeTrigger.createPointInTimeTrigger( now - 10, null ) );
+        timeService.scheduleJob( new HelloWorldJob(), ctx, new DelayedTrigger( 50 ) );
+        Thread.sleep( 100 );
+        assertThat(ctx.getList()).hasSize(2);
+        Thread.sleep( 300 );
+        timeService.shutdown();
+        assertThat(ctx.getList()).hasSize(3);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.time.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimingWheelTest {
+
+    @Test
+    public void dueEntriesAreReturnedTickByTick() {
+        TimingWheel wheel = new TimingWheel(1, 0);
+        TimingWheel.Entry e1 = entry(5);
+        TimingWheel.Entry e2 = entry(5);
+        TimingWheel.Entry e3 = entry(100);
+        TimingWheel.Entry e4 = entry(10_000);
+        assertThat(wheel.add(e1)).isTrue();
+        assertThat(wheel.add(e2)).isTrue();
+        assertThat(wheel.add(e3)).isTrue();
+        assertThat(wheel.add(e4)).isTrue();
+        assertThat(wheel.add(entry(0))).isFalse();
+        assertThat(wheel.size()).isEqualTo(4);
+        assertThat(wheel.nextFireTime()).isEqualTo(5);
+
+        List<TimingWheel.Entry> due = new ArrayList<>();
+        assertThat(wheel.pollDue(4, due)).isEqualTo(-1);
+        assertThat(due).isEmpty();
+        assertThat(wheel.getCurrentTime()).isEqualTo(4);
+
+        assertThat(wheel.pollDue(1_000, due)).isEqualTo(5);
+        assertThat(due).containsExactlyInAnyOrder(e1, e2);
+        due.clear();
+
+        assertThat(wheel.pollDue(1_000, due)).isEqualTo(100);
+        assertThat(due).containsExactly(e3);
+        due.clear();
+
+        assertThat(wheel.pollDue(1_000, due)).isEqualTo(-1);
+        assertThat(wheel.getCurrentTime()).isEqualTo(1_000);
+        assertThat(wheel.nextFireTime()).isEqualTo(10_000);
+
+        assertThat(wheel.pollDue(20_000, due)).isEqualTo(10_000);
+        assertThat(due).containsExactly(e4);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void removedEntriesAreNotReturned() {
+        TimingWheel wheel = new TimingWheel(1, 0);
+        TimingWheel.Entry e1 = entry(50);
+        TimingWheel.Entry e2 = entry(5_000);
+        wheel.add(e1);
+        wheel.add(e2);
+
+        wheel.remove(e1);
+        wheel.remove(e2);
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.nextFireTime()).isEqualTo(Long.MAX_VALUE);
+        assertThat(wheel.nextExpiration()).isEqualTo(Long.MAX_VALUE);
+
+        List<TimingWheel.Entry> due = new ArrayList<>();
+        assertThat(wheel.pollDue(10_000, due)).isEqualTo(-1);
+        assertThat(due).isEmpty();
+    }
+
+    @Test
+    public void entriesAreReturnedInFireTimeOrder() {
+        Random random = new Random(0);
+        TimingWheel wheel = new TimingWheel(1, 0);
+        List<TimingWheel.Entry> removed = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            TimingWheel.Entry entry = entry(1 + random.nextInt(1_000_000));
+            wheel.add(entry);
+            if (i % 5 == 0) {
+                wheel.remove(entry);
+                removed.add(entry);
+            }
+        }
+        assertThat(wheel.size()).isEqualTo(40_000);
+
+        List<TimingWheel.Entry> due = new ArrayList<>();
+        long lastTick = -1;
+        int fired = 0;
+        for (long tick = wheel.pollDue(Long.MAX_VALUE / 2, due); tick >= 0; tick = wheel.pollDue(Long.MAX_VALUE / 2, due)) {
+            assertThat(tick).isGreaterThan(lastTick);
+            for (TimingWheel.Entry entry : due) {
+                assertThat(entry.getFireTime()).isEqualTo(tick);
+            }
+            assertThat(due).doesNotContainAnyElementsOf(removed);
+            fired += due.size();
+            lastTick = tick;
+            due.clear();
+        }
+        assertThat(fired).isEqualTo(40_000);
+    }
+
+    private static TimingWheel.Entry entry(long fireTime) {
+        return new TimingWheel.Entry(null, fireTime);
+    }
+}
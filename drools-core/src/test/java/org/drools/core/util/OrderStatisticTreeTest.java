@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OrderStatisticTreeTest {
+
+    @Test
+    public void addAndRemoveDuplicates() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>();
+        tree.add(5);
+        tree.add(3);
+        tree.add(5);
+        tree.add(8);
+
+        assertThat(tree.size()).isEqualTo(4);
+        assertThat(tree.count(5)).isEqualTo(2);
+        assertThat(tree.first()).isEqualTo(3);
+        assertThat(tree.last()).isEqualTo(8);
+        assertThat(tree.get(1)).isEqualTo(5);
+        assertThat(tree.get(2)).isEqualTo(5);
+        assertThat(tree.get(3)).isEqualTo(8);
+
+        assertThat(tree.remove(5)).isTrue();
+        assertThat(tree.count(5)).isEqualTo(1);
+        assertThat(tree.remove(8)).isTrue();
+        assertThat(tree.remove(8)).isFalse();
+        assertThat(tree.last()).isEqualTo(5);
+
+        assertThat(tree.remove(3)).isTrue();
+        assertThat(tree.remove(5)).isTrue();
+        assertThat(tree.isEmpty()).isTrue();
+        assertThatThrownBy(tree::first).isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(() -> tree.get(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void randomOperationsMatchSortedList() {
+        Random random = new Random(0);
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>();
+        List<Integer> expected = new ArrayList<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(500);
+            if (random.nextInt(3) == 0 && !expected.isEmpty()) {
+                Integer removed = expected.remove(random.nextInt(expected.size()));
+                assertThat(tree.remove(removed)).isTrue();
+            } else {
+                expected.add(value);
+                tree.add(value);
+            }
+
+            if (i % 100 == 0) {
+                Collections.sort(expected);
+                assertThat(tree.size()).isEqualTo(expected.size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertThat(tree.get(j)).isEqualTo(expected.get(j));
+                }
+            }
+        }
+    }
+}
@@ -67,10 +67,33 @@ public class IndexUtilTest {
     }
 
     @Test
-    public void createBetaMemoryWithIntEquals_shouldBeTupleIndexHashTable() {
+    public void createBetaMemoryWithIntEquals_shouldBeTupleIndexPrimitiveHashTable() {
         RuleBaseConfiguration config = getRuleBaseConfiguration();
         FakeBetaNodeFieldConstraint intEqualsConstraint = new FakeBetaNodeFieldConstraint(ConstraintTypeOperator.EQUAL, new FakeReadAccessor(ValueType.PINTEGER_TYPE));
         BetaMemory betaMemory = IndexFactory.createBetaMemory(config, NodeTypeEnums.JoinNode, intEqualsConstraint);
+        assertThat(betaMemory.getLeftTupleMemory()).isInstanceOf(TupleIndexPrimitiveHashTable.class);
+        assertThat(betaMemory.getRightTupleMemory()).isInstanceOf(TupleIndexPrimitiveHashTable.class);
+    }
+
+    @Test
+    public void createBetaMemoryWithIntEqualsAndPrimitiveMemoryDisabled_shouldBeTupleIndexHashTable() {
+        RuleBaseConfiguration config = getRuleBaseConfiguration();
+        FakeBetaNodeFieldConstraint intEqualsConstraint = new FakeBetaNodeFieldConstraint(ConstraintTypeOperator.EQUAL, new FakeReadAccessor(ValueType.PINTEGER_TYPE));
+        IndexMemory.setPrimitiveEqualityMemory(false);
+        try {
+            BetaMemory betaMemory = IndexFactory.createBetaMemory(config, NodeTypeEnums.JoinNode, intEqualsConstraint);
+            assertThat(betaMemory.getLeftTupleMemory()).isInstanceOf(TupleIndexHashTable.class);
+            assertThat(betaMemory.getRightTupleMemory()).isInstanceOf(TupleIndexHashTable.class);
+        } finally {
+            IndexMemory.setPrimitiveEqualityMemory(true);
+        }
+    }
+
+    @Test
+    public void createBetaMemoryWithBoxedIntegerEquals_shouldBeTupleIndexHashTable() {
+        RuleBaseConfiguration config = getRuleBaseConfiguration();
+        FakeBetaNodeFieldConstraint integerEqualsConstraint = new FakeBetaNodeFieldConstraint(ConstraintTypeOperator.EQUAL, new FakeReadAccessor(ValueType.INTEGER_TYPE));
+        BetaMemory betaMemory = IndexFactory.createBetaMemory(config, NodeTypeEnums.JoinNode, integerEqualsConstraint);
         assertThat(betaMemory.getLeftTupleMemory()).isInstanceOf(TupleIndexHashTable.class);
         assertThat(betaMemory.getRightTupleMemory()).isInstanceOf(TupleIndexHashTable.class);
     }
@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.util.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drools.base.base.ValueResolver;
+import org.drools.base.base.ValueType;
+import org.drools.base.base.extractors.BaseObjectClassFieldReader;
+import org.drools.base.reteoo.BaseTuple;
+import org.drools.base.rule.accessor.RightTupleValueExtractor;
+import org.drools.base.rule.accessor.TupleValueExtractor;
+import org.drools.base.util.IndexedValueReader;
+import org.drools.core.common.DefaultFactHandle;
+import org.drools.core.reteoo.RightTuple;
+import org.drools.core.reteoo.TupleImpl;
+import org.drools.core.util.FastIterator;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TupleIndexPrimitiveHashTableTest {
+
+    @Test
+    public void addGetAndRemove() {
+        TupleIndexPrimitiveHashTable table = createTable(ValueType.PLONG_TYPE);
+
+        RightTuple t1 = rightTuple(1, 10L);
+        RightTuple t2 = rightTuple(2, 10L);
+        RightTuple t3 = rightTuple(3, 20L);
+        table.add(t1);
+        table.add(t2);
+        table.add(t3);
+
+        assertThat(table.size()).isEqualTo(3);
+        assertThat(table.getFirst(rightTuple(4, 10L))).isSameAs(t1);
+        assertThat(t1.getNext()).isSameAs(t2);
+        assertThat(table.getFirst(rightTuple(5, 20L))).isSameAs(t3);
+        assertThat(table.getFirst(rightTuple(6, 30L))).isNull();
+
+        table.remove(t1);
+        table.remove(t3);
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.getFirst(rightTuple(7, 10L))).isSameAs(t2);
+        assertThat(table.getFirst(rightTuple(8, 20L))).isNull();
+    }
+
+    @Test
+    public void removeAddMovesTupleToNewBucket() {
+        TupleIndexPrimitiveHashTable table = createTable(ValueType.PLONG_TYPE);
+
+        RightTuple t1 = rightTuple(1, 10L);
+        table.add(t1);
+
+        t1.getFactHandle().setObject(11L);
+        table.removeAdd(t1);
+
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.getFirst(rightTuple(2, 10L))).isNull();
+        assertThat(table.getFirst(rightTuple(3, 11L))).isSameAs(t1);
+    }
+
+    @Test
+    public void growAndPurgeTombstones() {
+        TupleIndexPrimitiveHashTable table = createTable(ValueType.PLONG_TYPE);
+
+        List<RightTuple> tuples = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            RightTuple tuple = rightTuple(i, (long) i);
+            tuples.add(tuple);
+            table.add(tuple);
+        }
+        assertThat(table.size()).isEqualTo(10_000);
+
+        for (int i = 0; i < 10_000; i += 2) {
+            table.remove(tuples.get(i));
+        }
+        for (int i = 10_000; i < 12_000; i++) {
+            table.add(rightTuple(i, (long) i));
+        }
+
+        assertThat(table.size()).isEqualTo(7_000);
+        for (int i = 0; i < 10_000; i++) {
+            TupleImpl first = table.getFirst(rightTuple(-1, (long) i));
+            if (i % 2 == 0) {
+                assertThat(first).isNull();
+            } else {
+                assertThat(first).isSameAs(tuples.get(i));
+            }
+        }
+        assertThat(countWithFullIterator(table)).isEqualTo(7_000);
+    }
+
+    @Test
+    public void removeWhileIterating() {
+        TupleIndexPrimitiveHashTable table = createTable(ValueType.PINTEGER_TYPE);
+        for (int i = 0; i < 1_000; i++) {
+            table.add(rightTuple(i, i % 100));
+        }
+
+        int removed = 0;
+        FastIterator<TupleImpl> it = table.fullFastIterator();
+        for (TupleImpl tuple = it.next(null); tuple != null; ) {
+            TupleImpl next = it.next(tuple);
+            table.remove(tuple);
+            removed++;
+            tuple = next;
+        }
+
+        assertThat(removed).isEqualTo(1_000);
+        assertThat(table.size()).isZero();
+    }
+
+    @Test
+    public void doubleKeysFollowBoxedEquality() {
+        TupleIndexPrimitiveHashTable table = createTable(ValueType.PDOUBLE_TYPE);
+
+        RightTuple zero = rightTuple(1, 0.0d);
+        RightTuple nan = rightTuple(2, Double.NaN);
+        table.add(zero);
+        table.add(nan);
+
+        assertThat(table.getFirst(rightTuple(3, 0.0d))).isSameAs(zero);
+        assertThat(table.getFirst(rightTuple(4, -0.0d))).isNull();
+        assertThat(table.getFirst(rightTuple(5, Double.NaN))).isSameAs(nan);
+    }
+
+    @Test
+    public void readsPrimitiveKeysWithoutBoxing() {
+        // the right extractor can't return a boxed value, so the keys of the right tuples must be read as primitives
+        IndexedValueReader reader = new IndexedValueReader(new IdValueExtractor(), new RightTupleValueExtractor(new PrimitiveIdReader()));
+        TupleIndexPrimitiveHashTable table = new TupleIndexPrimitiveHashTable(new IndexSpec(new IndexedValueReader[] { reader }).getIndex(), false);
+
+        List<RightTuple> tuples = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            RightTuple tuple = rightTuple(i, new Id(i % 100));
+            tuples.add(tuple);
+            table.add(tuple);
+        }
+        table.ensureCapacity(1_000);
+
+        // the boxed keys of the other side are encoded as the primitive ones
+        assertThat(table.getFirst(rightTuple(-1, new Id(42)))).isSameAs(tuples.get(42));
+        assertThat(table.getFirst(rightTuple(-1, new Id(100)))).isNull();
+
+        tuples.get(42).getFactHandle().setObject(new Id(100));
+        table.removeAdd(tuples.get(42));
+        assertThat(table.getFirst(rightTuple(-1, new Id(42)))).isSameAs(tuples.get(142));
+        assertThat(table.getFirst(rightTuple(-1, new Id(100)))).isSameAs(tuples.get(42));
+        assertThat(table.size()).isEqualTo(1_000);
+    }
+
+    @Test
+    public void isPrimitiveIndexable() {
+        assertThat(TupleIndexPrimitiveHashTable.isPrimitiveIndexable(new IndexedValueReader[] { indexedValueReader(ValueType.PINTEGER_TYPE) })).isTrue();
+        assertThat(TupleIndexPrimitiveHashTable.isPrimitiveIndexable(new IndexedValueReader[] { indexedValueReader(ValueType.INTEGER_TYPE) })).isFalse();
+        assertThat(TupleIndexPrimitiveHashTable.isPrimitiveIndexable(new IndexedValueReader[] { indexedValueReader(ValueType.STRING_TYPE) })).isFalse();
+        assertThat(TupleIndexPrimitiveHashTable.isPrimitiveIndexable(new IndexedValueReader[] { indexedValueReader(ValueType.PLONG_TYPE),
+                                                                                                indexedValueReader(ValueType.PLONG_TYPE) })).isFalse();
+    }
+
+    private static int countWithFullIterator(TupleIndexPrimitiveHashTable table) {
+        int count = 0;
+        FastIterator<TupleImpl> it = table.fullFastIterator();
+        for (TupleImpl tuple = it.next(null); tuple != null; tuple = it.next(tuple)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static TupleIndexPrimitiveHashTable createTable(ValueType valueType) {
+        return new TupleIndexPrimitiveHashTable(new IndexSpec(new IndexedValueReader[] { indexedValueReader(valueType) }).getIndex(), false);
+    }
+
+    private static IndexedValueReader indexedValueReader(ValueType valueType) {
+        return new IndexedValueReader(new ObjectValueExtractor(valueType), new ObjectValueExtractor(valueType));
+    }
+
+    private static RightTuple rightTuple(long id, Object value) {
+        return new RightTuple(new DefaultFactHandle(id, value));
+    }
+
+    private static class Id {
+        private final long id;
+
+        private Id(long id) {
+            this.id = id;
+        }
+    }
+
+    private static class PrimitiveIdReader extends BaseObjectClassFieldReader {
+
+        private PrimitiveIdReader() {
+            super(0, long.class, ValueType.PLONG_TYPE);
+        }
+
+        @Override
+        public Object getValue(ValueResolver valueResolver, Object object) {
+            throw new UnsupportedOperationException("the key must be read without boxing it");
+        }
+
+        @Override
+        public long getLongValue(ValueResolver valueResolver, Object object) {
+            return ((Id) object).id;
+        }
+    }
+
+    private static class IdValueExtractor implements TupleValueExtractor {
+
+        @Override
+        public ValueType getValueType() {
+            return ValueType.PLONG_TYPE;
+        }
+
+        @Override
+        public Object getValue(ValueResolver valueResolver, BaseTuple tuple) {
+            return ((Id) tuple.getFactHandle().getObject()).id;
+        }
+
+        @Override
+        public TupleValueExtractor clone() {
+            return new IdValueExtractor();
+        }
+    }
+
+    private static class ObjectValueExtractor implements TupleValueExtractor {
+
+        private final ValueType valueType;
+
+        private ObjectValueExtractor(ValueType valueType) {
+            this.valueType = valueType;
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return valueType;
+        }
+
+        @Override
+        public Object getValue(ValueResolver valueResolver, BaseTuple tuple) {
+            return tuple.getFactHandle().getObject();
+        }
+
+        @Override
+        public TupleValueExtractor clone() {
+            return new ObjectValueExtractor(valueType);
+        }
+    }
+}
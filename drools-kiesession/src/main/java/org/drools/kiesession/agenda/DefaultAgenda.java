@@ -24,6 +24,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.drools.base.definitions.rule.impl.QueryImpl;
 import org.drools.base.definitions.rule.impl.RuleImpl;
@@ -46,9 +49,11 @@ import org.drools.core.common.RuleFlowGroup;
 import org.drools.core.concurrent.GroupEvaluator;
 import org.drools.core.concurrent.ParallelGroupEvaluator;
 import org.drools.core.concurrent.SequentialGroupEvaluator;
+import org.drools.core.concurrent.VirtualThreads;
 import org.drools.core.event.AgendaEventSupport;
 import org.drools.core.impl.InternalRuleBase;
 import org.drools.core.phreak.ExecutableEntry;
+import org.drools.core.phreak.LockFreePropagationList;
 import org.drools.core.phreak.PropagationEntry;
 import org.drools.core.phreak.PropagationList;
 import org.drools.core.phreak.RuleAgendaItem;
@@ -191,8 +196,12 @@ public class DefaultAgenda implements InternalAgenda {
             return new ThreadUnsafePropagationList( workingMemory );
         }
 
-        return workingMemory.getRuleSessionConfiguration().hasForceEagerActivationFilter() ?
-               new SynchronizedBypassPropagationList( workingMemory ) :
+        if (workingMemory.getRuleSessionConfiguration().hasForceEagerActivationFilter()) {
+            return new SynchronizedBypassPropagationList( workingMemory );
+        }
+
+        return workingMemory.getRuleSessionConfiguration().isLockFreePropagation() ?
+               new LockFreePropagationList( workingMemory ) :
                new SynchronizedPropagationList( workingMemory );
     }
 
@@ -663,12 +672,16 @@ public class DefaultAgenda implements InternalAgenda {
         class FireAllRulesRestHandler implements RestHandler {
             @Override
             public PropagationEntry handleRest(DefaultAgenda agenda, boolean isInternalFire) {
-                synchronized (agenda.executionStateMachine.getStateMachineLock()) {
+                Lock stateMachineLock = agenda.executionStateMachine.getStateMachineLock();
+                stateMachineLock.lock();
+                try {
                     PropagationEntry head = agenda.propagationList.takeAll();
                     if (isInternalFire && head == null) {
                         agenda.internalHalt();
                     }
                     return head;
+                } finally {
+                    stateMachineLock.unlock();
                 }
             }
         }
@@ -682,20 +695,12 @@ public class DefaultAgenda implements InternalAgenda {
                     deactivated = true;
                 }
 
-                PropagationEntry head;
-                // this must use the same sync target as takeAllPropagations, to ensure this entire block is atomic, up to the point of wait
-                synchronized (agenda.propagationList) {
-                    head = agenda.takePropagationHead();
-
-                    // if halt() has called, the thread should not be put into a wait state
-                    // instead this is just a safe way to make sure the queue is flushed before exiting the loop
-                    if (head == null && (
-                            agenda.executionStateMachine.getCurrentState() == ExecutionStateMachine.ExecutionState.FIRING_UNTIL_HALT ||
-                            agenda.executionStateMachine.getCurrentState() == ExecutionStateMachine.ExecutionState.INACTIVE_ON_FIRING_UNTIL_HALT )) {
-                        agenda.propagationList.waitOnRest();
-                        head = agenda.takePropagationHead();
-                    }
-                }
+                // the propagation list makes this entire block atomic, up to the point of wait, with respect to the threads adding entries
+                // if halt() has called, the thread should not be put into a wait state
+                // instead this is just a safe way to make sure the queue is flushed before exiting the loop
+                PropagationEntry head = agenda.propagationList.takeOrWaitOnRest( agenda::takePropagationHead, () ->
+                        agenda.executionStateMachine.getCurrentState() == ExecutionStateMachine.ExecutionState.FIRING_UNTIL_HALT ||
+                        agenda.executionStateMachine.getCurrentState() == ExecutionStateMachine.ExecutionState.INACTIVE_ON_FIRING_UNTIL_HALT );
 
                 if (deactivated) {
                     agenda.executionStateMachine.toFireUntilHalt();
@@ -946,12 +951,12 @@ public class DefaultAgenda implements InternalAgenda {
 
         ExecutionState getCurrentState();
 
-        Object getStateMachineLock();
+        Lock getStateMachineLock();
     }
 
     static class UnsafeExecutionStateMachine implements ExecutionStateMachine {
 
-        private final Object stateMachineLock = new Object();
+        private final Lock stateMachineLock = new ReentrantLock();
 
         private ExecutionState currentState = ExecutionState.INACTIVE;
 
@@ -1036,7 +1041,7 @@ public class DefaultAgenda implements InternalAgenda {
         }
 
         @Override
-        public Object getStateMachineLock() {
+        public Lock getStateMachineLock() {
             return stateMachineLock;
         }
     }
@@ -1045,7 +1050,9 @@ public class DefaultAgenda implements InternalAgenda {
         private volatile ExecutionState currentState = ExecutionState.INACTIVE;
         private volatile boolean wasFiringUntilHalt = false;
 
-        private final Object stateMachineLock = new Object();
+        // a j.u.c. lock instead of the object monitor, so that a virtual thread waiting for the engine doesn't pin its carrier
+        private final ReentrantLock stateMachineLock = new ReentrantLock();
+        private final Condition stateChanged = stateMachineLock.newCondition();
 
         private long fireUntilHaltThreadId = -1;
 
@@ -1059,27 +1066,34 @@ public class DefaultAgenda implements InternalAgenda {
         }
 
         public boolean toFireAllRules() {
-            synchronized (stateMachineLock) {
+            stateMachineLock.lock();
+            try {
                 if (currentState.isFiring() || !currentState.isAlive()) {
                     return false;
                 }
                 waitAndEnterExecutionState( ExecutionState.FIRING_ALL_RULES );
+            } finally {
+                stateMachineLock.unlock();
             }
             return true;
         }
 
         public boolean toFireUntilHalt() {
-            synchronized (stateMachineLock) {
+            stateMachineLock.lock();
+            try {
                 if ( currentState == ExecutionState.FIRING_UNTIL_HALT || currentState == ExecutionState.HALTING ) {
                     return false;
                 }
                 waitAndEnterExecutionState( ExecutionState.FIRING_UNTIL_HALT );
+            } finally {
+                stateMachineLock.unlock();
             }
             return true;
         }
 
         public boolean toExecuteTask( ExecutableEntry executable ) {
-            synchronized (stateMachineLock) {
+            stateMachineLock.lock();
+            try {
                 // state is never changed outside of a sync block, so this is safe.
                 if (isFiring()) {
                     executable.enqueue();
@@ -1090,17 +1104,22 @@ public class DefaultAgenda implements InternalAgenda {
                     waitAndEnterExecutionState( ExecutionState.EXECUTING_TASK );
                 }
                 return true;
+            } finally {
+                stateMachineLock.unlock();
             }
         }
 
         public boolean toExecuteTaskState() {
-            synchronized (stateMachineLock) {
+            stateMachineLock.lock();
+            try {
                 // state is never changed outside of a sync block, so this is safe.
                 if (!currentState.isAlive() || currentState.isFiring()) {
                     return false;
                 }
                 waitAndEnterExecutionState( ExecutionState.EXECUTING_TASK );
                 return true;
+            } finally {
+                stateMachineLock.unlock();
             }
         }
 
@@ -1112,7 +1131,7 @@ public class DefaultAgenda implements InternalAgenda {
         private void waitInactive() {
             while ( currentState != ExecutionState.INACTIVE && currentState != ExecutionState.INACTIVE_ON_FIRING_UNTIL_HALT && currentState != ExecutionState.DISPOSED ) {
                 try {
-                    stateMachineLock.wait();
+                    stateChanged.await();
                 } catch (InterruptedException e) {
                     throw new RuntimeException( e );
                 }
@@ -1142,6 +1161,8 @@ public class DefaultAgenda implements InternalAgenda {
                     // where the fireUntilHalt was running before the compilation or on a brand new thread
                     if (restoreFiringOnSameThread) {
                         agenda.fireUntilHalt();
+                    } else if (agenda.workingMemory.getSessionConfiguration().isVirtualThreads()) {
+                        VirtualThreads.threadFactory().newThread(agenda::fireUntilHalt).start();
                     } else {
                         new Thread(agenda::fireUntilHalt).start();
                     }
@@ -1150,16 +1171,20 @@ public class DefaultAgenda implements InternalAgenda {
         }
 
         public void deactivate() {
-            synchronized (stateMachineLock) {
+            stateMachineLock.lock();
+            try {
                 pauseFiringUntilHalt();
                 if ( currentState != ExecutionState.DEACTIVATED && currentState.isAlive() ) {
                     waitAndEnterExecutionState( ExecutionState.DEACTIVATED );
                 }
+            } finally {
+                stateMachineLock.unlock();
             }
         }
 
         public boolean tryDeactivate() {
-            synchronized (stateMachineLock) {
+            stateMachineLock.lock();
+            try {
                 if ( !currentState.isAlive() ) {
                     return true;
                 }
@@ -1168,6 +1193,8 @@ public class DefaultAgenda implements InternalAgenda {
                     setCurrentState( ExecutionState.DEACTIVATED );
                     return true;
                 }
+            } finally {
+                stateMachineLock.unlock();
             }
             return false;
         }
@@ -1181,38 +1208,48 @@ public class DefaultAgenda implements InternalAgenda {
         }
 
         public void immediateHalt(PropagationList propagationList) {
-            synchronized (stateMachineLock) {
+            stateMachineLock.lock();
+            try {
                 if (currentState != ExecutionState.INACTIVE) {
                     setCurrentState( ExecutionState.INACTIVE );
-                    stateMachineLock.notifyAll();
+                    stateChanged.signalAll();
                     propagationList.onEngineInactive();
                     if (wasFiringUntilHalt) {
                         // if it is halting a thread that was running a fireUntilHalt registers its id
                         fireUntilHaltThreadId = Thread.currentThread().getId();
                     }
                 }
+            } finally {
+                stateMachineLock.unlock();
             }
         }
 
         public void inactiveOnFireUntilHalt() {
-            synchronized (stateMachineLock) {
+            stateMachineLock.lock();
+            try {
                 if (currentState != ExecutionState.INACTIVE && currentState != ExecutionState.INACTIVE_ON_FIRING_UNTIL_HALT) {
                     setCurrentState( ExecutionState.INACTIVE_ON_FIRING_UNTIL_HALT );
-                    stateMachineLock.notifyAll();
+                    stateChanged.signalAll();
                 }
+            } finally {
+                stateMachineLock.unlock();
             }
         }
 
         public void internalHalt() {
-            synchronized (stateMachineLock) {
+            stateMachineLock.lock();
+            try {
                 if (isFiring()) {
                     setCurrentState( ExecutionState.HALTING );
                 }
+            } finally {
+                stateMachineLock.unlock();
             }
         }
 
         public boolean dispose(InternalWorkingMemory workingMemory) {
-            synchronized (stateMachineLock) {
+            stateMachineLock.lock();
+            try {
                 if (!currentState.isAlive()) {
                     return false;
                 }
@@ -1221,14 +1258,19 @@ public class DefaultAgenda implements InternalAgenda {
                     workingMemory.notifyWaitOnRest();
                 }
                 waitAndEnterExecutionState( ExecutionState.DISPOSED );
-                stateMachineLock.notifyAll();
+                stateChanged.signalAll();
                 return true;
+            } finally {
+                stateMachineLock.unlock();
             }
         }
 
         public boolean isAlive() {
-            synchronized (stateMachineLock) {
+            stateMachineLock.lock();
+            try {
                 return currentState.isAlive();
+            } finally {
+                stateMachineLock.unlock();
             }
         }
 
@@ -1236,7 +1278,7 @@ public class DefaultAgenda implements InternalAgenda {
             return currentState;
         }
 
-        public Object getStateMachineLock() {
+        public Lock getStateMachineLock() {
             return stateMachineLock;
         }
     }
@@ -26,9 +26,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 import org.drools.base.definitions.rule.impl.RuleImpl;
 import org.drools.base.rule.EntryPointId;
@@ -37,6 +40,7 @@ import org.drools.core.RuleBaseConfiguration;
 import org.drools.core.base.TraitHelper;
 import org.drools.core.common.BaseNode;
 import org.drools.core.common.ClassAwareObjectStore;
+import org.drools.core.common.CompactIdentityObjectStore;
 import org.drools.core.common.DefaultEventHandle;
 import org.drools.core.common.EqualityKey;
 import org.drools.core.common.IdentityObjectStore;
@@ -63,6 +67,8 @@ import org.drools.util.bitmask.AllSetBitMask;
 import org.drools.util.bitmask.BitMask;
 import org.kie.api.conf.KieBaseMutabilityOption;
 import org.kie.api.prototype.PrototypeFactInstance;
+import org.kie.api.runtime.ClassObjectFilter;
+import org.kie.api.runtime.ObjectFilter;
 import org.kie.api.runtime.rule.FactHandle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -75,6 +81,8 @@ public class NamedEntryPoint implements InternalWorkingMemoryEntryPoint, Propert
 
     protected static final Logger log = LoggerFactory.getLogger(NamedEntryPoint.class);
 
+    private static final int STREAM_INSERT_BATCH_SIZE = 4096;
+
     protected static final Class<?>[] ADD_REMOVE_PROPERTY_CHANGE_LISTENER_ARG_TYPES = new Class[]{PropertyChangeListener.class};
 
     /** The arguments used when adding/removing a property change listener. */
@@ -122,8 +130,11 @@ public class NamedEntryPoint implements InternalWorkingMemoryEntryPoint, Propert
 
     protected ObjectStore createObjectStore(EntryPointId entryPoint, RuleBaseConfiguration conf, ReteEvaluator reteEvaluator) {
         boolean useClassAwareStore = isEqualityBehaviour || conf.getOption(KieBaseMutabilityOption.KEY).isMutabilityEnabled();
-        return useClassAwareStore ?
-                new ClassAwareObjectStore( isEqualityBehaviour, this.lock ) :
+        if (useClassAwareStore) {
+            return new ClassAwareObjectStore( isEqualityBehaviour, this.lock );
+        }
+        return reteEvaluator.getRuleSessionConfiguration().isCompactObjectStore() ?
+                new CompactIdentityObjectStore() :
                 new IdentityObjectStore();
     }
 
@@ -270,6 +281,109 @@ public class NamedEntryPoint implements InternalWorkingMemoryEntryPoint, Propert
         this.reteEvaluator.getRuleRuntimeEventSupport().fireObjectInserted(pctx, handle, object, this.reteEvaluator);
     }
 
+    @Override
+    public List<FactHandle> insertAll(Collection<?> objects) {
+        List<FactHandle> handles = new ArrayList<>(objects.size());
+        insertBatch(objects, handles);
+        return handles;
+    }
+
+    @Override
+    public void insertAll(Stream<?> objects) {
+        List<Object> batch = new ArrayList<>(STREAM_INSERT_BATCH_SIZE);
+        for (Iterator<?> i = objects.iterator(); i.hasNext(); ) {
+            batch.add(i.next());
+            if (batch.size() == STREAM_INSERT_BATCH_SIZE) {
+                insertBatch(batch, null);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch, null);
+        }
+    }
+
+    /**
+     * Inserts the given objects grouping them by ObjectTypeConf, so that each group is propagated through
+     * the network with a single PropagationEntry.InsertBatch. Facts requiring the truth maintenance system
+     * or a property change listener are inserted one by one.
+     */
+    private void insertBatch(Collection<?> objects, List<FactHandle> handles) {
+        if ( this.reteEvaluator.isSequential() ) {
+            for (Object object : objects) {
+                FactHandle handle = insert(object);
+                if (handles != null) {
+                    handles.add(handle);
+                }
+            }
+            return;
+        }
+
+        try {
+            this.reteEvaluator.startOperation(ReteEvaluator.InternalOperationType.INSERT);
+            try {
+                lock();
+                this.ruleBase.executeQueuedActions();
+
+                ObjectTypeConfigurationRegistry registry = getObjectTypeConfigurationRegistry();
+                Map<ObjectTypeConf, FactsBatch> batches = new LinkedHashMap<>();
+                for (Object object : objects) {
+                    FactHandle handle = object == null ? null : stageInsert(object, registry, batches);
+                    if (handles != null) {
+                        handles.add(handle);
+                    }
+                }
+
+                for (Map.Entry<ObjectTypeConf, FactsBatch> entry : batches.entrySet()) {
+                    FactsBatch batch = entry.getValue();
+                    this.entryPointNode.assertObjects(batch.handles.toArray(new InternalFactHandle[batch.handles.size()]),
+                                                      batch.contexts.toArray(new PropagationContext[batch.contexts.size()]),
+                                                      entry.getKey(), this.reteEvaluator);
+                }
+            } finally {
+                unlock();
+            }
+        } finally {
+            this.reteEvaluator.endOperation(ReteEvaluator.InternalOperationType.INSERT);
+        }
+    }
+
+    private FactHandle stageInsert(Object object, ObjectTypeConfigurationRegistry registry, Map<ObjectTypeConf, FactsBatch> batches) {
+        ObjectTypeConf typeConf = registry.getOrCreateObjectTypeConf( this.entryPoint, object );
+        if ( typeConf.isTMSEnabled() || typeConf.isDynamic() ) {
+            return insert( object );
+        }
+
+        // check if the object already exists in the WM
+        InternalFactHandle handle = this.objectStore.getHandleForObject( object );
+        if ( handle != null ) {
+            return handle;
+        }
+
+        handle = createHandle( object, typeConf );
+        PropagationContext pctx = this.pctxFactory.createPropagationContext(this.reteEvaluator.getNextPropagationIdCounter(),
+                PropagationContext.Type.INSERTION,
+                null,
+                null,
+                handle,
+                entryPoint);
+        this.objectStore.addHandle( handle, object );
+        batches.computeIfAbsent( typeConf, c -> new FactsBatch() ).add( handle, pctx );
+
+        this.reteEvaluator.getRuleRuntimeEventSupport().fireObjectInserted(pctx, handle, object, this.reteEvaluator);
+        return handle;
+    }
+
+    private static class FactsBatch {
+        private final List<InternalFactHandle> handles = new ArrayList<>();
+        private final List<PropagationContext> contexts = new ArrayList<>();
+
+        private void add(InternalFactHandle handle, PropagationContext context) {
+            handles.add(handle);
+            contexts.add(context);
+        }
+    }
+
     public FactHandle insertAsync(Object object) {
         ObjectTypeConf typeConf = getObjectTypeConfigurationRegistry().getOrCreateObjectTypeConf( this.entryPoint, object );
 
@@ -467,6 +581,95 @@ public class NamedEntryPoint implements InternalWorkingMemoryEntryPoint, Propert
         }
     }
 
+    @Override
+    public long truncate(Class<?> type) {
+        return deleteBatch(new ClassObjectFilter(type));
+    }
+
+    @Override
+    public long clear() {
+        return deleteBatch(null);
+    }
+
+    /**
+     * Deletes all the facts accepted by the given filter, or all the facts when the filter is null, grouping them
+     * by ObjectTypeConf, so that each group is retracted from the network with a single PropagationEntry.DeleteBatch.
+     * Facts requiring the truth maintenance system or a property change listener are deleted one by one.
+     */
+    private long deleteBatch(ObjectFilter filter) {
+        if ( this.reteEvaluator.isSequential() ) {
+            List<FactHandle> handles = new ArrayList<>(filter == null ? getFactHandles() : getFactHandles(filter));
+            for (FactHandle handle : handles) {
+                delete(handle);
+            }
+            return handles.size();
+        }
+
+        lock();
+        try {
+            this.reteEvaluator.startOperation(ReteEvaluator.InternalOperationType.DELETE);
+            try {
+                this.ruleBase.executeQueuedActions();
+
+                // snapshot the handles first, since the object store is modified while deleting them
+                List<InternalFactHandle> handles = new ArrayList<>(this.objectStore.size());
+                for (Iterator<InternalFactHandle> i = filter == null ? this.objectStore.iterateFactHandles() : this.objectStore.iterateFactHandles(filter); i.hasNext(); ) {
+                    handles.add(i.next());
+                }
+
+                ObjectTypeConfigurationRegistry registry = getObjectTypeConfigurationRegistry();
+                Map<ObjectTypeConf, FactsBatch> batches = new LinkedHashMap<>();
+                List<InternalFactHandle> deleted = new ArrayList<>(handles.size());
+                for (InternalFactHandle handle : handles) {
+                    stageDelete(handle, registry, batches, deleted);
+                }
+
+                for (Map.Entry<ObjectTypeConf, FactsBatch> entry : batches.entrySet()) {
+                    FactsBatch batch = entry.getValue();
+                    this.entryPointNode.retractObjects(batch.handles.toArray(new InternalFactHandle[batch.handles.size()]),
+                                                       batch.contexts.toArray(new PropagationContext[batch.contexts.size()]),
+                                                       entry.getKey(), this.reteEvaluator);
+                }
+
+                for (InternalFactHandle handle : deleted) {
+                    this.handleFactory.destroyFactHandle( handle );
+                }
+                return handles.size();
+            } finally {
+                this.reteEvaluator.endOperation(ReteEvaluator.InternalOperationType.DELETE);
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    private void stageDelete(InternalFactHandle handle, ObjectTypeConfigurationRegistry registry,
+                             Map<ObjectTypeConf, FactsBatch> batches, List<InternalFactHandle> deleted) {
+        Object object = handle.getObject();
+        ObjectTypeConf typeConf = registry.getOrCreateObjectTypeConf( this.entryPoint, object );
+        if ( typeConf.isTMSEnabled() || typeConf.isDynamic() || handle.getEqualityKey() != null ) {
+            delete( handle );
+            return;
+        }
+
+        beforeDestroy(null, null, handle);
+
+        PropagationContext pctx = this.pctxFactory.createPropagationContext(this.reteEvaluator.getNextPropagationIdCounter(),
+                PropagationContext.Type.DELETION,
+                null,
+                null,
+                handle,
+                entryPoint);
+        batches.computeIfAbsent( typeConf, c -> new FactsBatch() ).add( handle, pctx );
+
+        afterRetract(handle, null, null);
+
+        this.objectStore.removeHandle( handle );
+
+        this.reteEvaluator.getRuleRuntimeEventSupport().fireObjectRetracted(pctx, handle, object, this.reteEvaluator);
+        deleted.add( handle );
+    }
+
     private void deleteStated( RuleImpl rule, TerminalNode terminalNode, InternalFactHandle handle, EqualityKey key ) {
         if ( key != null && key.getStatus() == EqualityKey.JUSTIFIED ) {
             return;
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.kiesession.session;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.drools.base.base.ClassObjectType;
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.drools.base.reteoo.PropertySpecificUtil;
+import org.drools.base.rule.Accumulate;
+import org.drools.base.rule.Collect;
+import org.drools.base.rule.Declaration;
+import org.drools.base.rule.Forall;
+import org.drools.base.rule.GroupElement;
+import org.drools.base.rule.IndexableConstraint;
+import org.drools.base.rule.Pattern;
+import org.drools.base.rule.RuleConditionElement;
+import org.drools.base.rule.constraint.Constraint;
+import org.drools.base.util.PropertyReactivityUtil;
+import org.drools.base.util.index.ConstraintTypeOperator;
+import org.drools.core.base.FieldNameSupplier;
+import org.drools.util.bitmask.BitMask;
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Rule;
+import org.kie.api.definition.type.PartitionKey;
+
+/**
+ * Utility methods to find and read the {@link PartitionKey} of a fact and to check if the rules of a kie base
+ * can be evaluated on facts partitioned by that key.
+ */
+public final class PartitionKeys {
+
+    private static final ClassValue<Optional<Field>> PARTITION_KEY_FIELDS = new ClassValue<>() {
+        @Override
+        protected Optional<Field> computeValue(Class<?> type) {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(PartitionKey.class)) {
+                        field.setAccessible(true);
+                        return Optional.of(field);
+                    }
+                }
+            }
+            return Optional.empty();
+        }
+    };
+
+    private PartitionKeys() { }
+
+    /**
+     * Returns the field annotated with {@link PartitionKey} in the given class or in one of its superclasses, if any.
+     */
+    public static Optional<Field> getPartitionKeyField(Class<?> type) {
+        return PARTITION_KEY_FIELDS.get(type);
+    }
+
+    public static boolean isPartitioned(Class<?> type) {
+        return getPartitionKeyField(type).isPresent();
+    }
+
+    /**
+     * Returns the value of the partition key of the given fact or null if its class doesn't declare any.
+     */
+    public static Object getPartitionKey(Object fact) {
+        Optional<Field> field = getPartitionKeyField(fact.getClass());
+        if (field.isEmpty()) {
+            return null;
+        }
+        try {
+            return field.get().get(fact);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the rules of the given kie base that join facts of partitioned types without constraining them to
+     * have the same partition key. When the facts are routed to different sessions by their partition key,
+     * those rules could miss some of their matches.
+     * <p>
+     * A pattern on a partitioned type is considered joined on the partition key with the former ones if it has an
+     * equality constraint listening only to its partition key property and using only variables bound to the
+     * partition keys of other patterns on partitioned types, like {@code Trade(accountId == $id)} after
+     * {@code Account($id : accountId)}. Constraints whose listened properties cannot be determined, and constraints
+     * using a whole fact, like {@code Trade(accountId == $a.accountId)}, are conservatively considered as crossing
+     * the partitions.
+     * <p>
+     * A pattern on a partitioned type nested in an accumulate, collect, not, exists or forall, like {@code not Trade()}
+     * or a count of all the trades, evaluates all the facts of its type and then crosses the partitions, unless it is
+     * joined on the partition key with a pattern outside of them, like {@code not Trade(accountId == $id)}.
+     */
+    public static List<RuleImpl> findCrossPartitionRules(KieBase kieBase) {
+        List<RuleImpl> rules = new ArrayList<>();
+        for (KiePackage kiePackage : kieBase.getKiePackages()) {
+            for (Rule rule : kiePackage.getRules()) {
+                if (isCrossPartition((RuleImpl) rule)) {
+                    rules.add((RuleImpl) rule);
+                }
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Returns true if the given rule or query has at least a pattern on a partitioned type, so that its matches
+     * are found only in the shard holding the partitioned facts. The ones without it match only the reference data
+     * held by all the shards.
+     */
+    public static boolean usesPartitionedFacts(RuleImpl rule) {
+        List<Pattern> outerPatterns = new ArrayList<>();
+        List<Pattern> nestedPatterns = new ArrayList<>();
+        collectPartitionedPatterns(rule.getLhs(), outerPatterns, nestedPatterns, false);
+        return !outerPatterns.isEmpty() || !nestedPatterns.isEmpty();
+    }
+
+    static boolean isCrossPartition(RuleImpl rule) {
+        List<Pattern> outerPatterns = new ArrayList<>();
+        List<Pattern> nestedPatterns = new ArrayList<>();
+        collectPartitionedPatterns(rule.getLhs(), outerPatterns, nestedPatterns, false);
+        for (int i = 1; i < outerPatterns.size(); i++) {
+            if (!isJoinedOnPartitionKey(outerPatterns.get(i), outerPatterns)) {
+                return true;
+            }
+        }
+        for (Pattern pattern : nestedPatterns) {
+            if (!isJoinedOnPartitionKey(pattern, outerPatterns)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void collectPartitionedPatterns(RuleConditionElement element, List<Pattern> outerPatterns, List<Pattern> nestedPatterns, boolean nested) {
+        if (element instanceof Pattern && isPartitioned((Pattern) element)) {
+            (nested ? nestedPatterns : outerPatterns).add((Pattern) element);
+        }
+        boolean nestedChildren = nested || evaluatesAllFacts(element);
+        for (RuleConditionElement child : element.getNestedElements()) {
+            collectPartitionedPatterns(child, outerPatterns, nestedPatterns, nestedChildren);
+        }
+    }
+
+    private static boolean evaluatesAllFacts(RuleConditionElement element) {
+        return element instanceof Accumulate || element instanceof Collect || element instanceof Forall ||
+                (element instanceof GroupElement && (((GroupElement) element).isNot() || ((GroupElement) element).isExists()));
+    }
+
+    private static boolean isPartitioned(Pattern pattern) {
+        return pattern.getObjectType() instanceof ClassObjectType && isPartitioned(((ClassObjectType) pattern.getObjectType()).getClassType());
+    }
+
+    private static boolean isJoinedOnPartitionKey(Pattern pattern, List<Pattern> joinablePatterns) {
+        Class<?> type = ((ClassObjectType) pattern.getObjectType()).getClassType();
+        List<String> accessibleProperties = PropertyReactivityUtil.getAccessibleProperties(type);
+        String partitionKey = getPartitionKeyField(type).get().getName();
+        if (!accessibleProperties.contains(partitionKey)) {
+            return false;
+        }
+        BitMask partitionKeyMask = PropertySpecificUtil.calculatePositiveMask(pattern.getObjectType(), Collections.singletonList(partitionKey), accessibleProperties);
+
+        for (Constraint constraint : pattern.getConstraints()) {
+            if (constraint instanceof IndexableConstraint &&
+                    ((IndexableConstraint) constraint).getConstraintType() == ConstraintTypeOperator.EQUAL &&
+                    isComparingOtherPartitionKeys(constraint, pattern, joinablePatterns) &&
+                    partitionKeyMask.equals(constraint.getListenedPropertyMask(Optional.of(pattern), pattern.getObjectType(), accessibleProperties))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isComparingOtherPartitionKeys(Constraint constraint, Pattern pattern, List<Pattern> joinablePatterns) {
+        Declaration[] declarations = constraint.getRequiredDeclarations();
+        if (declarations.length == 0) {
+            return false;
+        }
+        for (Declaration declaration : declarations) {
+            if (!isPartitionKeyOfOtherPattern(declaration, pattern, joinablePatterns)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPartitionKeyOfOtherPattern(Declaration declaration, Pattern pattern, List<Pattern> joinablePatterns) {
+        Pattern declaringPattern = declaration.getPattern();
+        if (declaringPattern == null || declaringPattern == pattern || !isPartitioned(declaringPattern) || !isDeclaredBy(joinablePatterns, declaration)) {
+            return false;
+        }
+        // a whole fact could be used to read any of its properties, only a binding of the partition key is safe
+        if (declaration.isPatternDeclaration() || !(declaration.getExtractor() instanceof FieldNameSupplier)) {
+            return false;
+        }
+        Class<?> declaringType = ((ClassObjectType) declaringPattern.getObjectType()).getClassType();
+        String fieldName = ((FieldNameSupplier) declaration.getExtractor()).getFieldName();
+        return getPartitionKeyField(declaringType).get().getName().equals(fieldName);
+    }
+
+    private static boolean isDeclaredBy(List<Pattern> patterns, Declaration declaration) {
+        // the declarations of a rule have unique identifiers, while its patterns could be cloned when transforming the lhs
+        for (Pattern pattern : patterns) {
+            if (pattern.getDeclarations().containsKey(declaration.getIdentifier())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.kiesession.session;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.drools.base.rule.Declaration;
+import org.drools.core.QueryResultsImpl;
+import org.drools.core.QueryResultsRowImpl;
+import org.drools.core.base.QueryRowWithSubruleIndex;
+import org.drools.core.base.StreamingQueryViewChangedEventListener;
+import org.drools.core.reteoo.QueryTerminalNode;
+import org.kie.api.runtime.rule.QueryResultsRow;
+
+/**
+ * Publishes the rows of a query as they are produced by the network.
+ *
+ * Each subscription executes the query once, on the given executor, when its first rows are requested. The query is
+ * enqueued as a propagation like for a synchronous call, so it is evaluated under the session lock and ordered with
+ * the other propagations, but the rows are handed over to the subscription as soon as the query terminal node
+ * produces them. They are then delivered to the subscriber, again on the executor, no faster than it requests them.
+ * Since the network evaluation cannot be suspended the rows not yet requested are buffered, while cancelling the
+ * subscription discards them and ignores the ones still to come.
+ */
+public class QueryResultsPublisher implements Flow.Publisher<QueryResultsRow> {
+
+    private final StatefulKnowledgeSessionImpl session;
+    private final Executor executor;
+    private final String queryName;
+    private final Object[] arguments;
+
+    public QueryResultsPublisher(StatefulKnowledgeSessionImpl session, Executor executor, String queryName, Object... arguments) {
+        this.session = session;
+        this.executor = executor;
+        this.queryName = queryName;
+        this.arguments = arguments;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super QueryResultsRow> subscriber) {
+        Objects.requireNonNull(subscriber);
+        subscriber.onSubscribe(new QuerySubscription(subscriber));
+    }
+
+    private QueryResultsImpl createResultsView() {
+        QueryTerminalNode[] tnodes = session.getKnowledgeBase().getReteooBuilder().getTerminalNodesForQuery(queryName);
+        if (tnodes == null || tnodes.length == 0) {
+            // the execution of the query will report the error
+            return null;
+        }
+        ArrayList<Map<String, Declaration>> decls = new ArrayList<>();
+        for (QueryTerminalNode node : tnodes) {
+            decls.add(node.getSubRule().getOuterDeclarations());
+        }
+        // the rows are wrapped one by one, so the view never holds any of them
+        return new QueryResultsImpl(new ArrayList<>(), decls.toArray(new Map[decls.size()]), session, tnodes[0].getQuery().getParameters());
+    }
+
+    private class QuerySubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super QueryResultsRow> subscriber;
+
+        private final Queue<QueryRowWithSubruleIndex> rows = new ConcurrentLinkedQueue<>();
+
+        private final AtomicLong demand = new AtomicLong();
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        // number of drain requests not yet served, only the caller moving it away from 0 runs the drain loop
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+
+        private volatile QueryResultsImpl resultsView;
+
+        private volatile boolean executed;
+
+        private volatile boolean cancelled;
+
+        private volatile Throwable failure;
+
+        // only accessed by the drain loop
+        private boolean terminated;
+
+        private QuerySubscription(Flow.Subscriber<? super QueryResultsRow> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                failure = new IllegalArgumentException("The number of requested rows must be positive, but was " + n);
+                executed = true;
+                signal();
+                return;
+            }
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            if (started.compareAndSet(false, true)) {
+                executor.execute(this::executeQuery);
+            } else {
+                signal();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            signal();
+        }
+
+        private void executeQuery() {
+            if (!cancelled) {
+                try {
+                    resultsView = createResultsView();
+                    session.internalGetQueryResult(false, new StreamingQueryViewChangedEventListener(this::onRow), queryName, arguments);
+                } catch (Throwable t) {
+                    failure = t;
+                }
+            }
+            executed = true;
+            signal();
+        }
+
+        private void onRow(QueryRowWithSubruleIndex row) {
+            if (!cancelled) {
+                rows.add(row);
+                signal();
+            }
+        }
+
+        private void signal() {
+            if (pendingDrains.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!terminated) {
+                    deliver();
+                }
+                if (terminated) {
+                    rows.clear();
+                }
+                missed = pendingDrains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver() {
+            if (cancelled) {
+                terminated = true;
+                return;
+            }
+            if (failure != null && executed) {
+                terminate();
+                return;
+            }
+
+            long requested = demand.get();
+            long delivered = 0;
+            while (delivered != requested && !cancelled) {
+                QueryRowWithSubruleIndex row = rows.poll();
+                if (row == null) {
+                    break;
+                }
+                subscriber.onNext(new QueryResultsRowImpl(row, session, resultsView));
+                delivered++;
+            }
+            if (delivered != 0 && requested != Long.MAX_VALUE) {
+                demand.addAndGet(-delivered);
+            }
+
+            // the query adds all its rows before being flagged as executed
+            if (cancelled) {
+                terminated = true;
+            } else if (executed && rows.isEmpty()) {
+                terminate();
+            }
+        }
+
+        private void terminate() {
+            terminated = true;
+            cancelled = true;
+            if (failure != null) {
+                subscriber.onError(failure);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,438 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.kiesession.session;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Rule;
+import org.kie.api.definition.type.PartitionKey;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.api.runtime.rule.AgendaFilter;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.api.runtime.rule.QueryResultsRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A facade over a set of sessions created from the same kie base, the shards, each one evaluated on its own thread.
+ * <p>
+ * The facts declaring a {@link PartitionKey} are routed to a single shard through a consistent hash of their
+ * partition key, so that all the facts with the same key are inserted in the same session. The facts not declaring
+ * any partition key are considered reference data and inserted into all the shards, where they can be joined with
+ * the partitioned ones. The results of the rules evaluation and of the queries are merged from all the shards.
+ * <p>
+ * The rules and the queries not using any partitioned fact would match the same reference data in every shard,
+ * so they are fired and queried only in the first shard, the owner of the reference data.
+ * <p>
+ * This is correct only if the rules never join facts with different partition keys: the rules of the kie base are
+ * analysed when the sharded session is created and the ones that could cross the partitions are either rejected or
+ * logged as a warning (see {@link PartitionKeys#findCrossPartitionRules(KieBase)}).
+ * <p>
+ * Only the facts inserted through this facade are routed: the facts inserted by the consequences of the rules stay
+ * in the shard where the rule fired, even if they declare a partition key owned by another shard or none at all.
+ * The rules are then expected to insert only facts with the same partition key of the ones they matched.
+ */
+public class ShardedKieSession implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedKieSession.class);
+
+    private static final int VIRTUAL_NODES_PER_SHARD = 128;
+
+    private static final int OWNER_SHARD = 0;
+
+    private final KieSession[] shards;
+    private final ExecutorService[] executors;
+
+    // consistent hash ring: hash of a virtual node -> index of the shard owning it
+    private final NavigableMap<Integer, Integer> ring = new TreeMap<>();
+
+    // the number of facts without partition key, inserted in all the shards
+    private final AtomicLong broadcastFacts = new AtomicLong();
+
+    // the rules and the names of the queries matching only reference data, evaluated only in the owner shard
+    private final Set<Rule> unpartitionedRules = new HashSet<>();
+    private final Set<String> unpartitionedQueries = new HashSet<>();
+    private final AgendaFilter notOwnerShardFilter = match -> !unpartitionedRules.contains(match.getRule());
+
+    public ShardedKieSession(KieBase kieBase) {
+        this(kieBase, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedKieSession(KieBase kieBase, int shardsNumber) {
+        this(kieBase, shardsNumber, null, false);
+    }
+
+    /**
+     * @param kieBase the kie base used to create all the shards
+     * @param shardsNumber the number of shards
+     * @param conf the configuration of the sessions, or null to use the default one of the kie base
+     * @param rejectCrossPartitionRules if true an IllegalArgumentException is thrown when the kie base contains rules
+     *                                  joining facts with different partition keys, otherwise those rules are only logged
+     */
+    public ShardedKieSession(KieBase kieBase, int shardsNumber, KieSessionConfiguration conf, boolean rejectCrossPartitionRules) {
+        if (shardsNumber < 1) {
+            throw new IllegalArgumentException("The number of shards must be positive: " + shardsNumber);
+        }
+        checkCrossPartitionRules(kieBase, rejectCrossPartitionRules);
+        findUnpartitionedRules(kieBase);
+
+        this.shards = new KieSession[shardsNumber];
+        this.executors = new ExecutorService[shardsNumber];
+        for (int i = 0; i < shardsNumber; i++) {
+            shards[i] = conf == null ? kieBase.newKieSession() : kieBase.newKieSession(conf, null);
+            String threadName = "drools-shard-" + i;
+            executors[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+            for (int j = 0; j < VIRTUAL_NODES_PER_SHARD; j++) {
+                ring.put(hash(31 * i + j * 0x9E3779B9), i);
+            }
+        }
+    }
+
+    private static void checkCrossPartitionRules(KieBase kieBase, boolean rejectCrossPartitionRules) {
+        List<RuleImpl> crossPartitionRules = PartitionKeys.findCrossPartitionRules(kieBase);
+        if (crossPartitionRules.isEmpty()) {
+            return;
+        }
+        String message = "The following rules join facts without constraining them to have the same partition key " +
+                "and could miss some matches in a sharded session: " +
+                crossPartitionRules.stream().map(RuleImpl::getFullyQualifiedName).collect(Collectors.joining(", "));
+        if (rejectCrossPartitionRules) {
+            throw new IllegalArgumentException(message);
+        }
+        log.warn(message);
+    }
+
+    private void findUnpartitionedRules(KieBase kieBase) {
+        for (KiePackage kiePackage : kieBase.getKiePackages()) {
+            for (Rule rule : kiePackage.getRules()) {
+                RuleImpl ruleImpl = (RuleImpl) rule;
+                if (PartitionKeys.usesPartitionedFacts(ruleImpl)) {
+                    continue;
+                }
+                if (ruleImpl.isQuery()) {
+                    unpartitionedQueries.add(ruleImpl.getName());
+                } else {
+                    unpartitionedRules.add(ruleImpl);
+                }
+            }
+        }
+    }
+
+    public int getShardsNumber() {
+        return shards.length;
+    }
+
+    public KieSession getShard(int index) {
+        return shards[index];
+    }
+
+    /**
+     * Returns the index of the shard where the given fact is routed or -1 if it doesn't declare a partition key
+     * and then it is inserted into all the shards.
+     */
+    public int getShardIndex(Object fact) {
+        Object partitionKey = PartitionKeys.getPartitionKey(fact);
+        if (partitionKey == null) {
+            return PartitionKeys.isPartitioned(fact.getClass()) ? shardOfKey(null) : -1;
+        }
+        return shardOfKey(partitionKey);
+    }
+
+    private int shardOfKey(Object partitionKey) {
+        Map.Entry<Integer, Integer> entry = ring.ceilingEntry(hash(partitionKey == null ? 0 : partitionKey.hashCode()));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static int hash(int h) {
+        // murmur3 finalizer, spreading keys with close hashcodes on the whole ring
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Inserts the fact in the shard of its partition key, or in all the shards if it doesn't declare any.
+     * @return a {@link ShardedFactHandle} recording the shards holding the fact, to be used to update or delete it
+     */
+    public FactHandle insert(Object fact) {
+        ShardedFactHandle handle = new ShardedFactHandle();
+        insert(handle, fact);
+        return handle;
+    }
+
+    private void insert(ShardedFactHandle handle, Object fact) {
+        int shardIndex = getShardIndex(fact);
+        if (shardIndex >= 0) {
+            handle.shardIndex = shardIndex;
+            handle.handles = new FactHandle[] { shards[shardIndex].insert(fact) };
+            return;
+        }
+        // a fact already in the session, like the same instance in identity mode, is not inserted again
+        boolean newFact = shards[OWNER_SHARD].getFactHandle(fact) == null;
+        FactHandle[] handles = new FactHandle[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            handles[i] = shards[i].insert(fact);
+        }
+        handle.shardIndex = -1;
+        handle.handles = handles;
+        if (newFact) {
+            broadcastFacts.incrementAndGet();
+        }
+    }
+
+    /**
+     * Updates the fact in the shards holding it. If the partition key of the fact changed, so that it now belongs
+     * to another shard, the fact is moved there.
+     */
+    public void update(FactHandle handle, Object fact) {
+        ShardedFactHandle shardedHandle = asShardedHandle(handle);
+        if (getShardIndex(fact) != shardedHandle.shardIndex) {
+            delete(shardedHandle);
+            insert(shardedHandle, fact);
+            return;
+        }
+        for (int i = 0; i < shardedHandle.handles.length; i++) {
+            shardOf(shardedHandle, i).update(shardedHandle.handles[i], fact);
+        }
+    }
+
+    public void delete(FactHandle handle) {
+        ShardedFactHandle shardedHandle = asShardedHandle(handle);
+        // deleting a fact already deleted, also through another handle of the same fact, doesn't change the sessions
+        boolean deleted = shardedHandle.handles[0].isValid();
+        for (int i = 0; i < shardedHandle.handles.length; i++) {
+            shardOf(shardedHandle, i).delete(shardedHandle.handles[i]);
+        }
+        if (deleted && shardedHandle.shardIndex < 0) {
+            broadcastFacts.decrementAndGet();
+        }
+    }
+
+    private KieSession shardOf(ShardedFactHandle handle, int i) {
+        return shards[handle.shardIndex >= 0 ? handle.shardIndex : i];
+    }
+
+    private static ShardedFactHandle asShardedHandle(FactHandle handle) {
+        // handles of different shards can have the same id, so they can't be routed without knowing their shard
+        if (!(handle instanceof ShardedFactHandle)) {
+            throw new IllegalArgumentException("Not a handle returned by a sharded session: " + handle);
+        }
+        return (ShardedFactHandle) handle;
+    }
+
+    public void setGlobal(String identifier, Object value) {
+        for (KieSession shard : shards) {
+            shard.setGlobal(identifier, value);
+        }
+    }
+
+    public long getFactCount() {
+        long count = 0;
+        for (KieSession shard : shards) {
+            count += shard.getFactCount();
+        }
+        return count - broadcastFacts.get() * (shards.length - 1);
+    }
+
+    /**
+     * Fires the rules of all the shards in parallel, each on its own thread, and returns the total number of fired rules.
+     * The rules not using any partitioned fact are fired only in the owner shard.
+     */
+    public int fireAllRules() {
+        int fired = 0;
+        for (Integer shardFired : onAllShards((shard, filter) -> filter == null ? shard.fireAllRules() : shard.fireAllRules(filter))) {
+            fired += shardFired;
+        }
+        return fired;
+    }
+
+    /**
+     * Keeps firing the rules of all the shards, each on its own thread, until {@link #halt()} is called.
+     */
+    public void fireUntilHalt() {
+        onAllShards((shard, filter) -> {
+            if (filter == null) {
+                shard.fireUntilHalt();
+            } else {
+                shard.fireUntilHalt(filter);
+            }
+            return null;
+        });
+    }
+
+    public void halt() {
+        for (KieSession shard : shards) {
+            shard.halt();
+        }
+    }
+
+    /**
+     * Runs the given query on all the shards and returns the rows of all of them, in shards order.
+     * A query not using any partitioned fact is run only on the owner shard.
+     */
+    public List<QueryResultsRow> getQueryResults(String query, Object... arguments) {
+        List<QueryResultsRow> rows = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (i != OWNER_SHARD && unpartitionedQueries.contains(query)) {
+                continue;
+            }
+            // the query execution can replace the unbound variables in the arguments array
+            shards[i].getQueryResults(query, arguments.clone()).forEach(rows::add);
+        }
+        return rows;
+    }
+
+    /**
+     * Runs the given action on each shard, passing the agenda filter to be used there when firing the rules,
+     * or null if all of them can be fired.
+     */
+    private <T> List<T> onAllShards(BiFunction<KieSession, AgendaFilter, T> action) {
+        List<Future<T>> futures = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            KieSession shard = shards[i];
+            AgendaFilter filter = i == OWNER_SHARD || unpartitionedRules.isEmpty() ? null : notOwnerShardFilter;
+            futures.add(executors[i].submit(() -> action.apply(shard, filter)));
+        }
+        List<T> results = new ArrayList<>(shards.length);
+        for (Future<T> future : futures) {
+            results.add(getResult(future));
+        }
+        return results;
+    }
+
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public void dispose() {
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].dispose();
+            executors[i].shutdown();
+        }
+    }
+
+    @Override
+    public void close() {
+        dispose();
+    }
+
+    /**
+     * The handle of a fact inserted in a sharded session, holding the handles of the fact in the shards where
+     * it has been inserted.
+     */
+    public static class ShardedFactHandle implements FactHandle {
+
+        // the shard holding the fact, or -1 if the fact has been inserted in all the shards
+        private int shardIndex;
+        // the handle of the fact in its shard, or in each of the shards
+        private FactHandle[] handles;
+
+        private ShardedFactHandle() { }
+
+        public int getShardIndex() {
+            return shardIndex;
+        }
+
+        public FactHandle getShardHandle(int shard) {
+            if (shardIndex >= 0) {
+                return shard == shardIndex ? handles[0] : null;
+            }
+            return handles[shard];
+        }
+
+        @Override
+        public Object getObject() {
+            return handles[0].getObject();
+        }
+
+        @Override
+        public boolean isNegated() {
+            return handles[0].isNegated();
+        }
+
+        @Override
+        public boolean isEvent() {
+            return handles[0].isEvent();
+        }
+
+        @Override
+        public long getId() {
+            return handles[0].getId();
+        }
+
+        @Override
+        public long getRecency() {
+            return handles[0].getRecency();
+        }
+
+        @Override
+        public <K> K as(Class<K> klass) throws ClassCastException {
+            return klass.isInstance(this) ? klass.cast(this) : handles[0].as(klass);
+        }
+
+        @Override
+        public boolean isValid() {
+            return handles[0].isValid();
+        }
+
+        @Override
+        public String toExternalForm() {
+            return handles[0].toExternalForm();
+        }
+
+        @Override
+        public String toString() {
+            return "ShardedFactHandle{shard=" + shardIndex + ", handle=" + handles[0] + "}";
+        }
+    }
+}
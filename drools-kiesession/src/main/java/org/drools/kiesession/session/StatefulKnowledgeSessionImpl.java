@@ -114,6 +114,7 @@ import org.kie.api.runtime.process.WorkItemManager;
 import org.kie.api.runtime.rule.AgendaFilter;
 import org.kie.api.runtime.rule.FactHandle;
 import org.kie.api.runtime.rule.LiveQuery;
+import org.kie.api.runtime.rule.QueryResultsRow;
 import org.kie.api.runtime.rule.ViewChangedEventListener;
 import org.kie.api.time.SessionClock;
 import org.kie.internal.event.rule.RuleEventListener;
@@ -137,12 +138,16 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 import static org.drools.base.base.ClassObjectType.InitialFact_ObjectType;
@@ -617,7 +622,22 @@ public class StatefulKnowledgeSessionImpl extends AbstractRuntime
     	return internalGetQueryResult(false, queryName, arguments);
     }
 
+    public Flow.Publisher<QueryResultsRow> getQueryResultsAsync(String queryName, Object... arguments) {
+        return getQueryResultsAsync(ForkJoinPool.commonPool(), queryName, arguments);
+    }
+
+    /**
+     * Returns a publisher executing the query and delivering its rows on the given executor.
+     */
+    public Flow.Publisher<QueryResultsRow> getQueryResultsAsync(Executor executor, String queryName, Object... arguments) {
+        return new QueryResultsPublisher(this, executor, queryName, arguments);
+    }
+
     protected QueryResultsImpl internalGetQueryResult(boolean calledFromRHS, String queryName, Object... arguments) {
+        return internalGetQueryResult(calledFromRHS, getQueryListenerInstance(), queryName, arguments);
+    }
+
+    protected QueryResultsImpl internalGetQueryResult(boolean calledFromRHS, InternalViewChangedEventListener queryListener, String queryName, Object... arguments) {
 
         try {
             if (!calledFromRHS) {
@@ -637,7 +657,7 @@ public class StatefulKnowledgeSessionImpl extends AbstractRuntime
 
             DroolsQueryImpl queryObject = new DroolsQueryImpl(queryName,
                                                               arguments,
-                                                              getQueryListenerInstance(),
+                                                              queryListener,
                                                               false );
 
             InternalFactHandle handle = this.handleFactory.newFactHandle( queryObject,
@@ -1270,6 +1290,30 @@ public class StatefulKnowledgeSessionImpl extends AbstractRuntime
         return this.entryPointsManager.getDefaultEntryPoint().insert(object, dynamic, rule, terminalNode);
     }
 
+    @Override
+    public List<FactHandle> insertAll(Collection<?> objects) {
+        checkAlive();
+        return this.entryPointsManager.getDefaultEntryPoint().insertAll(objects);
+    }
+
+    @Override
+    public void insertAll(Stream<?> objects) {
+        checkAlive();
+        this.entryPointsManager.getDefaultEntryPoint().insertAll(objects);
+    }
+
+    @Override
+    public long truncate(Class<?> type) {
+        checkAlive();
+        return this.entryPointsManager.getDefaultEntryPoint().truncate(type);
+    }
+
+    @Override
+    public long clear() {
+        checkAlive();
+        return this.entryPointsManager.getDefaultEntryPoint().clear();
+    }
+
     public void retract(FactHandle handle) {
         delete(handle);
     }
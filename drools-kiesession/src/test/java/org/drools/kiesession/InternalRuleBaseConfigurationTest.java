@@ -18,6 +18,11 @@
  */
 package org.drools.kiesession;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Properties;
 
 import org.drools.core.RuleBaseConfiguration;
@@ -26,12 +31,17 @@ import org.drools.core.RuleBaseConfiguration.SequentialAgenda;
 import org.drools.core.common.PriorityQueueAgendaGroupFactory;
 import org.drools.core.reteoo.RuntimeComponentFactory;
 import org.junit.jupiter.api.Test;
+import org.kie.internal.conf.BetaIndexSkewThresholdOption;
 import org.kie.internal.conf.CompositeConfiguration;
+import org.kie.internal.conf.ParallelLeftInsertThresholdOption;
+import org.kie.internal.conf.TuplePoolSizeOption;
 import org.kie.internal.utils.ChainedProperties;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class InternalRuleBaseConfigurationTest {
+    private static final String COMP_CONFIG = "compConfig";
+
     public RuleBaseConfiguration getRuleBaseConfiguration(Properties props) {
         RuleBaseConfiguration brconf = new RuleBaseConfiguration(new CompositeConfiguration<>(ChainedProperties.getChainedProperties(null).addProperties(props), null));
 
@@ -108,4 +118,163 @@ public class InternalRuleBaseConfigurationTest {
         assertThat(cfg.getSequentialAgenda()).isEqualTo(SequentialAgenda.DYNAMIC);
         assertThat(RuntimeComponentFactory.get().getAgendaGroupFactory() instanceof PriorityQueueAgendaGroupFactory).isTrue();
     }
+
+    @Test
+    public void testParallelLeftInsertThreshold() {
+        RuleBaseConfiguration cfg = getRuleBaseConfiguration(null);
+        assertThat(cfg.getParallelLeftInsertThreshold()).isEqualTo(ParallelLeftInsertThresholdOption.DEFAULT_VALUE);
+        assertThat(cfg.getOption(ParallelLeftInsertThresholdOption.KEY).isEnabled()).isFalse();
+
+        Properties properties = new Properties();
+        properties.setProperty( "drools.parallelLeftInsertThreshold", "5000" );
+        cfg = getRuleBaseConfiguration(properties);
+
+        assertThat(cfg.getParallelLeftInsertThreshold()).isEqualTo(5000);
+        assertThat(cfg.getOption(ParallelLeftInsertThresholdOption.KEY)).isEqualTo(ParallelLeftInsertThresholdOption.get(5000));
+    }
+
+    @Test
+    public void testBetaIndexSkewThreshold() {
+        RuleBaseConfiguration cfg = getRuleBaseConfiguration(null);
+        assertThat(cfg.getBetaIndexSkewThreshold()).isEqualTo(BetaIndexSkewThresholdOption.DEFAULT_VALUE);
+        assertThat(cfg.getOption(BetaIndexSkewThresholdOption.KEY).isEnabled()).isFalse();
+
+        Properties properties = new Properties();
+        properties.setProperty( "drools.betaIndexSkewThreshold", "32" );
+        cfg = getRuleBaseConfiguration(properties);
+
+        assertThat(cfg.getBetaIndexSkewThreshold()).isEqualTo(32);
+        assertThat(cfg.getOption(BetaIndexSkewThresholdOption.KEY)).isEqualTo(BetaIndexSkewThresholdOption.get(32));
+    }
+
+    @Test
+    public void testTuplePoolSize() {
+        RuleBaseConfiguration cfg = getRuleBaseConfiguration(null);
+        assertThat(cfg.getTuplePoolSize()).isEqualTo(TuplePoolSizeOption.DEFAULT_VALUE);
+        assertThat(cfg.getOption(TuplePoolSizeOption.KEY).isEnabled()).isFalse();
+
+        Properties properties = new Properties();
+        properties.setProperty( "drools.tuplePoolSize", "1024" );
+        cfg = getRuleBaseConfiguration(properties);
+
+        assertThat(cfg.getTuplePoolSize()).isEqualTo(1024);
+        assertThat(cfg.getOption(TuplePoolSizeOption.KEY)).isEqualTo(TuplePoolSizeOption.get(1024));
+    }
+
+    @Test
+    public void testParallelLeftInsertThresholdIsNotExternalized() throws Exception {
+        RuleBaseConfiguration cfg = getRuleBaseConfiguration(null);
+        cfg.setParallelLeftInsertThreshold(5000);
+        assertThat(restore(externalize(cfg)).getParallelLeftInsertThreshold()).isEqualTo(ParallelLeftInsertThresholdOption.DEFAULT_VALUE);
+
+        // the value configured through the properties is restored
+        Properties properties = new Properties();
+        properties.setProperty( "drools.parallelLeftInsertThreshold", "5000" );
+        cfg = getRuleBaseConfiguration(properties);
+        assertThat(restore(externalize(cfg)).getParallelLeftInsertThreshold()).isEqualTo(5000);
+    }
+
+    @Test
+    public void testBetaIndexSkewThresholdIsNotExternalized() throws Exception {
+        RuleBaseConfiguration cfg = getRuleBaseConfiguration(null);
+        cfg.setBetaIndexSkewThreshold(32);
+        assertThat(restore(externalize(cfg)).getBetaIndexSkewThreshold()).isEqualTo(BetaIndexSkewThresholdOption.DEFAULT_VALUE);
+
+        // the value configured through the properties is restored
+        Properties properties = new Properties();
+        properties.setProperty( "drools.betaIndexSkewThreshold", "32" );
+        cfg = getRuleBaseConfiguration(properties);
+        assertThat(restore(externalize(cfg)).getBetaIndexSkewThreshold()).isEqualTo(32);
+    }
+
+    @Test
+    public void testTuplePoolSizeIsNotExternalized() throws Exception {
+        RuleBaseConfiguration cfg = getRuleBaseConfiguration(null);
+        cfg.setTuplePoolSize(1024);
+        assertThat(restore(externalize(cfg)).getTuplePoolSize()).isEqualTo(TuplePoolSizeOption.DEFAULT_VALUE);
+
+        // the value configured through the properties is restored
+        Properties properties = new Properties();
+        properties.setProperty( "drools.tuplePoolSize", "1024" );
+        cfg = getRuleBaseConfiguration(properties);
+        assertThat(restore(externalize(cfg)).getTuplePoolSize()).isEqualTo(1024);
+    }
+
+    @Test
+    public void testReadConfigurationOfPreviousRelease() throws Exception {
+        RuleBaseConfiguration cfg = getRuleBaseConfiguration(null);
+        cfg.setCompositeKeyDepth(2);
+        cfg.setSessionPoolSize(4);
+        cfg.setTuplePoolSize(1024);
+        Externalized externalized = externalize(cfg);
+
+        // the externalized form ends with the session pool size, as in the previous release, so it can be read by both
+        RuleBaseConfiguration restored = getRuleBaseConfiguration(null);
+        try (ObjectInputStream in = externalized.newInputStream()) {
+            restored.readExternal(in);
+            assertThat(in.read()).isEqualTo(-1);
+        }
+        assertThat(restored.getCompositeKeyDepth()).isEqualTo(2);
+        assertThat(restored.getSessionPoolSize()).isEqualTo(4);
+        assertThat(restored.getParallelLeftInsertThreshold()).isEqualTo(ParallelLeftInsertThresholdOption.DEFAULT_VALUE);
+        assertThat(restored.getBetaIndexSkewThreshold()).isEqualTo(BetaIndexSkewThresholdOption.DEFAULT_VALUE);
+        assertThat(restored.getTuplePoolSize()).isEqualTo(TuplePoolSizeOption.DEFAULT_VALUE);
+    }
+
+    /**
+     * The composite configuration can't be deserialized on its own, so it is replaced by a placeholder in the
+     * externalized form and the placeholder is resolved back to the original one when restoring.
+     */
+    private static Externalized externalize(RuleBaseConfiguration cfg) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Object[] compConfig = new Object[1];
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes) {
+            {
+                enableReplaceObject(true);
+            }
+
+            @Override
+            protected Object replaceObject(Object obj) {
+                if (obj instanceof CompositeConfiguration) {
+                    compConfig[0] = obj;
+                    return COMP_CONFIG;
+                }
+                return obj;
+            }
+        }) {
+            cfg.writeExternal(out);
+        }
+        return new Externalized(bytes.toByteArray(), compConfig[0]);
+    }
+
+    private RuleBaseConfiguration restore(Externalized externalized) throws IOException, ClassNotFoundException {
+        RuleBaseConfiguration cfg = getRuleBaseConfiguration(null);
+        try (ObjectInputStream in = externalized.newInputStream()) {
+            cfg.readExternal(in);
+        }
+        return cfg;
+    }
+
+    private static class Externalized {
+        private final byte[] bytes;
+        private final Object compConfig;
+
+        private Externalized(byte[] bytes, Object compConfig) {
+            this.bytes = bytes;
+            this.compConfig = compConfig;
+        }
+
+        private ObjectInputStream newInputStream() throws IOException {
+            return new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+                {
+                    enableResolveObject(true);
+                }
+
+                @Override
+                protected Object resolveObject(Object obj) {
+                    return COMP_CONFIG.equals(obj) ? compConfig : obj;
+                }
+            };
+        }
+    }
 }
@@ -18,9 +18,12 @@
  */
 package org.drools.kiesession;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import org.drools.core.base.MapGlobalResolver;
 import org.drools.core.common.EqualityKey;
@@ -149,6 +152,28 @@ public class ReteooWorkingMemoryTest {
         }
     }
 
+    @Test
+    public void testInsertAll() {
+        InternalKnowledgeBase kBase = KnowledgeBaseFactory.newKnowledgeBase();
+        KieSession ksession = kBase.newKieSession();
+
+        Person bob = new Person( "bob", 35 );
+        Cheese stilton = new Cheese( "stilton", 35 );
+        FactHandle bobHandle = ksession.insert( bob );
+
+        List<FactHandle> handles = ksession.insertAll( Arrays.asList( new Person( "steve", 55 ), stilton, bob, null, stilton, new Cheese( "brie", 35 ) ) );
+
+        assertThat(handles).hasSize(6);
+        assertThat(handles.get(2)).isSameAs(bobHandle);
+        assertThat(handles.get(3)).isNull();
+        assertThat(handles.get(4)).isSameAs(handles.get(1));
+        assertThat(ksession.getObject(handles.get(1))).isSameAs(stilton);
+        assertThat(ksession.getFactCount()).isEqualTo(4);
+
+        ksession.insertAll( IntStream.range( 0, 10_000 ).mapToObj( i -> new Person( "p" + i, i ) ) );
+        assertThat(ksession.getFactCount()).isEqualTo(10_004);
+    }
+
     @Test @Disabled
     public void testExecuteQueueActions() {
         InternalKnowledgeBase kBase = KnowledgeBaseFactory.newKnowledgeBase();
@@ -38,7 +38,7 @@ public class PhreakAsyncReceiveNodeMetric extends PhreakAsyncReceiveNode {
                        TupleSets trgLeftTuples) {
 
         try {
-            MetricLogUtils.getInstance().startMetrics(node);
+            MetricLogUtils.getInstance().startMetrics(node, srcLeftTuples, trgLeftTuples);
 
             super.doNode(node, memory, sink, reteEvaluator, srcLeftTuples, trgLeftTuples);
 
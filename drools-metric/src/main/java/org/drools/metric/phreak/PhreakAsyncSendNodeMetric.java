@@ -35,7 +35,7 @@ public class PhreakAsyncSendNodeMetric extends PhreakAsyncSendNode {
                        TupleSets srcLeftTuples) {
 
         try {
-            MetricLogUtils.getInstance().startMetrics(node);
+            MetricLogUtils.getInstance().startMetrics(node, srcLeftTuples, null);
 
             super.doNode(node, memory, reteEvaluator, srcLeftTuples);
 
@@ -41,7 +41,7 @@ public class PhreakBranchNodeMetric extends PhreakBranchNode {
                        RuleExecutor executor) {
 
         try {
-            MetricLogUtils.getInstance().startMetrics(branchNode);
+            MetricLogUtils.getInstance().startMetrics(branchNode, srcLeftTuples, trgLeftTuples);
 
             super.doNode(branchNode, cbm, sink, activationsManager, srcLeftTuples, trgLeftTuples, stagedLeftTuples, executor);
 
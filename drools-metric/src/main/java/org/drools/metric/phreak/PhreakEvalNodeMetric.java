@@ -39,7 +39,7 @@ public class PhreakEvalNodeMetric extends PhreakEvalNode {
                        TupleSets stagedLeftTuples) {
 
         try {
-            MetricLogUtils.getInstance().startMetrics(evalNode);
+            MetricLogUtils.getInstance().startMetrics(evalNode, srcLeftTuples, trgLeftTuples);
 
             super.doNode(evalNode, em, sink, reteEvaluator, srcLeftTuples, trgLeftTuples, stagedLeftTuples);
 
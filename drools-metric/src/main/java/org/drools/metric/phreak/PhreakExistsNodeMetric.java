@@ -38,12 +38,12 @@ public class PhreakExistsNodeMetric extends PhreakExistsNode {
                        TupleSets stagedLeftTuples) {
 
         try {
-            MetricLogUtils.getInstance().startMetrics(existsNode);
+            MetricLogUtils.getInstance().startMetrics(existsNode, srcLeftTuples, trgLeftTuples);
 
             super.doNode(existsNode, sink, bm, reteEvaluator, srcLeftTuples, trgLeftTuples, stagedLeftTuples);
 
         } finally {
-            MetricLogUtils.getInstance().logAndEndMetrics();
+            MetricLogUtils.getInstance().logAndEndMetrics(MetricLogUtils.memorySize(bm));
         }
     }
 }
@@ -39,7 +39,7 @@ public class PhreakFromNodeMetric extends PhreakFromNode {
                        TupleSets stagedLeftTuples) {
 
         try {
-            MetricLogUtils.getInstance().startMetrics(fromNode);
+            MetricLogUtils.getInstance().startMetrics(fromNode, srcLeftTuples, trgLeftTuples);
 
             super.doNode(fromNode, fm, sink, reteEvaluator, srcLeftTuples, trgLeftTuples, stagedLeftTuples);
 
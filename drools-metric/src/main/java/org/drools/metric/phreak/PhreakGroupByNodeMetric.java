@@ -38,12 +38,12 @@ public class PhreakGroupByNodeMetric extends PhreakGroupByNode {
                         TupleSets stagedLeftTuples) {
 
         try {
-            MetricLogUtils.getInstance().startMetrics(accNode);
+            MetricLogUtils.getInstance().startMetrics(accNode, srcLeftTuples, trgLeftTuples);
 
             super.doNode(accNode, sink, am, reteEvaluator, srcLeftTuples, trgLeftTuples, stagedLeftTuples);
 
         } finally {
-            MetricLogUtils.getInstance().logAndEndMetrics();
+            MetricLogUtils.getInstance().logAndEndMetrics(MetricLogUtils.memorySize(am.getBetaMemory()));
         }
     }
 }
@@ -37,12 +37,12 @@ public class PhreakJoinNodeMetric extends PhreakJoinNode {
                        TupleSets trgLeftTuples,
                        TupleSets stagedLeftTuples) {
         try {
-            MetricLogUtils.getInstance().startMetrics(joinNode);
+            MetricLogUtils.getInstance().startMetrics(joinNode, srcLeftTuples, trgLeftTuples);
 
             super.doNode(joinNode, sink, bm, reteEvaluator, srcLeftTuples, trgLeftTuples, stagedLeftTuples);
 
         } finally {
-            MetricLogUtils.getInstance().logAndEndMetrics();
+            MetricLogUtils.getInstance().logAndEndMetrics(MetricLogUtils.memorySize(bm));
         }
     }
 }
@@ -38,12 +38,12 @@ public class PhreakNotNodeMetric extends PhreakNotNode {
                        TupleSets stagedLeftTuples) {
 
         try {
-            MetricLogUtils.getInstance().startMetrics(notNode);
+            MetricLogUtils.getInstance().startMetrics(notNode, srcLeftTuples, trgLeftTuples);
 
             super.doNode(notNode, sink, bm, reteEvaluator, srcLeftTuples, trgLeftTuples, stagedLeftTuples);
 
         } finally {
-            MetricLogUtils.getInstance().logAndEndMetrics();
+            MetricLogUtils.getInstance().logAndEndMetrics(MetricLogUtils.memorySize(bm));
         }
     }
 }
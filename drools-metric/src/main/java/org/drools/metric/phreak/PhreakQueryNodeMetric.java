@@ -39,7 +39,7 @@ public class PhreakQueryNodeMetric extends PhreakQueryNode {
                        TupleSets stagedLeftTuples) {
 
         try {
-            MetricLogUtils.getInstance().startMetrics(queryNode);
+            MetricLogUtils.getInstance().startMetrics(queryNode, srcLeftTuples, trgLeftTuples);
 
             super.doNode(queryNode, qmem, stackEntry, reteEvaluator, srcLeftTuples, trgLeftTuples, stagedLeftTuples);
 
@@ -36,7 +36,7 @@ public class PhreakQueryTerminalNodeMetric extends PhreakQueryTerminalNode {
                        LinkedList<StackEntry> stack) {
 
         try {
-            MetricLogUtils.getInstance().startMetrics(qtnNode);
+            MetricLogUtils.getInstance().startMetrics(qtnNode, srcLeftTuples, null);
 
             super.doNode(qtnNode, activationsManager, srcLeftTuples, stack);
 
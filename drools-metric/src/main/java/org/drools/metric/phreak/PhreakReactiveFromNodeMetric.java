@@ -39,7 +39,7 @@ public class PhreakReactiveFromNodeMetric extends PhreakReactiveFromNode {
                        TupleSets stagedLeftTuples) {
 
         try {
-            MetricLogUtils.getInstance().startMetrics(fromNode);
+            MetricLogUtils.getInstance().startMetrics(fromNode, srcLeftTuples, trgLeftTuples);
 
             super.doNode(fromNode, fm, sink, reteEvaluator, srcLeftTuples, trgLeftTuples, stagedLeftTuples);
 
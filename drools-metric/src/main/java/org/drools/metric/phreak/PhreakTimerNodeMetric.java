@@ -43,7 +43,7 @@ public class PhreakTimerNodeMetric extends PhreakTimerNode {
                        TupleSets stagedLeftTuples) {
 
         try {
-            MetricLogUtils.getInstance().startMetrics(timerNode);
+            MetricLogUtils.getInstance().startMetrics(timerNode, srcLeftTuples, trgLeftTuples);
 
             super.doNode(timerNode, tm, pmem, smem, sink, activationsManager, srcLeftTuples, trgLeftTuples, stagedLeftTuples);
 
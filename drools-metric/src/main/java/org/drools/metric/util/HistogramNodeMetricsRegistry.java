@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.metric.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.drools.core.common.BaseNode;
+import org.kie.api.definition.rule.Rule;
+
+/**
+ * A {@link NodeMetricsRegistry} keeping in memory a {@link NodeMetrics} for each node and a
+ * {@link LatencyHistogram} for each rule, recording the elapsed time of all the nodes associated with it.
+ * The nodes are weakly referenced, so the metrics of the nodes of a KieBase are discarded once it is garbage collected.
+ */
+public class HistogramNodeMetricsRegistry implements NodeMetricsRegistry {
+
+    private final Map<Object, NodeMetrics> nodeMetrics = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> ruleLatencies = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<BaseNode> collectedNodes = new ReferenceQueue<>();
+
+    @Override
+    public void record(BaseNode node, long elapsedTimeInNanos, long evalCount, long tuplesIn, long tuplesOut, long memorySize) {
+        NodeMetrics metrics = nodeMetrics.get(new NodeKey(node));
+        if (metrics == null) {
+            expungeCollectedNodes();
+            metrics = nodeMetrics.computeIfAbsent(new WeakNodeKey(node, collectedNodes), k -> createNodeMetrics(node));
+        }
+        metrics.record(elapsedTimeInNanos, evalCount, tuplesIn, tuplesOut, memorySize);
+    }
+
+    private void expungeCollectedNodes() {
+        Reference<? extends BaseNode> collected;
+        while ((collected = collectedNodes.poll()) != null) {
+            nodeMetrics.remove(collected);
+        }
+    }
+
+    private NodeMetrics createNodeMetrics(BaseNode node) {
+        List<String> ruleNames = new ArrayList<>();
+        for (Rule rule : node.getAssociatedRules()) {
+            ruleNames.add(rule.getPackageName() + "." + rule.getName());
+        }
+        LatencyHistogram[] latencies = new LatencyHistogram[ruleNames.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = ruleLatencies.computeIfAbsent(ruleNames.get(i), k -> new LatencyHistogram());
+        }
+        return new NodeMetrics(node, ruleNames, latencies);
+    }
+
+    public Collection<NodeMetrics> getNodeMetrics() {
+        expungeCollectedNodes();
+        return Collections.unmodifiableCollection(nodeMetrics.values());
+    }
+
+    public NodeMetrics getNodeMetrics(BaseNode node) {
+        return nodeMetrics.get(new NodeKey(node));
+    }
+
+    /**
+     * Returns the elapsed time of the evaluations of the nodes of the given rule, in nanoseconds
+     *
+     * @param ruleName the fully qualified name of the rule, i.e. its package name followed by a dot and its name
+     */
+    public LatencyHistogram getRuleLatency(String ruleName) {
+        return ruleLatencies.get(ruleName);
+    }
+
+    public Map<String, LatencyHistogram> getRuleLatencies() {
+        return Collections.unmodifiableMap(ruleLatencies);
+    }
+
+    /**
+     * Discards all the collected metrics
+     */
+    public void clear() {
+        nodeMetrics.clear();
+        ruleLatencies.clear();
+    }
+
+    // the key used to look up the metrics of a node, equal to the weak key of the same node
+    private static final class NodeKey {
+
+        private final BaseNode node;
+
+        private NodeKey(BaseNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof WeakNodeKey && ((WeakNodeKey) o).get() == node;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(node);
+        }
+    }
+
+    private static final class WeakNodeKey extends WeakReference<BaseNode> {
+
+        private final int hashCode;
+
+        private WeakNodeKey(BaseNode node, ReferenceQueue<BaseNode> queue) {
+            super(node, queue);
+            this.hashCode = System.identityHashCode(node);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            BaseNode node = get();
+            return node != null && (o instanceof NodeKey ? ((NodeKey) o).node == node : o instanceof WeakNodeKey && ((WeakNodeKey) o).get() == node);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -18,7 +18,11 @@
  */
 package org.drools.metric.util;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 import org.drools.core.common.BaseNode;
+import org.drools.core.common.TupleSets;
+import org.drools.core.reteoo.BetaMemory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +44,14 @@ public class MetricLogUtils {
     public static final String METRIC_LOGGER_THRESHOLD = "drools.metric.logger.threshold";
     private int threshold = Integer.parseInt(getConfig(METRIC_LOGGER_THRESHOLD, "500")); // microseconds
 
+    // Only 1 node evaluation out of this interval, randomly chosen, is measured. Use it to reduce the overhead.
+    public static final String METRIC_SAMPLING_INTERVAL = "drools.metric.sampling.interval";
+    private int samplingInterval = Math.max(1, Integer.parseInt(getConfig(METRIC_SAMPLING_INTERVAL, "1")));
+
+    // "none" (default), "histogram", "micrometer" or the class name of a NodeMetricsRegistry implementation
+    public static final String METRIC_REGISTRY = "drools.metric.registry";
+    private volatile NodeMetricsRegistry registry = createRegistry(getConfig(METRIC_REGISTRY, "none"));
+
     private final ThreadLocal<NodeStats> nodeStats = new ThreadLocal<>();
 
     private static MetricLogUtils INSTANCE = new MetricLogUtils();
@@ -54,6 +66,28 @@ public class MetricLogUtils {
         }
     }
 
+    private NodeMetricsRegistry createRegistry(String registryName) {
+        switch (registryName) {
+            case "none":
+                return null;
+            case "histogram":
+                return new HistogramNodeMetricsRegistry();
+            case "micrometer":
+                if (micrometerAvailable) {
+                    return new MicrometerNodeMetricsRegistry();
+                }
+                logger.warn("Micrometer not found on the classpath, using the histogram metrics registry.");
+                return new HistogramNodeMetricsRegistry();
+            default:
+                try {
+                    return (NodeMetricsRegistry) Class.forName(registryName).getConstructor().newInstance();
+                } catch (Exception e) {
+                    logger.warn("Cannot create the metrics registry {}, using the histogram one.", registryName, e);
+                    return new HistogramNodeMetricsRegistry();
+                }
+        }
+    }
+
     public static MetricLogUtils getInstance() {
         return MetricLogUtils.INSTANCE;
     }
@@ -70,9 +104,36 @@ public class MetricLogUtils {
         return enabled;
     }
 
+    public int getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    public NodeMetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Sets the registry receiving the metrics of the sampled node evaluations, or disables it when null
+     */
+    public void setRegistry(NodeMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
     public void startMetrics(BaseNode baseNode) {
+        startMetrics(baseNode, null, null);
+    }
+
+    /**
+     * Starts measuring the evaluation of a node, also counting the left tuples it receives from srcLeftTuples
+     * and the ones it inserts into trgLeftTuples
+     */
+    public void startMetrics(BaseNode baseNode, TupleSets srcLeftTuples, TupleSets trgLeftTuples) {
         if (enabled) {
-            nodeStats.set(new NodeStats(baseNode));
+            if (samplingInterval > 1 && ThreadLocalRandom.current().nextInt(samplingInterval) != 0) {
+                nodeStats.set(NodeStats.NOT_SAMPLED);
+            } else {
+                nodeStats.set(new NodeStats(baseNode, srcLeftTuples, trgLeftTuples));
+            }
         } else {
             logger.warn("Metrics must not be started when disabled");
         }
@@ -90,12 +151,27 @@ public class MetricLogUtils {
     }
 
     public void logAndEndMetrics() {
+        logAndEndMetrics(-1);
+    }
+
+    /**
+     * Ends measuring the evaluation of a node, recording its metrics in the registry and logging them when
+     * the elapsed time is over the threshold
+     *
+     * @param memorySize the number of tuples held by the node memory, or -1 if unknown
+     */
+    public void logAndEndMetrics(long memorySize) {
         if (enabled) {
             NodeStats stats = nodeStats.get();
             if (stats != null && stats.isStarted()) {
                 long evalCount = stats.getEvalCount();
                 long elapsedTimeInNanos = (System.nanoTime() - stats.getStartTime());
                 long elapsedTimeInMicro = elapsedTimeInNanos / 1000;
+                NodeMetricsRegistry currentRegistry = registry;
+                BaseNode node = stats.getNode();
+                if (currentRegistry != null && node != null) {
+                    currentRegistry.record(node, elapsedTimeInNanos, evalCount, stats.getTuplesIn(), stats.getTuplesOut(), memorySize);
+                }
                 if (evalCount > 0 && elapsedTimeInMicro > threshold) {
                     if (micrometerAvailable && !micrometerDisabled) {
                         MicrometerUtils.INSTANCE.triggerMicrometer(stats.getNode(), evalCount, elapsedTimeInNanos);
@@ -103,13 +179,17 @@ public class MetricLogUtils {
                         logger.trace("{}, evalCount:{}, elapsedMicro:{}", stats.getNode(), evalCount, elapsedTimeInMicro);
                     }
                 }
-            } else {
+            } else if (stats != NodeStats.NOT_SAMPLED) {
                 logger.warn("nodeStats has to be initialized. Call startMetrics() beforehand : stats = {}", stats);
             }
             nodeStats.remove();
         }
     }
 
+    public static long memorySize(BetaMemory<?> betaMemory) {
+        return (long) betaMemory.getLeftTupleMemory().size() + betaMemory.getRightTupleMemory().size();
+    }
+
     /*
      * This method is only used for testing purposes.
      */
@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.metric.util;
+
+import org.drools.core.common.BaseNode;
+
+/**
+ * A {@link NodeMetricsRegistry} publishing the node metrics to the Micrometer global registry.
+ * Micrometer is only required on the classpath when this class is actually loaded.
+ *
+ * @see MicrometerUtils#recordNodeMetrics
+ */
+public class MicrometerNodeMetricsRegistry implements NodeMetricsRegistry {
+
+    @Override
+    public void record(BaseNode node, long elapsedTimeInNanos, long evalCount, long tuplesIn, long tuplesOut, long memorySize) {
+        MicrometerUtils.INSTANCE.recordNodeMetrics(node, elapsedTimeInNanos, evalCount, tuplesIn, tuplesOut, memorySize);
+    }
+}
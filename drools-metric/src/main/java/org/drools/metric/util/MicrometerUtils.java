@@ -19,14 +19,21 @@
 package org.drools.metric.util;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Metrics;
@@ -46,6 +53,9 @@ public final class MicrometerUtils {
     private final Map<BaseNode, Timer> averageElapsedTimeCache = new WeakHashMap<>(0);
     private final Map<BaseNode, Timer> elapsedTimeCache = new WeakHashMap<>(0);
     private final Map<BaseNode, Counter> evaluationCountCache = new WeakHashMap<>(0);
+    // weak keys, as for the caches above, so that the nodes of a disposed kie base can be collected
+    private final Map<BaseNode, NodeMeters> nodeMetersCache = Collections.synchronizedMap(new WeakHashMap<>(0));
+    private final Map<String, Timer> ruleLatencyCache = new ConcurrentHashMap<>();
 
     private MicrometerUtils() {
         // No external instances.
@@ -91,10 +101,81 @@ public final class MicrometerUtils {
         meterRecorder.accept(meter);
     }
 
+    /**
+     * Records a sampled node evaluation: the elapsed time goes to a timer publishing a percentile histogram, both for
+     * the node and for each rule associated with it, while the tuple counts and the memory size go to counters and
+     * a gauge tagged with the node id.
+     */
+    public void recordNodeMetrics(BaseNode node, long elapsedTimeInNanos, long evalCount, long tuplesIn, long tuplesOut, long memorySize) {
+        NodeMeters meters = nodeMetersCache.computeIfAbsent(node, this::createNodeMeters);
+        meters.latency.record(elapsedTimeInNanos, TimeUnit.NANOSECONDS);
+        for (Timer ruleLatency : meters.ruleLatencies) {
+            ruleLatency.record(elapsedTimeInNanos, TimeUnit.NANOSECONDS);
+        }
+        if (evalCount > 0) {
+            meters.evalCount.increment(evalCount);
+        }
+        if (tuplesIn > 0) {
+            meters.tuplesIn.increment(tuplesIn);
+        }
+        if (tuplesOut > 0) {
+            meters.tuplesOut.increment(tuplesOut);
+        }
+        if (memorySize >= 0) {
+            meters.memorySize.set(memorySize);
+        }
+    }
+
+    private NodeMeters createNodeMeters(BaseNode node) {
+        MeterRegistry meterRegistry = Metrics.globalRegistry;
+        Iterable<Tag> tags = Stream.of(Tag.of("node.id", Long.toString(node.getId())),
+                                       Tag.of("node.type", node.getClass().getSimpleName()))
+                .collect(Collectors.toList());
+
+        List<Timer> ruleLatencies = new ArrayList<>();
+        for (Rule rule : node.getAssociatedRules()) {
+            String ruleName = rule.getPackageName() + "." + rule.getName();
+            ruleLatencies.add(ruleLatencyCache.computeIfAbsent(ruleName, name -> Timer.builder("org.drools.metric.rule.latency")
+                    .tag("rule", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)));
+        }
+
+        NodeMeters meters = new NodeMeters(
+                Timer.builder("org.drools.metric.node.latency").tags(tags).publishPercentileHistogram().register(meterRegistry),
+                ruleLatencies.toArray(new Timer[0]),
+                Counter.builder("org.drools.metric.node.evaluation.count").tags(tags).register(meterRegistry),
+                Counter.builder("org.drools.metric.node.tuples.in").tags(tags).register(meterRegistry),
+                Counter.builder("org.drools.metric.node.tuples.out").tags(tags).register(meterRegistry));
+        // the gauge only keeps a weak reference to its value, which is held by the cached NodeMeters
+        Gauge.builder("org.drools.metric.node.memory.size", meters.memorySize, AtomicLong::get).tags(tags).register(meterRegistry);
+        return meters;
+    }
+
+    private static class NodeMeters {
+
+        private final Timer latency;
+        private final Timer[] ruleLatencies;
+        private final Counter evalCount;
+        private final Counter tuplesIn;
+        private final Counter tuplesOut;
+        private final AtomicLong memorySize = new AtomicLong(-1);
+
+        private NodeMeters(Timer latency, Timer[] ruleLatencies, Counter evalCount, Counter tuplesIn, Counter tuplesOut) {
+            this.latency = latency;
+            this.ruleLatencies = ruleLatencies;
+            this.evalCount = evalCount;
+            this.tuplesIn = tuplesIn;
+            this.tuplesOut = tuplesOut;
+        }
+    }
+
     public void clear() { // For testing.
         averageElapsedTimeCache.clear();
         elapsedTimeCache.clear();
         evaluationCountCache.clear();
+        nodeMetersCache.clear();
+        ruleLatencyCache.clear();
     }
 
 }
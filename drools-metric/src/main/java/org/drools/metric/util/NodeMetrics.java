@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.metric.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.drools.core.common.BaseNode;
+
+/**
+ * The metrics collected by a {@link HistogramNodeMetricsRegistry} for a single node of the network.
+ */
+public class NodeMetrics {
+
+    private final int nodeId;
+    private final String nodeDescription;
+    private final List<String> ruleNames;
+    private final LatencyHistogram[] ruleLatencies;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder evalCount = new LongAdder();
+    private final LongAdder tuplesIn = new LongAdder();
+    private final LongAdder tuplesOut = new LongAdder();
+    private volatile long memorySize = -1;
+
+    NodeMetrics(BaseNode node, List<String> ruleNames, LatencyHistogram[] ruleLatencies) {
+        this.nodeId = node.getId();
+        this.nodeDescription = node.toString();
+        this.ruleNames = Collections.unmodifiableList(ruleNames);
+        this.ruleLatencies = ruleLatencies;
+    }
+
+    void record(long elapsedTimeInNanos, long evalCount, long tuplesIn, long tuplesOut, long memorySize) {
+        latency.recordValue(elapsedTimeInNanos);
+        for (LatencyHistogram ruleLatency : ruleLatencies) {
+            ruleLatency.recordValue(elapsedTimeInNanos);
+        }
+        this.evalCount.add(evalCount);
+        this.tuplesIn.add(tuplesIn);
+        this.tuplesOut.add(tuplesOut);
+        if (memorySize >= 0) {
+            this.memorySize = memorySize;
+        }
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public String getNodeDescription() {
+        return nodeDescription;
+    }
+
+    public List<String> getRuleNames() {
+        return ruleNames;
+    }
+
+    /**
+     * The elapsed time of the evaluations of this node, in nanoseconds
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * The number of times that constraints have been evaluated in this node
+     */
+    public long getEvalCount() {
+        return evalCount.sum();
+    }
+
+    /**
+     * The number of left tuples inserted into this node
+     */
+    public long getTuplesIn() {
+        return tuplesIn.sum();
+    }
+
+    /**
+     * The number of left tuples inserted by this node into its children
+     */
+    public long getTuplesOut() {
+        return tuplesOut.sum();
+    }
+
+    /**
+     * The number of tuples held by the memory of this node at the end of its last evaluation, or -1 if unknown
+     */
+    public long getMemorySize() {
+        return memorySize;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeMetrics [node=" + nodeDescription + ", rules=" + ruleNames + ", latency=" + latency +
+                ", evalCount=" + getEvalCount() + ", tuplesIn=" + getTuplesIn() + ", tuplesOut=" + getTuplesOut() +
+                ", memorySize=" + memorySize + "]";
+    }
+}
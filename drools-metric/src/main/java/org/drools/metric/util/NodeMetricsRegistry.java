@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.metric.util;
+
+import org.drools.core.common.BaseNode;
+
+/**
+ * Receives the metrics of every sampled evaluation of a node. Implementations are invoked by the thread evaluating
+ * the network, so they have to be thread safe and as cheap as possible.
+ *
+ * @see MetricLogUtils#setRegistry(NodeMetricsRegistry)
+ */
+public interface NodeMetricsRegistry {
+
+    /**
+     * @param node the evaluated node
+     * @param elapsedTimeInNanos the elapsed time of the node evaluation
+     * @param evalCount the number of times that constraints have been evaluated
+     * @param tuplesIn the number of left tuples inserted into the node
+     * @param tuplesOut the number of left tuples inserted by the node into its children
+     * @param memorySize the number of tuples held by the node memory after the evaluation, or -1 if unknown
+     */
+    void record(BaseNode node, long elapsedTimeInNanos, long evalCount, long tuplesIn, long tuplesOut, long memorySize);
+}
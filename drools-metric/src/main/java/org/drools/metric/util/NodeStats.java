@@ -21,19 +21,41 @@ package org.drools.metric.util;
 import java.lang.ref.WeakReference;
 
 import org.drools.core.common.BaseNode;
+import org.drools.core.common.TupleSets;
 
 public class NodeStats {
 
+    /**
+     * Marks a node evaluation skipped by the sampling
+     */
+    static final NodeStats NOT_SAMPLED = new NodeStats();
+
     private boolean started = false;
     private long evalCount = 0;
     private long startTime = 0;
     private WeakReference<BaseNode> nodeRef = null;
+    private int tuplesIn = 0;
+    private TupleSets trgLeftTuples = null;
+    private int trgInsertSizeAtStart = 0;
+
+    private NodeStats() { }
 
     public NodeStats(BaseNode node) {
+        this(node, null, null);
+    }
+
+    public NodeStats(BaseNode node, TupleSets srcLeftTuples, TupleSets trgLeftTuples) {
         this.started = true;
         this.evalCount = 0;
-        this.startTime = System.nanoTime();
         this.nodeRef = new WeakReference<>(node);
+        if (srcLeftTuples != null) {
+            this.tuplesIn = srcLeftTuples.getInsertSize();
+        }
+        if (trgLeftTuples != null) {
+            this.trgLeftTuples = trgLeftTuples;
+            this.trgInsertSizeAtStart = trgLeftTuples.getInsertSize();
+        }
+        this.startTime = System.nanoTime();
     }
 
     public boolean isStarted() {
@@ -52,6 +74,20 @@ public class NodeStats {
         return startTime;
     }
 
+    /**
+     * Returns the number of left tuples inserted into the node
+     */
+    public int getTuplesIn() {
+        return tuplesIn;
+    }
+
+    /**
+     * Returns the number of left tuples inserted by the node into its children so far
+     */
+    public int getTuplesOut() {
+        return trgLeftTuples == null ? 0 : Math.max(0, trgLeftTuples.getInsertSize() - trgInsertSizeAtStart);
+    }
+
     public BaseNode getNode() {
         return nodeRef.get();
     }
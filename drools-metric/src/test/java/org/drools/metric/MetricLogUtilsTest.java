@@ -26,7 +26,10 @@ import java.util.stream.IntStream;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.search.Search;
+import org.drools.metric.util.HistogramNodeMetricsRegistry;
 import org.drools.metric.util.MetricLogUtils;
+import org.drools.metric.util.MicrometerNodeMetricsRegistry;
+import org.drools.metric.util.NodeMetrics;
 import org.drools.mvel.compiler.Address;
 import org.drools.mvel.compiler.Person;
 import org.junit.jupiter.api.Test;
@@ -108,6 +111,97 @@ public class MetricLogUtilsTest extends AbstractMetricTest {
         }
     }
 
+    @Test
+    public void registryIsOptIn() {
+        try {
+            MetricLogUtils.recreateInstance();
+            assertThat(MetricLogUtils.getInstance().getRegistry()).isNull();
+
+            System.setProperty(MetricLogUtils.METRIC_REGISTRY, "histogram");
+            MetricLogUtils.recreateInstance();
+            assertThat(MetricLogUtils.getInstance().getRegistry()).isInstanceOf(HistogramNodeMetricsRegistry.class);
+        } finally {
+            System.clearProperty(MetricLogUtils.METRIC_REGISTRY);
+            MetricLogUtils.recreateInstance();
+        }
+    }
+
+    @Test
+    public void histogramRegistry() {
+        try {
+            HistogramNodeMetricsRegistry histogramRegistry = new HistogramNodeMetricsRegistry();
+            MetricLogUtils.getInstance().setRegistry(histogramRegistry);
+
+            runJoinRules();
+
+            // 2 join nodes expected
+            List<NodeMetrics> joinMetrics = histogramRegistry.getNodeMetrics().stream()
+                    .filter(metrics -> metrics.getNodeDescription().startsWith("[JoinNode"))
+                    .collect(Collectors.toList());
+            assertThat(joinMetrics).hasSize(2);
+            for (NodeMetrics metrics : joinMetrics) {
+                assertThat(metrics.getLatency().getTotalCount()).isPositive();
+                assertThat(metrics.getEvalCount()).isPositive();
+                assertThat(metrics.getTuplesIn()).isPositive();
+                assertThat(metrics.getMemorySize()).isNotNegative();
+            }
+            // each fired match is created by a join node
+            assertThat(joinMetrics.stream().mapToLong(NodeMetrics::getTuplesOut).sum()).isEqualTo(36);
+
+            assertThat(histogramRegistry.getRuleLatencies().keySet()).containsExactlyInAnyOrder("defaultpkg.R1", "defaultpkg.R2");
+            assertThat(histogramRegistry.getRuleLatency("defaultpkg.R1").getTotalCount()).isPositive();
+        } finally {
+            MetricLogUtils.recreateInstance();
+        }
+    }
+
+    @Test
+    public void micrometerRegistry() {
+        try {
+            MetricLogUtils.getInstance().setRegistry(new MicrometerNodeMetricsRegistry());
+
+            runJoinRules();
+
+            Collection<Timer> nodeTimers = Search.in(registry)
+                    .name("org.drools.metric.node.latency")
+                    .tag("node.type", "JoinNode")
+                    .timers();
+            assertThat(nodeTimers).hasSize(2);
+            Collection<Timer> ruleTimers = Search.in(registry)
+                    .name("org.drools.metric.rule.latency")
+                    .timers();
+            assertThat(ruleTimers).hasSize(2);
+            Collection<Counter> tuplesOut = Search.in(registry)
+                    .name("org.drools.metric.node.tuples.out")
+                    .tag("node.type", "JoinNode")
+                    .counters();
+            assertThat(tuplesOut).hasSize(2);
+            assertThat(tuplesOut.stream().mapToDouble(Counter::count).sum()).isEqualTo(36.0);
+        } finally {
+            MetricLogUtils.recreateInstance();
+        }
+    }
+
+    @Test
+    public void sampling() {
+        try {
+            System.setProperty(MetricLogUtils.METRIC_SAMPLING_INTERVAL, "1000000");
+            MetricLogUtils.recreateInstance();
+            HistogramNodeMetricsRegistry histogramRegistry = new HistogramNodeMetricsRegistry();
+            MetricLogUtils.getInstance().setRegistry(histogramRegistry);
+
+            runJoinRules();
+
+            long sampled = histogramRegistry.getNodeMetrics().stream()
+                    .mapToLong(metrics -> metrics.getLatency().getTotalCount())
+                    .sum();
+            assertThat(sampled).isLessThan(3);
+        } finally {
+            System.clearProperty(MetricLogUtils.METRIC_SAMPLING_INTERVAL);
+            MetricLogUtils.recreateInstance();
+        }
+    }
+
     @Test
     public void testFrom() {
 
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.metric.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverValuesWithBoundedError() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertThat(LatencyHistogram.lowestEquivalentValue(index)).isLessThanOrEqualTo(value);
+            assertThat(LatencyHistogram.highestEquivalentValue(index)).isGreaterThanOrEqualTo(value);
+            assertThat(LatencyHistogram.highestEquivalentValue(index) - LatencyHistogram.lowestEquivalentValue(index))
+                    .isLessThanOrEqualTo(Math.max(0, value / 32));
+        }
+        assertThat(LatencyHistogram.bucketIndex(Long.MAX_VALUE)).isGreaterThan(LatencyHistogram.bucketIndex(1L << 40));
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            long value = ThreadLocalRandom.current().nextLong(1_000, 1_000_000);
+            values.add(value);
+            histogram.recordValue(value);
+        }
+        values.sort(null);
+
+        assertThat(histogram.getTotalCount()).isEqualTo(10_000);
+        assertThat(histogram.getMaxValue()).isEqualTo(values.get(values.size() - 1));
+        for (double percentile : new double[] { 50, 90, 99, 99.9 }) {
+            long exact = values.get((int) Math.ceil(percentile / 100 * values.size()) - 1);
+            long approximated = histogram.getValueAtPercentile(percentile);
+            assertThat(approximated).isGreaterThanOrEqualTo(exact);
+            assertThat(approximated - exact).isLessThanOrEqualTo(exact / 32);
+        }
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(histogram.getMaxValue());
+
+        histogram.reset();
+        assertThat(histogram.getTotalCount()).isZero();
+        assertThat(histogram.getValueAtPercentile(99)).isZero();
+    }
+
+    @Test
+    public void concurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.recordValue(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(histogram.getTotalCount()).isEqualTo(400_000);
+        assertThat(histogram.getMaxValue()).isEqualTo(99_999);
+        assertThat(histogram.getMean()).isEqualTo(49_999.5);
+    }
+}
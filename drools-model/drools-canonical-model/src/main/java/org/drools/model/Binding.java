@@ -28,4 +28,12 @@ public interface Binding {
     String[] getReactOn();
     String[] getWatchedProps();
     Object eval(Object... args);
+
+    /**
+     * @return the property of the input variable returned as is by the binding function,
+     * or null if the bound value is not known to be the plain value of a property
+     */
+    default String getReadProperty() {
+        return null;
+    }
 }
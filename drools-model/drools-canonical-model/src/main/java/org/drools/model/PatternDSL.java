@@ -142,6 +142,13 @@ public class PatternDSL extends DSL {
         return new ReactOn( reactOn );
     }
 
+    /**
+     * Like reactOn, for a binding whose value is the one of the given property, read as is and not derived from it
+     */
+    public static ReactOn propertyRead( String property ) {
+        return new ReactOn( true, property );
+    }
+
     public interface PatternDef<T> extends ViewItem<T> {
         PatternDef<T> and();
         PatternDef<T> or();
@@ -1765,9 +1772,15 @@ public class PatternDSL extends DSL {
 
     public static class ReactOn {
         private final String[] strings;
+        private final boolean propertyRead;
 
         public ReactOn( String... strings ) {
+            this( false, strings );
+        }
+
+        private ReactOn( boolean propertyRead, String... strings ) {
             this.strings = strings;
+            this.propertyRead = propertyRead;
         }
 
         private String[] getStrings() {
@@ -1788,6 +1801,10 @@ public class PatternDSL extends DSL {
             return reactOn != null ? reactOn.getStrings() : new String[0];
         }
 
+        public String getReadProperty() {
+            return reactOn != null && reactOn.propertyRead ? reactOn.getStrings()[0] : null;
+        }
+
         public abstract Binding asBinding( PatternDefImpl patternDef );
     }
 
@@ -1801,7 +1818,7 @@ public class PatternDSL extends DSL {
 
         @Override
         public Binding asBinding( PatternDefImpl patternDef ) {
-            return new BindViewItem1( boundVar, f, patternDef.getFirstVariable(), getReactOn(), null );
+            return new BindViewItem1( boundVar, f, patternDef.getFirstVariable(), getReactOn(), null, getReadProperty() );
         }
     }
 
@@ -32,13 +32,19 @@ public class BindViewItem1<T> implements ViewItem<T>, Binding, ModelComponent {
     private final Variable inputVariable;
     private final String[] reactOn;
     private final String[] watchedProps;
+    private final String readProperty;
 
     public BindViewItem1( Variable<T> boundVariable, Function1 bindingFunction, Variable inputVariable, String[] reactOn, String[] watchedProps ) {
+        this( boundVariable, bindingFunction, inputVariable, reactOn, watchedProps, null );
+    }
+
+    public BindViewItem1( Variable<T> boundVariable, Function1 bindingFunction, Variable inputVariable, String[] reactOn, String[] watchedProps, String readProperty ) {
         this.bindingFunction = bindingFunction;
         this.boundVariable = boundVariable;
         this.inputVariable = inputVariable;
         this.reactOn = reactOn;
         this.watchedProps = watchedProps;
+        this.readProperty = readProperty;
     }
 
     @Override
@@ -81,6 +87,11 @@ public class BindViewItem1<T> implements ViewItem<T>, Binding, ModelComponent {
         return watchedProps;
     }
 
+    @Override
+    public String getReadProperty() {
+        return readProperty;
+    }
+
     @Override
     public Object eval(Object... args) {
         return bindingFunction.apply(args[0]);
@@ -100,6 +111,7 @@ public class BindViewItem1<T> implements ViewItem<T>, Binding, ModelComponent {
         if ( !ModelComponent.areEqualInModel( boundVariable, that.boundVariable )) return false;
         if ( !ModelComponent.areEqualInModel( inputVariable, that.inputVariable )) return false;
         if ( !bindingFunction.equals( that.bindingFunction )) return false;
+        if ( readProperty == null ? that.readProperty != null : !readProperty.equals( that.readProperty )) return false;
         return reactOn == null ? that.reactOn == null : Arrays.equals(reactOn, that.reactOn);
     }
 }
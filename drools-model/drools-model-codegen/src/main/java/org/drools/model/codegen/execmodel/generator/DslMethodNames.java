@@ -82,6 +82,7 @@ public class DslMethodNames {
     public static final String EVAL_EXPR_CALL = "expr";
     public static final String EXPR_CALL = "expr";
     public static final String REACT_ON_CALL = "reactOn";
+    public static final String PROPERTY_READ_CALL = "propertyRead";
     public static final String BIND_CALL = "bind";
     public static final String EXPR_OR_CALL = "or";
     public static final String EXPR_AND_CALL = "and";
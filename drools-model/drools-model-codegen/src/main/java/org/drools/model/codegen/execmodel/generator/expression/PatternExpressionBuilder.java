@@ -51,8 +51,10 @@ import static org.drools.model.codegen.execmodel.generator.DslMethodNames.EXPR_E
 import static org.drools.model.codegen.execmodel.generator.DslMethodNames.EXPR_END_OR_CALL;
 import static org.drools.model.codegen.execmodel.generator.DslMethodNames.EXPR_OR_CALL;
 import static org.drools.model.codegen.execmodel.generator.DslMethodNames.NO_OP_EXPR;
+import static org.drools.model.codegen.execmodel.generator.DslMethodNames.PROPERTY_READ_CALL;
 import static org.drools.model.codegen.execmodel.generator.DslMethodNames.REACT_ON_CALL;
 import static org.drools.model.codegen.execmodel.generator.DslMethodNames.createDslTopLevelMethod;
+import static org.drools.util.ClassUtils.getter2property;
 
 public class PatternExpressionBuilder extends AbstractExpressionBuilder {
 
@@ -181,11 +183,41 @@ public class PatternExpressionBuilder extends AbstractExpressionBuilder {
         drlxParseResult.getUsedDeclarationsOnLeft().forEach(d -> bindDSL.addArgument(context.getVar(d)));
         bindDSL.addArgument(constraintExpression);
         final Optional<MethodCallExpr> methodCallExpr = buildReactOn(drlxParseResult);
-        methodCallExpr.ifPresent(bindDSL::addArgument);
+        methodCallExpr.ifPresent(reactOnDSL -> {
+            if (isPropertyRead(constraintExpression, reactOnDSL)) {
+                reactOnDSL.setName(PROPERTY_READ_CALL);
+            }
+            bindDSL.addArgument(reactOnDSL);
+        });
         context.registerBindingExpression(boundVar, bindDSL);
         return bindDSL;
     }
 
+    // the binding returns as is the only property it reacts on, like in $id : id, and not a value derived from it
+    private static boolean isPropertyRead(Expression bindingExpression, MethodCallExpr reactOnDSL) {
+        if (!(bindingExpression instanceof LambdaExpr) || reactOnDSL.getArguments().size() != 1) {
+            return false;
+        }
+        LambdaExpr lambda = (LambdaExpr) bindingExpression;
+        Optional<Expression> body = lambda.getExpressionBody();
+        if (lambda.getParameters().size() != 1 || !body.isPresent()) {
+            return false;
+        }
+        String property = ((StringLiteralExpr) reactOnDSL.getArgument(0)).asString();
+        NameExpr fact = new NameExpr(lambda.getParameter(0).getNameAsString());
+        Expression read = body.get();
+        if (read instanceof MethodCallExpr) {
+            MethodCallExpr getter = (MethodCallExpr) read;
+            return getter.getArguments().isEmpty() && getter.getScope().map(fact::equals).orElse(false) &&
+                    property.equals(getter2property(getter.getNameAsString()));
+        }
+        if (read instanceof FieldAccessExpr) {
+            FieldAccessExpr field = (FieldAccessExpr) read;
+            return fact.equals(field.getScope()) && property.equals(field.getNameAsString());
+        }
+        return false;
+    }
+
     private Optional<MethodCallExpr> buildIndexedBy(SingleDrlxParseSuccess drlxParseResult) {
         if (drlxParseResult.isUnification()) {
             TypedExpression left = drlxParseResult.getLeft();
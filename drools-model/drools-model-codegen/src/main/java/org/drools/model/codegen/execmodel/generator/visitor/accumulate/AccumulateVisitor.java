@@ -84,6 +84,7 @@ import static org.drools.model.codegen.execmodel.generator.DslMethodNames.ACC_FU
 import static org.drools.model.codegen.execmodel.generator.DslMethodNames.AND_CALL;
 import static org.drools.model.codegen.execmodel.generator.DslMethodNames.BIND_AS_CALL;
 import static org.drools.model.codegen.execmodel.generator.DslMethodNames.BIND_CALL;
+import static org.drools.model.codegen.execmodel.generator.DslMethodNames.PROPERTY_READ_CALL;
 import static org.drools.model.codegen.execmodel.generator.DslMethodNames.REACT_ON_CALL;
 import static org.drools.model.codegen.execmodel.generator.DslMethodNames.VALUE_OF_CALL;
 import static org.drools.model.codegen.execmodel.generator.DslMethodNames.createDslTopLevelMethod;
@@ -601,10 +602,11 @@ public class AccumulateVisitor {
             Optional<MethodCallExpr> optReactOn = oldBind.getArguments().stream()
                     .filter(MethodCallExpr.class::isInstance)
                     .map(MethodCallExpr.class::cast)
-                    .filter(exp -> exp.getName().asString().equals(REACT_ON_CALL))
+                    .filter(exp -> exp.getName().asString().equals(REACT_ON_CALL) || exp.getName().asString().equals(PROPERTY_READ_CALL))
                     .findFirst();
             if (optReactOn.isPresent()) {
-                newComposedBinding.addArgument(optReactOn.get().clone());
+                // the composed binding derives its value from the property read by the old one
+                newComposedBinding.addArgument(optReactOn.get().clone().setName(REACT_ON_CALL));
             }
             oldBind.setScope(newComposedBinding); // insert newComposedBinding at the first in the chain
         });
@@ -21,6 +21,9 @@ package org.drools.model.codegen.execmodel;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.drools.base.rule.accessor.ReadAccessor;
+import org.drools.core.base.FieldNameSupplier;
 import org.drools.model.codegen.execmodel.domain.Person;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -554,4 +557,27 @@ public class BindingTest extends BaseModelTest {
             ksession.dispose();
         }
     }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void testOnlyBindingOfPlainPropertyReadsIt(RUN_TYPE runType) {
+        String str = "package org.test\n" +
+                "import " + Person.class.getCanonicalName() + "\n" +
+                "rule R when\n" +
+                "    Person( $name : name, $initial : name.substring(0, 1) )\n" +
+                "then\n" +
+                "end\n";
+
+        KieSession ksession = getKieSession(runType, str);
+        try {
+            RuleImpl rule = (RuleImpl) ksession.getKieBase().getRule("org.test", "R");
+            // both the bindings react on name, but only the first one has its value
+            ReadAccessor name = rule.getDeclaration("$name").getExtractor();
+            assertThat(name).isInstanceOf(FieldNameSupplier.class);
+            assertThat(((FieldNameSupplier) name).getFieldName()).isEqualTo("name");
+            assertThat(rule.getDeclaration("$initial").getExtractor()).isNotInstanceOf(FieldNameSupplier.class);
+        } finally {
+            ksession.dispose();
+        }
+    }
 }
@@ -145,6 +145,7 @@ import org.drools.modelcompiler.constraints.LambdaConstraint;
 import org.drools.modelcompiler.constraints.LambdaDataProvider;
 import org.drools.modelcompiler.constraints.LambdaEvalExpression;
 import org.drools.modelcompiler.constraints.LambdaGroupByAccumulate;
+import org.drools.modelcompiler.constraints.LambdaPropertyReadAccessor;
 import org.drools.modelcompiler.constraints.LambdaReadAccessor;
 import org.drools.modelcompiler.constraints.TemporalConstraintEvaluator;
 import org.drools.modelcompiler.constraints.UnificationConstraint;
@@ -784,8 +785,13 @@ public class KiePackagesBuilder {
         for (Binding binding : modelPattern.getBindings()) {
             // FIXME this is returning null for BindViewItem2, BindViewItem3 etc (mdp)
             Function1 f1 = getBindingFunction( ctx, patternVariable, binding );
+            // only a binding returning a property of the fact as is can be told to read it, not one derived from it
+            String readProperty = ctx.getDeclaration( patternVariable ).isPatternDeclaration() ? binding.getReadProperty() : null;
+            ReadAccessor accessor = readProperty != null ?
+                    new LambdaPropertyReadAccessor(binding.getBoundVariable().getType(), f1, readProperty) :
+                    new LambdaReadAccessor(binding.getBoundVariable().getType(), f1);
             Declaration declaration = new Declaration(binding.getBoundVariable().getName(),
-                                                      new LambdaReadAccessor(binding.getBoundVariable().getType(), f1),
+                                                      accessor,
                                                       pattern,
                                                       true);
             pattern.addDeclaration( declaration );
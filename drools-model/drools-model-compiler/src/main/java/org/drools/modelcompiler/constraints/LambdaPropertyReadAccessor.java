@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.modelcompiler.constraints;
+
+import org.drools.core.base.FieldNameSupplier;
+import org.drools.model.functions.Function1;
+
+/**
+ * The accessor of a binding returning as is the value of a property of the fact, like the ones declared with
+ * PatternDSL.propertyRead, so that the bound value is known to be the one of that property.
+ */
+public class LambdaPropertyReadAccessor extends LambdaReadAccessor implements FieldNameSupplier {
+
+    private final String propertyName;
+
+    public LambdaPropertyReadAccessor( Class<?> fieldType, Function1 lambda, String propertyName ) {
+        super(fieldType, lambda);
+        this.propertyName = propertyName;
+    }
+
+    @Override
+    public String getFieldName() {
+        return propertyName;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.modelcompiler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.drools.model.Model;
+import org.drools.model.Query1Def;
+import org.drools.model.impl.ModelImpl;
+import org.drools.modelcompiler.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.QueryResultsRow;
+import org.kie.api.runtime.rule.Variable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.drools.model.PatternDSL.pattern;
+import static org.drools.model.PatternDSL.query;
+
+public class AsyncQueryTest {
+
+    private KieSession createSession(int persons) {
+        Query1Def<Person> qdef = query("persons", Person.class, "p");
+        Model model = new ModelImpl().addQuery(qdef.build(pattern(qdef.getArg1())));
+        KieSession ksession = KieBaseBuilder.createKieBaseFromModel(model).newKieSession();
+        for (int i = 0; i < persons; i++) {
+            ksession.insert(new Person("P" + i, i));
+        }
+        return ksession;
+    }
+
+    private static class CollectingSubscriber implements Flow.Subscriber<QueryResultsRow> {
+
+        private final List<Person> rows = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final CountDownLatch received;
+        private final long initialRequest;
+        private final boolean cancelOnFirstRow;
+        private volatile Flow.Subscription subscription;
+
+        private CollectingSubscriber(long initialRequest, int expectedRows, boolean cancelOnFirstRow) {
+            this.initialRequest = initialRequest;
+            this.received = new CountDownLatch(expectedRows);
+            this.cancelOnFirstRow = cancelOnFirstRow;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(QueryResultsRow row) {
+            rows.add((Person) row.get("p"));
+            if (cancelOnFirstRow) {
+                subscription.cancel();
+            }
+            received.countDown();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+
+    @Test
+    public void testStreamRowsOnDemand() throws Exception {
+        KieSession ksession = createSession(10);
+        try {
+            CollectingSubscriber subscriber = new CollectingSubscriber(4, 4, false);
+            ksession.getQueryResultsAsync("persons", Variable.v).subscribe(subscriber);
+
+            assertThat(subscriber.received.await(10, TimeUnit.SECONDS)).isTrue();
+            // the query has been fully evaluated, but only the requested rows are delivered
+            Thread.sleep(100);
+            assertThat(subscriber.rows).hasSize(4);
+            assertThat(subscriber.done.getCount()).isEqualTo(1);
+
+            subscriber.subscription.request(Long.MAX_VALUE);
+            assertThat(subscriber.done.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(subscriber.error.get()).isNull();
+            assertThat(subscriber.rows).hasSize(10);
+            assertThat(subscriber.rows.stream().map(Person::getName).distinct().count()).isEqualTo(10);
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    @Test
+    public void testCancelDiscardsPendingRows() throws Exception {
+        KieSession ksession = createSession(10);
+        try {
+            CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE, 1, true);
+            ksession.getQueryResultsAsync("persons", Variable.v).subscribe(subscriber);
+
+            assertThat(subscriber.received.await(10, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(100);
+            assertThat(subscriber.rows).hasSize(1);
+            assertThat(subscriber.done.getCount()).isEqualTo(1);
+
+            // the session is still usable by the synchronous API
+            assertThat(ksession.getQueryResults("persons", Variable.v).size()).isEqualTo(10);
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    @Test
+    public void testUnknownQueryIsNotifiedAsError() throws Exception {
+        KieSession ksession = createSession(1);
+        try {
+            CollectingSubscriber subscriber = new CollectingSubscriber(1, 0, false);
+            ksession.getQueryResultsAsync("unknown").subscribe(subscriber);
+
+            assertThat(subscriber.done.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(subscriber.error.get()).hasMessageContaining("unknown");
+            assertThat(subscriber.rows).isEmpty();
+        } finally {
+            ksession.dispose();
+        }
+    }
+}
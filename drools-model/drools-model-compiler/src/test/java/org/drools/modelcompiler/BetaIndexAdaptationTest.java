@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.modelcompiler;
+
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.phreak.BetaIndexAdapter;
+import org.drools.core.reteoo.BetaMemory;
+import org.drools.core.reteoo.JoinNode;
+import org.drools.core.reteoo.ObjectSink;
+import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.kiesession.rulebase.InternalKnowledgeBase;
+import org.drools.model.Index;
+import org.drools.model.Model;
+import org.drools.model.Variable;
+import org.drools.model.impl.ModelImpl;
+import org.drools.modelcompiler.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.kie.api.conf.KieBaseOption;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.conf.BetaIndexSkewThresholdOption;
+import org.kie.internal.conf.CompositeKeyDepthOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.drools.model.DSL.declarationOf;
+import static org.drools.model.DSL.on;
+import static org.drools.model.PatternDSL.betaIndexedBy;
+import static org.drools.model.PatternDSL.pattern;
+import static org.drools.model.PatternDSL.rule;
+
+public class BetaIndexAdaptationTest {
+
+    private static final int PERSONS = 200;
+
+    private InternalKnowledgeBase createKieBase(int skewThreshold) {
+        // only the first equality constraint is part of the index key
+        return createKieBase(CompositeKeyDepthOption.get(1), BetaIndexSkewThresholdOption.get(skewThreshold));
+    }
+
+    private InternalKnowledgeBase createKieBase(KieBaseOption... options) {
+        Variable<Person> p1 = declarationOf(Person.class);
+        Variable<Person> p2 = declarationOf(Person.class);
+        Model model = new ModelImpl().addRule(rule("sameAgeAndName").build(
+                pattern(p1),
+                pattern(p2)
+                        .expr("sameAge", p1, (a, b) -> a.getAge() == b.getAge(),
+                              betaIndexedBy(int.class, Index.ConstraintType.EQUAL, 0, Person::getAge, Person::getAge))
+                        .expr("sameName", p1, (a, b) -> a.getName().equals(b.getName()),
+                              betaIndexedBy(String.class, Index.ConstraintType.EQUAL, 1, Person::getName, Person::getName)),
+                on(p1, p2).execute((a, b) -> { })));
+        return KieBaseBuilder.createKieBaseFromModel(model, options);
+    }
+
+    private static BetaMemory<?> getJoinMemory(InternalKnowledgeBase kbase, KieSession ksession) {
+        for (ObjectTypeNode otn : kbase.getRete().getObjectTypeNodes()) {
+            for (ObjectSink sink : otn.getObjectSinkPropagator().getSinks()) {
+                if (sink instanceof JoinNode) {
+                    return (BetaMemory<?>) ((ReteEvaluator) ksession).getNodeMemory((JoinNode) sink);
+                }
+            }
+        }
+        throw new IllegalStateException("No join node found");
+    }
+
+    private static void insertPersonsOfSameAge(KieSession ksession) {
+        for (int i = 0; i < PERSONS; i++) {
+            ksession.insert(new Person("Person" + i, 40));
+        }
+    }
+
+    @Test
+    public void testSkewedMemoryIsRekeyed() {
+        InternalKnowledgeBase kbase = createKieBase(8);
+        KieSession ksession = kbase.newKieSession();
+        insertPersonsOfSameAge(ksession);
+        ksession.insert(new Person("Person0", 40));
+
+        // each person matches itself, the duplicated name matches twice in both directions
+        assertThat(ksession.fireAllRules()).isEqualTo(PERSONS + 3);
+
+        BetaMemory<?> bm = getJoinMemory(kbase, ksession);
+        assertThat(bm.isIndexAdapted()).isTrue();
+        assertThat(bm.getRightTupleMemory().size()).isEqualTo(PERSONS + 1);
+        assertThat(bm.getRightTupleMemory().getKeysCount()).isEqualTo(PERSONS);
+        assertThat(bm.getLeftTupleMemory().getKeysCount()).isEqualTo(PERSONS);
+
+        // the re-keyed memories keep working for later insertions, matching the new person with itself and with Person1
+        ksession.insert(new Person("Person1", 40));
+        assertThat(ksession.fireAllRules()).isEqualTo(3);
+        assertThat(bm.getRightTupleMemory().size()).isEqualTo(PERSONS + 2);
+        ksession.dispose();
+    }
+
+    @Test
+    public void testBalancedMemoryIsNotRekeyed() {
+        InternalKnowledgeBase kbase = createKieBase(PERSONS * 2);
+        KieSession ksession = kbase.newKieSession();
+        insertPersonsOfSameAge(ksession);
+
+        assertThat(ksession.fireAllRules()).isEqualTo(PERSONS);
+
+        BetaMemory<?> bm = getJoinMemory(kbase, ksession);
+        assertThat(bm.isIndexAdapted()).isFalse();
+        assertThat(bm.getRightTupleMemory().getKeysCount()).isEqualTo(1);
+        ksession.dispose();
+    }
+
+    @Test
+    public void testSkewedMemoryIsNotRekeyedWithDefaultKeyDepth() {
+        // with the default composite key depth both the equality constraints are already part of the index key
+        InternalKnowledgeBase kbase = createKieBase(BetaIndexSkewThresholdOption.get(8));
+        // the threshold can't take effect, which is reported when the kie base is created
+        assertThat(BetaIndexAdapter.checkConfiguration(kbase.getRuleBaseConfiguration())).isFalse();
+        assertThat(BetaIndexAdapter.checkConfiguration(createKieBase(8).getRuleBaseConfiguration())).isTrue();
+
+        KieSession ksession = kbase.newKieSession();
+        int persons = 20;
+        for (int i = 0; i < persons; i++) {
+            ksession.insert(new Person("Mario", 40));
+        }
+
+        assertThat(ksession.fireAllRules()).isEqualTo(persons * persons);
+
+        // the memory is skewed, but there is no wider key to re-key it with
+        BetaMemory<?> bm = getJoinMemory(kbase, ksession);
+        assertThat(bm.isIndexAdapted()).isFalse();
+        assertThat(bm.getRightTupleMemory().size()).isEqualTo(persons);
+        assertThat(bm.getRightTupleMemory().getKeysCount()).isEqualTo(1);
+        assertThat(bm.getLeftTupleMemory().getKeysCount()).isEqualTo(1);
+        ksession.dispose();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.modelcompiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.drools.model.Index;
+import org.drools.model.Model;
+import org.drools.model.Variable;
+import org.drools.model.impl.ModelImpl;
+import org.drools.modelcompiler.domain.Child;
+import org.drools.modelcompiler.domain.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.event.rule.DefaultRuleRuntimeEventListener;
+import org.kie.api.event.rule.ObjectDeletedEvent;
+import org.kie.api.runtime.KieSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.drools.model.DSL.declarationOf;
+import static org.drools.model.DSL.execute;
+import static org.drools.model.DSL.not;
+import static org.drools.model.DSL.on;
+import static org.drools.model.PatternDSL.betaIndexedBy;
+import static org.drools.model.PatternDSL.pattern;
+import static org.drools.model.PatternDSL.rule;
+
+public class BulkDeleteTest {
+
+    // more than the size above which the join memories are emptied at once
+    private static final int FAMILIES = 100;
+
+    private final List<String> parents = new ArrayList<>();
+    private final AtomicInteger noChildren = new AtomicInteger();
+
+    private KieSession ksession;
+
+    @BeforeEach
+    public void setUp() {
+        Variable<Child> c = declarationOf(Child.class);
+        Variable<Person> p = declarationOf(Person.class);
+        Model model = new ModelImpl()
+                .addRule(rule("parent").build(
+                        pattern(c),
+                        pattern(p)
+                                .expr("isParent", c, (person, child) -> person.getName().equals(child.getParent()),
+                                      betaIndexedBy(String.class, Index.ConstraintType.EQUAL, 0, Person::getName, Child::getParent)),
+                        on(p).execute(person -> parents.add(person.getName()))))
+                .addRule(rule("noChildren").build(
+                        not(pattern(declarationOf(Child.class))),
+                        execute(noChildren::incrementAndGet)));
+        ksession = KieBaseBuilder.createKieBaseFromModel(model).newKieSession();
+    }
+
+    private void insertFamilies() {
+        for (int i = 0; i < FAMILIES; i++) {
+            ksession.insert(new Person("Parent" + i, 40));
+            ksession.insert(new Child("Child" + i, 5, "Parent" + i));
+        }
+    }
+
+    @Test
+    public void testTruncate() {
+        insertFamilies();
+        assertThat(ksession.fireAllRules()).isEqualTo(FAMILIES);
+
+        AtomicInteger deleted = new AtomicInteger();
+        ksession.addEventListener(new DefaultRuleRuntimeEventListener() {
+            @Override
+            public void objectDeleted(ObjectDeletedEvent event) {
+                deleted.incrementAndGet();
+            }
+        });
+
+        assertThat(ksession.truncate(Child.class)).isEqualTo(FAMILIES);
+        assertThat(deleted.get()).isEqualTo(FAMILIES);
+        assertThat(ksession.getFactCount()).isEqualTo(FAMILIES);
+        assertThat(ksession.fireAllRules()).isEqualTo(1);
+        assertThat(noChildren.get()).isEqualTo(1);
+
+        // the emptied memories are used again by the next inserts
+        parents.clear();
+        for (int i = 0; i < FAMILIES; i++) {
+            ksession.insert(new Child("Child" + i, 5, "Parent" + i));
+        }
+        assertThat(ksession.fireAllRules()).isEqualTo(FAMILIES);
+        assertThat(parents.size()).isEqualTo(FAMILIES);
+
+        // children are persons too
+        assertThat(ksession.truncate(Person.class)).isEqualTo(FAMILIES * 2);
+        assertThat(ksession.getFactCount()).isEqualTo(0);
+        assertThat(ksession.fireAllRules()).isEqualTo(1);
+    }
+
+    @Test
+    public void testClear() {
+        insertFamilies();
+        ksession.fireAllRules();
+
+        assertThat(ksession.clear()).isEqualTo(FAMILIES * 2);
+        assertThat(ksession.getFactCount()).isEqualTo(0);
+        assertThat(ksession.getObjects()).isEmpty();
+        assertThat(ksession.fireAllRules()).isEqualTo(1);
+
+        parents.clear();
+        insertFamilies();
+        assertThat(ksession.fireAllRules()).isEqualTo(FAMILIES);
+        assertThat(parents.size()).isEqualTo(FAMILIES);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.modelcompiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.drools.model.Model;
+import org.drools.model.Variable;
+import org.drools.model.impl.ModelImpl;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.internal.conf.ParallelLeftInsertThresholdOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.drools.model.DSL.declarationOf;
+import static org.drools.model.DSL.exists;
+import static org.drools.model.DSL.not;
+import static org.drools.model.DSL.on;
+import static org.drools.model.PatternDSL.pattern;
+import static org.drools.model.PatternDSL.rule;
+
+public class ParallelLeftInsertsTest {
+
+    private static final int CUSTOMERS = 600;
+    private static final int THRESHOLD = 100;
+
+    public static class Customer {
+        private final int id;
+        private final int minAmount;
+
+        public Customer(int id, int minAmount) {
+            this.id = id;
+            this.minAmount = minAmount;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getMinAmount() {
+            return minAmount;
+        }
+    }
+
+    public static class Order {
+        private final int customerId;
+        private final int amount;
+
+        public Order(int customerId, int amount) {
+            this.customerId = customerId;
+            this.amount = amount;
+        }
+
+        public int getCustomerId() {
+            return customerId;
+        }
+
+        public int getAmount() {
+            return amount;
+        }
+    }
+
+    private final List<String> results = new ArrayList<>();
+
+    // set when a constraint is evaluated by a fork/join task instead of the thread firing the rules
+    private final AtomicBoolean evaluatedInParallel = new AtomicBoolean();
+
+    @Test
+    public void testParallelLeftInsertsPropagateAsSequentialOnes() {
+        List<String> sequential = run(ParallelLeftInsertThresholdOption.DISABLED);
+        assertThat(evaluatedInParallel.get()).isFalse();
+
+        List<String> parallel = run(ParallelLeftInsertThresholdOption.get(THRESHOLD));
+        assertThat(evaluatedInParallel.get()).isTrue();
+
+        assertThat(parallel).isEqualTo(sequential);
+        assertThat(parallel.stream().anyMatch(s -> s.startsWith("join:"))).isTrue();
+        assertThat(parallel.stream().anyMatch(s -> s.startsWith("not:"))).isTrue();
+        assertThat(parallel.stream().anyMatch(s -> s.startsWith("exists:"))).isTrue();
+    }
+
+    @Test
+    public void testBatchBelowThresholdIsEvaluatedSequentially() {
+        run(ParallelLeftInsertThresholdOption.get(CUSTOMERS + 1));
+        assertThat(evaluatedInParallel.get()).isFalse();
+    }
+
+    private List<String> run(ParallelLeftInsertThresholdOption option) {
+        results.clear();
+        evaluatedInParallel.set(false);
+
+        KieBase kieBase = KieBaseBuilder.createKieBaseFromModel(model(), option);
+        KieSession ksession = kieBase.newKieSession();
+        try {
+            List<FactHandle> orders = new ArrayList<>();
+            for (int i = 0; i < CUSTOMERS; i++) {
+                if (i % 3 != 0) {
+                    orders.add(ksession.insert(new Order(i, (i * 7) % 120)));
+                    orders.add(ksession.insert(new Order(i, (i * 13) % 120)));
+                }
+            }
+            ksession.fireAllRules();
+
+            // a single batch of left inserts, above the threshold, for the join, not and exists nodes
+            for (int i = 0; i < CUSTOMERS; i++) {
+                ksession.insert(new Customer(i, i % 100));
+            }
+            results.add("fired:" + ksession.fireAllRules());
+
+            // deleting both orders of some customers unblocks their not and cancels their exists,
+            // so this also checks the blockers linked while evaluating the batch
+            for (int i = 0; i < orders.size(); i += 10) {
+                ksession.delete(orders.get(i));
+                ksession.delete(orders.get(i + 1));
+            }
+            int unblocked = ksession.fireAllRules();
+            assertThat(unblocked).isPositive();
+            results.add("fired:" + unblocked);
+
+            return new ArrayList<>(results);
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private Model model() {
+        Variable<Customer> joinCustomer = declarationOf(Customer.class);
+        Variable<Order> joinOrder = declarationOf(Order.class);
+        Variable<Customer> notCustomer = declarationOf(Customer.class);
+        Variable<Order> notOrder = declarationOf(Order.class);
+        Variable<Customer> existsCustomer = declarationOf(Customer.class);
+        Variable<Order> existsOrder = declarationOf(Order.class);
+
+        // the constraints are not indexed, so the right memories are tuple lists that can be read concurrently
+        return new ModelImpl()
+                .addRule(rule("join").build(
+                        pattern(joinCustomer),
+                        pattern(joinOrder).expr("largeOrder", joinCustomer, (o, c) -> ownedBy(o, c) && o.getAmount() > c.getMinAmount()),
+                        on(joinCustomer, joinOrder).execute((c, o) -> results.add("join:" + c.getId() + ":" + o.getAmount()))))
+                .addRule(rule("not").build(
+                        pattern(notCustomer),
+                        not(pattern(notOrder).expr("ownedOrder", notCustomer, (o, c) -> ownedBy(o, c))),
+                        on(notCustomer).execute(c -> results.add("not:" + c.getId()))))
+                .addRule(rule("exists").build(
+                        pattern(existsCustomer),
+                        exists(pattern(existsOrder).expr("ownedLargeOrder", existsCustomer, (o, c) -> ownedBy(o, c) && o.getAmount() > 90)),
+                        on(existsCustomer).execute(c -> results.add("exists:" + c.getId()))));
+    }
+
+    private boolean ownedBy(Order order, Customer customer) {
+        if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+            evaluatedInParallel.set(true);
+        }
+        return order.getCustomerId() == customer.getId();
+    }
+}
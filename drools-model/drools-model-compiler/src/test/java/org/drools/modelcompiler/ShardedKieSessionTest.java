@@ -0,0 +1,403 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.modelcompiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.drools.core.base.accumulators.CountAccumulateFunction;
+import org.drools.kiesession.session.PartitionKeys;
+import org.drools.kiesession.session.ShardedKieSession;
+import org.drools.model.Index;
+import org.drools.model.Model;
+import org.drools.model.Query;
+import org.drools.model.Query1Def;
+import org.drools.model.Rule;
+import org.drools.model.Variable;
+import org.drools.model.impl.ModelImpl;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.definition.type.PartitionKey;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.drools.model.DSL.accFunction;
+import static org.drools.model.DSL.accumulate;
+import static org.drools.model.DSL.declarationOf;
+import static org.drools.model.DSL.execute;
+import static org.drools.model.DSL.exists;
+import static org.drools.model.DSL.not;
+import static org.drools.model.DSL.on;
+import static org.drools.model.PatternDSL.betaIndexedBy;
+import static org.drools.model.PatternDSL.pattern;
+import static org.drools.model.PatternDSL.propertyRead;
+import static org.drools.model.PatternDSL.query;
+import static org.drools.model.PatternDSL.reactOn;
+import static org.drools.model.PatternDSL.rule;
+
+public class ShardedKieSessionTest {
+
+    public static class Account {
+        @PartitionKey
+        private final String accountId;
+        private final String ownerId;
+
+        public Account(String accountId) {
+            this(accountId, null);
+        }
+
+        public Account(String accountId, String ownerId) {
+            this.accountId = accountId;
+            this.ownerId = ownerId;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public String getOwnerId() {
+            return ownerId;
+        }
+    }
+
+    public static class Trade {
+        @PartitionKey
+        private final String accountId;
+        private final int amount;
+
+        public Trade(String accountId, int amount) {
+            this.accountId = accountId;
+            this.amount = amount;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public int getAmount() {
+            return amount;
+        }
+    }
+
+    public static class Limit {
+        private final int value;
+
+        public Limit(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+
+    private final List<String> results = Collections.synchronizedList(new ArrayList<>());
+
+    private Rule largeTradeRule() {
+        Variable<Account> account = declarationOf(Account.class);
+        Variable<String> accountId = declarationOf(String.class);
+        Variable<Trade> trade = declarationOf(Trade.class);
+        Variable<Limit> limit = declarationOf(Limit.class);
+        return rule("largeTrade").build(
+                pattern(limit),
+                pattern(account).bind(accountId, Account::getAccountId, propertyRead("accountId")),
+                pattern(trade)
+                        .expr("sameAccount", accountId, (t, id) -> t.getAccountId().equals(id),
+                              betaIndexedBy(String.class, Index.ConstraintType.EQUAL, 0, Trade::getAccountId, id -> id),
+                              reactOn("accountId"))
+                        .expr("overLimit", limit, (t, l) -> t.getAmount() > l.getValue(), reactOn("amount")),
+                on(account, trade).execute((a, t) -> results.add(a.getAccountId() + ":" + t.getAmount())));
+    }
+
+    private Query tradesQuery() {
+        Query1Def<Trade> qdef = query("trades", Trade.class);
+        return qdef.build(pattern(qdef.getArg1()));
+    }
+
+    private List<Object> facts() {
+        List<Object> facts = new ArrayList<>();
+        facts.add(new Limit(50));
+        for (int i = 0; i < 40; i++) {
+            facts.add(new Account("A" + i));
+            for (int j = 0; j < 5; j++) {
+                facts.add(new Trade("A" + i, i + j * 20));
+            }
+        }
+        return facts;
+    }
+
+    @Test
+    public void testShardedSessionGivesSameResultsOfSingleSession() {
+        KieBase kieBase = KieBaseBuilder.createKieBaseFromModel(new ModelImpl().addRule(largeTradeRule()).addQuery(tradesQuery()));
+        assertThat(PartitionKeys.findCrossPartitionRules(kieBase)).isEmpty();
+
+        KieSession ksession = kieBase.newKieSession();
+        facts().forEach(ksession::insert);
+        int fired = ksession.fireAllRules();
+        List<String> expected = new ArrayList<>(results);
+        results.clear();
+        ksession.dispose();
+
+        try (ShardedKieSession sharded = new ShardedKieSession(kieBase, 4, null, true)) {
+            facts().forEach(sharded::insert);
+
+            assertThat(sharded.getFactCount()).isEqualTo(facts().size());
+            assertThat(sharded.getShardIndex(new Limit(1))).isEqualTo(-1);
+            assertThat(sharded.getShardIndex(new Trade("A1", 1))).isEqualTo(sharded.getShardIndex(new Account("A1")));
+            long usedShards = facts().stream().mapToInt(sharded::getShardIndex).filter(i -> i >= 0).distinct().count();
+            assertThat(usedShards).isGreaterThan(1);
+
+            assertThat(sharded.fireAllRules()).isEqualTo(fired);
+            assertThat(results).containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(sharded.getQueryResults("trades", org.kie.api.runtime.rule.Variable.v)).hasSize(200);
+        }
+    }
+
+    @Test
+    public void testRuleAndQueryOnReferenceDataAreEvaluatedInOneShard() {
+        Variable<Limit> limit = declarationOf(Limit.class);
+        Rule limitRule = rule("limit").build(
+                pattern(limit),
+                on(limit).execute(l -> results.add("limit:" + l.getValue())));
+        Query1Def<Limit> limitsQuery = query("limits", Limit.class);
+
+        KieBase kieBase = KieBaseBuilder.createKieBaseFromModel(new ModelImpl().addRule(largeTradeRule()).addRule(limitRule)
+                .addQuery(limitsQuery.build(pattern(limitsQuery.getArg1()))));
+
+        KieSession ksession = kieBase.newKieSession();
+        facts().forEach(ksession::insert);
+        int fired = ksession.fireAllRules();
+        List<String> expected = new ArrayList<>(results);
+        results.clear();
+        ksession.dispose();
+
+        try (ShardedKieSession sharded = new ShardedKieSession(kieBase, 4, null, true)) {
+            facts().forEach(sharded::insert);
+
+            // the limit is held by all the shards, but the rule matching only it is fired once
+            assertThat(sharded.fireAllRules()).isEqualTo(fired);
+            assertThat(results).containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(results).containsOnlyOnce("limit:50");
+            assertThat(sharded.getQueryResults("limits", org.kie.api.runtime.rule.Variable.v)).hasSize(1);
+
+            // the matches filtered out in the other shards are not fired later
+            assertThat(sharded.fireAllRules()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void testBroadcastFactIsUpdatedInAllShards() {
+        KieBase kieBase = KieBaseBuilder.createKieBaseFromModel(new ModelImpl().addRule(largeTradeRule()));
+
+        try (ShardedKieSession sharded = new ShardedKieSession(kieBase, 3)) {
+            FactHandle limitHandle = sharded.insert(new Limit(1000));
+            for (int i = 0; i < 30; i++) {
+                sharded.insert(new Account("A" + i));
+                sharded.insert(new Trade("A" + i, 100));
+            }
+            assertThat(sharded.fireAllRules()).isEqualTo(0);
+
+            sharded.update(limitHandle, new Limit(10));
+            assertThat(sharded.fireAllRules()).isEqualTo(30);
+
+            sharded.delete(limitHandle);
+            assertThat(sharded.getFactCount()).isEqualTo(60);
+        }
+    }
+
+    @Test
+    public void testCrossPartitionRuleIsRejected() {
+        Variable<Account> account = declarationOf(Account.class);
+        Variable<Trade> trade = declarationOf(Trade.class);
+        Rule crossRule = rule("anyTrade").build(
+                pattern(account),
+                pattern(trade).expr("notSameAccount", account, (t, a) -> !t.getAccountId().equals(a.getAccountId()), reactOn("accountId")),
+                on(account, trade).execute((a, t) -> results.add(a.getAccountId())));
+
+        Model model = new ModelImpl().addRule(largeTradeRule()).addRule(crossRule);
+        KieBase kieBase = KieBaseBuilder.createKieBaseFromModel(model);
+
+        assertThat(PartitionKeys.findCrossPartitionRules(kieBase).stream().map(RuleImpl::getName).collect(Collectors.toList()))
+                .containsExactly("anyTrade");
+        assertThatThrownBy(() -> new ShardedKieSession(kieBase, 2, null, true))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("anyTrade");
+    }
+
+    @Test
+    public void testJoinOnAnotherPropertyIsRejected() {
+        Variable<Account> account = declarationOf(Account.class);
+        Variable<String> ownerId = declarationOf(String.class);
+        Variable<Trade> trade = declarationOf(Trade.class);
+        // both sides of the equality must be partition keys: here the trade key is compared with the account owner
+        Rule ownerRule = rule("ownerTrade").build(
+                pattern(account).bind(ownerId, Account::getOwnerId, propertyRead("ownerId")),
+                pattern(trade).expr("ownedTrade", ownerId, (t, id) -> t.getAccountId().equals(id),
+                                    betaIndexedBy(String.class, Index.ConstraintType.EQUAL, 0, Trade::getAccountId, id -> id),
+                                    reactOn("accountId")),
+                on(account, trade).execute((a, t) -> results.add(a.getAccountId())));
+        // using the whole account fact, the property read from it can't be known
+        Rule wholeFactRule = rule("wholeFactTrade").build(
+                pattern(account),
+                pattern(trade).expr("ownedTrade", account, (t, a) -> t.getAccountId().equals(a.getOwnerId()),
+                                    betaIndexedBy(String.class, Index.ConstraintType.EQUAL, 0, Trade::getAccountId, Account::getOwnerId),
+                                    reactOn("accountId")),
+                on(account, trade).execute((a, t) -> results.add(a.getAccountId())));
+
+        // a value derived from the partition key, even if reacting on it, doesn't identify a single partition
+        Variable<String> accountPrefix = declarationOf(String.class);
+        Rule prefixRule = rule("prefixTrade").build(
+                pattern(account).bind(accountPrefix, a -> a.getAccountId().substring(0, 1), reactOn("accountId")),
+                pattern(trade).expr("samePrefix", accountPrefix, (t, p) -> t.getAccountId().substring(0, 1).equals(p), reactOn("accountId")),
+                on(account, trade).execute((a, t) -> results.add(a.getAccountId())));
+
+        KieBase kieBase = KieBaseBuilder.createKieBaseFromModel(new ModelImpl().addRule(largeTradeRule()).addRule(ownerRule).addRule(wholeFactRule).addRule(prefixRule));
+
+        assertThat(PartitionKeys.findCrossPartitionRules(kieBase).stream().map(RuleImpl::getName).collect(Collectors.toList()))
+                .containsExactlyInAnyOrder("ownerTrade", "wholeFactTrade", "prefixTrade");
+    }
+
+    @Test
+    public void testNestedPatternNotJoinedOnPartitionKeyIsRejected() {
+        Variable<Account> account = declarationOf(Account.class);
+        Variable<String> accountId = declarationOf(String.class);
+        Variable<Trade> trade = declarationOf(Trade.class);
+        Variable<Limit> limit = declarationOf(Limit.class);
+        Variable<Long> count = declarationOf(Long.class);
+
+        // a single partitioned pattern, but evaluating all the trades of all the partitions
+        Rule noTrades = rule("noTrades").build(
+                pattern(limit),
+                not(pattern(trade)),
+                on(limit).execute(l -> results.add("noTrades")));
+        Rule anyTrade = rule("anyTrade").build(
+                exists(pattern(trade)),
+                execute(() -> results.add("anyTrade")));
+        Rule tradesCount = rule("tradesCount").build(
+                accumulate(pattern(trade), accFunction(CountAccumulateFunction::new).as(count)),
+                on(count).execute(c -> results.add("tradesCount:" + c)));
+
+        // the same conditions, but restricted to the trades of the account matched outside of them
+        Rule accountWithoutTrades = rule("accountWithoutTrades").build(
+                pattern(account).bind(accountId, Account::getAccountId, propertyRead("accountId")),
+                not(pattern(trade).expr("sameAccount", accountId, (t, id) -> t.getAccountId().equals(id),
+                                        betaIndexedBy(String.class, Index.ConstraintType.EQUAL, 0, Trade::getAccountId, id -> id),
+                                        reactOn("accountId"))),
+                on(account).execute(a -> results.add(a.getAccountId())));
+        Rule accountTradesCount = rule("accountTradesCount").build(
+                pattern(account).bind(accountId, Account::getAccountId, propertyRead("accountId")),
+                accumulate(pattern(trade).expr("sameAccount", accountId, (t, id) -> t.getAccountId().equals(id),
+                                               betaIndexedBy(String.class, Index.ConstraintType.EQUAL, 0, Trade::getAccountId, id -> id),
+                                               reactOn("accountId")),
+                           accFunction(CountAccumulateFunction::new).as(count)),
+                on(account, count).execute((a, c) -> results.add(a.getAccountId() + ":" + c)));
+
+        KieBase kieBase = KieBaseBuilder.createKieBaseFromModel(new ModelImpl()
+                .addRule(noTrades).addRule(anyTrade).addRule(tradesCount)
+                .addRule(accountWithoutTrades).addRule(accountTradesCount));
+
+        assertThat(PartitionKeys.findCrossPartitionRules(kieBase).stream().map(RuleImpl::getName).collect(Collectors.toList()))
+                .containsExactlyInAnyOrder("noTrades", "anyTrade", "tradesCount");
+    }
+
+    @Test
+    public void testUpdateChangingPartitionKeyMovesFactToOtherShard() {
+        KieBase kieBase = KieBaseBuilder.createKieBaseFromModel(new ModelImpl().addRule(largeTradeRule()));
+
+        try (ShardedKieSession sharded = new ShardedKieSession(kieBase, 4)) {
+            String key1 = "A0";
+            String key2 = IntStream.range(1, 100).mapToObj(i -> "A" + i)
+                    .filter(key -> sharded.getShardIndex(new Account(key)) != sharded.getShardIndex(new Account(key1)))
+                    .findFirst().get();
+            int shard1 = sharded.getShardIndex(new Account(key1));
+            int shard2 = sharded.getShardIndex(new Account(key2));
+
+            // the first fact of each shard: their handles in the two sessions have the same id
+            FactHandle moved = sharded.insert(new Trade(key1, 100));
+            FactHandle other = sharded.insert(new Trade(key2, 200));
+            assertThat(moved.getId()).isEqualTo(other.getId());
+
+            sharded.update(moved, new Trade(key2, 300));
+            assertThat(((ShardedKieSession.ShardedFactHandle) moved).getShardIndex()).isEqualTo(shard2);
+            assertThat(sharded.getShard(shard1).getFactCount()).isEqualTo(0);
+            assertThat(sharded.getShard(shard2).getFactCount()).isEqualTo(2);
+
+            sharded.insert(new Limit(50));
+            sharded.insert(new Account(key2));
+            assertThat(sharded.fireAllRules()).isEqualTo(2);
+            assertThat(results).containsExactlyInAnyOrder(key2 + ":200", key2 + ":300");
+
+            sharded.delete(moved);
+            assertThat(sharded.getShard(shard2).getObjects()).extracting(o -> o instanceof Trade ? ((Trade) o).getAmount() : 0)
+                    .contains(200).doesNotContain(300);
+            assertThat(sharded.getShard(shard1).getObjects()).hasSize(1);
+        }
+    }
+
+    @Test
+    public void testDeleteBroadcastFact() {
+        KieBase kieBase = KieBaseBuilder.createKieBaseFromModel(new ModelImpl().addRule(largeTradeRule()));
+
+        try (ShardedKieSession sharded = new ShardedKieSession(kieBase, 3)) {
+            // make the handles of the broadcast fact have different ids in the different shards
+            sharded.insert(new Trade("A1", 100));
+            FactHandle limitHandle = sharded.insert(new Limit(10));
+            for (int i = 0; i < sharded.getShardsNumber(); i++) {
+                assertThat(((ShardedKieSession.ShardedFactHandle) limitHandle).getShardHandle(i)).isNotNull();
+            }
+            assertThat(sharded.getFactCount()).isEqualTo(2);
+
+            sharded.delete(limitHandle);
+            assertThat(sharded.getFactCount()).isEqualTo(1);
+            for (int i = 0; i < sharded.getShardsNumber(); i++) {
+                assertThat(sharded.getShard(i).getObjects()).noneMatch(Limit.class::isInstance);
+            }
+        }
+    }
+
+    @Test
+    public void testBroadcastFactIsCountedOnce() {
+        KieBase kieBase = KieBaseBuilder.createKieBaseFromModel(new ModelImpl().addRule(largeTradeRule()));
+
+        try (ShardedKieSession sharded = new ShardedKieSession(kieBase, 3)) {
+            sharded.insert(new Trade("A1", 100));
+            Limit limit = new Limit(10);
+            FactHandle limitHandle = sharded.insert(limit);
+            // in identity mode inserting the same instance again doesn't add a fact
+            FactHandle sameLimitHandle = sharded.insert(limit);
+            assertThat(sharded.getFactCount()).isEqualTo(2);
+
+            sharded.delete(limitHandle);
+            assertThat(sharded.getFactCount()).isEqualTo(1);
+            // neither deleting it twice removes another fact
+            sharded.delete(sameLimitHandle);
+            sharded.delete(limitHandle);
+            assertThat(sharded.getFactCount()).isEqualTo(1);
+
+            sharded.insert(new Limit(20));
+            assertThat(sharded.getFactCount()).isEqualTo(2);
+        }
+    }
+}
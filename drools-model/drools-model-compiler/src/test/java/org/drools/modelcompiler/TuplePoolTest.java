@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.modelcompiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.reteoo.BetaMemory;
+import org.drools.core.reteoo.JoinNode;
+import org.drools.core.reteoo.LeftTuplePool;
+import org.drools.core.reteoo.LeftTupleSink;
+import org.drools.core.reteoo.ObjectSink;
+import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.kiesession.rulebase.InternalKnowledgeBase;
+import org.drools.model.Index;
+import org.drools.model.Model;
+import org.drools.model.Variable;
+import org.drools.model.impl.ModelImpl;
+import org.drools.modelcompiler.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.internal.conf.TuplePoolSizeOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.drools.model.DSL.declarationOf;
+import static org.drools.model.DSL.on;
+import static org.drools.model.PatternDSL.betaIndexedBy;
+import static org.drools.model.PatternDSL.pattern;
+import static org.drools.model.PatternDSL.rule;
+
+public class TuplePoolTest {
+
+    private static final int PERSONS = 10;
+
+    private InternalKnowledgeBase createKieBase(int tuplePoolSize) {
+        Variable<Person> p1 = declarationOf(Person.class);
+        Variable<Person> p2 = declarationOf(Person.class);
+        Variable<Person> p3 = declarationOf(Person.class);
+        Model model = new ModelImpl().addRule(rule("olderThanPeers").build(
+                pattern(p1),
+                pattern(p2)
+                        .expr("sameAge", p1, (a, b) -> a.getAge() == b.getAge(),
+                              betaIndexedBy(int.class, Index.ConstraintType.EQUAL, 0, Person::getAge, Person::getAge)),
+                pattern(p3)
+                        .expr("older", p2, (c, b) -> c.getAge() > b.getAge()),
+                on(p1, p2, p3).execute((a, b, c) -> { })));
+        return KieBaseBuilder.createKieBaseFromModel(model, TuplePoolSizeOption.get(tuplePoolSize));
+    }
+
+    private static BetaMemory<?> getLastJoinMemory(InternalKnowledgeBase kbase, KieSession ksession) {
+        for (ObjectTypeNode otn : kbase.getRete().getObjectTypeNodes()) {
+            for (ObjectSink sink : otn.getObjectSinkPropagator().getSinks()) {
+                if (sink instanceof JoinNode && ((JoinNode) sink).getSinkPropagator().getFirstLeftTupleSink().getType() != ((JoinNode) sink).getType()) {
+                    return (BetaMemory<?>) ((ReteEvaluator) ksession).getNodeMemory((JoinNode) sink);
+                }
+            }
+        }
+        throw new IllegalStateException("No join node found");
+    }
+
+    private static List<FactHandle> insertPersons(KieSession ksession, int age) {
+        List<FactHandle> handles = new ArrayList<>();
+        for (int i = 0; i < PERSONS; i++) {
+            handles.add(ksession.insert(new Person("Person" + i, age)));
+        }
+        return handles;
+    }
+
+    private static int[] runChurn(InternalKnowledgeBase kbase, List<Integer> poolSizes) {
+        KieSession ksession = kbase.newKieSession();
+        int[] fired = new int[3];
+
+        List<FactHandle> handles = insertPersons(ksession, 30);
+        fired[0] = ksession.fireAllRules();
+        handles.forEach(ksession::delete);
+        ksession.fireAllRules();
+        poolSizes.add(getPoolSize(kbase, ksession));
+
+        insertPersons(ksession, 30);
+        Person older = new Person("Older", 40);
+        FactHandle olderHandle = ksession.insert(older);
+        fired[1] = ksession.fireAllRules();
+        poolSizes.add(getPoolSize(kbase, ksession));
+
+        older.setAge(20);
+        ksession.update(olderHandle, older);
+        ksession.fireAllRules();
+        older.setAge(50);
+        ksession.update(olderHandle, older);
+        fired[2] = ksession.fireAllRules();
+
+        ksession.dispose();
+        return fired;
+    }
+
+    private static int getPoolSize(InternalKnowledgeBase kbase, KieSession ksession) {
+        LeftTuplePool pool = getLastJoinMemory(kbase, ksession).getSegmentMemory().getTuplePool();
+        return pool == null ? -1 : pool.size();
+    }
+
+    @Test
+    public void testDeletedJoinTuplesAreRecycled() {
+        List<Integer> poolSizes = new ArrayList<>();
+        int[] fired = runChurn(createKieBase(1000), poolSizes);
+
+        // each couple of persons with the same age is a join tuple without any child, recycled when deleted
+        assertThat(poolSizes.get(0)).isEqualTo(PERSONS * PERSONS);
+        // then reused for the same couples inserted again
+        assertThat(poolSizes.get(1)).isEqualTo(0);
+
+        List<Integer> noPool = new ArrayList<>();
+        assertThat(fired).isEqualTo(runChurn(createKieBase(-1), noPool));
+        assertThat(noPool).containsExactly(-1, -1);
+        assertThat(fired[1]).isEqualTo(PERSONS * PERSONS);
+    }
+
+    @Test
+    public void testPoolIsBounded() {
+        List<Integer> poolSizes = new ArrayList<>();
+        runChurn(createKieBase(16), poolSizes);
+        assertThat(poolSizes.get(0)).isEqualTo(16);
+        assertThat(poolSizes.get(1)).isEqualTo(0);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.modelcompiler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.core.concurrent.VirtualThreads;
+import org.drools.model.Model;
+import org.drools.model.Rule;
+import org.drools.model.Variable;
+import org.drools.model.impl.ModelImpl;
+import org.drools.modelcompiler.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.api.runtime.conf.KieSessionOption;
+import org.kie.api.runtime.conf.TimedRuleExecutionOption;
+import org.kie.internal.runtime.conf.VirtualThreadsOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.drools.model.DSL.declarationOf;
+import static org.drools.model.DSL.on;
+import static org.drools.model.PatternDSL.pattern;
+import static org.drools.model.PatternDSL.rule;
+
+public class VirtualThreadsTest {
+
+    private static KieSession newSession(KieBase kieBase, KieSessionOption... options) {
+        KieSessionConfiguration conf = KieServices.get().newKieSessionConfiguration();
+        for (KieSessionOption option : options) {
+            conf.setOption(option);
+        }
+        conf.setOption(VirtualThreadsOption.YES);
+        return kieBase.newKieSession(conf, null);
+    }
+
+    @Test
+    public void testFireUntilHaltOnSessionThread() throws Exception {
+        List<String> names = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(3);
+        Variable<Person> p = declarationOf(Person.class);
+        Rule rule = rule("adult")
+                .build(pattern(p).expr("age", person -> person.getAge() >= 18),
+                       on(p).execute(person -> {
+                           names.add(person.getName());
+                           fired.countDown();
+                       }));
+        Model model = new ModelImpl().addRule(rule);
+        KieSession ksession = newSession(KieBaseBuilder.createKieBaseFromModel(model));
+        try {
+            Thread engine = VirtualThreads.threadFactory().newThread(ksession::fireUntilHalt);
+            engine.start();
+
+            // the engine thread rests waiting for new propagations, woken up by each insert
+            for (int i = 0; i < 3; i++) {
+                ksession.insert(new Person("Mario" + i, 40 + i));
+                ksession.insert(new Person("Child" + i, 5 + i));
+                Thread.sleep(20);
+            }
+            assertThat(fired.await(10, TimeUnit.SECONDS)).isTrue();
+
+            ksession.halt();
+            engine.join(10000);
+            assertThat(engine.isAlive()).isFalse();
+            assertThat(names).containsExactly("Mario0", "Mario1", "Mario2");
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    @Test
+    public void testTimerFiresOnSessionThread() throws Exception {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(1);
+        Variable<Person> p = declarationOf(Person.class);
+        Rule rule = rule("delayed")
+                .attribute(Rule.Attribute.TIMER, "int: 50ms")
+                .build(pattern(p),
+                       on(p).execute(person -> {
+                           threads.add(Thread.currentThread().getName());
+                           fired.countDown();
+                       }));
+        Model model = new ModelImpl().addRule(rule);
+        // timed rules are fired by the timer thread only when not firing until halt
+        KieSession ksession = newSession(KieBaseBuilder.createKieBaseFromModel(model), TimedRuleExecutionOption.YES);
+        try {
+            ksession.insert(new Person("Mario", 40));
+            ksession.fireAllRules();
+            assertThat(threads).isEmpty();
+
+            assertThat(fired.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(threads.get(0)).startsWith(VirtualThreads.THREAD_NAME_PREFIX);
+        } finally {
+            ksession.dispose();
+        }
+    }
+}
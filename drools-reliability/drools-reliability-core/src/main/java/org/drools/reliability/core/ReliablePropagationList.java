@@ -47,11 +47,16 @@ public class ReliablePropagationList extends SynchronizedPropagationList impleme
     }
 
     @Override
-    public synchronized PropagationEntry takeAll() {
-        PropagationEntry p = super.takeAll();
-        Storage<String, Object> componentsStorage = StorageManagerFactory.get().getStorageManager().getOrCreateStorageForSession(this.reteEvaluator, "components");
-        componentsStorage.put(PROPAGATION_LIST, this);
-        return p;
+    public PropagationEntry takeAll() {
+        lock.lock();
+        try {
+            PropagationEntry p = super.takeAll();
+            Storage<String, Object> componentsStorage = StorageManagerFactory.get().getStorageManager().getOrCreateStorageForSession(this.reteEvaluator, "components");
+            componentsStorage.put(PROPAGATION_LIST, this);
+            return p;
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
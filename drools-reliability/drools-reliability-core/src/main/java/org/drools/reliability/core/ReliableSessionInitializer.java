@@ -86,14 +86,21 @@ public class ReliableSessionInitializer {
 
         private void onWorkingMemoryAction(InternalWorkingMemory session, PropagationEntry entry) {
             if (entry instanceof PropagationEntry.Insert || entry instanceof PropagationEntry.Update) {
-                InternalFactHandle fh = ((PropagationEntry.AbstractPropagationEntry) entry).getHandle();
-                if (fh.isValid()) {
-                    WorkingMemoryEntryPoint ep = fh.getEntryPoint(session);
-                    ((SimpleReliableObjectStore) ep.getObjectStore()).putIntoPersistedStorage(fh, true);
+                putIntoPersistedStorage(session, ((PropagationEntry.AbstractPropagationEntry) entry).getHandle());
+            } else if (entry instanceof PropagationEntry.InsertBatch insertBatch) {
+                for (InternalFactHandle fh : insertBatch.getHandles()) {
+                    putIntoPersistedStorage(session, fh);
                 }
             }
         }
 
+        private void putIntoPersistedStorage(InternalWorkingMemory session, InternalFactHandle fh) {
+            if (fh.isValid()) {
+                WorkingMemoryEntryPoint ep = fh.getEntryPoint(session);
+                ((SimpleReliableObjectStore) ep.getObjectStore()).putIntoPersistedStorage(fh, true);
+            }
+        }
+
         private void populateSessionFromStorage(InternalWorkingMemory session) {
             Map<InternalWorkingMemoryEntryPoint, List<StoredObject>> notPropagatedByEntryPoint = new HashMap<>();
 
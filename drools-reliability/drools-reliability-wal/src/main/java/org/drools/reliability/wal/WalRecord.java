@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.reliability.wal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.drools.base.common.DroolsObjectInputStream;
+import org.drools.reliability.core.ReliabilityRuntimeException;
+
+/**
+ * A single change to a named storage. Keys and values are kept in their serialized form,
+ * so a record can be replayed or compacted without the classes of the stored objects.
+ */
+public class WalRecord {
+
+    public enum Type {
+        CREATE, PUT, REMOVE, CLEAR, DROP
+    }
+
+    private static final Type[] TYPES = Type.values();
+
+    private final Type type;
+    private final String storageName;
+    private final byte[] key;
+    private final byte[] value;
+
+    private WalRecord(Type type, String storageName, byte[] key, byte[] value) {
+        this.type = type;
+        this.storageName = storageName;
+        this.key = key;
+        this.value = value;
+    }
+
+    public static WalRecord create(String storageName) {
+        return new WalRecord(Type.CREATE, storageName, null, null);
+    }
+
+    public static WalRecord put(String storageName, byte[] key, byte[] value) {
+        return new WalRecord(Type.PUT, storageName, key, value);
+    }
+
+    public static WalRecord remove(String storageName, byte[] key) {
+        return new WalRecord(Type.REMOVE, storageName, key, null);
+    }
+
+    public static WalRecord clear(String storageName) {
+        return new WalRecord(Type.CLEAR, storageName, null, null);
+    }
+
+    public static WalRecord drop(String storageName) {
+        return new WalRecord(Type.DROP, storageName, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getStorageName() {
+        return storageName;
+    }
+
+    public byte[] getKey() {
+        return key;
+    }
+
+    public byte[] getValue() {
+        return value;
+    }
+
+    static byte[] encode(List<WalRecord> records) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(records.size());
+            for (WalRecord record : records) {
+                out.writeByte(record.type.ordinal());
+                out.writeUTF(record.storageName);
+                if (record.type == Type.PUT || record.type == Type.REMOVE) {
+                    writeBytes(out, record.key);
+                }
+                if (record.type == Type.PUT) {
+                    writeBytes(out, record.value);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static void decode(byte[] payload, Consumer<WalRecord> consumer) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                Type type = TYPES[in.readByte()];
+                String storageName = in.readUTF();
+                byte[] key = type == Type.PUT || type == Type.REMOVE ? readBytes(in) : null;
+                byte[] value = type == Type.PUT ? readBytes(in) : null;
+                consumer.accept(new WalRecord(type, storageName, key, value));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    public static byte[] toBytes(Object object) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Object fromBytes(byte[] bytes) {
+        try (ObjectInputStream in = new DroolsObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new ReliabilityRuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.reliability.wal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.drools.core.common.Storage;
+
+/**
+ * A storage whose content is kept in memory and whose changes are appended to the write-ahead log.
+ * <p>
+ * When batching, the changes are collected and committed as a single frame by {@link #flush()},
+ * which replaces the {@link org.drools.reliability.core.BatchingStorageDecorator} used by the other
+ * backends: changes not yet flushed are visible to this storage but lost by a crash, while the
+ * whole batch costs a single sequential write and force.
+ */
+public class WalStorage<K, V> implements Storage<K, V> {
+
+    private final String storageName;
+    private final Map<K, V> map;
+    private final WriteAheadLog wal;
+    private final boolean batching;
+
+    private final List<WalRecord> pendingRecords = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    static <K1, V1> Storage<K1, V1> fromMap(String storageName, Map<Object, Object> map, WriteAheadLog wal, boolean batching) {
+        return new WalStorage<>(storageName, (Map<K1, V1>) map, wal, batching);
+    }
+
+    private WalStorage(String storageName, Map<K, V> map, WriteAheadLog wal, boolean batching) {
+        this.storageName = storageName;
+        this.map = map;
+        this.wal = wal;
+        this.batching = batching;
+    }
+
+    @Override
+    public V get(K key) {
+        return map.get(key);
+    }
+
+    @Override
+    public V getOrDefault(K key, V value) {
+        return map.getOrDefault(key, value);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        pendingRecords.add(WalRecord.put(storageName, WalRecord.toBytes(key), WalRecord.toBytes(value)));
+        V previousValue = map.put(key, value);
+        commitUnlessBatching();
+        return previousValue;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> otherMap) {
+        for (Map.Entry<? extends K, ? extends V> entry : otherMap.entrySet()) {
+            pendingRecords.add(WalRecord.put(storageName, WalRecord.toBytes(entry.getKey()), WalRecord.toBytes(entry.getValue())));
+        }
+        map.putAll(otherMap);
+        commitUnlessBatching();
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public V remove(K key) {
+        V previousValue = map.remove(key);
+        if (previousValue != null) {
+            pendingRecords.add(WalRecord.remove(storageName, WalRecord.toBytes(key)));
+            commitUnlessBatching();
+        }
+        return previousValue;
+    }
+
+    @Override
+    public void clear() {
+        // like the other backends, clearing is not deferred to the next safepoint
+        pendingRecords.clear();
+        pendingRecords.add(WalRecord.clear(storageName));
+        map.clear();
+        flush();
+    }
+
+    @Override
+    public Collection<V> values() {
+        synchronized (map) {
+            return new ArrayList<>(map.values());
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        synchronized (map) {
+            return new LinkedHashSet<>(map.keySet());
+        }
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean requiresFlush() {
+        return batching;
+    }
+
+    @Override
+    public void flush() {
+        wal.commit(pendingRecords);
+        pendingRecords.clear();
+    }
+
+    private void commitUnlessBatching() {
+        if (!batching) {
+            flush();
+        }
+    }
+}
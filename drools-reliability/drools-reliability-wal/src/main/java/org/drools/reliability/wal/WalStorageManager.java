@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.reliability.wal;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.common.Storage;
+import org.drools.reliability.core.TestableStorageManager;
+import org.drools.util.FileUtils;
+import org.kie.api.runtime.conf.PersistedSessionOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.drools.reliability.core.StorageManager.createStorageId;
+import static org.drools.reliability.core.StorageManagerFactory.DELIMITER;
+import static org.drools.reliability.core.StorageManagerFactory.SESSION_STORAGE_PREFIX;
+import static org.drools.reliability.core.StorageManagerFactory.SHARED_STORAGE_PREFIX;
+import static org.drools.reliability.wal.WalStorageManagerFactory.WAL_STORAGE_DIRECTORY;
+import static org.drools.reliability.wal.WalStorageManagerFactory.WAL_STORAGE_SEGMENT_SIZE;
+import static org.drools.reliability.wal.WalStorageManagerFactory.WAL_STORAGE_SNAPSHOT_INTERVAL;
+import static org.drools.util.Config.getConfig;
+
+public class WalStorageManager implements TestableStorageManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WalStorageManager.class);
+
+    static final WalStorageManager INSTANCE = new WalStorageManager();
+
+    public static final String WAL_DIR = getConfig(WAL_STORAGE_DIRECTORY, "drools-wal");
+
+    private static final int SEGMENT_SIZE = Integer.parseInt(getConfig(WAL_STORAGE_SEGMENT_SIZE, String.valueOf(16 * 1024 * 1024)));
+    private static final int SNAPSHOT_INTERVAL = Integer.parseInt(getConfig(WAL_STORAGE_SNAPSHOT_INTERVAL, "8"));
+
+    private final Map<String, Map<Object, Object>> storages = new ConcurrentHashMap<>();
+
+    private WriteAheadLog wal;
+
+    private WalStorageManager() {
+    }
+
+    @Override
+    public void initStorageManager() {
+        LOG.info("Using WalStorageManager");
+        wal = WriteAheadLog.open(Path.of(WAL_DIR), SEGMENT_SIZE, SNAPSHOT_INTERVAL, this::replay);
+    }
+
+    private void replay(WalRecord record) {
+        switch (record.getType()) {
+            case CREATE:
+                storages.computeIfAbsent(record.getStorageName(), k -> newStorageMap());
+                break;
+            case PUT:
+                storages.computeIfAbsent(record.getStorageName(), k -> newStorageMap())
+                        .put(WalRecord.fromBytes(record.getKey()), WalRecord.fromBytes(record.getValue()));
+                break;
+            case REMOVE:
+                Map<Object, Object> map = storages.get(record.getStorageName());
+                if (map != null) {
+                    map.remove(WalRecord.fromBytes(record.getKey()));
+                }
+                break;
+            case CLEAR:
+                storages.computeIfAbsent(record.getStorageName(), k -> newStorageMap()).clear();
+                break;
+            case DROP:
+                storages.remove(record.getStorageName());
+                break;
+        }
+    }
+
+    private static Map<Object, Object> newStorageMap() {
+        // keeps the insertion order, so the facts are restored in the same order they have been stored
+        return Collections.synchronizedMap(new LinkedHashMap<>());
+    }
+
+    @Override
+    public <K, V> Storage<K, V> getOrCreateStorageForSession(ReteEvaluator reteEvaluator, PersistedSessionOption.SafepointStrategy safepointStrategy, String storageName) {
+        // the log batches the changes by itself, committing them in a single frame at each safepoint
+        return getOrCreateStorage(createStorageId(reteEvaluator, storageName), safepointStrategy.useSafepoints());
+    }
+
+    @Override
+    public <K, V> Storage<K, V> internalGetOrCreateStorageForSession(ReteEvaluator reteEvaluator, String storageName) {
+        return getOrCreateStorage(createStorageId(reteEvaluator, storageName), false);
+    }
+
+    @Override
+    public <K, V> Storage<K, V> getOrCreateSharedStorage(String storageName) {
+        return getOrCreateStorage(SHARED_STORAGE_PREFIX + storageName, false);
+    }
+
+    private <K, V> Storage<K, V> getOrCreateStorage(String storageId, boolean batching) {
+        Map<Object, Object> map = storages.get(storageId);
+        if (map == null) {
+            map = newStorageMap();
+            Map<Object, Object> existing = storages.putIfAbsent(storageId, map);
+            if (existing != null) {
+                map = existing;
+            } else {
+                wal.commit(Collections.singletonList(WalRecord.create(storageId)));
+            }
+        }
+        return WalStorage.fromMap(storageId, map, wal, batching);
+    }
+
+    @Override
+    public void close() {
+        wal.close();
+    }
+
+    @Override
+    public void removeStorage(String storageName) {
+        removeStorages(storageName::equals);
+    }
+
+    @Override
+    public void removeStoragesBySessionId(String sessionId) {
+        removeStorages(storageName -> storageName.startsWith(SESSION_STORAGE_PREFIX + sessionId + DELIMITER));
+    }
+
+    @Override
+    public void removeAllSessionStorages() {
+        removeStorages(storageName -> storageName.startsWith(SESSION_STORAGE_PREFIX));
+    }
+
+    private void removeStorages(Predicate<String> filter) {
+        List<WalRecord> records = new ArrayList<>();
+        for (String storageName : storages.keySet()) {
+            if (filter.test(storageName) && storages.remove(storageName) != null) {
+                records.add(WalRecord.drop(storageName));
+            }
+        }
+        wal.commit(records);
+    }
+
+    @Override
+    public Set<String> getStorageNames() {
+        return new HashSet<>(storages.keySet());
+    }
+
+    //--- test purpose
+
+    @Override
+    public void restart() {
+        // JVM crashed: only what has been committed to the log survives
+        wal.close();
+        wal = null;
+        storages.clear();
+
+        // Reboot
+        initStorageManager();
+    }
+
+    @Override
+    public void restartWithCleanUp() {
+        // JVM crashed
+        wal.close();
+        wal = null;
+        storages.clear();
+
+        // remove log files
+        cleanUpLog();
+
+        // Reboot
+        initStorageManager();
+    }
+
+    @Override
+    public boolean isRemote() {
+        return false;
+    }
+
+    public static void cleanUpLog() {
+        FileUtils.deleteDirectory(Path.of(WAL_DIR));
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.reliability.wal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.drools.reliability.core.ReliabilityRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only log of {@link WalRecord}s written to memory-mapped segment files.
+ * <p>
+ * Every {@link #commit(List)} appends its records as a single checksummed frame, so a batch
+ * is either replayed entirely or not at all. Concurrent commits share the same force of the
+ * mapped segment (group commit). When a segment is full the log rotates to a new one, and
+ * every {@code snapshotInterval} sealed segments a background task compacts the latest snapshot
+ * and the sealed segments into a new snapshot, deleting the files it made obsolete.
+ * <p>
+ * A snapshot named after segment {@code n} holds the state before segment {@code n}, so the
+ * state is rebuilt loading the latest snapshot and replaying the segments following it.
+ */
+public class WriteAheadLog {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".wal";
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private static final int FRAME_HEADER_SIZE = 8; // payload length + crc
+    private static final int SNAPSHOT_MAGIC = 0x44574C53;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int snapshotInterval;
+
+    private final ExecutorService compactor;
+
+    private final Object syncLock = new Object();
+    private final AtomicLong syncedPosition = new AtomicLong();
+
+    private Segment current;
+    private long appendedPosition;
+    private int sealedSinceSnapshot;
+    private Future<?> compaction;
+
+    private WriteAheadLog(Path directory, int segmentSize, int snapshotInterval) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.snapshotInterval = snapshotInterval;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "drools-wal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the log in the given directory, feeding the replayer with the records of the latest
+     * snapshot and of all the committed frames following it. New frames are always appended to a
+     * fresh segment, so a torn frame left by a crash is never overwritten nor followed by valid ones.
+     */
+    public static WriteAheadLog open(Path directory, int segmentSize, int snapshotInterval, Consumer<WalRecord> replayer) {
+        WriteAheadLog wal = new WriteAheadLog(directory, segmentSize, snapshotInterval);
+        try {
+            Files.createDirectories(directory);
+            long lastSegmentId = wal.replay(replayer);
+            wal.current = wal.createSegment(lastSegmentId + 1, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return wal;
+    }
+
+    /**
+     * Durably appends the given records as a single atomic frame
+     */
+    public void commit(List<WalRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        sync(append(WalRecord.encode(records)));
+    }
+
+    private synchronized long append(byte[] payload) {
+        int frameSize = FRAME_HEADER_SIZE + payload.length;
+        if (current.buffer.remaining() < frameSize) {
+            rotate(frameSize);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        current.buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        appendedPosition += frameSize;
+        return appendedPosition;
+    }
+
+    private void sync(long position) {
+        if (syncedPosition.get() >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            // another committer may have already forced the frames appended up to this position
+            if (syncedPosition.get() >= position) {
+                return;
+            }
+            Segment segment;
+            long target;
+            synchronized (this) {
+                segment = current;
+                target = appendedPosition;
+            }
+            segment.buffer.force();
+            syncedPosition.accumulateAndGet(target, Math::max);
+        }
+    }
+
+    private void rotate(int minSize) {
+        current.buffer.force();
+        syncedPosition.accumulateAndGet(appendedPosition, Math::max);
+        current.close();
+        try {
+            current = createSegment(current.id + 1, Math.max(segmentSize, minSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (++sealedSinceSnapshot >= snapshotInterval && (compaction == null || compaction.isDone())) {
+            sealedSinceSnapshot = 0;
+            long snapshotId = current.id;
+            compaction = compactor.submit(() -> compact(snapshotId));
+        }
+    }
+
+    public synchronized void close() {
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.warn("Compaction of {} did not complete in time", directory);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        current.buffer.force();
+        current.close();
+    }
+
+    private Segment createSegment(long id, int size) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    private long replay(Consumer<WalRecord> replayer) throws IOException {
+        List<Long> snapshotIds = listIds(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        long firstSegmentId = 0;
+        if (!snapshotIds.isEmpty()) {
+            firstSegmentId = snapshotIds.get(snapshotIds.size() - 1);
+            readSnapshot(snapshotPath(firstSegmentId), replayer);
+        }
+
+        long lastSegmentId = firstSegmentId;
+        for (long segmentId : listIds(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (segmentId >= firstSegmentId) {
+                readSegment(segmentPath(segmentId), replayer);
+                lastSegmentId = segmentId;
+            }
+        }
+        return lastSegmentId;
+    }
+
+    private void readSegment(Path path, Consumer<WalRecord> replayer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.remaining() >= FRAME_HEADER_SIZE) {
+                int length = buffer.getInt();
+                if (length <= 0 || length + 4 > buffer.remaining()) {
+                    // end of the written part of the segment, or a frame torn by a crash
+                    return;
+                }
+                int expectedCrc = buffer.getInt();
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != expectedCrc) {
+                    LOG.warn("Discarding a torn frame at the end of {}", path);
+                    return;
+                }
+                WalRecord.decode(payload, replayer);
+            }
+        }
+    }
+
+    private void compact(long snapshotId) {
+        try {
+            Map<String, Map<Key, byte[]>> state = new LinkedHashMap<>();
+            Consumer<WalRecord> collector = record -> apply(state, record);
+
+            long firstSegmentId = 0;
+            for (long id : listIds(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                if (id < snapshotId) {
+                    firstSegmentId = id;
+                }
+            }
+            if (firstSegmentId > 0) {
+                readSnapshot(snapshotPath(firstSegmentId), collector);
+            }
+            List<Long> segmentIds = listIds(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            for (long segmentId : segmentIds) {
+                if (segmentId >= firstSegmentId && segmentId < snapshotId) {
+                    readSegment(segmentPath(segmentId), collector);
+                }
+            }
+
+            writeSnapshot(snapshotId, state);
+
+            for (long id : listIds(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                if (id < snapshotId) {
+                    Files.deleteIfExists(snapshotPath(id));
+                }
+            }
+            for (long segmentId : segmentIds) {
+                if (segmentId < snapshotId) {
+                    Files.deleteIfExists(segmentPath(segmentId));
+                }
+            }
+            LOG.debug("Compacted {} up to segment {}", directory, snapshotId);
+        } catch (IOException | RuntimeException e) {
+            // the log is still complete without the new snapshot, it will be retried at the next rotation
+            LOG.error("Failed to compact " + directory, e);
+        }
+    }
+
+    private static void apply(Map<String, Map<Key, byte[]>> state, WalRecord record) {
+        switch (record.getType()) {
+            case CREATE:
+                state.computeIfAbsent(record.getStorageName(), k -> new LinkedHashMap<>());
+                break;
+            case PUT:
+                state.computeIfAbsent(record.getStorageName(), k -> new LinkedHashMap<>()).put(new Key(record.getKey()), record.getValue());
+                break;
+            case REMOVE:
+                Map<Key, byte[]> storage = state.get(record.getStorageName());
+                if (storage != null) {
+                    storage.remove(new Key(record.getKey()));
+                }
+                break;
+            case CLEAR:
+                state.computeIfAbsent(record.getStorageName(), k -> new LinkedHashMap<>()).clear();
+                break;
+            case DROP:
+                state.remove(record.getStorageName());
+                break;
+        }
+    }
+
+    private void writeSnapshot(long snapshotId, Map<String, Map<Key, byte[]>> state) throws IOException {
+        Path tmp = directory.resolve(SNAPSHOT_PREFIX + snapshotId + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(Channels.newOutputStream(channel), crc)));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(state.size());
+            for (Map.Entry<String, Map<Key, byte[]>> storage : state.entrySet()) {
+                out.writeUTF(storage.getKey());
+                out.writeInt(storage.getValue().size());
+                for (Map.Entry<Key, byte[]> entry : storage.getValue().entrySet()) {
+                    WalRecord.writeBytes(out, entry.getKey().bytes);
+                    WalRecord.writeBytes(out, entry.getValue());
+                }
+            }
+            out.flush();
+            ByteBuffer checksum = ByteBuffer.allocate(Long.BYTES).putLong(crc.getValue());
+            checksum.flip();
+            channel.write(checksum);
+            channel.force(true);
+        }
+        Files.move(tmp, snapshotPath(snapshotId), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void readSnapshot(Path path, Consumer<WalRecord> replayer) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        int contentLength = bytes.length - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, Math.max(contentLength, 0));
+        if (contentLength < 0 || ByteBuffer.wrap(bytes, contentLength, Long.BYTES).getLong() != crc.getValue()) {
+            throw new ReliabilityRuntimeException("Corrupted write-ahead log snapshot " + path);
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, contentLength))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new ReliabilityRuntimeException("Invalid write-ahead log snapshot " + path);
+            }
+            int storages = in.readInt();
+            for (int i = 0; i < storages; i++) {
+                String storageName = in.readUTF();
+                replayer.accept(WalRecord.create(storageName));
+                int entries = in.readInt();
+                for (int j = 0; j < entries; j++) {
+                    replayer.accept(WalRecord.put(storageName, WalRecord.readBytes(in), WalRecord.readBytes(in)));
+                }
+            }
+        }
+    }
+
+    private List<Long> listIds(String prefix, String suffix) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> ids.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()))));
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private Path snapshotPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, id, SNAPSHOT_SUFFIX));
+    }
+
+    private static class Segment {
+
+        private final long id;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(long id, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private void close() {
+            // the mapping stays valid after the channel is closed, so pending forces are still safe
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close segment " + id, e);
+            }
+        }
+    }
+
+    /**
+     * A serialized key compared by content, used when compacting without deserializing the stored objects
+     */
+    private static class Key {
+
+        private final byte[] bytes;
+        private final int hashCode;
+
+        private Key(byte[] bytes) {
+            this.bytes = bytes;
+            this.hashCode = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Key && Arrays.equals(bytes, ((Key) o).bytes));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
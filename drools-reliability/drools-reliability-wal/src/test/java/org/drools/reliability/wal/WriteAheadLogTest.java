@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.reliability.wal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteAheadLogTest {
+
+    private static final String STORAGE = "session_1_ep0";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void committedRecordsAreReplayed() {
+        WriteAheadLog wal = WriteAheadLog.open(directory, 4096, 8, r -> {});
+        wal.commit(Arrays.asList(WalRecord.create(STORAGE), put(1L, "a"), put(2L, "b")));
+        wal.commit(Arrays.asList(put(3L, "c"), WalRecord.remove(STORAGE, WalRecord.toBytes(1L))));
+        wal.close();
+
+        assertThat(replay()).containsOnlyKeys(STORAGE);
+        assertThat(replay().get(STORAGE)).containsExactly(Map.entry(2L, "b"), Map.entry(3L, "c"));
+    }
+
+    @Test
+    void tornFrameIsDiscarded() throws IOException {
+        WriteAheadLog wal = WriteAheadLog.open(directory, 4096, 8, r -> {});
+        wal.commit(Arrays.asList(put(1L, "a")));
+        wal.commit(Arrays.asList(put(2L, "b"), put(3L, "c")));
+        wal.close();
+
+        // corrupt the payload of the second frame, as if the crash happened while writing it
+        Path segment = files(WriteAheadLog.SEGMENT_SUFFIX).get(0);
+        int secondFrame = 8 + WalRecord.encode(Arrays.asList(put(1L, "a"))).length;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0x7F, 0x7F, 0x7F }), secondFrame + 12L);
+        }
+
+        assertThat(replay().get(STORAGE)).containsExactly(Map.entry(1L, "a"));
+    }
+
+    @Test
+    void segmentsAreRotatedAndCompacted() throws Exception {
+        WriteAheadLog wal = WriteAheadLog.open(directory, 1024, 2, r -> {});
+        for (long i = 0; i < 200; i++) {
+            wal.commit(Arrays.asList(put(i % 20, "value" + i)));
+        }
+        wal.close(); // waits for the pending compaction
+
+        assertThat(files(WriteAheadLog.SNAPSHOT_SUFFIX)).hasSize(1);
+
+        Map<Object, Object> storage = replay().get(STORAGE);
+        assertThat(storage).hasSize(20);
+        for (long i = 180; i < 200; i++) {
+            assertThat(storage.get(i % 20)).isEqualTo("value" + i);
+        }
+    }
+
+    @Test
+    void dropRemovesTheStorage() {
+        WriteAheadLog wal = WriteAheadLog.open(directory, 4096, 8, r -> {});
+        wal.commit(Arrays.asList(put(1L, "a"), WalRecord.create("shared_globals")));
+        wal.commit(Arrays.asList(WalRecord.drop(STORAGE)));
+        wal.close();
+
+        assertThat(replay()).containsOnlyKeys("shared_globals");
+    }
+
+    private static WalRecord put(Object key, Object value) {
+        return WalRecord.put(STORAGE, WalRecord.toBytes(key), WalRecord.toBytes(value));
+    }
+
+    private Map<String, Map<Object, Object>> replay() {
+        Map<String, Map<Object, Object>> state = new HashMap<>();
+        WriteAheadLog wal = WriteAheadLog.open(directory, 4096, 8, record -> {
+            switch (record.getType()) {
+                case CREATE:
+                    state.computeIfAbsent(record.getStorageName(), k -> new LinkedHashMap<>());
+                    break;
+                case PUT:
+                    state.computeIfAbsent(record.getStorageName(), k -> new LinkedHashMap<>())
+                            .put(WalRecord.fromBytes(record.getKey()), WalRecord.fromBytes(record.getValue()));
+                    break;
+                case REMOVE:
+                    state.get(record.getStorageName()).remove(WalRecord.fromBytes(record.getKey()));
+                    break;
+                case CLEAR:
+                    state.get(record.getStorageName()).clear();
+                    break;
+                case DROP:
+                    state.remove(record.getStorageName());
+                    break;
+            }
+        });
+        wal.close();
+        return state;
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            list.filter(path -> path.toString().endsWith(suffix)).sorted().forEach(files::add);
+        }
+        return files;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import com.google.protobuf.ExtensionRegistry;
+import org.drools.core.common.ObjectStore;
+import org.drools.core.common.PropagationContext;
+import org.kie.api.marshalling.ObjectMarshallingStrategy;
+
+/**
+ * Feeds the session being read with the fact handle chunks following the first one, without loading the whole
+ * session in memory. By default each chunk is decoded on the reading thread when its handles are needed.
+ * When an executor is given, a bounded number of chunks is decoded ahead on it, so that the unmarshalling of
+ * the objects proceeds in parallel with the insertion of the handles, which has to happen on the reading thread.
+ * In this case the strategies are invoked concurrently, sharing the same reader context, so they must be thread safe.
+ */
+public class ChunkedFactHandlesReader implements ProtobufInputMarshaller.FactHandlesReader {
+
+    private static final int CHUNKS_READ_AHEAD = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final SessionChunkReader reader;
+    private final ExtensionRegistry registry;
+    private final Executor executor;
+
+    private final Deque<CompletableFuture<DecodedChunk>> pendingChunks = new ArrayDeque<>();
+    private boolean endOfChunks;
+
+    public ChunkedFactHandlesReader( SessionChunkReader reader, ExtensionRegistry registry ) {
+        this( reader, registry, null );
+    }
+
+    /**
+     * @param executor the executor decoding the chunks in parallel, or null to decode them on the reading thread
+     */
+    public ChunkedFactHandlesReader( SessionChunkReader reader, ExtensionRegistry registry, Executor executor ) {
+        this.reader = reader;
+        this.registry = registry;
+        this.executor = executor;
+    }
+
+    @Override
+    public void readFactHandles( ProtobufMarshallerReaderContext context,
+                                 ProtobufMessages.EntryPoint _ep,
+                                 ObjectStore objectStore,
+                                 List<PropagationContext> pctxs ) throws IOException, ClassNotFoundException {
+        // the chunks of an entry point are contiguous and follow the order of the entry points in the session
+        for ( DecodedChunk chunk = peekChunk( context ); chunk != null && chunk.entryPoint.getEntryPointId().equals( _ep.getEntryPointId() ); chunk = peekChunk( context ) ) {
+            pendingChunks.poll();
+            ProtobufInputMarshaller.readFactHandles( context, chunk.entryPoint, chunk.objects, objectStore, pctxs );
+        }
+    }
+
+    private DecodedChunk peekChunk( ProtobufMarshallerReaderContext context ) throws IOException, ClassNotFoundException {
+        // decoding ahead on the reading thread would only retain more chunks in memory
+        int readAhead = executor == null ? 1 : CHUNKS_READ_AHEAD;
+        Executor decodingExecutor = executor == null ? Runnable::run : executor;
+        while ( !endOfChunks && pendingChunks.size() < readAhead ) {
+            ProtobufMessages.Header _header = reader.next( registry );
+            if ( _header == null ) {
+                endOfChunks = true;
+            } else {
+                pendingChunks.add( CompletableFuture.supplyAsync( () -> decode( context, _header ), decodingExecutor ) );
+            }
+        }
+
+        if ( pendingChunks.isEmpty() ) {
+            return null;
+        }
+        try {
+            return pendingChunks.peek().get();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new IOException( e );
+        } catch ( ExecutionException e ) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if ( cause instanceof IOException ) {
+                throw (IOException) cause;
+            }
+            if ( cause instanceof ClassNotFoundException ) {
+                throw (ClassNotFoundException) cause;
+            }
+            throw new RuntimeException( cause );
+        }
+    }
+
+    private DecodedChunk decode( ProtobufMarshallerReaderContext context, ProtobufMessages.Header _header ) {
+        try {
+            Map<Integer, ObjectMarshallingStrategy> usedStrategies = new HashMap<>();
+            Map<ObjectMarshallingStrategy, ObjectMarshallingStrategy.Context> strategyContexts = new HashMap<>();
+            PersisterHelper.loadStrategiesCheckSignature( context, _header, usedStrategies, strategyContexts );
+
+            ProtobufMessages.EntryPoint _ep = ProtobufMessages.EntryPoint.parseFrom( _header.getPayload(), registry );
+            Object[] objects = new Object[_ep.getHandleCount()];
+            ClassLoader classLoader = (context.getKnowledgeBase() == null) ? null : context.getKnowledgeBase().getRootClassLoader();
+            for ( int i = 0; i < objects.length; i++ ) {
+                ProtobufMessages.FactHandle _handle = _ep.getHandle( i );
+                if ( _handle.hasStrategyIndex() ) {
+                    ObjectMarshallingStrategy strategy = usedStrategies.get( _handle.getStrategyIndex() );
+                    objects[i] = strategy.unmarshal( strategyContexts.get( strategy ),
+                                                     context,
+                                                     _handle.getObject().toByteArray(),
+                                                     classLoader );
+                }
+            }
+            return new DecodedChunk( _ep, objects );
+        } catch ( IOException | ClassNotFoundException e ) {
+            throw new CompletionException( e );
+        }
+    }
+
+    private static class DecodedChunk {
+        private final ProtobufMessages.EntryPoint entryPoint;
+        private final Object[] objects;
+
+        private DecodedChunk( ProtobufMessages.EntryPoint entryPoint, Object[] objects ) {
+            this.entryPoint = entryPoint;
+            this.objects = objects;
+        }
+    }
+}
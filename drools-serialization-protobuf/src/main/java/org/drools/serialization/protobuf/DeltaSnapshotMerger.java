@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.protobuf.ByteString;
+import org.kie.api.marshalling.ObjectMarshallingStrategy;
+
+/**
+ * Folds a base snapshot and a chain of deltas, each one written with {@link ProtobufMarshaller#marshallDelta}
+ * against the snapshot preceding it, into a single full snapshot that can be read with the usual unmarshall.
+ * <p>
+ * A delta only contains the fact handles changed since the previous snapshot, while a handle without a type is
+ * a tombstone for a deleted fact. Everything else (agenda, timers, node memories, TMS and process data) is
+ * always written in full, so it is taken as is from the last delta of the chain.
+ */
+public class DeltaSnapshotMerger {
+
+    private DeltaSnapshotMerger() { }
+
+    public static void merge( List<ProtobufMarshallerReaderContext> snapshots,
+                              ProtobufMarshallerWriteContext out ) throws IOException, ClassNotFoundException {
+        if ( snapshots.isEmpty() ) {
+            throw new IllegalArgumentException( "At least the base snapshot is required" );
+        }
+
+        List<ProtobufMessages.KnowledgeSession> sessions = new ArrayList<>( snapshots.size() );
+        for ( ProtobufMarshallerReaderContext snapshot : snapshots ) {
+            sessions.add( ProtobufInputMarshaller.loadAndParseSession( snapshot ) );
+        }
+
+        ProtobufMarshallerReaderContext lastContext = snapshots.get( snapshots.size() - 1 );
+        ProtobufMessages.KnowledgeSession lastSession = sessions.get( sessions.size() - 1 );
+
+        // the last delta is copied verbatim, so the merged snapshot starts from its strategies and their contexts
+        for ( Map.Entry<Integer, ObjectMarshallingStrategy> entry : lastContext.getUsedStrategies().entrySet() ) {
+            out.getUsedStrategies().put( entry.getValue(), entry.getKey() );
+            out.getStrategyContext().put( entry.getValue(), lastContext.getStrategyContexts().get( entry.getValue() ) );
+        }
+
+        Map<String, TreeMap<Long, SnapshotHandle>> handlesByEntryPoint = new HashMap<>();
+        for ( int i = 0; i < sessions.size(); i++ ) {
+            for ( ProtobufMessages.EntryPoint _ep : sessions.get( i ).getRuleData().getEntryPointList() ) {
+                TreeMap<Long, SnapshotHandle> handles = handlesByEntryPoint.computeIfAbsent( _ep.getEntryPointId(), k -> new TreeMap<>() );
+                for ( ProtobufMessages.FactHandle _handle : _ep.getHandleList() ) {
+                    if ( _handle.hasType() ) {
+                        handles.put( _handle.getId(), new SnapshotHandle( _handle, snapshots.get( i ) ) );
+                    } else {
+                        for ( TreeMap<Long, SnapshotHandle> epHandles : handlesByEntryPoint.values() ) {
+                            epHandles.remove( _handle.getId() );
+                        }
+                    }
+                }
+            }
+        }
+
+        ProtobufMessages.RuleData.Builder _ruleData = lastSession.getRuleData().toBuilder().clearEntryPoint();
+        for ( ProtobufMessages.EntryPoint _ep : lastSession.getRuleData().getEntryPointList() ) {
+            ProtobufMessages.EntryPoint.Builder _epb = _ep.toBuilder().clearHandle();
+            for ( SnapshotHandle handle : handlesByEntryPoint.get( _ep.getEntryPointId() ).values() ) {
+                _epb.addHandle( handle.context == lastContext ? handle.handle : remarshal( handle, out ) );
+            }
+            _ruleData.addEntryPoint( _epb.build() );
+        }
+
+        PersisterHelper.writeToStreamWithHeader( out, lastSession.toBuilder().setRuleData( _ruleData.build() ).build() );
+    }
+
+    private static ProtobufMessages.FactHandle remarshal( SnapshotHandle snapshotHandle,
+                                                          ProtobufMarshallerWriteContext out ) throws IOException, ClassNotFoundException {
+        ProtobufMessages.FactHandle _handle = snapshotHandle.handle;
+        if ( !_handle.hasStrategyIndex() ) {
+            return _handle;
+        }
+
+        // the object refers to the strategy context of the snapshot it comes from
+        ProtobufMarshallerReaderContext context = snapshotHandle.context;
+        ObjectMarshallingStrategy strategy = context.getUsedStrategies().get( _handle.getStrategyIndex() );
+        Object object = strategy.unmarshal( context.getStrategyContexts().get( strategy ),
+                                            context,
+                                            _handle.getObject().toByteArray(),
+                                            (context.getKnowledgeBase() == null) ? null : context.getKnowledgeBase().getRootClassLoader() );
+
+        Integer index = out.getStrategyIndex( strategy );
+        return _handle.toBuilder()
+                .setStrategyIndex( index )
+                .setObject( ByteString.copyFrom( strategy.marshal( out.getStrategyContext().get( strategy ), out, object ) ) )
+                .build();
+    }
+
+    private static class SnapshotHandle {
+        private final ProtobufMessages.FactHandle handle;
+        private final ProtobufMarshallerReaderContext context;
+
+        private SnapshotHandle( ProtobufMessages.FactHandle handle, ProtobufMarshallerReaderContext context ) {
+            this.handle = handle;
+            this.context = context;
+        }
+    }
+}
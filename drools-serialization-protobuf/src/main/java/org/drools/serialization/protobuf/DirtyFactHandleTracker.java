@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.drools.core.common.InternalFactHandle;
+import org.kie.api.event.rule.ObjectDeletedEvent;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.event.rule.ObjectUpdatedEvent;
+import org.kie.api.event.rule.RuleRuntimeEventListener;
+import org.kie.api.runtime.rule.FactHandle;
+
+/**
+ * Keeps track of the fact handles inserted, updated or deleted in a session since the last
+ * snapshot, so that {@link ProtobufMarshaller#marshallDelta} only has to write those handles.
+ * It has to be registered as a RuleRuntimeEventListener on the session being snapshotted and
+ * only sees changes notified to the engine: an object mutated without calling update() is not
+ * considered dirty.
+ */
+public class DirtyFactHandleTracker implements RuleRuntimeEventListener {
+
+    private final Map<String, Map<Long, InternalFactHandle>> changedHandles = new HashMap<>();
+    private final Set<Long> deletedHandles = new HashSet<>();
+
+    @Override
+    public synchronized void objectInserted(ObjectInsertedEvent event) {
+        markChanged( event.getFactHandle() );
+    }
+
+    @Override
+    public synchronized void objectUpdated(ObjectUpdatedEvent event) {
+        markChanged( event.getFactHandle() );
+    }
+
+    @Override
+    public synchronized void objectDeleted(ObjectDeletedEvent event) {
+        InternalFactHandle handle = (InternalFactHandle) event.getFactHandle();
+        for ( Map<Long, InternalFactHandle> handles : changedHandles.values() ) {
+            handles.remove( handle.getId() );
+        }
+        deletedHandles.add( handle.getId() );
+    }
+
+    private void markChanged(FactHandle factHandle) {
+        InternalFactHandle handle = (InternalFactHandle) factHandle;
+        changedHandles.computeIfAbsent( handle.getEntryPointName(), k -> new HashMap<>() ).put( handle.getId(), handle );
+        deletedHandles.remove( handle.getId() );
+    }
+
+    public synchronized List<InternalFactHandle> getChangedHandles(String entryPointId) {
+        Map<Long, InternalFactHandle> handles = changedHandles.get( entryPointId );
+        return handles == null ? new ArrayList<>() : new ArrayList<>( handles.values() );
+    }
+
+    public synchronized long[] getDeletedHandleIds() {
+        return deletedHandles.stream().mapToLong( Long::longValue ).sorted().toArray();
+    }
+
+    public synchronized boolean isDirty() {
+        return !deletedHandles.isEmpty() || changedHandles.values().stream().anyMatch( handles -> !handles.isEmpty() );
+    }
+
+    /**
+     * Forgets all the changes tracked so far, making the snapshot just taken the base of the following delta.
+     */
+    public synchronized void reset() {
+        changedHandles.clear();
+        deletedHandles.clear();
+    }
+}
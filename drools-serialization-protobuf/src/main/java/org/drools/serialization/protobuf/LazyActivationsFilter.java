@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.drools.base.base.ClassObjectType;
+import org.drools.base.base.ObjectType;
+import org.drools.base.reteoo.NodeTypeEnums;
+import org.drools.core.common.InternalAgenda;
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.common.InternalWorkingMemory;
+import org.drools.core.common.PropagationContext;
+import org.drools.core.event.rule.impl.RuleRuntimeEventImpl;
+import org.drools.core.phreak.RuleAgendaItem;
+import org.drools.core.reteoo.BetaNode;
+import org.drools.core.reteoo.LeftTupleSource;
+import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.core.reteoo.RightInputAdapterNode;
+import org.drools.core.reteoo.TerminalNode;
+import org.drools.core.rule.consequence.InternalMatch;
+import org.drools.kiesession.session.StatefulKnowledgeSessionImpl;
+import org.drools.serialization.protobuf.marshalling.ActivationKey;
+import org.kie.api.event.rule.ObjectDeletedEvent;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.event.rule.ObjectUpdatedEvent;
+import org.kie.api.event.rule.RuleRuntimeEventListener;
+import org.drools.util.bitmask.BitMask;
+import org.kie.api.runtime.rule.Match;
+
+/**
+ * An activations filter that doesn't require the whole network to be evaluated while a session is restored.
+ * Only the rules whose restore depends on the reader context (timers, query elements and async nodes, also when
+ * nested in a not, exists or accumulate) or that justify logically inserted facts are evaluated eagerly; the others
+ * stay on the agenda and are evaluated the first time they are fired, as with any other dirty rule.
+ * <p>
+ * For this reason the filter stays on the agenda after the restore, until every dormant activation, i.e. a match
+ * that was already fired when the session was marshalled, has been recreated once, or has been invalidated by an
+ * update or a delete of one of its facts, that would have made it fire again on an eagerly restored session.
+ * As for the property reactivity of the network, an update invalidates a dormant activation only if it modifies
+ * a property listened by a pattern of its rule on the type of the updated fact.
+ */
+public class LazyActivationsFilter extends ProtobufInputMarshaller.PBActivationsFilter implements RuleRuntimeEventListener {
+
+    private final Map<String, Integer> dormantActivationsByRule = new HashMap<>();
+    private final Map<Object, List<ActivationKey>> dormantActivationsByTupleElement = new HashMap<>();
+
+    private boolean restoring = true;
+    private StatefulKnowledgeSessionImpl session;
+
+    @Override
+    public synchronized void addDormantActivation(ActivationKey key) {
+        if ( dormantActivations.add( key ) ) {
+            dormantActivationsByRule.merge( ruleName( key ), 1, Integer::sum );
+            for ( Object element : key.getTuple() ) {
+                dormantActivationsByTupleElement.computeIfAbsent( element, e -> new ArrayList<>() ).add( key );
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean accept(Match match) {
+        if ( restoring ) {
+            return super.accept( match );
+        }
+
+        InternalMatch internalMatch = (InternalMatch) match;
+        if ( !dormantActivationsByRule.containsKey( internalMatch.getRule().getFullyQualifiedName() ) ) {
+            return true;
+        }
+        return !consumeDormantActivation( createActivationKey( internalMatch ) );
+    }
+
+    @Override
+    public void accept(RuleAgendaItem activation) {
+        if ( restoring ) {
+            super.accept( activation );
+        }
+    }
+
+    /**
+     * Evaluates the rules that can't be evaluated lazily, leaving the others on the agenda.
+     */
+    public void evaluateEagerRNEAs(final InternalWorkingMemory wm) {
+        for ( RuleAgendaItem rai : rneaToFire ) {
+            if ( requiresEagerEvaluation( rai ) ) {
+                rai.getRuleExecutor().evaluateNetworkIfDirty( wm );
+            }
+        }
+    }
+
+    /**
+     * Evaluates only the rules of the given activation keys, whose tuples are needed to restore the logical dependencies.
+     */
+    public void fireRNEAs(final InternalWorkingMemory wm, final Set<String> ruleNames) {
+        for ( Iterator<RuleAgendaItem> it = rneaToFire.iterator(); it.hasNext(); ) {
+            RuleAgendaItem rai = it.next();
+            if ( ruleNames.contains( rai.getRule().getFullyQualifiedName() ) ) {
+                rai.getRuleExecutor().evaluateNetworkIfDirty( wm );
+                rai.getRuleExecutor().removeRuleAgendaItemWhenEmpty( wm );
+                it.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void restoreCompleted(StatefulKnowledgeSessionImpl session, InternalAgenda agenda) {
+        restoring = false;
+        getTuplesCache().clear();
+
+        // the dormant activations of the rules already evaluated during the restore have been recreated, if still valid
+        Set<String> lazyRules = new HashSet<>();
+        for ( RuleAgendaItem rai : rneaToFire ) {
+            if ( rai.getRuleExecutor().isDirty() ) {
+                lazyRules.add( rai.getRule().getFullyQualifiedName() );
+            }
+        }
+        for ( Iterator<ActivationKey> it = dormantActivations.iterator(); it.hasNext(); ) {
+            ActivationKey key = it.next();
+            if ( !lazyRules.contains( ruleName( key ) ) ) {
+                it.remove();
+                dormantActivationsByRule.remove( ruleName( key ) );
+                removeFromTupleElementIndex( key );
+            }
+        }
+
+        if ( dormantActivations.isEmpty() ) {
+            dormantActivationsByTupleElement.clear();
+            super.restoreCompleted( session, agenda );
+        } else {
+            this.session = session;
+            session.addEventListener( this );
+        }
+    }
+
+    @Override
+    public void objectInserted(ObjectInsertedEvent event) {
+        // a new fact can't be part of a dormant activation
+    }
+
+    @Override
+    public synchronized void objectUpdated(ObjectUpdatedEvent event) {
+        Object object = event.getObject();
+        PropagationContext context = ( (RuleRuntimeEventImpl) event ).getPropagationContext();
+        invalidateDormantActivations( (InternalFactHandle) event.getFactHandle(), object, key -> isReactingTo( key, object, context ) );
+    }
+
+    @Override
+    public synchronized void objectDeleted(ObjectDeletedEvent event) {
+        invalidateDormantActivations( (InternalFactHandle) event.getFactHandle(), event.getOldObject(), key -> true );
+    }
+
+    private void invalidateDormantActivations(InternalFactHandle handle, Object object, Predicate<ActivationKey> invalidated) {
+        // the tuple of an activation key contains either the ids of the fact handles or the objects
+        invalidateDormantActivations( handle.getId(), invalidated );
+        if ( object != null ) {
+            invalidateDormantActivations( object, invalidated );
+        }
+    }
+
+    private void invalidateDormantActivations(Object tupleElement, Predicate<ActivationKey> invalidated) {
+        List<ActivationKey> keys = dormantActivationsByTupleElement.get( tupleElement );
+        if ( keys == null ) {
+            return;
+        }
+        List<ActivationKey> invalidatedKeys = new ArrayList<>();
+        for ( Iterator<ActivationKey> it = keys.iterator(); it.hasNext(); ) {
+            ActivationKey key = it.next();
+            if ( invalidated.test( key ) ) {
+                it.remove();
+                invalidatedKeys.add( key );
+            }
+        }
+        if ( keys.isEmpty() ) {
+            dormantActivationsByTupleElement.remove( tupleElement );
+        }
+        // consuming the last dormant activation clears the index, so it is done only after having updated it
+        invalidatedKeys.forEach( this::consumeDormantActivation );
+    }
+
+    /**
+     * Returns true if the update of the given object, with the modification mask of the given context, would have
+     * been propagated to the tuples of the rule of the given key: it is the case when a left input adapter or the right
+     * input of a beta node on the path of the rule is on the type of the object and listens to a modified property.
+     */
+    private boolean isReactingTo(ActivationKey key, Object object, PropagationContext context) {
+        TerminalNode[] terminalNodes = session.getKnowledgeBase().getReteooBuilder().getTerminalNodes( ruleName( key ) );
+        if ( terminalNodes == null ) {
+            return true;
+        }
+        for ( TerminalNode terminalNode : terminalNodes ) {
+            if ( isReactingTo( terminalNode.getLeftTupleSource(), null, object, context ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isReactingTo(LeftTupleSource node, LeftTupleSource stopNode, Object object, PropagationContext context) {
+        for ( ; node != null && node != stopNode; node = node.getLeftTupleSource() ) {
+            if ( node.getType() == NodeTypeEnums.LeftInputAdapterNode ) {
+                BitMask listenedMask = node.getSinkPropagator().getFirstLeftTupleSink().getLeftInferredMask();
+                if ( isReactingTo( node.getObjectTypeNode(), listenedMask, object, context ) ) {
+                    return true;
+                }
+            } else if ( NodeTypeEnums.isBetaNode( node ) ) {
+                BetaNode betaNode = (BetaNode) node;
+                if ( betaNode.isRightInputIsRiaNode() ) {
+                    // the patterns of a subnetwork are on the path from its right input adapter back to where it starts
+                    RightInputAdapterNode riaNode = (RightInputAdapterNode) betaNode.getRightInput();
+                    if ( isReactingTo( riaNode.getLeftTupleSource(), riaNode.getStartTupleSource(), object, context ) ) {
+                        return true;
+                    }
+                } else if ( isReactingTo( betaNode.getObjectTypeNode(), betaNode.getRightInferredMask(), object, context ) ) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isReactingTo(ObjectTypeNode otn, BitMask listenedMask, Object object, PropagationContext context) {
+        if ( otn == null ) {
+            return true;
+        }
+        ObjectType objectType = otn.getObjectType();
+        if ( objectType instanceof ClassObjectType && !( (ClassObjectType) objectType ).getClassType().isInstance( object ) ) {
+            return false;
+        }
+        return context.adaptModificationMaskForObjectType( objectType, session ).getModificationMask().intersects( listenedMask );
+    }
+
+    private boolean consumeDormantActivation(ActivationKey key) {
+        if ( !dormantActivations.remove( key ) ) {
+            return false;
+        }
+        dormantActivationsByRule.computeIfPresent( ruleName( key ), (rule, count) -> count == 1 ? null : count - 1 );
+        if ( dormantActivations.isEmpty() && !restoring ) {
+            // nothing left to filter, the session can go on as if it had been eagerly restored
+            dormantActivationsByTupleElement.clear();
+            session.getAgenda().setActivationsFilter( null );
+            session.removeEventListener( this );
+        }
+        return true;
+    }
+
+    private void removeFromTupleElementIndex(ActivationKey key) {
+        for ( Object element : key.getTuple() ) {
+            List<ActivationKey> keys = dormantActivationsByTupleElement.get( element );
+            if ( keys != null && keys.remove( key ) && keys.isEmpty() ) {
+                dormantActivationsByTupleElement.remove( element );
+            }
+        }
+    }
+
+    private static String ruleName(ActivationKey key) {
+        return key.getPkgName() + "." + key.getRuleName();
+    }
+
+    private static boolean requiresEagerEvaluation(RuleAgendaItem rai) {
+        return requiresEagerEvaluation( rai.getTerminalNode().getLeftTupleSource(), null );
+    }
+
+    private static boolean requiresEagerEvaluation(LeftTupleSource node, LeftTupleSource stopNode) {
+        for ( ; node != null && node != stopNode; node = node.getLeftTupleSource() ) {
+            switch ( node.getType() ) {
+                case NodeTypeEnums.TimerConditionNode:
+                case NodeTypeEnums.QueryElementNode:
+                case NodeTypeEnums.AsyncSendNode:
+                case NodeTypeEnums.AsyncReceiveNode:
+                    // these nodes need the reader context, only available during the restore, to recreate their state
+                    return true;
+            }
+            if ( NodeTypeEnums.isBetaNode( node ) && ( (BetaNode) node ).isRightInputIsRiaNode() ) {
+                // the nodes of a not, exists or accumulate subnetwork are on the path from its right input adapter
+                RightInputAdapterNode riaNode = (RightInputAdapterNode) ( (BetaNode) node ).getRightInput();
+                if ( requiresEagerEvaluation( riaNode.getLeftTupleSource(), riaNode.getStartTupleSource() ) ) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
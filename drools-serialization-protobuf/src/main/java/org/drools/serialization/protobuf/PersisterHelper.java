@@ -28,6 +28,7 @@ import java.security.SignatureException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import com.google.protobuf.ByteString;
@@ -151,6 +152,16 @@ public class PersisterHelper extends MarshallingHelper {
     
     public static void writeToStreamWithHeader( MarshallerWriteContext context,
                                                 Message payload ) throws IOException {
+        context.write( buildHeader( context, payload, true ).toByteArray() );
+    }
+
+    /**
+     * Wraps the payload in a signed header indexing the strategies currently used by the context.
+     * The runtime defined classes can be left out for the headers of a chunked session after the first one.
+     */
+    public static ProtobufMessages.Header buildHeader( MarshallerWriteContext context,
+                                                       Message payload,
+                                                       boolean withRuntimeDefinedClasses ) throws IOException {
         ProtobufMessages.Header.Builder _header = ProtobufMessages.Header.newBuilder();
         _header.setVersion( ProtobufMessages.Version.newBuilder()
                                             .setVersionMajor( Drools.getMajorVersion() )
@@ -161,7 +172,7 @@ public class PersisterHelper extends MarshallingHelper {
         writeStrategiesIndex( context, _header );
 
         InternalRuleBase kBase = context.getKnowledgeBase();
-        if (kBase != null) {
+        if (kBase != null && withRuntimeDefinedClasses) {
             TraitFactory traitFactory = RuntimeComponentFactory.get().getTraitFactory(kBase);
             if (traitFactory != null) {
                 writeRuntimeDefinedClasses(traitFactory, context, _header);
@@ -172,7 +183,7 @@ public class PersisterHelper extends MarshallingHelper {
         sign( _header, buff );
         _header.setPayload( ByteString.copyFrom( buff ) );
 
-        context.write( _header.build().toByteArray() );
+        return _header.build();
     }
 
     private static void writeRuntimeDefinedClasses( TraitFactory traitFactory, MarshallerWriteContext context, ProtobufMessages.Header.Builder _header) {
@@ -232,8 +243,19 @@ public class PersisterHelper extends MarshallingHelper {
         }
     }
     
-    private static ProtobufMessages.Header loadStrategiesCheckSignature( MarshallerReaderContext context, ProtobufMessages.Header _header) throws ClassNotFoundException, IOException {
-        loadStrategiesIndex( context, _header );
+    public static ProtobufMessages.Header loadStrategiesCheckSignature( MarshallerReaderContext context, ProtobufMessages.Header _header) throws ClassNotFoundException, IOException {
+        return loadStrategiesCheckSignature( context, _header, context.getUsedStrategies(), context.getStrategyContexts() );
+    }
+
+    /**
+     * Loads the strategies indexed by the header into the given maps instead of the ones of the context,
+     * so that the chunks of a session, each one with its own strategies, can be decoded independently.
+     */
+    public static ProtobufMessages.Header loadStrategiesCheckSignature( MarshallerReaderContext context,
+                                                                        ProtobufMessages.Header _header,
+                                                                        Map<Integer, ObjectMarshallingStrategy> usedStrategies,
+                                                                        Map<ObjectMarshallingStrategy, Context> strategyContexts) throws ClassNotFoundException, IOException {
+        loadStrategiesIndex( context, _header, usedStrategies, strategyContexts );
 
         byte[] sessionbuff = _header.getPayload().toByteArray();
 
@@ -267,15 +289,18 @@ public class PersisterHelper extends MarshallingHelper {
         return preloaded.toByteArray();
     }
 
-	private static void loadStrategiesIndex( MarshallerReaderContext context, ProtobufMessages.Header _header) throws IOException, ClassNotFoundException {
+	private static void loadStrategiesIndex( MarshallerReaderContext context,
+                                             ProtobufMessages.Header _header,
+                                             Map<Integer, ObjectMarshallingStrategy> usedStrategies,
+                                             Map<ObjectMarshallingStrategy, Context> strategyContexts) throws IOException, ClassNotFoundException {
         for ( ProtobufMessages.Header.StrategyIndex _entry : _header.getStrategyList() ) {
             ObjectMarshallingStrategy strategyObject = context.getResolverStrategyFactory().getStrategyObject( _entry.getName() );
             if ( strategyObject == null ) {
                 throw new IllegalStateException( "No strategy of type " + _entry.getName() + " available." );
             }
-            context.getUsedStrategies().put( _entry.getId(), strategyObject );
+            usedStrategies.put( _entry.getId(), strategyObject );
             Context ctx = strategyObject.createContext();
-            context.getStrategyContexts().put( strategyObject, ctx );
+            strategyContexts.put( strategyObject, ctx );
             if( _entry.hasData() && ctx != null ) {
 		        ClassLoader classLoader = null;
                 if (context.getClassLoader() != null ){
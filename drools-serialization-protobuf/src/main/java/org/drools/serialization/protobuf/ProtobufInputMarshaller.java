@@ -52,11 +52,11 @@ import org.drools.core.reteoo.TerminalNode;
 import org.drools.core.reteoo.Tuple;
 import org.drools.core.rule.accessor.FactHandleFactory;
 import org.drools.core.rule.consequence.InternalMatch;
+import org.drools.core.time.SessionPseudoClock;
 import org.drools.core.time.impl.CompositeMaxDurationTrigger;
 import org.drools.core.time.impl.CronTrigger;
 import org.drools.core.time.impl.IntervalTrigger;
 import org.drools.core.time.impl.PointInTimeTrigger;
-import org.drools.core.time.impl.PseudoClockScheduler;
 import org.drools.kiesession.entrypoints.NamedEntryPoint;
 import org.drools.kiesession.factory.PhreakWorkingMemoryFactory;
 import org.drools.kiesession.session.StatefulKnowledgeSessionImpl;
@@ -89,6 +89,7 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -182,8 +183,8 @@ public class ProtobufInputMarshaller {
         return session;
     }
 
-    private static ProtobufMessages.KnowledgeSession loadAndParseSession( MarshallerReaderContext context) throws IOException,
-                                                                                                         ClassNotFoundException {
+    static ProtobufMessages.KnowledgeSession loadAndParseSession( MarshallerReaderContext context) throws IOException,
+                                                                                                 ClassNotFoundException {
         ExtensionRegistry registry = PersisterHelper.buildRegistry( context, PROCESS_MARSHALLER);
 
         ProtobufMessages.Header _header = PersisterHelper.readFromStreamWithHeaderPreloaded( context, registry );
@@ -191,18 +192,66 @@ public class ProtobufInputMarshaller {
         return ProtobufMessages.KnowledgeSession.parseFrom( _header.getPayload(), registry );
     }
 
+    /**
+     * Reads a session written by {@link ProtobufOutputMarshaller#writeSessionInChunks}. When an executor is given,
+     * the fact handle chunks are decoded, unmarshalling their objects, in parallel on it while the handles of the
+     * previous ones are inserted in the session, which requires thread safe strategies. When it is null they are
+     * decoded on the calling thread.
+     */
+    public static ReadSessionResult readSessionInChunks( ProtobufMarshallerReaderContext context,
+                                                         SessionChunkReader reader,
+                                                         Executor executor,
+                                                         int id,
+                                                         Environment environment,
+                                                         SessionConfiguration config,
+                                                         KieSessionInitializer initializer) throws IOException, ClassNotFoundException {
+        ExtensionRegistry registry = PersisterHelper.buildRegistry( context, PROCESS_MARSHALLER );
+
+        ProtobufMessages.Header _header = reader.next( registry );
+        if ( _header == null ) {
+            throw new IllegalStateException( "No session available in the given chunks" );
+        }
+        PersisterHelper.loadStrategiesCheckSignature( context, _header );
+        ProtobufMessages.KnowledgeSession _session = ProtobufMessages.KnowledgeSession.parseFrom( _header.getPayload(), registry );
+
+        StatefulKnowledgeSessionImpl session = createAndInitializeSession( context,
+                                                                           id,
+                                                                           environment,
+                                                                           config,
+                                                                           _session );
+        if (initializer != null) {
+            initializer.init( session );
+        }
+
+        return new ReadSessionResult(readSession(_session,
+                                                 session,
+                                                 session.getAgenda(),
+                                                 context,
+                                                 new ChunkedFactHandlesReader( reader, registry, executor )),
+                                     _session);
+    }
+
     public static StatefulKnowledgeSessionImpl readSession( ProtobufMessages.KnowledgeSession _session,
                                                             StatefulKnowledgeSessionImpl session,
                                                             InternalAgenda agenda,
                                                             ProtobufMarshallerReaderContext context) throws IOException,
                                                                                     ClassNotFoundException {
+        return readSession( _session, session, agenda, context, ProtobufInputMarshaller::readFactHandles );
+    }
+
+    private static StatefulKnowledgeSessionImpl readSession( ProtobufMessages.KnowledgeSession _session,
+                                                             StatefulKnowledgeSessionImpl session,
+                                                             InternalAgenda agenda,
+                                                             ProtobufMarshallerReaderContext context,
+                                                             FactHandlesReader factHandlesReader) throws IOException,
+                                                                                    ClassNotFoundException {
         GlobalResolver globalResolver = (GlobalResolver) context.env.get( EnvironmentName.GLOBALS );
         if ( globalResolver != null ) {
             session.setGlobalResolver( globalResolver );
         }
 
-        if ( session.getTimerService() instanceof PseudoClockScheduler ) {
-            PseudoClockScheduler clock = (PseudoClockScheduler) session.getTimerService();
+        if ( session.getTimerService() instanceof SessionPseudoClock ) {
+            SessionPseudoClock clock = (SessionPseudoClock) session.getTimerService();
             clock.advanceTime( _session.getTime(),
                                TimeUnit.MILLISECONDS );
         }
@@ -223,7 +272,7 @@ public class ProtobufInputMarshaller {
 
         for ( ProtobufMessages.EntryPoint _ep : _session.getRuleData().getEntryPointList() ) {
             WorkingMemoryEntryPoint wmep = context.getWorkingMemory().getEntryPoint(_ep.getEntryPointId());
-            readFactHandles( context, _ep, wmep.getObjectStore(), pctxs );
+            factHandlesReader.readFactHandles( context, _ep, wmep.getObjectStore(), pctxs );
 
             context.getWorkingMemory().getFactHandleFactory().doRecycleIds( context.getHandles().keySet() );
 
@@ -231,7 +280,12 @@ public class ProtobufInputMarshaller {
 
         }
 
-        context.getFilter().evaluateRNEAs( context.getWorkingMemory() );
+        if ( context.getFilter() instanceof LazyActivationsFilter && _session.getRuleData().getActionQueue().getActionCount() == 0 ) {
+            ((LazyActivationsFilter) context.getFilter()).evaluateEagerRNEAs( context.getWorkingMemory() );
+        } else {
+            // the queued actions may refer to the tuples of any rule
+            context.getFilter().evaluateRNEAs( context.getWorkingMemory() );
+        }
         cleanReaderContexts( pctxs );
         context.getWorkingMemory().getFactHandleFactory().stopRecycleIds();
 
@@ -272,10 +326,10 @@ public class ProtobufInputMarshaller {
             context.timerNodeSchedulers.clear();
         }
 
-        context.getFilter().removeEmptyRNEAs( context.getWorkingMemory() );
-
         // remove the activations filter
-        agenda.setActivationsFilter( null );
+        context.getFilter().restoreCompleted( session, agenda );
+
+        context.getFilter().removeEmptyRNEAs( context.getWorkingMemory() );
 
         return session;
     }
@@ -405,13 +459,28 @@ public class ProtobufInputMarshaller {
                                         ObjectStore objectStore,
                                         List<PropagationContext> pctxs) throws IOException,
                                                                           ClassNotFoundException {
+        readFactHandles( context, _ep, null, objectStore, pctxs );
+    }
+
+    /**
+     * Loads the handles of the entry point, using the already unmarshalled objects when they are provided.
+     */
+    public static void readFactHandles( ProtobufMarshallerReaderContext context,
+                                        ProtobufMessages.EntryPoint _ep,
+                                        Object[] objects,
+                                        ObjectStore objectStore,
+                                        List<PropagationContext> pctxs) throws IOException,
+                                                                          ClassNotFoundException {
         InternalWorkingMemory wm = context.getWorkingMemory();
 
         EntryPoint entryPoint = context.getWorkingMemory().getEntryPoint(_ep.getEntryPointId());
         
         // load the handles
-        for ( ProtobufMessages.FactHandle _handle : _ep.getHandleList() ) {
-            InternalFactHandle handle = readFactHandle( context, entryPoint, _handle );
+        for ( int i = 0; i < _ep.getHandleCount(); i++ ) {
+            ProtobufMessages.FactHandle _handle = _ep.getHandle( i );
+            InternalFactHandle handle = objects != null ?
+                    createFactHandle( entryPoint, _handle, objects[i] ) :
+                    readFactHandle( context, entryPoint, _handle );
 
             context.getHandles().put( handle.getId(), handle );
 
@@ -473,7 +542,12 @@ public class ProtobufInputMarshaller {
                                          (context.getKnowledgeBase() == null) ? null : context.getKnowledgeBase().getRootClassLoader() );
         }
 
+        return createFactHandle( entryPoint, _handle, object );
+    }
 
+    public static InternalFactHandle createFactHandle( EntryPoint entryPoint,
+                                                       FactHandle _handle,
+                                                       Object object ) {
         InternalFactHandle handle;
         switch ( _handle.getType() ) {
             case FACT : {
@@ -558,7 +632,11 @@ public class ProtobufInputMarshaller {
             }
             tms.put( key );
 
-            context.getFilter().fireRNEAs( context.getWorkingMemory() );
+            if ( context.getFilter() instanceof LazyActivationsFilter ) {
+                ((LazyActivationsFilter) context.getFilter()).fireRNEAs( context.getWorkingMemory(), getJustifyingRules( _key ) );
+            } else {
+                context.getFilter().fireRNEAs( context.getWorkingMemory() );
+            }
             readBeliefSet( context, tms, _key );
         }
 
@@ -567,6 +645,14 @@ public class ProtobufInputMarshaller {
         }
     }
 
+    private static Set<String> getJustifyingRules( ProtobufMessages.EqualityKey _key ) {
+        Set<String> rules = new HashSet<>();
+        for ( ProtobufMessages.LogicalDependency _logicalDependency : _key.getBeliefSet().getLogicalDependencyList() ) {
+            rules.add( _logicalDependency.getActivation().getPackageName() + "." + _logicalDependency.getActivation().getRuleName() );
+        }
+        return rules;
+    }
+
     private static void readBeliefSet( MarshallerReaderContext context,
                                        TruthMaintenanceSystem tms,
                                        ProtobufMessages.EqualityKey _key) throws IOException,
@@ -720,9 +806,9 @@ public class ProtobufInputMarshaller {
 
     public static class PBActivationsFilter implements ActivationsFilter, AgendaFilter {
 
-        private final Set<ActivationKey> dormantActivations = new HashSet<>();
+        protected final Set<ActivationKey> dormantActivations = new HashSet<>();
         private final Map<ActivationKey, Tuple> tuplesCache = new HashMap<>();
-        private final Queue<RuleAgendaItem> rneaToFire = new ConcurrentLinkedQueue<>();
+        protected final Queue<RuleAgendaItem> rneaToFire = new ConcurrentLinkedQueue<>();
 
         private boolean serializedNodeMemories = false;
 
@@ -733,17 +819,21 @@ public class ProtobufInputMarshaller {
         @Override
         public boolean accept(Match match) {
             InternalMatch internalMatch = (InternalMatch) match;
-            RuleImpl rule = internalMatch.getRule();
-            TerminalNode rtn = internalMatch.getRuleAgendaItem().getTerminalNode();
-            ActivationKey activationKey = PersisterHelper.hasNodeMemory( rtn ) && !serializedNodeMemories ?
-                    PersisterHelper.createActivationKey(rule.getPackageName(), rule.getName(), internalMatch.getTuple().toObjects(true)) :
-                    PersisterHelper.createActivationKey(rule.getPackageName(), rule.getName(), internalMatch.getTuple());
+            ActivationKey activationKey = createActivationKey( internalMatch );
 
             this.tuplesCache.put(activationKey, internalMatch.getTuple());
 
             return !dormantActivations.contains(activationKey);
         }
 
+        protected ActivationKey createActivationKey(InternalMatch internalMatch) {
+            RuleImpl rule = internalMatch.getRule();
+            TerminalNode rtn = internalMatch.getRuleAgendaItem().getTerminalNode();
+            return PersisterHelper.hasNodeMemory( rtn ) && !serializedNodeMemories ?
+                    PersisterHelper.createActivationKey(rule.getPackageName(), rule.getName(), internalMatch.getTuple().toObjects(true)) :
+                    PersisterHelper.createActivationKey(rule.getPackageName(), rule.getName(), internalMatch.getTuple());
+        }
+
         @Override
         public void accept(RuleAgendaItem activation) {
             rneaToFire.add( activation );
@@ -778,5 +868,19 @@ public class ProtobufInputMarshaller {
         public void withSerializedNodeMemories() {
             serializedNodeMemories = true;
         }
+
+        public void restoreCompleted(StatefulKnowledgeSessionImpl session, InternalAgenda agenda) {
+            agenda.setActivationsFilter( null );
+        }
+    }
+
+    /**
+     * Loads into the session the fact handles of an entry point.
+     */
+    public interface FactHandlesReader {
+        void readFactHandles( ProtobufMarshallerReaderContext context,
+                              ProtobufMessages.EntryPoint _ep,
+                              ObjectStore objectStore,
+                              List<PropagationContext> pctxs ) throws IOException, ClassNotFoundException;
     }
 }
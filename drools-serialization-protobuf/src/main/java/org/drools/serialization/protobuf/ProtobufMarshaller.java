@@ -18,11 +18,20 @@
  */
 package org.drools.serialization.protobuf;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.drools.core.RuleBaseConfiguration;
 import org.drools.core.SessionConfiguration;
@@ -57,6 +66,37 @@ public class ProtobufMarshaller
 
     protected KieSessionInitializer initializer;
 
+    protected boolean lazyNetworkEvaluation;
+
+    public boolean isLazyNetworkEvaluation() {
+        return lazyNetworkEvaluation;
+    }
+
+    /**
+     * When enabled, the rules of an unmarshalled session are not evaluated upfront but, as for any other change
+     * to the session, the first time they are fired. This makes the restore of large sessions far quicker, since
+     * only the agenda, the timers and the rules they depend on are restored eagerly.
+     */
+    public void setLazyNetworkEvaluation( boolean lazyNetworkEvaluation ) {
+        this.lazyNetworkEvaluation = lazyNetworkEvaluation;
+    }
+
+    protected Executor parallelDecodingExecutor;
+
+    public Executor getParallelDecodingExecutor() {
+        return parallelDecodingExecutor;
+    }
+
+    /**
+     * When set, the fact handle chunks of a session read from a channel or a buffer are decoded in parallel
+     * on the given executor, while the previous ones are inserted in the session. The object marshalling strategies
+     * are then invoked concurrently, sharing the same reader context, so this must be enabled only when all of them
+     * are thread safe. By default, or when set to null, the chunks are decoded on the reading thread.
+     */
+    public void setParallelDecodingExecutor( Executor parallelDecodingExecutor ) {
+        this.parallelDecodingExecutor = parallelDecodingExecutor;
+    }
+
     public KieSessionInitializer getInitializer() {
         return initializer;
     }
@@ -72,6 +112,11 @@ public class ProtobufMarshaller
         TIMER_READERS.put( ProtobufMessages.Timers.TimerType.TIMER_NODE_VALUE, new TimerNodeTimerInputMarshaller() );
     }
 
+    /**
+     * The maximum number of fact handles in each chunk when a session is written to a channel or a buffer.
+     */
+    public static final int FACT_HANDLES_PER_CHUNK = 4096;
+
     protected KieBase                             kbase;
     protected RuleBaseConfiguration               ruleBaseConfig;
     protected MarshallingConfiguration            marshallingConfig;
@@ -111,6 +156,36 @@ public class ProtobufMarshaller
     public void marshall(final OutputStream stream,
                          final KieSession ksession,
                          final long clockTime) throws IOException {
+        marshall( stream, ksession, clockTime, null );
+    }
+
+    /**
+     * Writes a full snapshot of the session and resets the given tracker, making this snapshot
+     * the base of the deltas subsequently written with {@link #marshallDelta}.
+     */
+    public void marshall(final OutputStream stream,
+                         final KieSession ksession,
+                         final DirtyFactHandleTracker tracker) throws IOException {
+        marshall( stream, ksession, ksession.getSessionClock().getCurrentTime() );
+        tracker.reset();
+    }
+
+    /**
+     * Writes only the fact handles changed since the previous snapshot, as reported by the given tracker,
+     * and then resets it, so that each delta is relative to the one preceding it. The resulting chain can be
+     * read back only through {@link #mergeDeltas} or {@link #unmarshall(InputStream, List, KieSessionConfiguration, Environment)}.
+     */
+    public void marshallDelta(final OutputStream stream,
+                              final KieSession ksession,
+                              final DirtyFactHandleTracker tracker) throws IOException {
+        marshall( stream, ksession, ksession.getSessionClock().getCurrentTime(), tracker );
+        tracker.reset();
+    }
+
+    private void marshall(final OutputStream stream,
+                          final KieSession ksession,
+                          final long clockTime,
+                          final DirtyFactHandleTracker tracker) throws IOException {
         ((InternalWorkingMemory) ksession).flushPropagations();
         ProtobufMarshallerWriteContext context = new ProtobufMarshallerWriteContext( stream,
                                                                      (InternalKnowledgeBase) kbase,
@@ -121,10 +196,128 @@ public class ProtobufMarshaller
                                                                      this.marshallingConfig.isMarshallWorkItems(),
                                                                      ksession.getEnvironment() );
         context.setClockTime( clockTime );
-        ProtobufOutputMarshaller.writeSession( context );
+        ProtobufOutputMarshaller.writeSession( context, tracker );
         context.close();
     }
 
+    public void marshall(final WritableByteChannel channel,
+                         final KieSession ksession) throws IOException {
+        marshallInChunks( SessionChunkWriter.forChannel( channel ), ksession );
+    }
+
+    /**
+     * Writes the session directly into the buffer, typically a MappedByteBuffer, starting from its current position.
+     */
+    public void marshall(final ByteBuffer buffer,
+                         final KieSession ksession) throws IOException {
+        marshallInChunks( SessionChunkWriter.forBuffer( buffer ), ksession );
+    }
+
+    private void marshallInChunks(final SessionChunkWriter writer,
+                                  final KieSession ksession) throws IOException {
+        ((InternalWorkingMemory) ksession).flushPropagations();
+        // the chunks are written through the writer, the stream of the context is never used
+        ProtobufMarshallerWriteContext context = new ProtobufMarshallerWriteContext( OutputStream.nullOutputStream(),
+                                                                     (InternalKnowledgeBase) kbase,
+                                                                     (InternalWorkingMemory) ksession,
+                                                                     RuleBaseNodes.getNodeMap( (InternalKnowledgeBase) kbase),
+                                                                     this.strategyStore,
+                                                                     this.marshallingConfig.isMarshallProcessInstances(),
+                                                                     this.marshallingConfig.isMarshallWorkItems(),
+                                                                     ksession.getEnvironment() );
+        context.setClockTime( ksession.getSessionClock().getCurrentTime() );
+        ProtobufOutputMarshaller.writeSessionInChunks( context, writer, FACT_HANDLES_PER_CHUNK );
+        context.close();
+    }
+
+    public StatefulKnowledgeSession unmarshall(final ReadableByteChannel channel,
+                                               KieSessionConfiguration config,
+                                               Environment environment) throws IOException, ClassNotFoundException {
+        return unmarshallInChunks( SessionChunkReader.forChannel( channel ), config, environment );
+    }
+
+    /**
+     * Reads a session written with {@link #marshall(ByteBuffer, KieSession)} starting from the current position of the buffer.
+     */
+    public StatefulKnowledgeSession unmarshall(final ByteBuffer buffer,
+                                               KieSessionConfiguration config,
+                                               Environment environment) throws IOException, ClassNotFoundException {
+        return unmarshallInChunks( SessionChunkReader.forBuffer( buffer ), config, environment );
+    }
+
+    private StatefulKnowledgeSession unmarshallInChunks(final SessionChunkReader reader,
+                                                        KieSessionConfiguration config,
+                                                        Environment environment) throws IOException, ClassNotFoundException {
+        if ( config == null ) {
+            config = RuleBaseFactory.newKnowledgeSessionConfiguration();
+        }
+
+        if ( environment == null ) {
+            environment = KieServices.get().newEnvironment();
+        }
+
+        // the chunks are read through the reader, the context only needs a valid object stream header
+        ByteArrayOutputStream emptyStream = new ByteArrayOutputStream();
+        new ObjectOutputStream( emptyStream ).close();
+        ProtobufMarshallerReaderContext context = getMarshallerReaderContext( new ByteArrayInputStream( emptyStream.toByteArray() ), environment );
+
+        int id = ((InternalKnowledgeBase) this.kbase).nextWorkingMemoryCounter();
+        ReadSessionResult readSessionResult = ProtobufInputMarshaller.readSessionInChunks( context,
+                                                                                           reader,
+                                                                                           parallelDecodingExecutor,
+                                                                                           id,
+                                                                                           environment,
+                                                                                           config.as(SessionConfiguration.KEY),
+                                                                                           initializer );
+        context.close();
+        if ( (config.as(SessionConfiguration.KEY)).isKeepReference() ) {
+            ((InternalKnowledgeBase) this.kbase).addStatefulSession(readSessionResult.getSession());
+        }
+        return readSessionResult.getSession();
+    }
+
+    /**
+     * Applies the given chain of deltas, in the order they have been written, onto the base snapshot
+     * and writes the resulting full snapshot to the output stream.
+     */
+    public void mergeDeltas(final InputStream base,
+                            final List<? extends InputStream> deltas,
+                            final OutputStream stream,
+                            Environment environment) throws IOException, ClassNotFoundException {
+        if ( environment == null ) {
+            environment = KieServices.get().newEnvironment();
+        }
+
+        List<ProtobufMarshallerReaderContext> snapshots = new ArrayList<>( deltas.size() + 1 );
+        snapshots.add( getMarshallerReaderContext( base, environment ) );
+        for ( InputStream delta : deltas ) {
+            snapshots.add( getMarshallerReaderContext( delta, environment ) );
+        }
+
+        ProtobufMarshallerWriteContext context = new ProtobufMarshallerWriteContext( stream,
+                                                                     (InternalKnowledgeBase) kbase,
+                                                                     null,
+                                                                     RuleBaseNodes.getNodeMap( (InternalKnowledgeBase) kbase),
+                                                                     this.strategyStore,
+                                                                     this.marshallingConfig.isMarshallProcessInstances(),
+                                                                     this.marshallingConfig.isMarshallWorkItems(),
+                                                                     environment );
+        DeltaSnapshotMerger.merge( snapshots, context );
+        context.close();
+        for ( ProtobufMarshallerReaderContext snapshot : snapshots ) {
+            snapshot.close();
+        }
+    }
+
+    public StatefulKnowledgeSession unmarshall(final InputStream base,
+                                               final List<? extends InputStream> deltas,
+                                               KieSessionConfiguration config,
+                                               Environment environment) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+        mergeDeltas( base, deltas, merged, environment );
+        return unmarshall( new ByteArrayInputStream( merged.toByteArray() ), config, environment );
+    }
+
     public MarshallingConfiguration getMarshallingConfiguration() {
         return marshallingConfig;
     }
@@ -155,7 +348,7 @@ public class ProtobufMarshaller
     }
 
     private ProtobufMarshallerReaderContext getMarshallerReaderContext( final InputStream inputStream, final Environment environment) throws IOException {
-        return new ProtobufMarshallerReaderContext(inputStream,
+        ProtobufMarshallerReaderContext context = new ProtobufMarshallerReaderContext(inputStream,
                                            (InternalKnowledgeBase) kbase,
                                            RuleBaseNodes.getNodeMap((InternalKnowledgeBase) kbase),
                                            this.strategyStore,
@@ -163,6 +356,8 @@ public class ProtobufMarshaller
                                            this.marshallingConfig.isMarshallProcessInstances(),
                                            this.marshallingConfig.isMarshallWorkItems(),
                                            environment);
+        context.setLazyNetworkEvaluation( lazyNetworkEvaluation );
+        return context;
     }
 
 }
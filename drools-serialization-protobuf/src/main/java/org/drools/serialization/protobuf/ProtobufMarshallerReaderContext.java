@@ -62,7 +62,7 @@ public class ProtobufMarshallerReaderContext extends ObjectInputStream implement
 
     public final Map<RightTupleKey, RightTuple> rightTuples;
     private final Map<Integer, LeftTuple>       terminalTupleMap;
-    private final PBActivationsFilter                                              filter;
+    private PBActivationsFilter                                                    filter;
 
     private final ObjectMarshallingStrategyStore                                   resolverStrategyFactory;
     private final Map<Integer, ObjectMarshallingStrategy>                           usedStrategies;
@@ -221,6 +221,14 @@ public class ProtobufMarshallerReaderContext extends ObjectInputStream implement
         return filter;
     }
 
+    /**
+     * When enabled, only the rules that can't be evaluated later are evaluated while reading the session,
+     * see {@link LazyActivationsFilter}. It has to be set before reading the session.
+     */
+    public void setLazyNetworkEvaluation( boolean lazyNetworkEvaluation ) {
+        this.filter = lazyNetworkEvaluation ? new LazyActivationsFilter() : new PBActivationsFilter();
+    }
+
     @Override
     public Map<Integer, BaseNode> getSinks() {
         return sinks;
@@ -54,11 +54,11 @@ import org.drools.core.reteoo.TerminalNode;
 import org.drools.core.rule.consequence.InternalMatch;
 import org.drools.core.time.JobContext;
 import org.drools.core.time.SelfRemovalJobContext;
+import org.drools.core.time.SessionPseudoClock;
 import org.drools.core.time.impl.CompositeMaxDurationTrigger;
 import org.drools.core.time.impl.CronTrigger;
 import org.drools.core.time.impl.IntervalTrigger;
 import org.drools.core.time.impl.PointInTimeTrigger;
-import org.drools.core.time.impl.PseudoClockScheduler;
 import org.drools.core.time.impl.TimerJobInstance;
 import org.drools.core.util.FastIterator;
 import org.drools.core.util.LinkedList;
@@ -91,6 +91,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -112,27 +113,108 @@ public class ProtobufOutputMarshaller {
     }
 
     public static void writeSession( ProtobufMarshallerWriteContext context) throws IOException {
-        ProtobufMessages.KnowledgeSession _session = serializeSession( context );
+        writeSession( context, null );
+    }
+
+    /**
+     * Writes the session, limiting the fact handles to the ones the given tracker reports as changed
+     * when it isn't null. Deleted handles are written as tombstones carrying only their id, see
+     * {@link DeltaSnapshotMerger} for how a chain of such deltas is folded back into a full snapshot.
+     */
+    public static void writeSession( ProtobufMarshallerWriteContext context,
+                                     DirtyFactHandleTracker tracker ) throws IOException {
+        ProtobufMessages.KnowledgeSession _session = serializeSession( context, tracker, true );
         PersisterHelper.writeToStreamWithHeader( context, _session );
     }
 
-    private static ProtobufMessages.KnowledgeSession serializeSession( MarshallerWriteContext context) throws IOException {
+    /**
+     * Writes the session as a sequence of self-contained chunks, so that it never has to be entirely built in memory.
+     * The first chunk contains everything but the fact handles, which follow grouped by entry point and object type,
+     * at most factHandlesPerChunk in each chunk. Every chunk has its own strategies index, so that it can be decoded
+     * independently from the others.
+     */
+    public static void writeSessionInChunks( ProtobufMarshallerWriteContext context,
+                                             SessionChunkWriter writer,
+                                             int factHandlesPerChunk ) throws IOException {
         StatefulKnowledgeSessionImpl wm = (StatefulKnowledgeSessionImpl) context.getWorkingMemory();
 
         try {
-            wm.getLock().lock();
-            for (EntryPoint ep : wm.getEntryPoints()) {
-                if (ep instanceof NamedEntryPoint) {
-                    ((NamedEntryPoint)ep).lock();
+            // the locks are held until the last chunk is written, so the fact handles are consistent with the rest of the session
+            lockSession( wm );
+
+            ProtobufMessages.KnowledgeSession _session = serializeSession( context, null, false );
+            writer.write( PersisterHelper.buildHeader( context, _session, true ) );
+
+            for ( EntryPoint wmep : wm.getEntryPoints() ) {
+                writeFactHandleChunks( context, writer, wmep.getEntryPointId(), ((NamedEntryPoint) wmep).getObjectStore(), factHandlesPerChunk );
+            }
+            writer.finish();
+        } finally {
+            unlockSession( wm );
+        }
+    }
+
+    private static void writeFactHandleChunks( ProtobufMarshallerWriteContext context,
+                                               SessionChunkWriter writer,
+                                               String entryPointId,
+                                               ObjectStore objectStore,
+                                               int factHandlesPerChunk ) throws IOException {
+        ObjectMarshallingStrategyStore objectMarshallingStrategyStore = context.getObjectMarshallingStrategyStore();
+
+        Map<Class<?>, List<InternalFactHandle>> handlesByType = new LinkedHashMap<>();
+        for ( InternalFactHandle handle : orderFacts( objectStore ) ) {
+            Class<?> type = handle.getObject() != null ? handle.getObject().getClass() : null;
+            handlesByType.computeIfAbsent( type, t -> new ArrayList<>() ).add( handle );
+        }
+
+        for ( List<InternalFactHandle> handles : handlesByType.values() ) {
+            for ( int start = 0; start < handles.size(); start += factHandlesPerChunk ) {
+                // each chunk only refers to its own strategy contexts
+                context.getUsedStrategies().clear();
+                context.getStrategyContext().clear();
+
+                ProtobufMessages.EntryPoint.Builder _epb = ProtobufMessages.EntryPoint.newBuilder();
+                _epb.setEntryPointId( entryPointId );
+                for ( InternalFactHandle handle : handles.subList( start, Math.min( start + factHandlesPerChunk, handles.size() ) ) ) {
+                    _epb.addHandle( writeFactHandle( context, objectMarshallingStrategyStore, handle ) );
                 }
+                writer.write( PersisterHelper.buildHeader( context, _epb.build(), false ) );
+            }
+        }
+    }
+
+    private static void lockSession( StatefulKnowledgeSessionImpl wm ) {
+        wm.getLock().lock();
+        for (EntryPoint ep : wm.getEntryPoints()) {
+            if (ep instanceof NamedEntryPoint) {
+                ((NamedEntryPoint)ep).lock();
+            }
+        }
+    }
+
+    private static void unlockSession( StatefulKnowledgeSessionImpl wm ) {
+        for (EntryPoint ep : wm.getEntryPoints()) {
+            if (ep instanceof NamedEntryPoint) {
+                ((NamedEntryPoint)ep).unlock();
             }
+        }
+        wm.getLock().unlock();
+    }
+
+    private static ProtobufMessages.KnowledgeSession serializeSession( MarshallerWriteContext context,
+                                                                       DirtyFactHandleTracker tracker,
+                                                                       boolean withFactHandles ) throws IOException {
+        StatefulKnowledgeSessionImpl wm = (StatefulKnowledgeSessionImpl) context.getWorkingMemory();
+
+        try {
+            lockSession( wm );
 
             evaluateRuleActivations( wm );
 
             ProtobufMessages.RuleData.Builder _ruleData = ProtobufMessages.RuleData.newBuilder();
 
             long time = 0;
-            if ( context.getWorkingMemory().getTimerService() instanceof PseudoClockScheduler ) {
+            if ( context.getWorkingMemory().getTimerService() instanceof SessionPseudoClock ) {
                 time = context.getClockTime();
             }
             _ruleData.setLastId( wm.getFactHandleFactory().getId() );
@@ -159,9 +241,21 @@ public class ProtobufOutputMarshaller {
 
                 writeObjectTypeConfiguration( ((WorkingMemoryEntryPoint)wmep).getObjectTypeConfigurationRegistry(), _epb );
 
-                writeFactHandles( context,
-                                  _epb,
-                                  ((NamedEntryPoint) wmep).getObjectStore() );
+                if ( !withFactHandles ) {
+                    // the fact handles are written in separate chunks, see writeSessionInChunks
+                } else if ( tracker == null ) {
+                    writeFactHandles( context,
+                                      _epb,
+                                      ((NamedEntryPoint) wmep).getObjectStore() );
+                } else {
+                    writeDirtyFactHandles( context,
+                                           _epb,
+                                           tracker.getChangedHandles( wmep.getEntryPointId() ) );
+                    if ( _ruleData.getEntryPointCount() == 0 ) {
+                        // tombstones are not bound to an entry point, fact handle ids are unique in the session
+                        writeDeletedFactHandles( _epb, tracker.getDeletedHandleIds() );
+                    }
+                }
 
                 writeTruthMaintenanceSystem( context,
                                              wmep,
@@ -205,12 +299,7 @@ public class ProtobufOutputMarshaller {
 
             return _session.build();
         } finally {
-            for (EntryPoint ep : wm.getEntryPoints()) {
-                if (ep instanceof NamedEntryPoint) {
-                    ((NamedEntryPoint)ep).unlock();
-                }
-            }
-            wm.getLock().unlock();
+            unlockSession( wm );
         }
     }
 
@@ -548,6 +637,23 @@ public class ProtobufOutputMarshaller {
         }
     }
 
+    private static void writeDirtyFactHandles( MarshallerWriteContext context,
+                                               ProtobufMessages.EntryPoint.Builder _epb,
+                                               List<InternalFactHandle> handles) throws IOException {
+        ObjectMarshallingStrategyStore objectMarshallingStrategyStore = context.getObjectMarshallingStrategyStore();
+
+        for ( InternalFactHandle handle : orderFacts( handles ) ) {
+            _epb.addHandle( writeFactHandle( context, objectMarshallingStrategyStore, handle ) );
+        }
+    }
+
+    private static void writeDeletedFactHandles( ProtobufMessages.EntryPoint.Builder _epb,
+                                                 long[] deletedIds ) {
+        for ( long id : deletedIds ) {
+            _epb.addHandle( ProtobufMessages.FactHandle.newBuilder().setId( id ).build() );
+        }
+    }
+
     private static ProtobufMessages.FactHandle writeFactHandle( MarshallerWriteContext context,
                                                                 ObjectMarshallingStrategyStore objectMarshallingStrategyStore,
                                                                 InternalFactHandle handle) throws IOException {
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistry;
+
+/**
+ * Reads back, one at a time, the chunks written by a {@link SessionChunkWriter}.
+ */
+public class SessionChunkReader {
+
+    private final CodedInputStream in;
+
+    private SessionChunkReader( CodedInputStream in ) {
+        this.in = in;
+    }
+
+    public static SessionChunkReader forChannel( ReadableByteChannel channel ) {
+        return new SessionChunkReader( CodedInputStream.newInstance( Channels.newInputStream( channel ) ) );
+    }
+
+    /**
+     * Reads the chunks from the given buffer, typically a MappedByteBuffer, starting from its current position.
+     * The payloads of the chunks are not copied but refer to the content of the buffer.
+     */
+    public static SessionChunkReader forBuffer( ByteBuffer buffer ) {
+        CodedInputStream in = CodedInputStream.newInstance( buffer );
+        in.enableAliasing( true );
+        return new SessionChunkReader( in );
+    }
+
+    /**
+     * @return the next chunk or null when the end of the session has been reached
+     */
+    public ProtobufMessages.Header next( ExtensionRegistry registry ) throws IOException {
+        if ( in.isAtEnd() ) {
+            return null;
+        }
+        int size = in.readRawVarint32();
+        if ( size == 0 ) {
+            return null;
+        }
+
+        int oldLimit = in.pushLimit( size );
+        ProtobufMessages.Header _header = ProtobufMessages.Header.parseFrom( in, registry );
+        in.popLimit( oldLimit );
+        // the size limit of a CodedInputStream applies to the whole stream, while a session can be far bigger than 2GB
+        in.resetSizeCounter();
+        return _header;
+    }
+}
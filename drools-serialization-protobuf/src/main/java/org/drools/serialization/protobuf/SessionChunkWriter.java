@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import com.google.protobuf.CodedOutputStream;
+
+/**
+ * Writes the chunks of a session as length delimited messages, terminated by an empty one.
+ * The underlying channel or buffer is not closed, it is up to the caller to release it.
+ */
+public abstract class SessionChunkWriter {
+
+    public abstract void write( ProtobufMessages.Header chunk ) throws IOException;
+
+    /**
+     * Writes the end of session marker, a zero length, so that a reader doesn't need to know the size of the data.
+     */
+    public abstract void finish() throws IOException;
+
+    public static SessionChunkWriter forChannel( WritableByteChannel channel ) {
+        return new StreamChunkWriter( Channels.newOutputStream( channel ) );
+    }
+
+    /**
+     * Writes the chunks directly into the given buffer, typically a MappedByteBuffer, starting from its
+     * current position and advancing it. A BufferOverflowException is thrown if the buffer is too small.
+     */
+    public static SessionChunkWriter forBuffer( ByteBuffer buffer ) {
+        return new BufferChunkWriter( buffer );
+    }
+
+    private static class StreamChunkWriter extends SessionChunkWriter {
+
+        private final OutputStream out;
+
+        private StreamChunkWriter( OutputStream out ) {
+            this.out = out;
+        }
+
+        @Override
+        public void write( ProtobufMessages.Header chunk ) throws IOException {
+            chunk.writeDelimitedTo( out );
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.write( 0 );
+            out.flush();
+        }
+    }
+
+    private static class BufferChunkWriter extends SessionChunkWriter {
+
+        private final CodedOutputStream out;
+
+        private BufferChunkWriter( ByteBuffer buffer ) {
+            this.out = CodedOutputStream.newInstance( buffer );
+        }
+
+        @Override
+        public void write( ProtobufMessages.Header chunk ) throws IOException {
+            out.writeUInt32NoTag( chunk.getSerializedSize() );
+            chunk.writeTo( out );
+            // moves the position of the buffer after the chunk
+            out.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.writeUInt32NoTag( 0 );
+            out.flush();
+        }
+    }
+}
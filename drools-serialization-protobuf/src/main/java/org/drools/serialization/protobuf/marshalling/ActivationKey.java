@@ -34,6 +34,18 @@ public class ActivationKey {
         this.tuple = tuple;
     }
 
+    public String getPkgName() {
+        return pkgName;
+    }
+
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    public Object[] getTuple() {
+        return tuple;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -0,0 +1,472 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf.marshalling;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.drools.base.factmodel.ClassDefinition;
+import org.drools.base.factmodel.FieldDefinition;
+import org.drools.serialization.protobuf.marshalling.CompactBinaryResolverStrategy.Decoder;
+import org.drools.serialization.protobuf.marshalling.CompactBinaryResolverStrategy.Encoder;
+import org.kie.api.definition.type.Position;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Reads and writes the fields of a single class in the compact binary format of the
+ * {@link CompactBinaryResolverStrategy}. The getters, setters and no-arg constructor of the class
+ * are bound to method handles once, when the codec is created, so no reflection happens per object.
+ * The fields are written in the order of their {@link Schema}, which is stored in the strategy context:
+ * objects written with a different schema are read matching their fields by name.
+ * Nested objects are written by value each time they are referenced: an object shared by several fields,
+ * without forming a cycle, is read back as distinct copies.
+ */
+public class CompactBinaryCodec {
+
+    enum Kind {
+        BOOLEAN, BYTE, SHORT, CHAR, INT, LONG, FLOAT, DOUBLE, STRING, ENUM, OBJECT;
+
+        private static final Kind[] VALUES = values();
+    }
+
+    private static final Map<Class<?>, Kind> KINDS = new HashMap<>();
+
+    static {
+        KINDS.put( boolean.class, Kind.BOOLEAN );
+        KINDS.put( Boolean.class, Kind.BOOLEAN );
+        KINDS.put( byte.class, Kind.BYTE );
+        KINDS.put( Byte.class, Kind.BYTE );
+        KINDS.put( short.class, Kind.SHORT );
+        KINDS.put( Short.class, Kind.SHORT );
+        KINDS.put( char.class, Kind.CHAR );
+        KINDS.put( Character.class, Kind.CHAR );
+        KINDS.put( int.class, Kind.INT );
+        KINDS.put( Integer.class, Kind.INT );
+        KINDS.put( long.class, Kind.LONG );
+        KINDS.put( Long.class, Kind.LONG );
+        KINDS.put( float.class, Kind.FLOAT );
+        KINDS.put( Float.class, Kind.FLOAT );
+        KINDS.put( double.class, Kind.DOUBLE );
+        KINDS.put( Double.class, Kind.DOUBLE );
+        KINDS.put( String.class, Kind.STRING );
+    }
+
+    interface FieldWriter {
+        void write(Encoder encoder, Object bean) throws Throwable;
+    }
+
+    interface FieldReader {
+        void read(Decoder decoder, Object bean) throws Throwable;
+    }
+
+    private final Class<?> type;
+    private final MethodHandle constructor;
+    private final Schema schema;
+    private final FieldWriter[] writers;
+    private final FieldReader[] readers;
+
+    private CompactBinaryCodec(Class<?> type, MethodHandle constructor, Schema schema, FieldWriter[] writers, FieldReader[] readers) {
+        this.type = type;
+        this.constructor = constructor;
+        this.schema = schema;
+        this.writers = writers;
+        this.readers = readers;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Creates the codec of a declared type from the fields of its class definition.
+     * @return the codec, or null if the class doesn't expose a public no-arg constructor and a public getter and setter for each field
+     */
+    public static CompactBinaryCodec forClassDefinition(Class<?> type, ClassDefinition classDefinition) {
+        Collection<FieldDefinition> fields = classDefinition.getFieldsDefinitions();
+        if ( fields.isEmpty() ) {
+            return null;
+        }
+        String[] names = new String[fields.size()];
+        String[] getters = new String[fields.size()];
+        String[] setters = new String[fields.size()];
+        int i = 0;
+        for ( FieldDefinition field : fields ) {
+            names[i] = field.getName();
+            getters[i] = field.getReadMethod();
+            setters[i] = field.getWriteMethod();
+            i++;
+        }
+        return create( type, names, getters, setters );
+    }
+
+    /**
+     * Creates the codec of a POJO from its fields annotated with {@link Position}, in the order of their position.
+     * The codec is created only when every instance field of the class hierarchy, except the transient ones,
+     * is annotated: otherwise the fields without position would be lost, so the POJO has to be serialized.
+     * @return the codec, or null if the class has no positional field, has an instance field without position
+     * or doesn't expose the accessors to read and write them
+     */
+    public static CompactBinaryCodec forAnnotatedClass(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for ( Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass() ) {
+            for ( Field field : current.getDeclaredFields() ) {
+                int modifiers = field.getModifiers();
+                if ( Modifier.isStatic( modifiers ) || Modifier.isTransient( modifiers ) || field.isSynthetic() ) {
+                    continue;
+                }
+                if ( field.getAnnotation( Position.class ) == null ) {
+                    return null;
+                }
+                fields.add( field );
+            }
+        }
+        if ( fields.isEmpty() ) {
+            return null;
+        }
+        fields.sort( Comparator.comparingInt( field -> field.getAnnotation( Position.class ).value() ) );
+
+        String[] names = new String[fields.size()];
+        String[] getters = new String[fields.size()];
+        String[] setters = new String[fields.size()];
+        for ( int i = 0; i < names.length; i++ ) {
+            Field field = fields.get( i );
+            names[i] = field.getName();
+            getters[i] = accessorName( field.getType() == boolean.class ? "is" : "get", field.getName() );
+            setters[i] = accessorName( "set", field.getName() );
+        }
+        return create( type, names, getters, setters );
+    }
+
+    private static String accessorName(String prefix, String fieldName) {
+        return prefix + Character.toUpperCase( fieldName.charAt( 0 ) ) + fieldName.substring( 1 );
+    }
+
+    private static CompactBinaryCodec create(Class<?> type, String[] names, String[] getterNames, String[] setterNames) {
+        if ( !Modifier.isPublic( type.getModifiers() ) || Modifier.isAbstract( type.getModifiers() ) ) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodHandle constructor = lookup.findConstructor( type, methodType( void.class ) ).asType( methodType( Object.class ) );
+
+            byte[] types = new byte[names.length];
+            FieldWriter[] writers = new FieldWriter[names.length];
+            FieldReader[] readers = new FieldReader[names.length];
+            for ( int i = 0; i < names.length; i++ ) {
+                Method getter = type.getMethod( getterNames[i] );
+                Class<?> fieldType = getter.getReturnType();
+                Method setter = type.getMethod( setterNames[i], fieldType );
+
+                Kind kind = KINDS.getOrDefault( fieldType, fieldType.isEnum() ? Kind.ENUM : Kind.OBJECT );
+                types[i] = Schema.fieldType( kind, !fieldType.isPrimitive() );
+                if ( fieldType.isPrimitive() ) {
+                    writers[i] = primitiveWriter( kind, lookup.unreflect( getter ) );
+                    readers[i] = primitiveReader( kind, lookup.unreflect( setter ) );
+                } else {
+                    writers[i] = referenceWriter( kind, lookup.unreflect( getter ) );
+                    readers[i] = referenceReader( kind, fieldType, lookup.unreflect( setter ) );
+                }
+            }
+            return new CompactBinaryCodec( type, constructor, new Schema( type.getName(), names, types ), writers, readers );
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static FieldWriter primitiveWriter(Kind kind, MethodHandle getter) {
+        switch ( kind ) {
+            case BOOLEAN: {
+                MethodHandle handle = getter.asType( methodType( boolean.class, Object.class ) );
+                return (encoder, bean) -> encoder.out.writeBoolean( (boolean) handle.invokeExact( bean ) );
+            }
+            case BYTE: {
+                MethodHandle handle = getter.asType( methodType( byte.class, Object.class ) );
+                return (encoder, bean) -> encoder.out.writeByte( (byte) handle.invokeExact( bean ) );
+            }
+            case SHORT: {
+                MethodHandle handle = getter.asType( methodType( short.class, Object.class ) );
+                return (encoder, bean) -> encoder.writeVarInt( (short) handle.invokeExact( bean ) );
+            }
+            case CHAR: {
+                MethodHandle handle = getter.asType( methodType( char.class, Object.class ) );
+                return (encoder, bean) -> encoder.writeVarInt( (char) handle.invokeExact( bean ) );
+            }
+            case INT: {
+                MethodHandle handle = getter.asType( methodType( int.class, Object.class ) );
+                return (encoder, bean) -> encoder.writeVarInt( (int) handle.invokeExact( bean ) );
+            }
+            case LONG: {
+                MethodHandle handle = getter.asType( methodType( long.class, Object.class ) );
+                return (encoder, bean) -> encoder.writeVarLong( (long) handle.invokeExact( bean ) );
+            }
+            case FLOAT: {
+                MethodHandle handle = getter.asType( methodType( float.class, Object.class ) );
+                return (encoder, bean) -> encoder.out.writeFloat( (float) handle.invokeExact( bean ) );
+            }
+            case DOUBLE: {
+                MethodHandle handle = getter.asType( methodType( double.class, Object.class ) );
+                return (encoder, bean) -> encoder.out.writeDouble( (double) handle.invokeExact( bean ) );
+            }
+            default:
+                throw new IllegalArgumentException( "Not a primitive kind: " + kind );
+        }
+    }
+
+    private static FieldReader primitiveReader(Kind kind, MethodHandle setter) {
+        switch ( kind ) {
+            case BOOLEAN: {
+                MethodHandle handle = setter.asType( methodType( void.class, Object.class, boolean.class ) );
+                return (decoder, bean) -> {
+                    handle.invokeExact( bean, decoder.in.readBoolean() );
+                };
+            }
+            case BYTE: {
+                MethodHandle handle = setter.asType( methodType( void.class, Object.class, byte.class ) );
+                return (decoder, bean) -> {
+                    handle.invokeExact( bean, decoder.in.readByte() );
+                };
+            }
+            case SHORT: {
+                MethodHandle handle = setter.asType( methodType( void.class, Object.class, short.class ) );
+                return (decoder, bean) -> {
+                    handle.invokeExact( bean, (short) decoder.readVarInt() );
+                };
+            }
+            case CHAR: {
+                MethodHandle handle = setter.asType( methodType( void.class, Object.class, char.class ) );
+                return (decoder, bean) -> {
+                    handle.invokeExact( bean, (char) decoder.readVarInt() );
+                };
+            }
+            case INT: {
+                MethodHandle handle = setter.asType( methodType( void.class, Object.class, int.class ) );
+                return (decoder, bean) -> {
+                    handle.invokeExact( bean, decoder.readVarInt() );
+                };
+            }
+            case LONG: {
+                MethodHandle handle = setter.asType( methodType( void.class, Object.class, long.class ) );
+                return (decoder, bean) -> {
+                    handle.invokeExact( bean, decoder.readVarLong() );
+                };
+            }
+            case FLOAT: {
+                MethodHandle handle = setter.asType( methodType( void.class, Object.class, float.class ) );
+                return (decoder, bean) -> {
+                    handle.invokeExact( bean, decoder.in.readFloat() );
+                };
+            }
+            case DOUBLE: {
+                MethodHandle handle = setter.asType( methodType( void.class, Object.class, double.class ) );
+                return (decoder, bean) -> {
+                    handle.invokeExact( bean, decoder.in.readDouble() );
+                };
+            }
+            default:
+                throw new IllegalArgumentException( "Not a primitive kind: " + kind );
+        }
+    }
+
+    private static FieldWriter referenceWriter(Kind kind, MethodHandle getter) {
+        MethodHandle handle = getter.asType( methodType( Object.class, Object.class ) );
+        return (encoder, bean) -> encoder.writeValue( kind, (Object) handle.invokeExact( bean ) );
+    }
+
+    private static FieldReader referenceReader(Kind kind, Class<?> fieldType, MethodHandle setter) {
+        MethodHandle handle = setter.asType( methodType( void.class, Object.class, Object.class ) );
+        return (decoder, bean) -> {
+            handle.invokeExact( bean, decoder.readValue( kind, fieldType ) );
+        };
+    }
+
+    void encode(Encoder encoder, Object bean) throws IOException {
+        try {
+            for ( FieldWriter writer : writers ) {
+                writer.write( encoder, bean );
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IOException( "Unable to write an instance of " + type.getName(), t );
+        }
+    }
+
+    /**
+     * Binds this codec to the schema the objects to be read were written with.
+     */
+    Binding bind(Schema written) {
+        return new Binding( written, written.equals( schema ) ? null : written.mapTo( schema ) );
+    }
+
+    class Binding {
+
+        private final Schema written;
+
+        // the index of each written field in this codec, -1 for the fields this class doesn't have anymore,
+        // or null when the schema didn't change
+        private final int[] mapping;
+
+        private Binding(Schema written, int[] mapping) {
+            this.written = written;
+            this.mapping = mapping;
+        }
+
+        Object decode(Decoder decoder) throws IOException, ClassNotFoundException {
+            try {
+                Object bean = (Object) constructor.invokeExact();
+                if ( mapping == null ) {
+                    for ( FieldReader reader : readers ) {
+                        reader.read( decoder, bean );
+                    }
+                } else {
+                    for ( int i = 0; i < mapping.length; i++ ) {
+                        if ( mapping[i] < 0 ) {
+                            decoder.skip( written.getKind( i ), written.isNullable( i ) );
+                        } else {
+                            readers[mapping[i]].read( decoder, bean );
+                        }
+                    }
+                }
+                return bean;
+            } catch (IOException | ClassNotFoundException | RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IOException( "Unable to read an instance of " + type.getName(), t );
+            }
+        }
+    }
+
+    /**
+     * The layout of the fields of a class: their names and types, in the order they are written.
+     */
+    public static class Schema {
+
+        private static final int NULLABLE = 0x80;
+
+        private final String className;
+        private final String[] fieldNames;
+        private final byte[] fieldTypes;
+
+        Schema(String className, String[] fieldNames, byte[] fieldTypes) {
+            this.className = className;
+            this.fieldNames = fieldNames;
+            this.fieldTypes = fieldTypes;
+        }
+
+        static byte fieldType(Kind kind, boolean nullable) {
+            return (byte) ( nullable ? kind.ordinal() | NULLABLE : kind.ordinal() );
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        Kind getKind(int field) {
+            return Kind.VALUES[fieldTypes[field] & ~NULLABLE];
+        }
+
+        boolean isNullable(int field) {
+            return ( fieldTypes[field] & NULLABLE ) != 0;
+        }
+
+        int[] mapTo(Schema current) {
+            int[] mapping = new int[fieldNames.length];
+            for ( int i = 0; i < fieldNames.length; i++ ) {
+                mapping[i] = -1;
+                for ( int j = 0; j < current.fieldNames.length; j++ ) {
+                    if ( fieldNames[i].equals( current.fieldNames[j] ) ) {
+                        // a field whose type changed can't be read anymore and is skipped
+                        if ( fieldTypes[i] == current.fieldTypes[j] ) {
+                            mapping[i] = j;
+                        }
+                        break;
+                    }
+                }
+            }
+            return mapping;
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeUTF( className );
+            out.writeInt( fieldNames.length );
+            for ( int i = 0; i < fieldNames.length; i++ ) {
+                out.writeUTF( fieldNames[i] );
+                out.writeByte( fieldTypes[i] );
+            }
+        }
+
+        static Schema read(DataInput in) throws IOException {
+            String className = in.readUTF();
+            int size = in.readInt();
+            String[] fieldNames = new String[size];
+            byte[] fieldTypes = new byte[size];
+            for ( int i = 0; i < size; i++ ) {
+                fieldNames[i] = in.readUTF();
+                fieldTypes[i] = in.readByte();
+            }
+            return new Schema( className, fieldNames, fieldTypes );
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() ) {
+                return false;
+            }
+            Schema schema = (Schema) o;
+            return className.equals( schema.className ) &&
+                    Arrays.equals( fieldNames, schema.fieldNames ) &&
+                    Arrays.equals( fieldTypes, schema.fieldTypes );
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * ( 31 * className.hashCode() + Arrays.hashCode( fieldNames ) ) + Arrays.hashCode( fieldTypes );
+        }
+
+        @Override
+        public String toString() {
+            return "Schema{" +
+                    "className='" + className + '\'' +
+                    ", fieldNames=" + Arrays.toString( fieldNames ) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,480 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf.marshalling;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.drools.base.rule.TypeDeclaration;
+import org.drools.core.marshalling.ClassObjectMarshallingStrategyAcceptor;
+import org.drools.kiesession.rulebase.InternalKnowledgeBase;
+import org.drools.serialization.protobuf.marshalling.CompactBinaryCodec.Kind;
+import org.drools.serialization.protobuf.marshalling.CompactBinaryCodec.Schema;
+import org.kie.api.KieBase;
+import org.kie.api.marshalling.ObjectMarshallingStrategy;
+import org.kie.api.marshalling.ObjectMarshallingStrategyAcceptor;
+
+/**
+ * Marshalls facts in a compact binary format, using a {@link CompactBinaryCodec} per class instead of
+ * java serialization. The codecs of the types declared in a KieBase are created together with the strategy,
+ * while the ones of the POJOs annotated with {@link org.kie.api.definition.type.Position} are created the
+ * first time an instance is marshalled. The schemas of the codecs used are written once in the strategy
+ * context, so that each fact only carries the values of its fields. Objects without a codec, as well as
+ * cyclic object graphs, are written with java serialization.
+ */
+public class CompactBinaryResolverStrategy
+        implements
+        ObjectMarshallingStrategy {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte CODEC = 1;
+    private static final byte INLINE_CODEC = 2;
+    private static final byte SERIALIZED = 3;
+
+    private final ObjectMarshallingStrategyAcceptor acceptor;
+
+    private final Map<Class<?>, CompactBinaryCodec> codecs = new ConcurrentHashMap<>();
+    private final Set<Class<?>> withoutCodec = ConcurrentHashMap.newKeySet();
+
+    public CompactBinaryResolverStrategy() {
+        this( ClassObjectMarshallingStrategyAcceptor.DEFAULT );
+    }
+
+    public CompactBinaryResolverStrategy(ObjectMarshallingStrategyAcceptor acceptor) {
+        this.acceptor = acceptor;
+    }
+
+    public CompactBinaryResolverStrategy(KieBase kbase) {
+        this( kbase, ClassObjectMarshallingStrategyAcceptor.DEFAULT );
+    }
+
+    public CompactBinaryResolverStrategy(KieBase kbase, ObjectMarshallingStrategyAcceptor acceptor) {
+        this( acceptor );
+        for ( TypeDeclaration type : ((InternalKnowledgeBase) kbase).getTypeDeclarations() ) {
+            if ( type.getKind() == TypeDeclaration.Kind.CLASS && type.getTypeClass() != null && type.getTypeClassDef() != null ) {
+                CompactBinaryCodec codec = CompactBinaryCodec.forClassDefinition( type.getTypeClass(), type.getTypeClassDef() );
+                if ( codec != null ) {
+                    codecs.put( codec.getType(), codec );
+                }
+            }
+        }
+    }
+
+    CompactBinaryCodec getCodec(Class<?> type) {
+        CompactBinaryCodec codec = codecs.get( type );
+        if ( codec == null && !withoutCodec.contains( type ) ) {
+            codec = CompactBinaryCodec.forAnnotatedClass( type );
+            if ( codec == null ) {
+                withoutCodec.add( type );
+            } else {
+                CompactBinaryCodec existing = codecs.putIfAbsent( type, codec );
+                if ( existing != null ) {
+                    codec = existing;
+                }
+            }
+        }
+        return codec;
+    }
+
+    CompactBinaryCodec.Binding bind(Schema schema, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        Class<?> type = Class.forName( schema.getClassName(), false, classLoader != null ? classLoader : getClass().getClassLoader() );
+        CompactBinaryCodec codec = getCodec( type );
+        if ( codec == null ) {
+            throw new IOException( "No compact binary codec available for " + schema.getClassName() );
+        }
+        return codec.bind( schema );
+    }
+
+    public boolean accept(Object object) {
+        return acceptor.accept( object );
+    }
+
+    public void write(ObjectOutputStream os,
+                      Object object) throws IOException {
+        byte[] bytes = marshal( null, os, object );
+        os.writeInt( bytes.length );
+        os.write( bytes );
+    }
+
+    public Object read(ObjectInputStream os) throws IOException,
+            ClassNotFoundException {
+        byte[] bytes = new byte[os.readInt()];
+        os.readFully( bytes );
+        return unmarshal( null, os, bytes, Thread.currentThread().getContextClassLoader() );
+    }
+
+    public byte[] marshal(Context context,
+                          ObjectOutputStream os,
+                          Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            new Encoder( this, (CompactBinaryContext) context, bytes ).writeObject( object );
+        } catch (CyclicGraphException e) {
+            // the codecs don't keep track of shared references, so a cyclic graph is serialized as a whole
+            bytes.reset();
+            new Encoder( this, (CompactBinaryContext) context, bytes ).writeSerialized( object );
+        }
+        return bytes.toByteArray();
+    }
+
+    public Object unmarshal(Context context,
+                            ObjectInputStream is,
+                            byte[] object,
+                            ClassLoader classloader) throws IOException, ClassNotFoundException {
+        return new Decoder( this, (CompactBinaryContext) context, object, classloader ).readObject();
+    }
+
+    public Context createContext() {
+        return new CompactBinaryContext();
+    }
+
+    @Override
+    public String toString() {
+        return "CompactBinaryResolverStrategy{" +
+                "acceptor=" + acceptor +
+                '}';
+    }
+
+    protected static class CompactBinaryContext implements Context {
+
+        private final Map<CompactBinaryCodec, Integer> schemaIds = new HashMap<>();
+        private final List<Schema> schemas = new ArrayList<>();
+        private final List<CompactBinaryCodec.Binding> bindings = new ArrayList<>();
+
+        int getSchemaId(CompactBinaryCodec codec) {
+            Integer id = schemaIds.get( codec );
+            if ( id == null ) {
+                id = schemas.size();
+                schemaIds.put( codec, id );
+                schemas.add( codec.getSchema() );
+            }
+            return id;
+        }
+
+        CompactBinaryCodec.Binding getBinding(int id, CompactBinaryResolverStrategy strategy, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+            if ( id >= schemas.size() ) {
+                throw new IOException( "Unknown compact binary schema " + id );
+            }
+            while ( bindings.size() <= id ) {
+                bindings.add( null );
+            }
+            CompactBinaryCodec.Binding binding = bindings.get( id );
+            if ( binding == null ) {
+                binding = strategy.bind( schemas.get( id ), classLoader );
+                bindings.set( id, binding );
+            }
+            return binding;
+        }
+
+        public void read(ObjectInputStream ois) throws IOException,
+                ClassNotFoundException {
+            int version = ois.readInt();
+            if ( version != FORMAT_VERSION ) {
+                throw new IOException( "Unsupported compact binary format version " + version );
+            }
+            int size = ois.readInt();
+            for ( int i = 0; i < size; i++ ) {
+                schemas.add( Schema.read( ois ) );
+            }
+        }
+
+        public void write(ObjectOutputStream oos) throws IOException {
+            oos.writeInt( FORMAT_VERSION );
+            oos.writeInt( schemas.size() );
+            for ( Schema schema : schemas ) {
+                schema.write( oos );
+            }
+            // primitives are buffered as block data, and the caller doesn't flush the stream
+            oos.flush();
+        }
+    }
+
+    static class Encoder {
+
+        final DataOutputStream out;
+
+        private final CompactBinaryResolverStrategy strategy;
+        private final CompactBinaryContext context;
+        private final Set<Object> path = Collections.newSetFromMap( new IdentityHashMap<>() );
+
+        Encoder(CompactBinaryResolverStrategy strategy, CompactBinaryContext context, OutputStream out) {
+            this.strategy = strategy;
+            this.context = context;
+            this.out = new DataOutputStream( out );
+        }
+
+        void writeObject(Object value) throws IOException {
+            if ( value == null ) {
+                out.writeByte( NULL );
+                return;
+            }
+            CompactBinaryCodec codec = strategy.getCodec( value.getClass() );
+            if ( codec == null ) {
+                writeSerialized( value );
+                return;
+            }
+            if ( !path.add( value ) ) {
+                throw CyclicGraphException.INSTANCE;
+            }
+            if ( context != null ) {
+                out.writeByte( CODEC );
+                writeUnsignedVarInt( context.getSchemaId( codec ) );
+            } else {
+                out.writeByte( INLINE_CODEC );
+                codec.getSchema().write( out );
+            }
+            codec.encode( this, value );
+            path.remove( value );
+        }
+
+        void writeSerialized(Object value) throws IOException {
+            out.writeByte( SERIALIZED );
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream( bytes )) {
+                oos.writeObject( value );
+            }
+            writeUnsignedVarInt( bytes.size() );
+            bytes.writeTo( out );
+        }
+
+        void writeValue(Kind kind, Object value) throws IOException {
+            if ( kind == Kind.OBJECT ) {
+                writeObject( value );
+                return;
+            }
+            out.writeBoolean( value != null );
+            if ( value == null ) {
+                return;
+            }
+            switch ( kind ) {
+                case BOOLEAN:
+                    out.writeBoolean( (Boolean) value );
+                    break;
+                case BYTE:
+                    out.writeByte( (Byte) value );
+                    break;
+                case SHORT:
+                    writeVarInt( (Short) value );
+                    break;
+                case CHAR:
+                    writeVarInt( (Character) value );
+                    break;
+                case INT:
+                    writeVarInt( (Integer) value );
+                    break;
+                case LONG:
+                    writeVarLong( (Long) value );
+                    break;
+                case FLOAT:
+                    out.writeFloat( (Float) value );
+                    break;
+                case DOUBLE:
+                    out.writeDouble( (Double) value );
+                    break;
+                case STRING:
+                    writeString( (String) value );
+                    break;
+                case ENUM:
+                    writeString( ((Enum<?>) value).name() );
+                    break;
+                default:
+                    throw new IllegalArgumentException( "Unknown kind: " + kind );
+            }
+        }
+
+        void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+            writeUnsignedVarInt( bytes.length );
+            out.write( bytes );
+        }
+
+        void writeVarInt(int value) throws IOException {
+            writeUnsignedVarInt( (value << 1) ^ (value >> 31) );
+        }
+
+        void writeVarLong(long value) throws IOException {
+            long zigZag = (value << 1) ^ (value >> 63);
+            while ( (zigZag & ~0x7FL) != 0 ) {
+                out.writeByte( (int) ((zigZag & 0x7F) | 0x80) );
+                zigZag >>>= 7;
+            }
+            out.writeByte( (int) zigZag );
+        }
+
+        void writeUnsignedVarInt(int value) throws IOException {
+            while ( (value & ~0x7F) != 0 ) {
+                out.writeByte( (value & 0x7F) | 0x80 );
+                value >>>= 7;
+            }
+            out.writeByte( value );
+        }
+    }
+
+    static class Decoder {
+
+        final DataInputStream in;
+
+        private final CompactBinaryResolverStrategy strategy;
+        private final CompactBinaryContext context;
+        private final ClassLoader classLoader;
+
+        Decoder(CompactBinaryResolverStrategy strategy, CompactBinaryContext context, byte[] bytes, ClassLoader classLoader) {
+            this.strategy = strategy;
+            this.context = context;
+            this.classLoader = classLoader;
+            this.in = new DataInputStream( new ByteArrayInputStream( bytes ) );
+        }
+
+        Object readObject() throws IOException, ClassNotFoundException {
+            byte tag = in.readByte();
+            switch ( tag ) {
+                case NULL:
+                    return null;
+                case CODEC:
+                    if ( context == null ) {
+                        throw new IOException( "Missing the context holding the compact binary schemas" );
+                    }
+                    return context.getBinding( readUnsignedVarInt(), strategy, classLoader ).decode( this );
+                case INLINE_CODEC:
+                    return strategy.bind( Schema.read( in ), classLoader ).decode( this );
+                case SERIALIZED:
+                    byte[] bytes = new byte[readUnsignedVarInt()];
+                    in.readFully( bytes );
+                    try (ObjectInputStream ois = new ObjectInputStream( new ByteArrayInputStream( bytes ) ) {
+                        @Override
+                        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                            return classLoader != null ? Class.forName( desc.getName(), false, classLoader ) : super.resolveClass( desc );
+                        }
+                    }) {
+                        return ois.readObject();
+                    }
+                default:
+                    throw new IOException( "Unknown compact binary tag " + tag );
+            }
+        }
+
+        Object readValue(Kind kind, Class<?> type) throws IOException, ClassNotFoundException {
+            if ( kind == Kind.OBJECT ) {
+                return readObject();
+            }
+            if ( !in.readBoolean() ) {
+                return null;
+            }
+            Object value = readNonNull( kind );
+            return kind == Kind.ENUM ? toEnum( type, (String) value ) : value;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static Object toEnum(Class<?> type, String name) {
+            return Enum.valueOf( (Class) type, name );
+        }
+
+        void skip(Kind kind, boolean nullable) throws IOException, ClassNotFoundException {
+            if ( kind == Kind.OBJECT ) {
+                readObject();
+            } else if ( !nullable || in.readBoolean() ) {
+                readNonNull( kind );
+            }
+        }
+
+        private Object readNonNull(Kind kind) throws IOException {
+            switch ( kind ) {
+                case BOOLEAN:
+                    return in.readBoolean();
+                case BYTE:
+                    return in.readByte();
+                case SHORT:
+                    return (short) readVarInt();
+                case CHAR:
+                    return (char) readVarInt();
+                case INT:
+                    return readVarInt();
+                case LONG:
+                    return readVarLong();
+                case FLOAT:
+                    return in.readFloat();
+                case DOUBLE:
+                    return in.readDouble();
+                case STRING:
+                case ENUM:
+                    byte[] bytes = new byte[readUnsignedVarInt()];
+                    in.readFully( bytes );
+                    return new String( bytes, StandardCharsets.UTF_8 );
+                default:
+                    throw new IllegalArgumentException( "Unknown kind: " + kind );
+            }
+        }
+
+        int readVarInt() throws IOException {
+            int zigZag = readUnsignedVarInt();
+            return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+
+        long readVarLong() throws IOException {
+            long zigZag = 0;
+            for ( int shift = 0; shift < 64; shift += 7 ) {
+                byte b = in.readByte();
+                zigZag |= (long) (b & 0x7F) << shift;
+                if ( (b & 0x80) == 0 ) {
+                    return (zigZag >>> 1) ^ -(zigZag & 1);
+                }
+            }
+            throw new IOException( "Malformed varint" );
+        }
+
+        int readUnsignedVarInt() throws IOException {
+            int value = 0;
+            for ( int shift = 0; shift < 32; shift += 7 ) {
+                byte b = in.readByte();
+                value |= (b & 0x7F) << shift;
+                if ( (b & 0x80) == 0 ) {
+                    return value;
+                }
+            }
+            throw new IOException( "Malformed varint" );
+        }
+    }
+
+    private static class CyclicGraphException extends RuntimeException {
+
+        private static final CyclicGraphException INSTANCE = new CyclicGraphException();
+
+        private CyclicGraphException() {
+            super( null, null, false, false );
+        }
+    }
+}
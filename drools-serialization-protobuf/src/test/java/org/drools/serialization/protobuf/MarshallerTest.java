@@ -18,28 +18,43 @@
  */
 package org.drools.serialization.protobuf;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 import org.drools.core.common.InternalFactHandle;
 import org.drools.core.impl.EnvironmentFactory;
 import org.drools.core.marshalling.ClassObjectMarshallingStrategyAcceptor;
+import org.drools.serialization.protobuf.marshalling.CompactBinaryCodec;
+import org.drools.serialization.protobuf.marshalling.CompactBinaryResolverStrategy;
 import org.drools.serialization.protobuf.marshalling.JavaSerializableResolverStrategy;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.drools.core.marshalling.SerializablePlaceholderResolverStrategy;
 import org.drools.mvel.compiler.Person;
 import org.kie.api.KieBase;
 import org.kie.api.conf.EqualityBehaviorOption;
+import org.kie.api.definition.type.FactType;
+import org.kie.api.definition.type.Position;
 import org.kie.api.io.ResourceType;
 import org.kie.api.marshalling.ObjectMarshallingStrategy;
+import org.kie.api.runtime.ClassObjectFilter;
 import org.kie.api.runtime.Environment;
 import org.kie.api.runtime.EnvironmentName;
 import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.internal.marshalling.MarshallerFactory;
 import org.kie.internal.utils.KieHelper;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -543,4 +558,432 @@ public class MarshallerTest {
             }
         }
     }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parameters")
+    public void testDeltaSnapshots(ObjectMarshallingStrategy strategy) throws Exception {
+        setupEnvironment(strategy);
+        String str =
+                "import " + Person.class.getCanonicalName() + "\n" +
+                "rule R1 when\n" +
+                "    Person( age >= 18 )\n" +
+                "then\n" +
+                "end\n";
+
+        KieBase kbase = new KieHelper().addContent(str, ResourceType.DRL).build();
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase, new ObjectMarshallingStrategy[]{ strategy });
+        KieSession ksession = null;
+        KieSession restored = null;
+        try {
+            ksession = kbase.newKieSession(null, env);
+            DirtyFactHandleTracker tracker = new DirtyFactHandleTracker();
+            ksession.addEventListener(tracker);
+
+            List<FactHandle> handles = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                handles.add(ksession.insert(new Person("p" + i, i * 5)));
+            }
+            assertThat(ksession.fireAllRules()).isEqualTo(6);
+
+            ByteArrayOutputStream base = new ByteArrayOutputStream();
+            marshaller.marshall(base, ksession, tracker);
+
+            ksession.delete(handles.get(9));
+            Person p1 = (Person) ksession.getObject(handles.get(1));
+            p1.setAge(30);
+            ksession.update(handles.get(1), p1);
+            ByteArrayOutputStream delta1 = new ByteArrayOutputStream();
+            marshaller.marshallDelta(delta1, ksession, tracker);
+
+            ksession.insert(new Person("p10", 70));
+            ksession.delete(handles.get(8));
+            ByteArrayOutputStream delta2 = new ByteArrayOutputStream();
+            marshaller.marshallDelta(delta2, ksession, tracker);
+
+            assertThat(delta2.size()).isLessThan(base.size());
+
+            restored = marshaller.unmarshall(new ByteArrayInputStream(base.toByteArray()),
+                                             Arrays.asList(new ByteArrayInputStream(delta1.toByteArray()),
+                                                           new ByteArrayInputStream(delta2.toByteArray())),
+                                             null, env);
+
+            assertThat(restored.getObjects(new ClassObjectFilter(Person.class)))
+                    .extracting(p -> ((Person) p).getName() + ":" + ((Person) p).getAge())
+                    .containsExactlyInAnyOrder("p0:0", "p1:30", "p2:10", "p3:15", "p4:20", "p5:25", "p6:30", "p7:35", "p10:70");
+            // p1 and p10 became adults after the base snapshot and their activations were never fired
+            assertThat(restored.fireAllRules()).isEqualTo(2);
+        } finally {
+            if (ksession != null) {
+                ksession.dispose();
+            }
+            if (restored != null) {
+                restored.dispose();
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parameters")
+    public void testMarshallingInChunks(ObjectMarshallingStrategy strategy) throws Exception {
+        setupEnvironment(strategy);
+        String str =
+                "import " + Person.class.getCanonicalName() + "\n" +
+                "rule R1 when\n" +
+                "    Person( age >= 18 )\n" +
+                "    String( this == \"go\" )\n" +
+                "then\n" +
+                "end\n";
+
+        KieBase kbase = new KieHelper().addContent(str, ResourceType.DRL).build();
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase, new ObjectMarshallingStrategy[]{ strategy });
+        KieSession ksession = null;
+        KieSession fromChannel = null;
+        KieSession fromBuffer = null;
+        KieSession fromChannelInParallel = null;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ksession = kbase.newKieSession(null, env);
+            // more than one chunk per object type
+            int persons = ProtobufMarshaller.FACT_HANDLES_PER_CHUNK + 10;
+            for (int i = 0; i < persons; i++) {
+                ksession.insert(new Person("p" + i, i % 36));
+            }
+            ksession.insert("go");
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            marshaller.marshall(Channels.newChannel(out), ksession);
+            fromChannel = marshaller.unmarshall(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())), null, env);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(out.size() + 1024);
+            marshaller.marshall(buffer, ksession);
+            buffer.flip();
+            fromBuffer = marshaller.unmarshall(buffer, null, env);
+
+            // both strategies keep their state in contexts created per chunk, so they can decode in parallel
+            marshaller.setParallelDecodingExecutor(executor);
+            fromChannelInParallel = marshaller.unmarshall(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())), null, env);
+
+            int expectedFirings = ksession.fireAllRules();
+            assertThat(fromChannel.getObjects(new ClassObjectFilter(Person.class))).hasSize(persons);
+            assertThat(fromChannel.fireAllRules()).isEqualTo(expectedFirings);
+            assertThat(fromBuffer.getObjects(new ClassObjectFilter(Person.class))).hasSize(persons);
+            assertThat(fromBuffer.fireAllRules()).isEqualTo(expectedFirings);
+            assertThat(fromChannelInParallel.getObjects(new ClassObjectFilter(Person.class))).hasSize(persons);
+            assertThat(fromChannelInParallel.fireAllRules()).isEqualTo(expectedFirings);
+        } finally {
+            executor.shutdownNow();
+            if (ksession != null) {
+                ksession.dispose();
+            }
+            if (fromChannel != null) {
+                fromChannel.dispose();
+            }
+            if (fromBuffer != null) {
+                fromBuffer.dispose();
+            }
+            if (fromChannelInParallel != null) {
+                fromChannelInParallel.dispose();
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parameters")
+    public void testLazyNetworkEvaluation(ObjectMarshallingStrategy strategy) throws Exception {
+        setupEnvironment(strategy);
+        String str =
+                "import " + Person.class.getCanonicalName() + "\n" +
+                "global java.util.List list\n" +
+                "rule R1 when\n" +
+                "    $p : Person( age >= 18 )\n" +
+                "then\n" +
+                "    list.add( $p.getName() );\n" +
+                "end\n";
+
+        KieBase kbase = new KieHelper().addContent(str, ResourceType.DRL).build();
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase, new ObjectMarshallingStrategy[]{ strategy });
+        marshaller.setLazyNetworkEvaluation(true);
+        KieSession ksession = null;
+        KieSession restored = null;
+        try {
+            ksession = kbase.newKieSession(null, env);
+            ksession.setGlobal("list", new ArrayList<>());
+            ksession.insert(new Person("mario", 40));
+            ksession.insert(new Person("luigi", 35));
+            assertThat(ksession.fireAllRules()).isEqualTo(2);
+            ksession.insert(new Person("peach", 20));
+            ksession.insert(new Person("toad", 10));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            marshaller.marshall(out, ksession);
+            restored = marshaller.unmarshall(new ByteArrayInputStream(out.toByteArray()), null, env);
+
+            List<String> list = new ArrayList<>();
+            restored.setGlobal("list", list);
+            // the matches fired before marshalling must not fire again once the rule is evaluated
+            assertThat(restored.fireAllRules()).isEqualTo(1);
+            assertThat(list).containsExactly("peach");
+
+            // while an update makes them fire as on an eagerly restored session
+            FactHandle mario = restored.getFactHandles(o -> o instanceof Person && ((Person) o).getName().equals("mario")).iterator().next();
+            restored.update(mario, restored.getObject(mario));
+            assertThat(restored.fireAllRules()).isEqualTo(1);
+            assertThat(list).containsExactly("peach", "mario");
+        } finally {
+            if (ksession != null) {
+                ksession.dispose();
+            }
+            if (restored != null) {
+                restored.dispose();
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parameters")
+    public void testLazyNetworkEvaluationWithQueryInSubnetwork(ObjectMarshallingStrategy strategy) throws Exception {
+        setupEnvironment(strategy);
+        String str =
+                "import " + Person.class.getCanonicalName() + "\n" +
+                "global java.util.List list\n" +
+                "query olderThan( int a )\n" +
+                "    Person( age > a )\n" +
+                "end\n" +
+                "rule Oldest when\n" +
+                "    $p : Person( age >= 18, $a : age )\n" +
+                "    not( olderThan( $a; ) )\n" +
+                "then\n" +
+                "    list.add( $p.getName() );\n" +
+                "end\n";
+
+        KieBase kbase = new KieHelper().addContent(str, ResourceType.DRL).build();
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase, new ObjectMarshallingStrategy[]{ strategy });
+        marshaller.setLazyNetworkEvaluation(true);
+        KieSession ksession = null;
+        KieSession restored = null;
+        try {
+            ksession = kbase.newKieSession(null, env);
+            ksession.setGlobal("list", new ArrayList<>());
+            ksession.insert(new Person("mario", 40));
+            ksession.insert(new Person("luigi", 35));
+            assertThat(ksession.fireAllRules()).isEqualTo(1);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            marshaller.marshall(out, ksession);
+            restored = marshaller.unmarshall(new ByteArrayInputStream(out.toByteArray()), null, env);
+
+            List<String> list = new ArrayList<>();
+            restored.setGlobal("list", list);
+            // the query element in the not subnetwork needs the rule to be evaluated eagerly during the restore
+            assertThat(restored.fireAllRules()).isEqualTo(0);
+
+            restored.insert(new Person("peach", 50));
+            assertThat(restored.fireAllRules()).isEqualTo(1);
+            assertThat(list).containsExactly("peach");
+        } finally {
+            if (ksession != null) {
+                ksession.dispose();
+            }
+            if (restored != null) {
+                restored.dispose();
+            }
+        }
+    }
+
+    @Test
+    public void testCompactBinaryStrategy() throws Exception {
+        String str =
+                "package org.drools.compact\n" +
+                "import " + Person.class.getCanonicalName() + "\n" +
+                "global java.util.List list\n" +
+                "declare Customer\n" +
+                "    name : String\n" +
+                "    age : int\n" +
+                "    discount : Double\n" +
+                "    referrer : Person\n" +
+                "end\n" +
+                "rule R1 when\n" +
+                "    $c : Customer( age >= 18 )\n" +
+                "then\n" +
+                "    list.add( $c.getName() );\n" +
+                "end\n";
+
+        KieBase kbase = new KieHelper().addContent(str, ResourceType.DRL).build();
+        // Person has no codec, so it is written with java serialization
+        ObjectMarshallingStrategy strategy = new CompactBinaryResolverStrategy(kbase);
+        setupEnvironment(strategy);
+        FactType customerType = kbase.getFactType("org.drools.compact", "Customer");
+
+        KieSession ksession = null;
+        KieSession restored = null;
+        try {
+            ksession = kbase.newKieSession(null, env);
+            ksession.setGlobal("list", new ArrayList<>());
+
+            Object mario = customerType.newInstance();
+            customerType.set(mario, "name", "mario");
+            customerType.set(mario, "age", 40);
+            customerType.set(mario, "discount", 0.1);
+            customerType.set(mario, "referrer", new Person("luigi", 35));
+            ksession.insert(mario);
+            assertThat(ksession.fireAllRules()).isEqualTo(1);
+
+            Object peach = customerType.newInstance();
+            customerType.set(peach, "name", "peach");
+            customerType.set(peach, "age", 20);
+            ksession.insert(peach);
+
+            restored = SerializationHelper.getSerialisedStatefulKnowledgeSession(ksession, kbase, false);
+            List<String> list = new ArrayList<>();
+            restored.setGlobal("list", list);
+            assertThat(restored.fireAllRules()).isEqualTo(1);
+            assertThat(list).containsExactly("peach");
+
+            Object restoredMario = restored.getObjects(o -> "mario".equals(customerType.get(o, "name"))).iterator().next();
+            assertThat(customerType.get(restoredMario, "age")).isEqualTo(40);
+            assertThat(customerType.get(restoredMario, "discount")).isEqualTo(0.1);
+            assertThat(((Person) customerType.get(restoredMario, "referrer")).getName()).isEqualTo("luigi");
+
+            Object restoredPeach = restored.getObjects(o -> "peach".equals(customerType.get(o, "name"))).iterator().next();
+            assertThat(customerType.get(restoredPeach, "discount")).isNull();
+            assertThat(customerType.get(restoredPeach, "referrer")).isNull();
+        } finally {
+            if (ksession != null) {
+                ksession.dispose();
+            }
+            if (restored != null) {
+                restored.dispose();
+            }
+        }
+    }
+
+    @Test
+    public void testCompactBinaryStrategyWithPartlyAnnotatedPojo() throws Exception {
+        assertThat(CompactBinaryCodec.forAnnotatedClass(AnnotatedItem.class)).isNotNull();
+        // the field without position would be lost by the codec, so the pojo falls back to java serialization
+        assertThat(CompactBinaryCodec.forAnnotatedClass(PartlyAnnotatedItem.class)).isNull();
+
+        CompactBinaryResolverStrategy strategy = new CompactBinaryResolverStrategy();
+        ObjectMarshallingStrategy.Context context = strategy.createContext();
+
+        PartlyAnnotatedItem item = new PartlyAnnotatedItem();
+        item.setCode("A1");
+        item.setDescription("first item");
+        item.setCache("computed");
+        PartlyAnnotatedItem restored = (PartlyAnnotatedItem) strategy.unmarshal(context, null, strategy.marshal(context, null, item), getClass().getClassLoader());
+        assertThat(restored.getCode()).isEqualTo("A1");
+        assertThat(restored.getDescription()).isEqualTo("first item");
+        assertThat(restored.getCache()).isNull();
+
+        AnnotatedItem annotated = new AnnotatedItem();
+        annotated.setCode("B2");
+        annotated.setQuantity(3);
+        AnnotatedItem restoredAnnotated = (AnnotatedItem) strategy.unmarshal(context, null, strategy.marshal(context, null, annotated), getClass().getClassLoader());
+        assertThat(restoredAnnotated.getCode()).isEqualTo("B2");
+        assertThat(restoredAnnotated.getQuantity()).isEqualTo(3);
+    }
+
+    public static class AnnotatedItem implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Position(0)
+        private String code;
+        @Position(1)
+        private int quantity;
+        // transient fields aren't marshalled in any case, so they don't prevent the codec
+        private transient String cache;
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        public String getCache() {
+            return cache;
+        }
+
+        public void setCache(String cache) {
+            this.cache = cache;
+        }
+    }
+
+    public static class PartlyAnnotatedItem extends AnnotatedItem {
+        private static final long serialVersionUID = 1L;
+
+        private String description;
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("parameters")
+    public void testLazyNetworkEvaluationWithUpdateOfNotListenedProperty(ObjectMarshallingStrategy strategy) throws Exception {
+        setupEnvironment(strategy);
+        String str =
+                "import " + Person.class.getCanonicalName() + "\n" +
+                "global java.util.List list\n" +
+                "rule R1 when\n" +
+                "    $p : Person( age >= 18 )\n" +
+                "then\n" +
+                "    list.add( $p.getName() );\n" +
+                "end\n";
+
+        KieBase kbase = new KieHelper().addContent(str, ResourceType.DRL).build();
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase, new ObjectMarshallingStrategy[]{ strategy });
+        marshaller.setLazyNetworkEvaluation(true);
+        KieSession ksession = null;
+        KieSession restored = null;
+        try {
+            ksession = kbase.newKieSession(null, env);
+            ksession.setGlobal("list", new ArrayList<>());
+            ksession.insert(new Person("mario", 40));
+            ksession.insert(new Person("luigi", 35));
+            assertThat(ksession.fireAllRules()).isEqualTo(2);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            marshaller.marshall(out, ksession);
+            restored = marshaller.unmarshall(new ByteArrayInputStream(out.toByteArray()), null, env);
+
+            List<String> list = new ArrayList<>();
+            restored.setGlobal("list", list);
+
+            // before the rule is evaluated, mario is modified on a property not listened by it, while luigi on its age
+            FactHandle mario = restored.getFactHandles(o -> o instanceof Person && ((Person) o).getName().equals("mario")).iterator().next();
+            Person marioPerson = (Person) restored.getObject(mario);
+            marioPerson.setName("super mario");
+            restored.update(mario, marioPerson, "name");
+            FactHandle luigi = restored.getFactHandles(o -> o instanceof Person && ((Person) o).getName().equals("luigi")).iterator().next();
+            Person luigiPerson = (Person) restored.getObject(luigi);
+            luigiPerson.setAge(36);
+            restored.update(luigi, luigiPerson, "age");
+
+            // as on an eagerly restored session, only the match whose listened property changed fires again
+            assertThat(restored.fireAllRules()).isEqualTo(1);
+            assertThat(list).containsExactly("luigi");
+        } finally {
+            if (ksession != null) {
+                ksession.dispose();
+            }
+            if (restored != null) {
+                restored.dispose();
+            }
+        }
+    }
 }
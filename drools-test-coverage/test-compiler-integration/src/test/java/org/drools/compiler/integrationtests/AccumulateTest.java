@@ -3331,6 +3331,56 @@ public class AccumulateTest {
         assertThat(cheeseInsertsFunction(kieBase, 15, 0, 0, 0, 0)).isCloseTo(6.00, within(0.01));
     }
 
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testReversibleMinMaxMedianAndPercentile(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        final String drl =
+                "import " + Cheese.class.getCanonicalName() + ";\n" +
+                        "global java.util.List list;\n" +
+                        "rule R when\n" +
+                        "  accumulate(\n" +
+                        "    Cheese($price : price);\n" +
+                        "    $min : reversibleMin($price),\n" +
+                        "    $max : reversibleMax($price),\n" +
+                        "    $median : median($price),\n" +
+                        "    $p90 : percentile90($price)\n" +
+                        "  )\n" +
+                        "then\n" +
+                        "  list.add(java.util.Arrays.asList($min, $max, $median, $p90));\n" +
+                        "end";
+
+        final KieBase kieBase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("accumulate-test", kieBaseTestConfiguration,
+                                                                           drl);
+        final KieSession ksession = kieBase.newKieSession();
+        try {
+            final List<List<Object>> list = new ArrayList<>();
+            ksession.setGlobal("list", list);
+
+            final FactHandle[] handles = new FactHandle[5];
+            final int[] prices = new int[] { 7, 2, 9, 4, 5 };
+            for (int i = 0; i < prices.length; i++) {
+                handles[i] = ksession.insert(new Cheese("stilton", prices[i]));
+            }
+            ksession.fireAllRules();
+            assertThat(list).containsExactly(asList(2, 9, 5.0, 9));
+
+            // retract both the current minimum and the current maximum
+            list.clear();
+            ksession.delete(handles[1]);
+            ksession.delete(handles[2]);
+            ksession.fireAllRules();
+            assertThat(list).containsExactly(asList(4, 7, 5.0, 7));
+
+            // the median of numbers is always a Double, and with an even number of prices it is the mean of the two middle ones
+            list.clear();
+            ksession.insert(new Cheese("stilton", 8));
+            ksession.fireAllRules();
+            assertThat(list).containsExactly(asList(4, 8, 6.0, 8));
+        } finally {
+            ksession.dispose();
+        }
+    }
+
     private double cheeseInsertsFunction(final KieBase kieBase, final int... prices) {
         final KieSession ksession = kieBase.newKieSession();
         try {
@@ -212,4 +212,67 @@ public class AlphaTest {
             session.dispose();
         }
     }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+	@MethodSource("parameters")
+    public void testInsertAllMatchesSingleInserts(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        final StringBuilder drl = new StringBuilder("package org.drools.compiler\n" +
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "import " + Cheese.class.getCanonicalName() + ";\n" +
+                "global java.util.List results;\n");
+        // enough constraints on the same field to have them hashed
+        for (String type : new String[] { "brie", "stilton", "cheddar", "gouda" }) {
+            drl.append("rule \"R_" + type + "\" when\n" +
+                       "    $c : Cheese( type == \"" + type + "\" )\n" +
+                       "then\n" +
+                       "    results.add( \"" + type + ":\" + $c.getPrice() );\n" +
+                       "end\n");
+        }
+        drl.append("rule \"R_expensive\" when\n" +
+                   "    $c : Cheese( price > 30, price % 2 == 0 )\n" +
+                   "then\n" +
+                   "    results.add( \"expensive:\" + $c.getType() + $c.getPrice() );\n" +
+                   "end\n" +
+                   "rule \"R_likes\" when\n" +
+                   "    $p : Person( age < 20 )\n" +
+                   "    $c : Cheese( type == $p.likes )\n" +
+                   "then\n" +
+                   "    results.add( \"likes:\" + $p.getName() + $c.getPrice() );\n" +
+                   "end\n");
+
+        final KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("alpha-test", kieBaseTestConfiguration, drl.toString());
+
+        final List<String> singleResults = new ArrayList<>();
+        final KieSession singleSession = kbase.newKieSession();
+        final List<String> batchResults = new ArrayList<>();
+        final KieSession batchSession = kbase.newKieSession();
+        try {
+            singleSession.setGlobal("results", singleResults);
+            createFacts().forEach(singleSession::insert);
+            final int singleFired = singleSession.fireAllRules();
+
+            batchSession.setGlobal("results", batchResults);
+            final List<FactHandle> handles = batchSession.insertAll(createFacts());
+            assertThat(handles).hasSize(240).doesNotContainNull();
+            assertThat(batchSession.fireAllRules()).isEqualTo(singleFired);
+
+            // the facts of the same type keep their relative order
+            assertThat(batchResults).isEqualTo(singleResults);
+        } finally {
+            singleSession.dispose();
+            batchSession.dispose();
+        }
+    }
+
+    private static List<Object> createFacts() {
+        final String[] types = { "brie", "stilton", "cheddar", "gouda", "emmental" };
+        final List<Object> facts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            facts.add(new Cheese(types[i % types.length], i % 50));
+            if (i % 5 == 0) {
+                facts.add(new Person("p" + i, types[i % types.length], i % 30));
+            }
+        }
+        return facts;
+    }
 }
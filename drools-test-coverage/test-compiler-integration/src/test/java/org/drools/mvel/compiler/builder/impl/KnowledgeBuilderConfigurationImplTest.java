@@ -21,6 +21,7 @@ package org.drools.mvel.compiler.builder.impl;
 import org.drools.compiler.builder.impl.KnowledgeBuilderConfigurationImpl;
 import org.junit.jupiter.api.Test;
 import org.kie.internal.builder.KnowledgeBuilderFactory;
+import org.kie.internal.builder.conf.ParallelPackagesBuildOption;
 import org.kie.internal.builder.conf.ParallelRulesBuildThresholdOption;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -49,4 +50,18 @@ public class KnowledgeBuilderConfigurationImplTest {
         }
     }
 
+    @Test
+    public void testParallelPackagesBuildConfiguration() {
+        KnowledgeBuilderConfigurationImpl defaultConfImpl = KnowledgeBuilderFactory.newKnowledgeBuilderConfiguration().as(KnowledgeBuilderConfigurationImpl.KEY);
+        assertThat(defaultConfImpl.getOption(ParallelPackagesBuildOption.KEY)).isEqualTo(ParallelPackagesBuildOption.DISABLED);
+
+        try {
+            System.getProperties().put(ParallelPackagesBuildOption.PROPERTY_NAME, "true");
+            KnowledgeBuilderConfigurationImpl kbConfigImpl = KnowledgeBuilderFactory.newKnowledgeBuilderConfiguration().as(KnowledgeBuilderConfigurationImpl.KEY);
+            assertThat(kbConfigImpl.getOption(ParallelPackagesBuildOption.KEY).isPackagesBuildParallel()).isTrue();
+        } finally {
+            System.getProperties().remove(ParallelPackagesBuildOption.PROPERTY_NAME);
+        }
+    }
+
 }
@@ -18,19 +18,35 @@
  */
 package org.drools.mvel.compiler.command;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+import org.drools.core.common.ActivationsManager;
 import org.drools.core.common.ReteEvaluator;
+import org.drools.core.phreak.ExecutableEntry;
+import org.drools.core.phreak.LockFreePropagationList;
 import org.drools.core.phreak.PropagationEntry;
 import org.drools.core.phreak.PropagationList;
+import org.drools.core.phreak.SynchronizedBypassPropagationList;
 import org.drools.core.phreak.SynchronizedPropagationList;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
 public class PropagationListTest {
 
     @Test 
@@ -97,6 +113,152 @@ public class PropagationListTest {
         }
     }
 
+    @Test
+    public void testLockFreeListKeepsProducersOrder() throws Exception {
+        final int OBJECT_NR = 100000;
+        final int THREAD_NR = 4;
+
+        final Checker checker = new Checker(THREAD_NR);
+        final PropagationList propagationList = new LockFreePropagationList(mockReteEvaluator());
+        final long consumed = produceAndConsume(propagationList, checker, THREAD_NR, OBJECT_NR);
+
+        assertThat(consumed).isEqualTo((long) OBJECT_NR * THREAD_NR);
+        assertThat(propagationList.isEmpty()).isTrue();
+        for (int i = 0; i < THREAD_NR; i++) {
+            assertThat(checker.counters[i]).isEqualTo(OBJECT_NR);
+        }
+    }
+
+    @Test
+    public void testLockFreeListWakesUpWaitingConsumer() throws Exception {
+        final Checker checker = new Checker(1);
+        final PropagationList propagationList = new LockFreePropagationList(mockReteEvaluator());
+        propagationList.setFiringUntilHalt(true);
+
+        final CountDownLatch done = new CountDownLatch(1);
+        final Thread consumer = new Thread(() -> {
+            propagationList.waitOnRest();
+            propagationList.flush();
+            done.countDown();
+        });
+        consumer.setDaemon(true);
+        consumer.start();
+
+        propagationList.addEntry(new TestEntry(checker, 0, 0));
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(checker.counters[0]).isEqualTo(1);
+    }
+
+    @Test
+    public void testLockFreeListKeepsInterruptStatusOfWaitingConsumer() throws Exception {
+        final PropagationList propagationList = new LockFreePropagationList(mockReteEvaluator());
+        propagationList.setFiringUntilHalt(true);
+
+        final CountDownLatch done = new CountDownLatch(1);
+        final boolean[] interrupted = new boolean[1];
+        final Thread consumer = new Thread(() -> {
+            propagationList.waitOnRest();
+            interrupted[0] = Thread.currentThread().isInterrupted();
+            done.countDown();
+        });
+        consumer.setDaemon(true);
+        consumer.start();
+        consumer.interrupt();
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(interrupted[0]).isTrue();
+    }
+
+    @Test
+    public void testLockFreeListNeverLosesDeferringExpirationFlag() throws Exception {
+        final Checker checker = new Checker(1);
+        final PropagationList propagationList = new LockFreePropagationList(mockReteEvaluator());
+
+        for (int i = 0; i < 10000; i++) {
+            final Thread producer = new Thread(() -> propagationList.addEntry(new DeferringTestEntry(checker, 0, 0)));
+            producer.start();
+            propagationList.takeAll();
+            producer.join();
+
+            // the entry added by the producer is either detached by takeAll or still in the list with the flag raised
+            if (!propagationList.isEmpty()) {
+                assertThat(propagationList.hasEntriesDeferringExpiration()).isTrue();
+            }
+            propagationList.takeAll();
+        }
+    }
+
+    /**
+     * Compares the throughput of the thread safe propagation lists when an increasing number of producers
+     * insert into them while a single consumer keeps flushing, as it happens in a session running fireUntilHalt.
+     */
+    @Test
+    @Disabled
+    public void testContention() throws Exception {
+        final int TOTAL_OBJECT_NR = 4_000_000;
+        final int[] THREAD_NRS = new int[] { 1, 2, 4, 8, 16, 32, 64 };
+
+        final ReteEvaluator reteEvaluator = mockReteEvaluator();
+
+        final Map<String, Function<ReteEvaluator, PropagationList>> factories = new LinkedHashMap<>();
+        factories.put("Synchronized", SynchronizedPropagationList::new);
+        factories.put("SynchronizedBypass", SynchronizedBypassPropagationList::new);
+        factories.put("LockFree", LockFreePropagationList::new);
+
+        for (final int threadNr : THREAD_NRS) {
+            for (final Map.Entry<String, Function<ReteEvaluator, PropagationList>> factory : factories.entrySet()) {
+                final long[] results = new long[7];
+                for (int counter = 0; counter < results.length; counter++) {
+                    final long start = System.nanoTime();
+                    produceAndConsume(factory.getValue().apply(reteEvaluator), new Checker(threadNr), threadNr, TOTAL_OBJECT_NR / threadNr);
+                    results[counter] = System.nanoTime() - start;
+                }
+                System.out.println(factory.getKey() + " with " + threadNr + " producers");
+                analyzeResults(results);
+            }
+        }
+    }
+
+    private ReteEvaluator mockReteEvaluator() {
+        // an engine always busy with the firing thread, so the bypass list enqueues the entries as the others do
+        final ActivationsManager activationsManager = mock(ActivationsManager.class);
+        doAnswer(invocation -> {
+            ((ExecutableEntry) invocation.getArgument(0)).enqueue();
+            return null;
+        }).when(activationsManager).executeTask(any());
+        final ReteEvaluator reteEvaluator = mock(ReteEvaluator.class);
+        when(reteEvaluator.getActivationsManager()).thenReturn(activationsManager);
+        return reteEvaluator;
+    }
+
+    private long produceAndConsume(final PropagationList propagationList, final Checker checker, final int threadNr, final int objectNr) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threadNr, r -> {
+            final Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            final CompletionService<Boolean> ecs = new ExecutorCompletionService<Boolean>(executor);
+            for (int i = 0; i < threadNr; i++) {
+                ecs.submit(getTask(objectNr, checker, propagationList, i));
+            }
+
+            int completed = 0;
+            while (completed < threadNr) {
+                propagationList.flush();
+                for (Future<Boolean> future = ecs.poll(); future != null; future = ecs.poll()) {
+                    future.get();
+                    completed++;
+                }
+            }
+            propagationList.flush();
+            return checker.total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private void analyzeResults(final long[] results) {
         long min = results[0];
         long max = results[0];
@@ -149,8 +311,21 @@ public class PropagationListTest {
         }
     }
 
+    public static class DeferringTestEntry extends TestEntry {
+
+        public DeferringTestEntry(final Checker checker, final int i, final int j) {
+            super(checker, i, j);
+        }
+
+        @Override
+        public boolean defersExpiration() {
+            return true;
+        }
+    }
+
     public static class Checker {
         private final int[] counters;
+        private long total;
 
         public Checker(final int nr) {
             counters = new int[nr];
@@ -162,6 +337,7 @@ public class PropagationListTest {
                     //System.out.println("[" + entry.i + ", " + entry.j / 10000 + "]");
                 }
                 counters[entry.i]++;
+                total++;
             } else {
                 throw new RuntimeException("ERROR for thread " + entry.i + " expected " + counters[entry.i] + " but was " + entry.j);
             }
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.mvel.integrationtests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.drools.kiesession.rulebase.InternalKnowledgeBase;
+import org.drools.kiesession.rulebase.KnowledgeBaseFactory;
+import org.junit.jupiter.api.Test;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Rule;
+import org.kie.api.io.ResourceType;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.builder.CompositeKnowledgeBuilder;
+import org.kie.internal.builder.KnowledgeBuilder;
+import org.kie.internal.builder.KnowledgeBuilderConfiguration;
+import org.kie.internal.builder.KnowledgeBuilderError;
+import org.kie.internal.builder.KnowledgeBuilderFactory;
+import org.kie.internal.builder.conf.ParallelPackagesBuildOption;
+import org.kie.internal.io.ResourceFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelPackagesBuildTest {
+
+    private static final int PACKAGES = 6;
+    private static final int RULES_PER_PACKAGE = 4;
+
+    @Test
+    public void testParallelBuildMatchesSequentialBuild() {
+        List<String> drls = new ArrayList<>();
+        for (int i = 0; i < PACKAGES; i++) {
+            drls.add(generatePackage(i));
+        }
+
+        KnowledgeBuilder sequential = build(ParallelPackagesBuildOption.DISABLED, drls);
+        KnowledgeBuilder parallel = build(ParallelPackagesBuildOption.ENABLED, drls);
+        assertThat(sequential.hasErrors()).as(sequential.getErrors().toString()).isFalse();
+        assertThat(parallel.hasErrors()).as(parallel.getErrors().toString()).isFalse();
+
+        assertThat(rulesByPackage(parallel)).isEqualTo(rulesByPackage(sequential));
+        assertThat(rulesByPackage(parallel)).hasSize(PACKAGES);
+        assertThat(fire(parallel)).isEqualTo(fire(sequential));
+        assertThat(fire(parallel)).hasSize(PACKAGES * RULES_PER_PACKAGE);
+    }
+
+    @Test
+    public void testParallelBuildCompilesFunctionsAndJavaConsequences() {
+        List<String> drls = new ArrayList<>();
+        for (int i = 0; i < PACKAGES; i++) {
+            drls.add(generatePackageWithFunction(i));
+        }
+
+        KnowledgeBuilder sequential = build(ParallelPackagesBuildOption.DISABLED, drls);
+        KnowledgeBuilder parallel = build(ParallelPackagesBuildOption.ENABLED, drls);
+        assertThat(sequential.hasErrors()).as(sequential.getErrors().toString()).isFalse();
+        assertThat(parallel.hasErrors()).as(parallel.getErrors().toString()).isFalse();
+
+        List<String> fired = fire(parallel);
+        assertThat(fired).isEqualTo(fire(sequential));
+        // only the even numbers pass the eval calling the function of the package
+        assertThat(fired).hasSize(PACKAGES * ((RULES_PER_PACKAGE + 1) / 2));
+        assertThat(fired).contains("f0.R0 [0:0]", "f" + (PACKAGES - 1) + ".R2 [2:2]");
+    }
+
+    @Test
+    public void testParallelBuildReportsSameErrorsOfSequentialBuild() {
+        List<String> drls = new ArrayList<>();
+        for (int i = 0; i < PACKAGES; i++) {
+            drls.add(generatePackage(i));
+        }
+        // a parse error and a compilation error in two different packages
+        drls.add("package org.drools.parallel.broken1\n" +
+                 "rule Broken when\n" +
+                 "  Integer( this == \n" +
+                 "then\n" +
+                 "end\n");
+        drls.add("package org.drools.parallel.broken2\n" +
+                 "global java.util.List list\n" +
+                 "rule Broken when\n" +
+                 "  $i: Integer()\n" +
+                 "then\n" +
+                 "  list.add( $i.unknownMethod() );\n" +
+                 "end\n");
+
+        KnowledgeBuilder sequential = build(ParallelPackagesBuildOption.DISABLED, drls);
+        KnowledgeBuilder parallel = build(ParallelPackagesBuildOption.ENABLED, drls);
+        assertThat(sequential.hasErrors()).isTrue();
+
+        assertThat(errorMessages(parallel)).isEqualTo(errorMessages(sequential));
+    }
+
+    private static KnowledgeBuilder build(ParallelPackagesBuildOption option, List<String> drls) {
+        KnowledgeBuilderConfiguration conf = KnowledgeBuilderFactory.newKnowledgeBuilderConfiguration();
+        conf.setOption(option);
+        KnowledgeBuilder kbuilder = KnowledgeBuilderFactory.newKnowledgeBuilder(conf);
+        CompositeKnowledgeBuilder batch = kbuilder.batch().type(ResourceType.DRL);
+        drls.forEach(drl -> batch.add(ResourceFactory.newByteArrayResource(drl.getBytes())));
+        batch.build();
+        return kbuilder;
+    }
+
+    private static Map<String, List<String>> rulesByPackage(KnowledgeBuilder kbuilder) {
+        Map<String, List<String>> rulesByPackage = new TreeMap<>();
+        for (KiePackage kpackage : kbuilder.getKnowledgePackages()) {
+            if (!kpackage.getRules().isEmpty()) {
+                rulesByPackage.put(kpackage.getName(), kpackage.getRules().stream().map(Rule::getName).sorted().collect(Collectors.toList()));
+            }
+        }
+        return rulesByPackage;
+    }
+
+    private static List<String> fire(KnowledgeBuilder kbuilder) {
+        InternalKnowledgeBase kbase = KnowledgeBaseFactory.newKnowledgeBase();
+        kbase.addPackages(kbuilder.getKnowledgePackages());
+        KieSession ksession = kbase.newKieSession();
+        try {
+            List<String> list = new ArrayList<>();
+            ksession.setGlobal("list", list);
+            for (int i = 0; i < RULES_PER_PACKAGE; i++) {
+                ksession.insert(i);
+                ksession.insert(String.valueOf(i));
+            }
+            ksession.fireAllRules();
+            return list.stream().sorted().collect(Collectors.toList());
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private static List<String> errorMessages(KnowledgeBuilder kbuilder) {
+        return kbuilder.getErrors().stream().map(KnowledgeBuilderError::getMessage).collect(Collectors.toList());
+    }
+
+    private static String generatePackage(int packageNr) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package org.drools.parallel.p").append(packageNr).append("\n");
+        sb.append("global java.util.List list\n");
+        for (int i = 0; i < RULES_PER_PACKAGE; i++) {
+            sb.append("rule R").append(i).append(" when\n")
+              .append("  $i: Integer( this == ").append(i).append(" )\n")
+              .append("  $s: String( this == $i.toString() )\n")
+              .append("then\n")
+              .append("  list.add( \"p").append(packageNr).append(".R").append(i).append(" \" + $s );\n")
+              .append("end\n");
+        }
+        return sb.toString();
+    }
+
+    private static String generatePackageWithFunction(int packageNr) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package org.drools.parallel.f").append(packageNr).append("\n");
+        sb.append("global java.util.List list\n");
+        sb.append("function boolean isEven(Integer i) {\n")
+          .append("  return i % 2 == 0;\n")
+          .append("}\n");
+        sb.append("function String label(String rule, java.util.List values) {\n")
+          .append("  StringBuilder sb = new StringBuilder(\"f").append(packageNr).append(".\").append(rule).append(\" [\");\n")
+          .append("  for (int i = 0; i < values.size(); i++) {\n")
+          .append("    sb.append(i == 0 ? \"\" : \":\").append(values.get(i));\n")
+          .append("  }\n")
+          .append("  return sb.append(\"]\").toString();\n")
+          .append("}\n");
+        for (int i = 0; i < RULES_PER_PACKAGE; i++) {
+            sb.append("rule R").append(i).append(" dialect \"java\" when\n")
+              .append("  $i: Integer( this == ").append(i).append(" )\n")
+              .append("  eval( isEven($i) )\n")
+              .append("  $s: String( this == $i.toString() )\n")
+              .append("then\n")
+              .append("  java.util.List<Object> values = new java.util.ArrayList<>();\n")
+              .append("  values.add($i);\n")
+              .append("  values.add($s);\n")
+              .append("  list.add( label(drools.getRule().getName(), values) );\n")
+              .append("end\n");
+        }
+        return sb.toString();
+    }
+}
@@ -58,6 +58,13 @@ public class TraitObjectTypeNode extends ObjectTypeNode {
         }
     }
 
+    @Override
+    public void propagateAssert( InternalFactHandle[] factHandles, PropagationContext[] contexts, ReteEvaluator reteEvaluator ) {
+        for ( int i = 0; i < factHandles.length; i++ ) {
+            propagateAssert( factHandles[i], contexts[i], reteEvaluator );
+        }
+    }
+
     private boolean isAssertAllowed( InternalFactHandle factHandle ) {
         if ( factHandle.isTraiting() )  {
             TraitProxyImpl proxy = (TraitProxyImpl) factHandle.getObject();
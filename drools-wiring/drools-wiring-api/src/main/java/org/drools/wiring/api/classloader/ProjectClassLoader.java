@@ -55,7 +55,8 @@ public abstract class ProjectClassLoader extends ClassLoader implements KieTypeR
         registerAsParallelCapable();
     }
 
-    private Map<String, byte[]> store;
+    // the packages of a KnowledgeBuilder can be compiled in parallel, so the store can be written and read concurrently
+    private volatile Map<String, byte[]> store;
 
     private Map<String, ClassBytecode> definedTypes;
 
@@ -254,10 +255,7 @@ public abstract class ProjectClassLoader extends ClassLoader implements KieTypeR
     }
 
     public void storeClass(String name, String resourceName, byte[] bytecode) {
-        if (store == null) {
-            store = new HashMap<>();
-        }
-        store.put(resourceName, bytecode);
+        getOrCreateStore().put(resourceName, bytecode);
         if (CACHE_NON_EXISTING_CLASSES) {
             nonExistingClasses.remove(name);
         }
@@ -367,6 +365,13 @@ public abstract class ProjectClassLoader extends ClassLoader implements KieTypeR
         }
     }
 
+    private synchronized Map<String, byte[]> getOrCreateStore() {
+        if (store == null) {
+            store = Collections.synchronizedMap(new HashMap<>());
+        }
+        return store;
+    }
+
     public byte[] getBytecode(String resourceName) {
         return store == null ? null : store.get(resourceName);
     }
@@ -421,10 +426,7 @@ public abstract class ProjectClassLoader extends ClassLoader implements KieTypeR
 
     public void initFrom(ProjectClassLoader other) {
         if (other.store != null) {
-            if (store == null) {
-                store = new HashMap<>();
-            }
-            store.putAll(other.store);
+            getOrCreateStore().putAll(other.store);
         }
         nonExistingClasses.addAll(other.nonExistingClasses);
     }
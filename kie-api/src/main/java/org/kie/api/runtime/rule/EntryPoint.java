@@ -18,8 +18,11 @@
  */
 package org.kie.api.runtime.rule;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.stream.Stream;
 
 import org.kie.api.runtime.ClassObjectFilter;
 import org.kie.api.runtime.ObjectFilter;
@@ -65,6 +68,37 @@ public interface EntryPoint {
      */
     FactHandle insert(Object object);
 
+    /**
+     * Inserts all the given facts into this entry point. Implementations may propagate
+     * the whole collection through the network in a single pass instead of one fact at a time:
+     * facts of the same type keep their relative order, while facts of different types may be
+     * propagated grouped by type.
+     *
+     * @param objects
+     *        the facts to be inserted
+     *
+     * @return the fact handles created for the given facts, in the same order of the facts
+     */
+    default List<FactHandle> insertAll(Collection<?> objects) {
+        List<FactHandle> handles = new ArrayList<>(objects.size());
+        for (Object object : objects) {
+            handles.add(insert(object));
+        }
+        return handles;
+    }
+
+    /**
+     * Inserts all the facts of the given stream into this entry point, propagating them
+     * in batches as {@link #insertAll(Collection)} does. The created fact handles are not
+     * collected, so this is the preferred way to load a very large number of facts.
+     *
+     * @param objects
+     *        the facts to be inserted
+     */
+    default void insertAll(Stream<?> objects) {
+        objects.forEachOrdered(this::insert);
+    }
+
     /**
      * Retracts the fact for which the given FactHandle was assigned.
      *
@@ -91,6 +125,35 @@ public interface EntryPoint {
      */
     void delete(FactHandle handle, FactHandle.State fhState);
 
+    /**
+     * Deletes all the facts of the given type, including the instances of its subtypes, from this entry point.
+     * Implementations may retract them from the network in a single pass instead of one fact at a time.
+     *
+     * @param type the type of the facts to be deleted
+     *
+     * @return the number of deleted facts
+     */
+    default long truncate(Class<?> type) {
+        return deleteAll(new ArrayList<>(getFactHandles(new ClassObjectFilter(type))));
+    }
+
+    /**
+     * Deletes all the facts of this entry point.
+     * Implementations may retract them from the network in a single pass instead of one fact at a time.
+     *
+     * @return the number of deleted facts
+     */
+    default long clear() {
+        return deleteAll(new ArrayList<>(getFactHandles()));
+    }
+
+    private long deleteAll(Collection<FactHandle> handles) {
+        for (FactHandle handle : handles) {
+            delete(handle);
+        }
+        return handles.size();
+    }
+
     /**
      * Updates the fact for which the given FactHandle was assigned with the new
      * fact set as the second parameter in this method.
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.api.runtime.rule;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The publisher returned by the default implementation of {@link RuleRuntime#getQueryResultsAsync(String, Object...)}.
+ * The query is executed through {@link RuleRuntime#getQueryResults(String, Object...)} on the executor
+ * when the subscriber requests its first rows, and the collected rows are then delivered according to its demand.
+ */
+final class QueryResultsRowPublisher implements Flow.Publisher<QueryResultsRow> {
+
+    private final RuleRuntime ruleRuntime;
+    private final Executor executor;
+    private final String query;
+    private final Object[] arguments;
+
+    QueryResultsRowPublisher(RuleRuntime ruleRuntime, Executor executor, String query, Object[] arguments) {
+        this.ruleRuntime = ruleRuntime;
+        this.executor = executor;
+        this.query = query;
+        this.arguments = arguments;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super QueryResultsRow> subscriber) {
+        Objects.requireNonNull(subscriber);
+        subscriber.onSubscribe(new RowsSubscription(subscriber));
+    }
+
+    private class RowsSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super QueryResultsRow> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        // the number of deliveries requested, only the one raising it from 0 runs them
+        private final AtomicInteger pendingDeliveries = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile boolean invalidRequest;
+
+        // only accessed while delivering, that never happens concurrently
+        private Iterator<QueryResultsRow> rows;
+        private boolean terminated;
+
+        private RowsSubscription(Flow.Subscriber<? super QueryResultsRow> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = true;
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            scheduleDelivery();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void scheduleDelivery() {
+            if (pendingDeliveries.getAndIncrement() == 0) {
+                executor.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            int missed = 1;
+            do {
+                if (!terminated && !cancelled) {
+                    deliverRows();
+                }
+                missed = pendingDeliveries.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliverRows() {
+            if (invalidRequest) {
+                terminated = true;
+                subscriber.onError(new IllegalArgumentException("The number of requested rows must be positive"));
+                return;
+            }
+            if (rows == null) {
+                try {
+                    rows = ruleRuntime.getQueryResults(query, arguments).iterator();
+                } catch (RuntimeException e) {
+                    terminated = true;
+                    subscriber.onError(e);
+                    return;
+                }
+            }
+            while (!cancelled && demand.get() > 0 && rows.hasNext()) {
+                demand.decrementAndGet();
+                subscriber.onNext(rows.next());
+            }
+            if (!cancelled && !rows.hasNext()) {
+                terminated = true;
+                subscriber.onComplete();
+            }
+        }
+    }
+}
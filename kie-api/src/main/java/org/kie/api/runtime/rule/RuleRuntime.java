@@ -19,6 +19,8 @@
 package org.kie.api.runtime.rule;
 
 import java.util.Collection;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The {@link RuleRuntime} is a super-interface for all {@link org.kie.api.runtime.KieSession}s.
@@ -77,6 +79,28 @@ public interface RuleRuntime
     QueryResults getQueryResults(String query,
                                  Object... arguments);
 
+    /**
+     * Asynchronously executes the specified query, streaming its rows to the subscribers of the returned
+     * publisher. The query is executed, without blocking the caller, only when a subscriber requests its
+     * first rows; the rows are then delivered as they are produced and no more than the subscriber demanded.
+     * Cancelling the subscription discards all the rows not yet delivered.
+     * The default implementation executes the query through {@link #getQueryResults(String, Object...)}
+     * on the common pool and then delivers the collected rows, so it does not stream them while they are produced.
+     *
+     * @param query
+     *            The name of the query.
+     *
+     * @param arguments
+     *            The arguments used for the query
+     *
+     * @return A publisher of the rows of the specified query.
+     *         Subscribers are notified with an error if the query does not exist.
+     */
+    default Flow.Publisher<QueryResultsRow> getQueryResultsAsync(String query,
+                                                                 Object... arguments) {
+        return new QueryResultsRowPublisher(this, ForkJoinPool.commonPool(), query, arguments);
+    }
+
     LiveQuery openLiveQuery(String query,
                             Object[] arguments,
                             ViewChangedEventListener listener);
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.internal.builder.conf;
+
+import org.kie.api.conf.OptionKey;
+
+/**
+ * An Enum for ParallelPackagesBuildOption option.
+ *
+ * drools.parallelPackagesBuild = &lt;true|false&gt;
+ *
+ * When enabled the DRL resources are parsed in parallel and the dialects of the
+ * different packages are compiled concurrently. The results are always merged
+ * in resource and package order, so the outcome does not depend on scheduling.
+ *
+ * DEFAULT = false
+ */
+public enum ParallelPackagesBuildOption implements SingleValueRuleBuilderOption {
+
+    ENABLED(true),
+    DISABLED(false);
+
+    /**
+     * The property name for the parallel packages build
+     */
+    public static final String PROPERTY_NAME = "drools.parallelPackagesBuild";
+
+    public static OptionKey<ParallelPackagesBuildOption> KEY = new OptionKey<>(TYPE, PROPERTY_NAME);
+
+    private boolean value;
+
+    ParallelPackagesBuildOption(final boolean value ) {
+        this.value = value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getPropertyName() {
+        return PROPERTY_NAME;
+    }
+
+    public boolean isPackagesBuildParallel() {
+        return this.value;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.internal.conf;
+
+import org.kie.api.conf.OptionKey;
+import org.kie.api.conf.SingleValueRuleBaseOption;
+
+/**
+ * A class for the beta index skew threshold configuration.
+ * When the average number of tuples for each key of an equality indexed join, not or exists
+ * memory grows beyond this threshold, the memory is re-keyed adding to its composite index
+ * the equality constraints of the node that were left out of it. A value lower than 1
+ * disables the adaptive indexing.
+ *
+ * The composite key can include at most 3 equality constraints, which is also the default
+ * composite key depth, so this option has no effect unless a lower depth is configured through
+ * the CompositeKeyDepthOption, e.g. a depth of 1 keeping the hashing of all the memories cheap
+ * and leaving the wider keys only to the skewed ones.
+ */
+public class BetaIndexSkewThresholdOption implements SingleValueRuleBaseOption {
+
+    private static final long serialVersionUID = 510l;
+
+    /**
+     * The property name for the beta index skew threshold
+     */
+    public static final String PROPERTY_NAME = "drools.betaIndexSkewThreshold";
+
+    public static OptionKey<BetaIndexSkewThresholdOption> KEY = new OptionKey<>(TYPE, PROPERTY_NAME);
+
+    public static final int DEFAULT_VALUE = -1;
+
+    public static final BetaIndexSkewThresholdOption DISABLED = new BetaIndexSkewThresholdOption( DEFAULT_VALUE );
+
+    /**
+     * beta index skew threshold
+     */
+    private final int threshold;
+
+    /**
+     * Private constructor to enforce the use of the factory method
+     * @param threshold
+     */
+    private BetaIndexSkewThresholdOption( int threshold ) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * This is a factory method for this beta index skew threshold configuration.
+     * The factory method is a best practice for the case where the
+     * actual object construction is changed in the future.
+     *
+     * @param threshold the maximum average number of tuples for each key of an indexed memory
+     *
+     * @return the actual type safe beta index skew threshold configuration.
+     */
+    public static BetaIndexSkewThresholdOption get( int threshold ) {
+        return new BetaIndexSkewThresholdOption( threshold );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getPropertyName() {
+        return PROPERTY_NAME;
+    }
+
+    /**
+     * Returns the maximum average number of tuples for each key of an indexed memory
+     *
+     * @return
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public boolean isEnabled() {
+        return threshold > 0;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + threshold;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj ) { return true; }
+        if ( obj == null ) { return false; }
+        if ( getClass() != obj.getClass() ) { return false; }
+        BetaIndexSkewThresholdOption other = (BetaIndexSkewThresholdOption) obj;
+        return threshold == other.threshold;
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.internal.conf;
+
+import org.kie.api.conf.OptionKey;
+import org.kie.api.conf.SingleValueRuleBaseOption;
+
+/**
+ * A class for the parallel left inserts threshold configuration.
+ * When a batch of left tuples staged for insertion into a join, not or exists node
+ * is at least as large as this threshold, its tuples are matched against the right memory
+ * in parallel chunks. A value lower than 1 disables the parallel matching.
+ */
+public class ParallelLeftInsertThresholdOption implements SingleValueRuleBaseOption {
+
+    private static final long serialVersionUID = 510l;
+
+    /**
+     * The property name for the parallel left inserts threshold
+     */
+    public static final String PROPERTY_NAME = "drools.parallelLeftInsertThreshold";
+
+    public static OptionKey<ParallelLeftInsertThresholdOption> KEY = new OptionKey<>(TYPE, PROPERTY_NAME);
+
+    public static final int DEFAULT_VALUE = -1;
+
+    public static final ParallelLeftInsertThresholdOption DISABLED = new ParallelLeftInsertThresholdOption( DEFAULT_VALUE );
+
+    /**
+     * parallel left inserts threshold
+     */
+    private final int threshold;
+
+    /**
+     * Private constructor to enforce the use of the factory method
+     * @param threshold
+     */
+    private ParallelLeftInsertThresholdOption( int threshold ) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * This is a factory method for this parallel left inserts threshold configuration.
+     * The factory method is a best practice for the case where the
+     * actual object construction is changed in the future.
+     *
+     * @param threshold the minimum size of a left inserts batch to be matched in parallel
+     *
+     * @return the actual type safe parallel left inserts threshold configuration.
+     */
+    public static ParallelLeftInsertThresholdOption get( int threshold ) {
+        return new ParallelLeftInsertThresholdOption( threshold );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getPropertyName() {
+        return PROPERTY_NAME;
+    }
+
+    /**
+     * Returns the minimum size of a left inserts batch to be matched in parallel
+     *
+     * @return
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public boolean isEnabled() {
+        return threshold > 0;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + threshold;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj ) { return true; }
+        if ( obj == null ) { return false; }
+        if ( getClass() != obj.getClass() ) { return false; }
+        ParallelLeftInsertThresholdOption other = (ParallelLeftInsertThresholdOption) obj;
+        return threshold == other.threshold;
+    }
+
+}
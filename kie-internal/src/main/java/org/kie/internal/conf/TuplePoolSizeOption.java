@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.internal.conf;
+
+import org.kie.api.conf.OptionKey;
+import org.kie.api.conf.SingleValueRuleBaseOption;
+
+/**
+ * A class for the tuple pool size configuration.
+ * When greater than 0, each segment of the network keeps a pool of at most this number of
+ * deleted tuples joining two join nodes, and reuses them instead of allocating new tuples.
+ * Only tuples that never had any child are recycled, so that they can't be referenced by
+ * later nodes or by the agenda. A value lower than 1 disables the pooling.
+ */
+public class TuplePoolSizeOption implements SingleValueRuleBaseOption {
+
+    private static final long serialVersionUID = 510l;
+
+    /**
+     * The property name for the tuple pool size
+     */
+    public static final String PROPERTY_NAME = "drools.tuplePoolSize";
+
+    public static OptionKey<TuplePoolSizeOption> KEY = new OptionKey<>(TYPE, PROPERTY_NAME);
+
+    public static final int DEFAULT_VALUE = -1;
+
+    public static final TuplePoolSizeOption DISABLED = new TuplePoolSizeOption( DEFAULT_VALUE );
+
+    /**
+     * tuple pool size
+     */
+    private final int poolSize;
+
+    /**
+     * Private constructor to enforce the use of the factory method
+     * @param poolSize
+     */
+    private TuplePoolSizeOption( int poolSize ) {
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * This is a factory method for this tuple pool size configuration.
+     * The factory method is a best practice for the case where the
+     * actual object construction is changed in the future.
+     *
+     * @param poolSize the max number of recycled tuples kept by each segment
+     *
+     * @return the actual type safe tuple pool size configuration.
+     */
+    public static TuplePoolSizeOption get( int poolSize ) {
+        return new TuplePoolSizeOption( poolSize );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getPropertyName() {
+        return PROPERTY_NAME;
+    }
+
+    /**
+     * Returns the max number of recycled tuples kept by each segment
+     *
+     * @return
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public boolean isEnabled() {
+        return poolSize > 0;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + poolSize;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj ) { return true; }
+        if ( obj == null ) { return false; }
+        if ( getClass() != obj.getClass() ) { return false; }
+        TuplePoolSizeOption other = (TuplePoolSizeOption) obj;
+        return poolSize == other.poolSize;
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.internal.runtime.conf;
+
+import org.kie.api.conf.OptionKey;
+import org.kie.api.runtime.conf.SingleValueRuleRuntimeOption;
+
+/**
+ * An option to define if the entry points of a KieSession should store their fact handles in a compact store,
+ * that keeps only the handles in a single open addressing table instead of an identity map of objects to handles.
+ * This saves about one reference per fact in the store of sessions holding very large numbers of facts,
+ * while the fact handles themselves are unchanged.
+ * This option has effect only for identity based sessions whose KieBase is not mutable, because
+ * the other sessions need a class aware store.
+ *
+ * drools.compactObjectStore = &lt;true|false&gt;
+ *
+ * DEFAULT = false
+ */
+public enum CompactObjectStoreOption implements SingleValueRuleRuntimeOption {
+
+    YES(true),
+    NO(false);
+
+    private static final long serialVersionUID = 510l;
+
+    /**
+     * The property name for the compact object store configuration
+     */
+    public static final String PROPERTY_NAME = "drools.compactObjectStore";
+
+    public static OptionKey<CompactObjectStoreOption> KEY = new OptionKey<>(TYPE, PROPERTY_NAME);
+
+    private final boolean compact;
+
+    CompactObjectStoreOption( final boolean compact ) {
+        this.compact = compact;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getPropertyName() {
+        return PROPERTY_NAME;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+}
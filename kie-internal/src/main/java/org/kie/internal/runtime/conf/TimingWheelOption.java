@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.internal.runtime.conf;
+
+import org.kie.api.conf.OptionKey;
+import org.kie.api.runtime.conf.SingleValueKieSessionOption;
+
+/**
+ * An option to define if the timer service of a KieSession, both the realtime and the pseudo clock one, should
+ * schedule its jobs on a hierarchical timing wheel instead of a priority queue. The timing wheel schedules and
+ * cancels a job in constant time and fires together all the jobs due in the same tick, so it is recommended
+ * for sessions holding a large number of expiring events.
+ *
+ * drools.timingWheel = &lt;true|false&gt;
+ *
+ * DEFAULT = false
+ */
+public enum TimingWheelOption implements SingleValueKieSessionOption {
+
+    YES(true),
+    NO(false);
+
+    private static final long serialVersionUID = 510l;
+
+    /**
+     * The property name for the timing wheel configuration
+     */
+    public static final String PROPERTY_NAME = "drools.timingWheel";
+
+    public static OptionKey<TimingWheelOption> KEY = new OptionKey<>(TYPE, PROPERTY_NAME);
+
+    private final boolean timingWheel;
+
+    TimingWheelOption( final boolean timingWheel ) {
+        this.timingWheel = timingWheel;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getPropertyName() {
+        return PROPERTY_NAME;
+    }
+
+    public boolean isTimingWheel() {
+        return timingWheel;
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.internal.runtime.conf;
+
+import org.kie.api.conf.OptionKey;
+import org.kie.api.runtime.conf.SingleValueKieSessionOption;
+
+/**
+ * An option to define if the threads started by a KieSession, those of its realtime timer service, of the async
+ * send nodes and of a fireUntilHalt restored after a kie base update, should be virtual threads. The engine also
+ * avoids blocking while holding a monitor, so a fireUntilHalt waiting for new facts doesn't pin the carrier thread.
+ * This is recommended when many mostly idle reactive sessions are hosted in the same JVM. Platform threads are
+ * used when the JDK doesn't support virtual threads.
+ *
+ * drools.virtualThreads = &lt;true|false&gt;
+ *
+ * DEFAULT = false
+ */
+public enum VirtualThreadsOption implements SingleValueKieSessionOption {
+
+    YES(true),
+    NO(false);
+
+    private static final long serialVersionUID = 510l;
+
+    /**
+     * The property name for the virtual threads configuration
+     */
+    public static final String PROPERTY_NAME = "drools.virtualThreads";
+
+    public static OptionKey<VirtualThreadsOption> KEY = new OptionKey<>(TYPE, PROPERTY_NAME);
+
+    private final boolean virtualThreads;
+
+    VirtualThreadsOption( final boolean virtualThreads ) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getPropertyName() {
+        return PROPERTY_NAME;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+}